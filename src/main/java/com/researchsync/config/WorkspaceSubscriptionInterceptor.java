@@ -0,0 +1,93 @@
+package com.researchsync.config;
+
+import com.researchsync.model.User;
+import com.researchsync.service.UserService;
+import com.researchsync.service.WorkspaceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Only members of a workspace may subscribe to its /topic/workspace/{id}/tasks channel.
+ *
+ * The simple broker treats a subscription as an Ant-style pattern, so a destination with
+ * wildcards could listen to every workspace at once; those are refused outright, as is any
+ * other /topic destination. Only the server publishes to the broker: a client SEND to a
+ * broker destination would reach every subscriber of that board unchecked.
+ */
+@Component
+public class WorkspaceSubscriptionInterceptor implements ChannelInterceptor {
+
+    private static final String[] BROKER_PREFIXES = {"/topic", "/queue", "/user"};
+
+    private static final Pattern WORKSPACE_TOPIC = Pattern.compile("^/topic/workspace/(\\d{1,18})/tasks$");
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private WorkspaceService workspaceService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        String destination = accessor.getDestination();
+        if (destination == null) {
+            return message;
+        }
+        if (accessor.getCommand() == StompCommand.SEND) {
+            if (isBrokerDestination(destination)) {
+                throw new MessageDeliveryException("Clients may not publish to " + destination);
+            }
+            return message;
+        }
+        if (accessor.getCommand() != StompCommand.SUBSCRIBE) {
+            return message;
+        }
+        if (destination.indexOf('*') >= 0 || destination.indexOf('?') >= 0 || destination.indexOf('{') >= 0) {
+            throw new MessageDeliveryException("Subscriptions may not use wildcards");
+        }
+        if (!destination.startsWith("/topic")) {
+            return message;
+        }
+        Matcher matcher = WORKSPACE_TOPIC.matcher(destination);
+        if (!matcher.matches()) {
+            throw new MessageDeliveryException("Unknown topic: " + destination);
+        }
+
+        Principal principal = accessor.getUser();
+        if (principal == null) {
+            throw new MessageDeliveryException("Sign in to subscribe to workspace updates");
+        }
+        User user = userService.findByEmail(principal.getName());
+        if (!workspaceService.canUserAccessWorkspace(user, Long.valueOf(matcher.group(1)))) {
+            throw new MessageDeliveryException("You don't have access to this workspace");
+        }
+        return message;
+    }
+
+    /**
+     * Destinations the broker delivers from directly; /user ones are rewritten into /queue
+     */
+    private boolean isBrokerDestination(String destination) {
+        for (String prefix : BROKER_PREFIXES) {
+            if (destination.equals(prefix) || destination.startsWith(prefix + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
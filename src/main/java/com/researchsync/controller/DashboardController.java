@@ -1,11 +1,11 @@
 package com.researchsync.controller;
 
+import com.researchsync.dto.UserStats;
 import com.researchsync.model.User;
 import com.researchsync.model.Workspace;
 import com.researchsync.service.UserService;
 import com.researchsync.service.WorkspaceService;
-import com.researchsync.service.TaskService;
-import com.researchsync.service.FileService;
+import com.researchsync.service.UserStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,9 +15,7 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 @Controller
 @RequestMapping("/dashboard")
@@ -30,10 +28,7 @@ public class DashboardController {
     private WorkspaceService workspaceService;
 
     @Autowired
-    private TaskService taskService;
-
-    @Autowired
-    private FileService fileService;
+    private UserStatsService userStatsService;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -44,19 +39,15 @@ public class DashboardController {
             User currentUser = userService.findByEmail(userDetails.getUsername());
             List<Workspace> userWorkspaces = workspaceService.getUserWorkspaces(currentUser);
 
-            // Calculate statistics
-            Long workspaceCount = workspaceService.countUserWorkspaces(currentUser);
-            Long taskCount = taskService.getTasksByUser(currentUser).size() + 0L;
-            Long completedTaskCount = taskService.getCompletedTaskCountByUser(currentUser);
-            Long fileCount = fileService.getUserFiles(currentUser).size() + 0L;
+            UserStats stats = userStatsService.getStats(currentUser);
 
             model.addAttribute("user", currentUser);
             model.addAttribute("workspaces", userWorkspaces);
-            model.addAttribute("workspaceCount", workspaceCount);
-            model.addAttribute("taskCount", taskCount);
-            model.addAttribute("completedTaskCount", completedTaskCount);
-            model.addAttribute("fileCount", fileCount);
-            model.addAttribute("memberCount", 0L); // Placeholder for team members count
+            model.addAttribute("workspaceCount", stats.getWorkspaceCount());
+            model.addAttribute("taskCount", stats.getAssignedTaskCount());
+            model.addAttribute("completedTaskCount", stats.getCompletedTaskCount());
+            model.addAttribute("fileCount", stats.getFileCount());
+            model.addAttribute("memberCount", stats.getMemberCount());
 
             return "dashboard/index";
 
@@ -72,15 +63,8 @@ public class DashboardController {
         try {
             User currentUser = userService.findByEmail(userDetails.getUsername());
 
-            // Calculate user statistics
-            Map<String, Object> userStats = new HashMap<>();
-            userStats.put("workspaceCount", workspaceService.countUserWorkspaces(currentUser));
-            userStats.put("assignedTaskCount", taskService.getTasksByUser(currentUser).size());
-            userStats.put("completedTaskCount", taskService.getCompletedTaskCountByUser(currentUser));
-            userStats.put("fileCount", fileService.getUserFiles(currentUser).size());
-
             model.addAttribute("user", currentUser);
-            model.addAttribute("userStats", userStats);
+            model.addAttribute("userStats", userStatsService.getStats(currentUser));
 
             return "dashboard/profile";
         } catch (Exception e) {
@@ -1,16 +1,34 @@
 package com.researchsync.controller;
 
+import com.researchsync.dto.CursorPage;
+import com.researchsync.dto.FileDto;
+import com.researchsync.dto.FileVersionDto;
+import com.researchsync.dto.UploadSessionDto;
+import com.researchsync.exception.StorageQuotaExceededException;
+import com.researchsync.exception.TooManyTransfersException;
+import com.researchsync.exception.UploadConflictException;
+import com.researchsync.exception.UploadRejectedException;
+import com.researchsync.model.FileVersion;
+import com.researchsync.model.UploadSession;
 import com.researchsync.model.UploadedFile;
 import com.researchsync.model.User;
 import com.researchsync.model.Workspace;
+import com.researchsync.service.BandwidthScheduler;
+import com.researchsync.service.ChunkedUploadService;
+import com.researchsync.service.FileDownloadService;
 import com.researchsync.service.FileService;
+import com.researchsync.service.FileVersionService;
 import com.researchsync.service.UserService;
+import com.researchsync.service.WorkspaceExportService;
 import com.researchsync.service.WorkspaceService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -20,7 +38,12 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/files")
@@ -37,6 +60,21 @@ public class FileController {
     @Autowired
     private WorkspaceService workspaceService;
 
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private FileDownloadService fileDownloadService;
+
+    @Autowired
+    private WorkspaceExportService workspaceExportService;
+
+    @Autowired
+    private FileVersionService fileVersionService;
+
+    @Autowired
+    private BandwidthScheduler bandwidthScheduler;
+
     /**
      * Display file upload form
      */
@@ -125,34 +163,395 @@ public class FileController {
     }
 
     /**
-     * Download file with access control
+     * Start a resumable chunked upload
      */
-    @GetMapping("/download/{fileId}")
-    public ResponseEntity<Resource> downloadFile(@PathVariable Long fileId,
+    @PostMapping("/uploads")
+    public ResponseEntity<?> initChunkedUpload(@RequestParam Long workspaceId,
+                                               @RequestParam String filename,
+                                               @RequestParam long totalSize,
+                                               @RequestParam(required = false) String contentType,
+                                               @RequestParam(required = false) Long chunkSize,
+                                               @RequestParam(required = false) String category,
+                                               @RequestParam(required = false) String description,
+                                               @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User uploader = userService.findByEmail(userDetails.getUsername());
+
+            if (!workspaceService.canUserAccessWorkspace(uploader, workspaceId)) {
+                log.warn("User {} doesn't have access to workspace {}", uploader.getEmail(), workspaceId);
+                return jsonError(HttpStatus.FORBIDDEN, "You don't have access to this workspace.");
+            }
+
+            Workspace workspace = workspaceService.findById(workspaceId);
+            UploadSession session = chunkedUploadService.initUpload(workspace, uploader, filename,
+                    contentType, totalSize, chunkSize, category, description);
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(UploadSessionDto.from(session));
+
+        } catch (StorageQuotaExceededException e) {
+            return jsonError(HttpStatus.INSUFFICIENT_STORAGE, e.getMessage());
+        } catch (UploadRejectedException e) {
+            return rejected(e);
+        } catch (Exception e) {
+            log.error("Error starting chunked upload for workspace {}", workspaceId, e);
+            return jsonError(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * List the current user's unfinished uploads
+     */
+    @GetMapping("/uploads")
+    public ResponseEntity<List<UploadSessionDto>> listChunkedUploads(@AuthenticationPrincipal UserDetails userDetails) {
+        User currentUser = userService.findByEmail(userDetails.getUsername());
+        List<UploadSessionDto> uploads = chunkedUploadService.getActiveUploads(currentUser).stream()
+                .map(UploadSessionDto::from)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(uploads);
+    }
+
+    /**
+     * Upload status; receivedBytes/nextChunkIndex tell a client where to resume
+     */
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> getChunkedUpload(@PathVariable String uploadId,
+                                              @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            return ResponseEntity.ok(UploadSessionDto.from(chunkedUploadService.getUpload(uploadId, currentUser)));
+        } catch (Exception e) {
+            return jsonError(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    /**
+     * Receive one chunk as the raw request body
+     */
+    @PutMapping("/uploads/{uploadId}/chunks/{chunkIndex}")
+    public ResponseEntity<?> uploadChunk(@PathVariable String uploadId,
+                                         @PathVariable long chunkIndex,
+                                         HttpServletRequest request,
+                                         @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            Long workspaceId = chunkedUploadService.getUpload(uploadId, currentUser).getWorkspace().getWorkspaceId();
+            try (BandwidthScheduler.Transfer transfer = bandwidthScheduler.begin(currentUser.getUserId(), workspaceId, "upload")) {
+                UploadSession session = chunkedUploadService.writeChunk(uploadId, chunkIndex,
+                        transfer.wrap(request.getInputStream()), currentUser);
+                return ResponseEntity.ok(UploadSessionDto.from(session));
+            }
+
+        } catch (UploadConflictException e) {
+            log.warn("Out-of-order chunk {} for upload {}: {}", chunkIndex, uploadId, e.getMessage());
+            Map<String, Object> body = new HashMap<>();
+            body.put("error", e.getMessage());
+            body.put("receivedBytes", e.getReceivedBytes());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+        } catch (UploadRejectedException e) {
+            return rejected(e);
+        } catch (TooManyTransfersException e) {
+            return jsonError(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        } catch (Exception e) {
+            log.error("Error receiving chunk {} for upload {}", chunkIndex, uploadId, e);
+            return jsonError(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Finish a chunked upload once every chunk has been received
+     */
+    @PostMapping("/uploads/{uploadId}/commit")
+    public ResponseEntity<?> commitChunkedUpload(@PathVariable String uploadId,
                                                  @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            UploadedFile uploadedFile = chunkedUploadService.commitUpload(uploadId, currentUser);
+            log.info("File uploaded successfully with ID: {}", uploadedFile.getFileId());
+
+            return ResponseEntity.ok(UploadSessionDto.from(chunkedUploadService.getUpload(uploadId, currentUser)));
+
+        } catch (StorageQuotaExceededException e) {
+            return jsonError(HttpStatus.INSUFFICIENT_STORAGE, e.getMessage());
+        } catch (UploadRejectedException e) {
+            return rejected(e);
+        } catch (Exception e) {
+            log.error("Error committing upload {}", uploadId, e);
+            return jsonError(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Abort a chunked upload and drop its staged bytes
+     */
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> abortChunkedUpload(@PathVariable String uploadId,
+                                                @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            chunkedUploadService.abortUpload(uploadId, currentUser);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return jsonError(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> rejected(UploadRejectedException e) {
+        return jsonError(e.getReason() == UploadRejectedException.Reason.TOO_LARGE
+                ? HttpStatus.PAYLOAD_TOO_LARGE : HttpStatus.UNSUPPORTED_MEDIA_TYPE, e.getMessage());
+    }
+
+    private ResponseEntity<Map<String, Object>> jsonError(HttpStatus status, String message) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", message);
+        return ResponseEntity.status(status).body(body);
+    }
+
+    /**
+     * A workspace's files newest first, one page at a time; pass nextCursor back for the next page
+     */
+    @GetMapping("/list")
+    public ResponseEntity<?> listFiles(@RequestParam Long workspaceId,
+                                       @RequestParam(required = false) String category,
+                                       @RequestParam(required = false) Long uploaderId,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(defaultValue = "50") int limit,
+                                       @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+
+            if (!workspaceService.canUserAccessWorkspace(currentUser, workspaceId)) {
+                return jsonError(HttpStatus.FORBIDDEN, "You don't have access to this workspace.");
+            }
+
+            CursorPage<FileDto> page = fileService.listWorkspaceFiles(workspaceId, category, uploaderId, cursor, limit)
+                    .map(FileDto::from);
+            return ResponseEntity.ok(page);
+
+        } catch (Exception e) {
+            log.error("Error listing files in workspace {}", workspaceId, e);
+            return jsonError(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Ranked full-text search over a workspace's files
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchFiles(@RequestParam Long workspaceId,
+                                         @RequestParam("q") String query,
+                                         @RequestParam(defaultValue = "20") int limit,
+                                         @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+
+            if (!workspaceService.canUserAccessWorkspace(currentUser, workspaceId)) {
+                return jsonError(HttpStatus.FORBIDDEN, "You don't have access to this workspace.");
+            }
+
+            List<FileDto> results = fileService.searchWorkspaceFiles(workspaceId, query, Math.min(Math.max(limit, 1), 100))
+                    .stream()
+                    .map(FileDto::from)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(results);
+
+        } catch (Exception e) {
+            log.error("Error searching files in workspace {}", workspaceId, e);
+            return jsonError(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Download file with access control. Supports Range requests and conditional GET.
+     */
+    @GetMapping("/download/{fileId}")
+    public void downloadFile(@PathVariable Long fileId,
+                             @AuthenticationPrincipal UserDetails userDetails,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
         try {
             log.info("Download request for file ID: {}", fileId);
 
             User currentUser = userService.findByEmail(userDetails.getUsername());
             UploadedFile file = fileService.findById(fileId);
 
+            // A deleted file may still share its blob with live ones; it is not served
+            if (!file.isActive()) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+
             // Check workspace access
             if (!workspaceService.canUserAccessWorkspace(currentUser, file.getWorkspace().getWorkspaceId())) {
                 log.warn("User {} attempted to download file {} without access", currentUser.getEmail(), fileId);
-                return ResponseEntity.notFound().build();
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
             }
 
-            Resource resource = fileService.downloadFile(fileId);
+            try (BandwidthScheduler.Transfer transfer = bandwidthScheduler.begin(currentUser.getUserId(),
+                    file.getWorkspace().getWorkspaceId(), "download")) {
+                fileDownloadService.serve(file, transfer.wrap(request), transfer.wrap(response));
+            }
             log.info("File {} downloaded by {}", file.getOriginalFilename(), currentUser.getEmail());
 
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION,
-                            "attachment; filename=\"" + file.getOriginalFilename() + "\"")
-                    .body(resource);
-
+        } catch (TooManyTransfersException e) {
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage());
+            }
         } catch (Exception e) {
             log.error("Error downloading file with ID: {}", fileId, e);
-            return ResponseEntity.notFound().build();
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            }
+        }
+    }
+
+    /**
+     * Upload a new revision of an existing file
+     */
+    @PostMapping("/{fileId}/versions")
+    public ResponseEntity<?> uploadVersion(@PathVariable Long fileId,
+                                           @RequestParam("file") MultipartFile file,
+                                           @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            if (file == null || file.isEmpty()) {
+                return jsonError(HttpStatus.BAD_REQUEST, "Please select a file to upload.");
+            }
+            User uploader = userService.findByEmail(userDetails.getUsername());
+            UploadedFile revised = fileService.uploadNewVersion(fileId, file, uploader);
+            return ResponseEntity.ok(FileDto.from(revised));
+
+        } catch (StorageQuotaExceededException e) {
+            return jsonError(HttpStatus.INSUFFICIENT_STORAGE, e.getMessage());
+        } catch (UploadRejectedException e) {
+            return rejected(e);
+        } catch (Exception e) {
+            log.error("Error uploading new version of file {}", fileId, e);
+            return jsonError(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * A file's revisions, newest first
+     */
+    @GetMapping("/{fileId}/versions")
+    public ResponseEntity<?> listVersions(@PathVariable Long fileId,
+                                          @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            UploadedFile file = fileService.findById(fileId);
+
+            if (!file.isActive() || !workspaceService.canUserAccessWorkspace(currentUser, file.getWorkspace().getWorkspaceId())) {
+                return jsonError(HttpStatus.NOT_FOUND, "File not found");
+            }
+
+            List<FileVersionDto> versions = fileVersionService.getVersions(fileId).stream()
+                    .map(version -> FileVersionDto.from(version, file.getVersionNumber()))
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(versions.isEmpty() ? List.of(FileVersionDto.from(file)) : versions);
+
+        } catch (Exception e) {
+            log.error("Error listing versions of file {}", fileId, e);
+            return jsonError(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Download one revision of a file, rebuilt from its deltas as it streams
+     */
+    @GetMapping("/{fileId}/versions/{versionNumber}/download")
+    public void downloadVersion(@PathVariable Long fileId,
+                                @PathVariable int versionNumber,
+                                @AuthenticationPrincipal UserDetails userDetails,
+                                HttpServletResponse response) throws IOException {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            UploadedFile file = fileService.findById(fileId);
+
+            if (!file.isActive() || !workspaceService.canUserAccessWorkspace(currentUser, file.getWorkspace().getWorkspaceId())) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+
+            FileVersion version = fileVersionService.getVersions(fileId).stream()
+                    .filter(v -> v.getVersionNumber() == versionNumber)
+                    .findFirst()
+                    .orElse(null);
+            String filename = version != null ? version.getOriginalFilename() : file.getOriginalFilename();
+            String contentType = version != null ? version.getContentType() : file.getContentType();
+            if (version == null && versionNumber != file.getVersionNumber()) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+
+            response.setContentType(contentType != null ? contentType : "application/octet-stream");
+            if (version != null) {
+                response.setContentLengthLong(version.getFileSize());
+            }
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(filename, StandardCharsets.UTF_8)
+                    .build().toString());
+
+            try (BandwidthScheduler.Transfer transfer = bandwidthScheduler.begin(currentUser.getUserId(),
+                    file.getWorkspace().getWorkspaceId(), "download")) {
+                fileVersionService.writeVersion(file, versionNumber, transfer.wrap(response.getOutputStream()));
+            }
+            log.info("Version {} of file {} downloaded by {}", versionNumber, fileId, currentUser.getEmail());
+
+        } catch (TooManyTransfersException e) {
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage());
+            }
+        } catch (Exception e) {
+            log.error("Error downloading version {} of file {}", versionNumber, fileId, e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            }
+        }
+    }
+
+    /**
+     * Stream all active files of a workspace, or of one category, as a ZIP archive
+     */
+    @GetMapping("/export")
+    public void exportWorkspace(@RequestParam Long workspaceId,
+                                @RequestParam(required = false) String category,
+                                @AuthenticationPrincipal UserDetails userDetails,
+                                HttpServletResponse response) throws IOException {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+
+            if (!workspaceService.canUserAccessWorkspace(currentUser, workspaceId)) {
+                log.warn("User {} attempted to export workspace {} without access", currentUser.getEmail(), workspaceId);
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+
+            Workspace workspace = workspaceService.findById(workspaceId);
+            String archiveName = workspace.getName() + (category != null ? " - " + category : "") + ".zip";
+            response.setContentType("application/zip");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(archiveName, StandardCharsets.UTF_8)
+                    .build().toString());
+
+            try (BandwidthScheduler.Transfer transfer = bandwidthScheduler.begin(currentUser.getUserId(), workspaceId, "download")) {
+                workspaceExportService.exportZip(workspace, category, transfer.wrap(response.getOutputStream()));
+            }
+            log.info("Workspace {} exported by {}", workspaceId, currentUser.getEmail());
+
+        } catch (TooManyTransfersException e) {
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage());
+            }
+        } catch (Exception e) {
+            log.error("Error exporting workspace {}", workspaceId, e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
         }
     }
 
@@ -0,0 +1,102 @@
+package com.researchsync.controller;
+
+import com.researchsync.model.User;
+import com.researchsync.service.StorageMigrationService;
+import com.researchsync.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Storage maintenance for site administrators: status and control of the layout migration
+ */
+@Controller
+@RequestMapping("/admin/storage")
+public class StorageAdminController {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageAdminController.class);
+
+    @Autowired
+    private StorageMigrationService storageMigrationService;
+
+    @Autowired
+    private UserService userService;
+
+    @GetMapping("/migration")
+    public ResponseEntity<?> getMigration(@AuthenticationPrincipal UserDetails userDetails) {
+        if (!isAdmin(userDetails)) {
+            return jsonError(HttpStatus.FORBIDDEN, "Administrator access required");
+        }
+        return ResponseEntity.ok(migrationStatus());
+    }
+
+    /**
+     * Start a run; a finished migration can be run again to pick up anything it missed
+     */
+    @PostMapping("/migration/start")
+    public ResponseEntity<?> startMigration(@AuthenticationPrincipal UserDetails userDetails) {
+        if (!isAdmin(userDetails)) {
+            return jsonError(HttpStatus.FORBIDDEN, "Administrator access required");
+        }
+        if (!storageMigrationService.startMigration()) {
+            return jsonError(HttpStatus.CONFLICT, "The migration is already running");
+        }
+        log.info("Storage layout migration started by {}", userDetails.getUsername());
+        return ResponseEntity.accepted().body(migrationStatus());
+    }
+
+    @PostMapping("/migration/pause")
+    public ResponseEntity<?> pauseMigration(@AuthenticationPrincipal UserDetails userDetails) {
+        if (!isAdmin(userDetails)) {
+            return jsonError(HttpStatus.FORBIDDEN, "Administrator access required");
+        }
+        if (!storageMigrationService.pauseMigration()) {
+            return jsonError(HttpStatus.CONFLICT, "The migration is not running");
+        }
+        return ResponseEntity.ok(migrationStatus());
+    }
+
+    @PostMapping("/migration/resume")
+    public ResponseEntity<?> resumeMigration(@AuthenticationPrincipal UserDetails userDetails) {
+        if (!isAdmin(userDetails)) {
+            return jsonError(HttpStatus.FORBIDDEN, "Administrator access required");
+        }
+        if (!storageMigrationService.resumeMigration()) {
+            return jsonError(HttpStatus.CONFLICT, "The migration is not paused");
+        }
+        return ResponseEntity.ok(migrationStatus());
+    }
+
+    private Map<String, Object> migrationStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", storageMigrationService.isRunning());
+        status.put("paused", storageMigrationService.isPaused());
+        status.put("scanned", storageMigrationService.getScannedCount());
+        status.put("total", storageMigrationService.getTotalCount());
+        status.put("migrated", storageMigrationService.getMigratedCount());
+        status.put("missing", storageMigrationService.getMissingCount());
+        return status;
+    }
+
+    private boolean isAdmin(UserDetails userDetails) {
+        User user = userService.findByEmail(userDetails.getUsername());
+        return user.isAdmin();
+    }
+
+    private ResponseEntity<Map<String, Object>> jsonError(HttpStatus status, String message) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", message);
+        return ResponseEntity.status(status).body(body);
+    }
+}
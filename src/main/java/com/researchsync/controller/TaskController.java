@@ -1,13 +1,29 @@
 package com.researchsync.controller;
 
+import com.researchsync.dto.BulkTaskRequest;
+import com.researchsync.dto.BulkTaskResult;
+import com.researchsync.dto.CursorPage;
+import com.researchsync.dto.DailyTaskStats;
+import com.researchsync.dto.DependencyNode;
+import com.researchsync.dto.TaskBoardChanges;
+import com.researchsync.dto.TaskBlockers;
+import com.researchsync.exception.BulkTaskRejectedException;
 import com.researchsync.model.Task;
+import com.researchsync.model.TaskActivity;
 import com.researchsync.model.User;
 import com.researchsync.model.Workspace;
 import com.researchsync.model.WorkspaceMember;
+import com.researchsync.service.TaskActivityService;
+import com.researchsync.service.TaskAnalyticsService;
+import com.researchsync.service.TaskBoardService;
+import com.researchsync.service.TaskBulkService;
+import com.researchsync.service.TaskDependencyService;
 import com.researchsync.service.TaskService;
 import com.researchsync.service.UserService;
 import com.researchsync.service.WorkspaceService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
@@ -15,13 +31,21 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/tasks")
 public class TaskController {
 
+    private static final int TASK_PAGE_SIZE = 25;
+    private static final int ACTIVITY_PAGE_SIZE = 50;
+    private static final int DEFAULT_CHART_DAYS = 30;
+
     @Autowired
     private TaskService taskService;
 
@@ -31,16 +55,38 @@ public class TaskController {
     @Autowired
     private WorkspaceService workspaceService;
 
+    @Autowired
+    private TaskBulkService taskBulkService;
+
+    @Autowired
+    private TaskDependencyService taskDependencyService;
+
+    @Autowired
+    private TaskBoardService taskBoardService;
+
+    @Autowired
+    private TaskActivityService taskActivityService;
+
+    @Autowired
+    private TaskAnalyticsService taskAnalyticsService;
+
     // LIST ALL TASKS FOR USER
     @GetMapping
-    public String listTasks(@AuthenticationPrincipal UserDetails userDetails, Model model) {
+    public String listTasks(@RequestParam(required = false) String assignedCursor,
+                            @RequestParam(required = false) String createdCursor,
+                            @AuthenticationPrincipal UserDetails userDetails, Model model) {
         try {
             User currentUser = userService.findByEmail(userDetails.getUsername());
-            List<Task> assignedTasks = taskService.getTasksByUser(currentUser);
-            List<Task> createdTasks = taskService.getTasksByCreator(currentUser);
-
-            model.addAttribute("assignedTasks", assignedTasks);
-            model.addAttribute("createdTasks", createdTasks);
+            // Each column pages on its own cursor
+            CursorPage<Task> assignedTasks = taskService.getTasksByUser(currentUser, assignedCursor, TASK_PAGE_SIZE);
+            CursorPage<Task> createdTasks = taskService.getTasksByCreator(currentUser, createdCursor, TASK_PAGE_SIZE);
+
+            model.addAttribute("assignedTasks", assignedTasks.getItems());
+            model.addAttribute("assignedNextCursor", assignedTasks.getNextCursor());
+            model.addAttribute("assignedCursor", assignedCursor);
+            model.addAttribute("createdTasks", createdTasks.getItems());
+            model.addAttribute("createdNextCursor", createdTasks.getNextCursor());
+            model.addAttribute("createdCursor", createdCursor);
             model.addAttribute("user", currentUser);
 
             return "tasks/list";
@@ -204,6 +250,213 @@ public class TaskController {
         }
     }
 
+    // BULK CREATE / ASSIGN / RE-PRIORITISE / CHANGE STATUS - all or nothing
+    @PostMapping("/api/bulk")
+    @ResponseBody
+    public ResponseEntity<?> bulkUpdate(@RequestBody BulkTaskRequest request,
+                                        @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            BulkTaskResult result = taskBulkService.apply(request, currentUser);
+            return ResponseEntity.ok(result);
+        } catch (BulkTaskRejectedException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("error", e.getMessage());
+            body.put("errors", e.getErrors());
+            return ResponseEntity.badRequest().body(body);
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    // BLOCKED BY blockerId
+    @PostMapping("/{id}/dependencies")
+    @ResponseBody
+    public ResponseEntity<?> addDependency(@PathVariable Long id,
+                                           @RequestParam Long blockerId,
+                                           @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            taskDependencyService.addDependency(id, blockerId, currentUser);
+            return ResponseEntity.ok(taskDependencyService.getBlockers(id, currentUser));
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    @DeleteMapping("/{id}/dependencies/{blockerId}")
+    @ResponseBody
+    public ResponseEntity<?> removeDependency(@PathVariable Long id,
+                                              @PathVariable Long blockerId,
+                                              @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            taskDependencyService.removeDependency(id, blockerId, currentUser);
+            return ResponseEntity.ok(taskDependencyService.getBlockers(id, currentUser));
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    // WHAT IS BLOCKING THIS TASK
+    @GetMapping("/{id}/blockers")
+    @ResponseBody
+    public ResponseEntity<?> getBlockers(@PathVariable Long id,
+                                         @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            TaskBlockers blockers = taskDependencyService.getBlockers(id, currentUser);
+            return ResponseEntity.ok(blockers);
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    @GetMapping("/api/workspace/{workspaceId}/critical-path")
+    @ResponseBody
+    public ResponseEntity<?> getCriticalPath(@PathVariable Long workspaceId,
+                                             @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            List<DependencyNode> path = taskDependencyService.getCriticalPath(workspaceId, currentUser);
+            return ResponseEntity.ok(path);
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    // BOARD DELTAS A RECONNECTING CLIENT MISSED
+    @GetMapping("/api/workspace/{workspaceId}/board/changes")
+    @ResponseBody
+    public ResponseEntity<?> getBoardChanges(@PathVariable Long workspaceId,
+                                             @RequestParam long epoch,
+                                             @RequestParam long since,
+                                             @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            if (!workspaceService.canUserAccessWorkspace(currentUser, workspaceId)) {
+                throw new RuntimeException("You don't have access to this workspace");
+            }
+            TaskBoardChanges changes = taskBoardService.getChangesSince(workspaceId, epoch, since);
+            return ResponseEntity.ok(changes);
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    // TASK HISTORY, NEWEST FIRST
+    @GetMapping("/{id}/activity")
+    @ResponseBody
+    public ResponseEntity<?> getTaskActivity(@PathVariable Long id,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "" + ACTIVITY_PAGE_SIZE) int limit,
+                                             @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            CursorPage<TaskActivity> page = taskActivityService.getTaskHistory(id, currentUser, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    // THE TASK AS IT WAS AT A POINT IN TIME
+    @GetMapping("/{id}/state")
+    @ResponseBody
+    public ResponseEntity<?> getTaskState(@PathVariable Long id,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+                                          @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            TaskActivity state = taskActivityService.getStateAt(id, at, currentUser);
+            return ResponseEntity.ok(state);
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    @GetMapping("/api/workspace/{workspaceId}/activity")
+    @ResponseBody
+    public ResponseEntity<?> getWorkspaceActivity(@PathVariable Long workspaceId,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "" + ACTIVITY_PAGE_SIZE) int limit,
+                                                  @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            CursorPage<TaskActivity> page = taskActivityService.getWorkspaceHistory(workspaceId, currentUser, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    // BURNDOWN: PER-DAY COUNTS AND OPEN TASKS, DEFAULT LAST 30 DAYS
+    @GetMapping("/api/workspace/{workspaceId}/analytics/daily")
+    @ResponseBody
+    public ResponseEntity<?> getWorkspaceDailyStats(@PathVariable Long workspaceId,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                    @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(DEFAULT_CHART_DAYS - 1);
+            List<DailyTaskStats> days = taskAnalyticsService.getWorkspaceDaily(workspaceId, start, end, currentUser);
+            return ResponseEntity.ok(days);
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    // VELOCITY AND CYCLE TIME PER WEEK
+    @GetMapping("/api/workspace/{workspaceId}/analytics/velocity")
+    @ResponseBody
+    public ResponseEntity<?> getWorkspaceVelocity(@PathVariable Long workspaceId,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                  @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(DEFAULT_CHART_DAYS - 1);
+            List<DailyTaskStats> days = taskAnalyticsService.getWorkspaceDaily(workspaceId, start, end, currentUser);
+            return ResponseEntity.ok(taskAnalyticsService.toWeekly(days));
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    // THE SAME FOR THE CURRENT USER'S ASSIGNED TASKS
+    @GetMapping("/api/analytics/daily")
+    @ResponseBody
+    public ResponseEntity<?> getMyDailyStats(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                             @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(DEFAULT_CHART_DAYS - 1);
+            return ResponseEntity.ok(taskAnalyticsService.getUserDaily(currentUser, start, end));
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    @GetMapping("/api/analytics/velocity")
+    @ResponseBody
+    public ResponseEntity<?> getMyVelocity(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                           @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            User currentUser = userService.findByEmail(userDetails.getUsername());
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(DEFAULT_CHART_DAYS - 1);
+            return ResponseEntity.ok(taskAnalyticsService.toWeekly(taskAnalyticsService.getUserDaily(currentUser, start, end)));
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
     // GET WORKSPACE MEMBERS API (for dynamic loading)
     @GetMapping("/api/workspace/{workspaceId}/members")
     @ResponseBody
@@ -221,4 +474,10 @@ public class TaskController {
             return List.of();
         }
     }
+
+    private ResponseEntity<Map<String, Object>> errorResponse(Exception e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", e.getMessage());
+        return ResponseEntity.badRequest().body(body);
+    }
 }
@@ -3,6 +3,10 @@ package com.researchsync.controller;
 import com.researchsync.model.User;
 import com.researchsync.model.Workspace;
 import com.researchsync.model.WorkspaceMember;
+import com.researchsync.service.FileService;
+import com.researchsync.service.OverdueTaskService;
+import com.researchsync.service.TaskBoardService;
+import com.researchsync.service.TaskService;
 import com.researchsync.service.UserService;
 import com.researchsync.service.WorkspaceService;
 import com.researchsync.exception.WorkspaceNotFoundException;
@@ -27,6 +31,18 @@ public class WorkspaceController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private OverdueTaskService overdueTaskService;
+
+    @Autowired
+    private TaskBoardService taskBoardService;
+
+    @Autowired
+    private TaskService taskService;
+
     // CREATE WORKSPACE - GET
     @GetMapping("/create")
     public String createWorkspaceForm(Model model) {
@@ -77,14 +93,22 @@ public class WorkspaceController {
                 return "redirect:/dashboard";
             }
 
+            // Before the tasks are read: the page then replays anything committed after this point
+            long boardSeq = taskBoardService.currentSequence(id);
             Workspace workspace = workspaceService.findById(id);
             List<WorkspaceMember> members = workspaceService.getWorkspaceMembers(id);
             boolean isAdmin = workspaceService.isUserAdminOfWorkspace(currentUser, id);
+            overdueTaskService.touch(id);
 
             model.addAttribute("workspace", workspace);
             model.addAttribute("members", members);
+            // Only the newest few; the full list is paged through /files/list
+            model.addAttribute("recentFiles", fileService.listWorkspaceFiles(id, null, null, null, 6).getItems());
+            model.addAttribute("recentTasks", taskService.getTasksByWorkspace(id, null, null, 5).getItems());
             model.addAttribute("isAdmin", isAdmin);
             model.addAttribute("currentUser", currentUser);
+            model.addAttribute("boardEpoch", taskBoardService.getEpoch());
+            model.addAttribute("boardSeq", boardSeq);
 
             return "workspace/view";
 
@@ -0,0 +1,71 @@
+package com.researchsync.dto;
+
+import com.researchsync.model.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tasks to create and changes to existing tasks, applied together or not at all
+ */
+public class BulkTaskRequest {
+
+    private List<NewTask> create = new ArrayList<>();
+    private List<TaskChange> update = new ArrayList<>();
+
+    public List<NewTask> getCreate() { return create; }
+    public void setCreate(List<NewTask> create) { this.create = create; }
+
+    public List<TaskChange> getUpdate() { return update; }
+    public void setUpdate(List<TaskChange> update) { this.update = update; }
+
+    public static class NewTask {
+        private Long workspaceId;
+        private String title;
+        private String description;
+        private Task.TaskPriority priority;
+        private LocalDateTime dueDate;
+        private Long assigneeId;
+
+        public Long getWorkspaceId() { return workspaceId; }
+        public void setWorkspaceId(Long workspaceId) { this.workspaceId = workspaceId; }
+
+        public String getTitle() { return title; }
+        public void setTitle(String title) { this.title = title; }
+
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+
+        public Task.TaskPriority getPriority() { return priority; }
+        public void setPriority(Task.TaskPriority priority) { this.priority = priority; }
+
+        public LocalDateTime getDueDate() { return dueDate; }
+        public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
+
+        public Long getAssigneeId() { return assigneeId; }
+        public void setAssigneeId(Long assigneeId) { this.assigneeId = assigneeId; }
+    }
+
+    /**
+     * Fields left null are not changed
+     */
+    public static class TaskChange {
+        private Long taskId;
+        private Task.TaskStatus status;
+        private Task.TaskPriority priority;
+        private Long assigneeId;
+
+        public Long getTaskId() { return taskId; }
+        public void setTaskId(Long taskId) { this.taskId = taskId; }
+
+        public Task.TaskStatus getStatus() { return status; }
+        public void setStatus(Task.TaskStatus status) { this.status = status; }
+
+        public Task.TaskPriority getPriority() { return priority; }
+        public void setPriority(Task.TaskPriority priority) { this.priority = priority; }
+
+        public Long getAssigneeId() { return assigneeId; }
+        public void setAssigneeId(Long assigneeId) { this.assigneeId = assigneeId; }
+    }
+}
@@ -0,0 +1,20 @@
+package com.researchsync.dto;
+
+import java.util.List;
+
+public class BulkTaskResult {
+
+    private List<Long> createdTaskIds;
+    private int updatedCount;
+
+    public BulkTaskResult(List<Long> createdTaskIds, int updatedCount) {
+        this.createdTaskIds = createdTaskIds;
+        this.updatedCount = updatedCount;
+    }
+
+    public List<Long> getCreatedTaskIds() { return createdTaskIds; }
+    public void setCreatedTaskIds(List<Long> createdTaskIds) { this.createdTaskIds = createdTaskIds; }
+
+    public int getUpdatedCount() { return updatedCount; }
+    public void setUpdatedCount(int updatedCount) { this.updatedCount = updatedCount; }
+}
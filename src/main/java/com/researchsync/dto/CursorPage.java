@@ -0,0 +1,81 @@
+package com.researchsync.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a keyset-paginated listing. nextCursor is opaque to clients; pass it back to get
+ * the following page. It is null on the last page.
+ *
+ * Listings here run newest first on (timestamp, id); a cursor encodes the last row's pair.
+ */
+public class CursorPage<T> {
+
+    // Start of a listing: later than any real timestamp, so the first page needs no special query
+    private static final LocalDateTime LISTING_START = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private List<T> items;
+    private String nextCursor;
+
+    public CursorPage() {
+    }
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).collect(Collectors.toList()), nextCursor);
+    }
+
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return nextCursor != null; }
+
+    public static String encodeCursor(LocalDateTime timestamp, Long id) {
+        String position = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Where the page after a cursor starts; the start of the listing for a null or blank cursor
+     */
+    public static Position decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new Position(LISTING_START, Long.MAX_VALUE);
+        }
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new Position(LocalDateTime.parse(position[0]), Long.parseLong(position[1]));
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    /**
+     * A page holds the rows strictly before (timestamp, id)
+     */
+    public static final class Position {
+        private final LocalDateTime timestamp;
+        private final Long id;
+
+        Position(LocalDateTime timestamp, Long id) {
+            this.timestamp = timestamp;
+            this.id = id;
+        }
+
+        public LocalDateTime getTimestamp() { return timestamp; }
+
+        public Long getId() { return id; }
+    }
+}
@@ -0,0 +1,79 @@
+package com.researchsync.dto;
+
+import com.researchsync.model.Task;
+import com.researchsync.model.TaskDailyRollup;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One day of a burndown: what happened that day and how many tasks were left open at its end
+ */
+public class DailyTaskStats {
+
+    private final LocalDate date;
+    private long created;
+    private long completed;
+    private long closed;
+    private long reopened;
+    private long movedIn;
+    private long movedOut;
+    private long overdue;
+    private long open;
+    private long cycleMinutes;
+    private final Map<Task.TaskPriority, Long> createdByPriority = new EnumMap<>(Task.TaskPriority.class);
+    private final Map<Task.TaskPriority, Long> completedByPriority = new EnumMap<>(Task.TaskPriority.class);
+
+    public DailyTaskStats(LocalDate date) {
+        this.date = date;
+    }
+
+    public void add(TaskDailyRollup rollup) {
+        created += rollup.getCreated();
+        completed += rollup.getCompleted();
+        closed += rollup.getClosed();
+        reopened += rollup.getReopened();
+        movedIn += rollup.getMovedIn();
+        movedOut += rollup.getMovedOut();
+        overdue += rollup.getOverdue();
+        cycleMinutes += rollup.getCycleMinutes();
+        createdByPriority.merge(rollup.getPriority(), rollup.getCreated(), Long::sum);
+        completedByPriority.merge(rollup.getPriority(), rollup.getCompleted(), Long::sum);
+    }
+
+    // Change in the open count over the day
+    public long getOpenChange() {
+        return created - closed + reopened + movedIn - movedOut;
+    }
+
+    public LocalDate getDate() { return date; }
+
+    public long getCreated() { return created; }
+
+    public long getCompleted() { return completed; }
+
+    public long getClosed() { return closed; }
+
+    public long getReopened() { return reopened; }
+
+    public long getMovedIn() { return movedIn; }
+
+    public long getMovedOut() { return movedOut; }
+
+    public long getOverdue() { return overdue; }
+
+    public long getOpen() { return open; }
+    public void setOpen(long open) { this.open = open; }
+
+    public long getCycleMinutes() { return cycleMinutes; }
+
+    // Mean creation-to-completion time of the tasks completed that day; null if none were
+    public Double getAverageCycleHours() {
+        return completed > 0 ? cycleMinutes / 60.0 / completed : null;
+    }
+
+    public Map<Task.TaskPriority, Long> getCreatedByPriority() { return createdByPriority; }
+
+    public Map<Task.TaskPriority, Long> getCompletedByPriority() { return completedByPriority; }
+}
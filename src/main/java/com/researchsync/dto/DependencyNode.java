@@ -0,0 +1,46 @@
+package com.researchsync.dto;
+
+import com.researchsync.model.Task;
+
+import java.time.LocalDateTime;
+
+/**
+ * A task as seen from the dependency graph: its deadline, and the earliest it can realistically
+ * finish given the open tasks blocking it
+ */
+public class DependencyNode {
+
+    private final Long taskId;
+    private final String title;
+    private final Task.TaskStatus status;
+    private final LocalDateTime dueDate;
+    private final LocalDateTime projectedFinish;
+    private final int chainLength;
+    private final boolean atRisk;
+
+    public DependencyNode(Long taskId, String title, Task.TaskStatus status, LocalDateTime dueDate,
+                          LocalDateTime projectedFinish, int chainLength, boolean atRisk) {
+        this.taskId = taskId;
+        this.title = title;
+        this.status = status;
+        this.dueDate = dueDate;
+        this.projectedFinish = projectedFinish;
+        this.chainLength = chainLength;
+        this.atRisk = atRisk;
+    }
+
+    public Long getTaskId() { return taskId; }
+
+    public String getTitle() { return title; }
+
+    public Task.TaskStatus getStatus() { return status; }
+
+    public LocalDateTime getDueDate() { return dueDate; }
+
+    public LocalDateTime getProjectedFinish() { return projectedFinish; }
+
+    // Open tasks on the longest open chain ending at this one, itself included
+    public int getChainLength() { return chainLength; }
+
+    public boolean isAtRisk() { return atRisk; }
+}
@@ -0,0 +1,64 @@
+package com.researchsync.dto;
+
+import com.researchsync.model.UploadedFile;
+
+import java.time.LocalDateTime;
+
+public class FileDto {
+
+    private Long fileId;
+    private String originalFilename;
+    private String category;
+    private String description;
+    private String contentType;
+    private String detectedContentType;
+    private Long fileSize;
+    private String formattedFileSize;
+    private LocalDateTime uploadedDate;
+    private int versionNumber;
+
+    public static FileDto from(UploadedFile file) {
+        FileDto dto = new FileDto();
+        dto.setFileId(file.getFileId());
+        dto.setOriginalFilename(file.getOriginalFilename());
+        dto.setCategory(file.getCategory());
+        dto.setDescription(file.getDescription());
+        dto.setContentType(file.getContentType());
+        dto.setDetectedContentType(file.getDetectedContentType());
+        dto.setFileSize(file.getFileSize());
+        dto.setFormattedFileSize(file.getFormattedFileSize());
+        dto.setUploadedDate(file.getUploadedDate());
+        dto.setVersionNumber(file.getVersionNumber());
+        return dto;
+    }
+
+    public Long getFileId() { return fileId; }
+    public void setFileId(Long fileId) { this.fileId = fileId; }
+
+    public String getOriginalFilename() { return originalFilename; }
+    public void setOriginalFilename(String originalFilename) { this.originalFilename = originalFilename; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public String getDetectedContentType() { return detectedContentType; }
+    public void setDetectedContentType(String detectedContentType) { this.detectedContentType = detectedContentType; }
+
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+
+    public String getFormattedFileSize() { return formattedFileSize; }
+    public void setFormattedFileSize(String formattedFileSize) { this.formattedFileSize = formattedFileSize; }
+
+    public LocalDateTime getUploadedDate() { return uploadedDate; }
+    public void setUploadedDate(LocalDateTime uploadedDate) { this.uploadedDate = uploadedDate; }
+
+    public int getVersionNumber() { return versionNumber; }
+    public void setVersionNumber(int versionNumber) { this.versionNumber = versionNumber; }
+}
@@ -0,0 +1,71 @@
+package com.researchsync.dto;
+
+import com.researchsync.model.FileVersion;
+import com.researchsync.model.UploadedFile;
+
+import java.time.LocalDateTime;
+
+public class FileVersionDto {
+
+    private int versionNumber;
+    private String originalFilename;
+    private String contentType;
+    private Long fileSize;
+    private String storage;
+    private String uploadedBy;
+    private LocalDateTime uploadedDate;
+    private boolean current;
+
+    public static FileVersionDto from(FileVersion version, int currentVersion) {
+        FileVersionDto dto = new FileVersionDto();
+        dto.setVersionNumber(version.getVersionNumber());
+        dto.setOriginalFilename(version.getOriginalFilename());
+        dto.setContentType(version.getContentType());
+        dto.setFileSize(version.getFileSize());
+        dto.setStorage(version.getStorage().name());
+        dto.setUploadedBy(version.getUploadedBy().getName());
+        dto.setUploadedDate(version.getUploadedDate());
+        dto.setCurrent(version.getVersionNumber() == currentVersion);
+        return dto;
+    }
+
+    /**
+     * The only version of a file that was never revised
+     */
+    public static FileVersionDto from(UploadedFile file) {
+        FileVersionDto dto = new FileVersionDto();
+        dto.setVersionNumber(file.getVersionNumber());
+        dto.setOriginalFilename(file.getOriginalFilename());
+        dto.setContentType(file.getContentType());
+        dto.setFileSize(file.getFileSize());
+        dto.setStorage(FileVersion.Storage.FULL.name());
+        dto.setUploadedBy(file.getUploadedBy().getName());
+        dto.setUploadedDate(file.getUploadedDate());
+        dto.setCurrent(true);
+        return dto;
+    }
+
+    public int getVersionNumber() { return versionNumber; }
+    public void setVersionNumber(int versionNumber) { this.versionNumber = versionNumber; }
+
+    public String getOriginalFilename() { return originalFilename; }
+    public void setOriginalFilename(String originalFilename) { this.originalFilename = originalFilename; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+
+    public String getStorage() { return storage; }
+    public void setStorage(String storage) { this.storage = storage; }
+
+    public String getUploadedBy() { return uploadedBy; }
+    public void setUploadedBy(String uploadedBy) { this.uploadedBy = uploadedBy; }
+
+    public LocalDateTime getUploadedDate() { return uploadedDate; }
+    public void setUploadedDate(LocalDateTime uploadedDate) { this.uploadedDate = uploadedDate; }
+
+    public boolean isCurrent() { return current; }
+    public void setCurrent(boolean current) { this.current = current; }
+}
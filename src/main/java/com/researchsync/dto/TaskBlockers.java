@@ -0,0 +1,28 @@
+package com.researchsync.dto;
+
+import java.util.List;
+
+/**
+ * What stands between a task and completion: every open task blocking it, directly or not,
+ * and the longest chain among them
+ */
+public class TaskBlockers {
+
+    private final DependencyNode task;
+    private final List<DependencyNode> blockers;
+    private final List<DependencyNode> criticalPath;
+
+    public TaskBlockers(DependencyNode task, List<DependencyNode> blockers, List<DependencyNode> criticalPath) {
+        this.task = task;
+        this.blockers = blockers;
+        this.criticalPath = criticalPath;
+    }
+
+    public DependencyNode getTask() { return task; }
+
+    // In an order they can be worked through
+    public List<DependencyNode> getBlockers() { return blockers; }
+
+    // First task first, ending with this one
+    public List<DependencyNode> getCriticalPath() { return criticalPath; }
+}
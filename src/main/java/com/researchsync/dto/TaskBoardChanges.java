@@ -0,0 +1,31 @@
+package com.researchsync.dto;
+
+import java.util.List;
+
+/**
+ * Deltas a reconnecting board client missed. When they are no longer all held (or the server
+ * restarted since the client's epoch), resync is set and the client reloads the board instead.
+ */
+public class TaskBoardChanges {
+
+    private final long epoch;
+    private final long seq;
+    private final boolean resync;
+    private final List<TaskBoardDelta> deltas;
+
+    public TaskBoardChanges(long epoch, long seq, boolean resync, List<TaskBoardDelta> deltas) {
+        this.epoch = epoch;
+        this.seq = seq;
+        this.resync = resync;
+        this.deltas = deltas;
+    }
+
+    public long getEpoch() { return epoch; }
+
+    // The workspace's latest sequence number
+    public long getSeq() { return seq; }
+
+    public boolean isResync() { return resync; }
+
+    public List<TaskBoardDelta> getDeltas() { return deltas; }
+}
@@ -0,0 +1,62 @@
+package com.researchsync.dto;
+
+import com.researchsync.model.Task;
+
+import java.time.LocalDateTime;
+
+/**
+ * One change to a workspace's task board, as pushed to /topic/workspace/{id}/tasks. Carries the
+ * card's current board fields rather than a diff, so applying a delta twice is harmless; on
+ * DELETED only the id is set. seq increases by one per delta within a workspace.
+ */
+public class TaskBoardDelta {
+
+    private final long seq;
+    private final Type type;
+    private final Long taskId;
+    private final String title;
+    private final Task.TaskStatus status;
+    private final Task.TaskPriority priority;
+    private final Long assigneeId;
+    private final String assigneeName;
+    private final LocalDateTime dueDate;
+
+    public TaskBoardDelta(long seq, Type type, Long taskId, String title, Task.TaskStatus status,
+                          Task.TaskPriority priority, Long assigneeId, String assigneeName, LocalDateTime dueDate) {
+        this.seq = seq;
+        this.type = type;
+        this.taskId = taskId;
+        this.title = title;
+        this.status = status;
+        this.priority = priority;
+        this.assigneeId = assigneeId;
+        this.assigneeName = assigneeName;
+        this.dueDate = dueDate;
+    }
+
+    public static TaskBoardDelta deleted(long seq, Long taskId) {
+        return new TaskBoardDelta(seq, Type.DELETED, taskId, null, null, null, null, null, null);
+    }
+
+    public long getSeq() { return seq; }
+
+    public Type getType() { return type; }
+
+    public Long getTaskId() { return taskId; }
+
+    public String getTitle() { return title; }
+
+    public Task.TaskStatus getStatus() { return status; }
+
+    public Task.TaskPriority getPriority() { return priority; }
+
+    public Long getAssigneeId() { return assigneeId; }
+
+    public String getAssigneeName() { return assigneeName; }
+
+    public LocalDateTime getDueDate() { return dueDate; }
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
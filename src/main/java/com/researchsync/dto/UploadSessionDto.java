@@ -0,0 +1,57 @@
+package com.researchsync.dto;
+
+import com.researchsync.model.UploadSession;
+
+public class UploadSessionDto {
+
+    private String uploadId;
+    private String status;
+    private String filename;
+    private long totalSize;
+    private long chunkSize;
+    private long chunkCount;
+    private long receivedBytes;
+    private long nextChunkIndex;
+    private Long fileId;
+
+    public static UploadSessionDto from(UploadSession session) {
+        UploadSessionDto dto = new UploadSessionDto();
+        dto.setUploadId(session.getUploadId());
+        dto.setStatus(session.getStatus().name());
+        dto.setFilename(session.getOriginalFilename());
+        dto.setTotalSize(session.getTotalSize());
+        dto.setChunkSize(session.getChunkSize());
+        dto.setChunkCount(session.getChunkCount());
+        dto.setReceivedBytes(session.getReceivedBytes());
+        dto.setNextChunkIndex(session.getNextChunkIndex());
+        dto.setFileId(session.getFileId());
+        return dto;
+    }
+
+    public String getUploadId() { return uploadId; }
+    public void setUploadId(String uploadId) { this.uploadId = uploadId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getFilename() { return filename; }
+    public void setFilename(String filename) { this.filename = filename; }
+
+    public long getTotalSize() { return totalSize; }
+    public void setTotalSize(long totalSize) { this.totalSize = totalSize; }
+
+    public long getChunkSize() { return chunkSize; }
+    public void setChunkSize(long chunkSize) { this.chunkSize = chunkSize; }
+
+    public long getChunkCount() { return chunkCount; }
+    public void setChunkCount(long chunkCount) { this.chunkCount = chunkCount; }
+
+    public long getReceivedBytes() { return receivedBytes; }
+    public void setReceivedBytes(long receivedBytes) { this.receivedBytes = receivedBytes; }
+
+    public long getNextChunkIndex() { return nextChunkIndex; }
+    public void setNextChunkIndex(long nextChunkIndex) { this.nextChunkIndex = nextChunkIndex; }
+
+    public Long getFileId() { return fileId; }
+    public void setFileId(Long fileId) { this.fileId = fileId; }
+}
@@ -0,0 +1,32 @@
+package com.researchsync.dto;
+
+/**
+ * Counters shown on a user's dashboard and profile
+ */
+public class UserStats {
+
+    private final long assignedTaskCount;
+    private final long completedTaskCount;
+    private final long fileCount;
+    private final long workspaceCount;
+    private final long memberCount;
+
+    public UserStats(long assignedTaskCount, long completedTaskCount, long fileCount,
+                     long workspaceCount, long memberCount) {
+        this.assignedTaskCount = assignedTaskCount;
+        this.completedTaskCount = completedTaskCount;
+        this.fileCount = fileCount;
+        this.workspaceCount = workspaceCount;
+        this.memberCount = memberCount;
+    }
+
+    public long getAssignedTaskCount() { return assignedTaskCount; }
+
+    public long getCompletedTaskCount() { return completedTaskCount; }
+
+    public long getFileCount() { return fileCount; }
+
+    public long getWorkspaceCount() { return workspaceCount; }
+
+    public long getMemberCount() { return memberCount; }
+}
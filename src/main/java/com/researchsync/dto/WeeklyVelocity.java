@@ -0,0 +1,36 @@
+package com.researchsync.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Tasks completed in one week (Monday to Sunday), net of reopened ones, with their mean cycle time
+ */
+public class WeeklyVelocity {
+
+    private final LocalDate weekStart;
+    private long completed;
+    private long reopened;
+    private long cycleMinutes;
+
+    public WeeklyVelocity(LocalDate weekStart) {
+        this.weekStart = weekStart;
+    }
+
+    public void add(DailyTaskStats day) {
+        completed += day.getCompleted();
+        reopened += day.getReopened();
+        cycleMinutes += day.getCycleMinutes();
+    }
+
+    public LocalDate getWeekStart() { return weekStart; }
+
+    public long getCompleted() { return completed; }
+
+    public long getReopened() { return reopened; }
+
+    public long getNetCompleted() { return completed - reopened; }
+
+    public Double getAverageCycleHours() {
+        return completed > 0 ? cycleMinutes / 60.0 / completed : null;
+    }
+}
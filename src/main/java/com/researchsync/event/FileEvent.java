@@ -0,0 +1,37 @@
+package com.researchsync.event;
+
+/**
+ * Published when a file is stored, revised or deleted. Listeners that act on it outside the
+ * request should use @TransactionalEventListener so they only see committed changes.
+ */
+public class FileEvent {
+
+    private final Long fileId;
+    private final Long workspaceId;
+    private final Type type;
+
+    public FileEvent(Long fileId, Long workspaceId, Type type) {
+        this.fileId = fileId;
+        this.workspaceId = workspaceId;
+        this.type = type;
+    }
+
+    public Long getFileId() { return fileId; }
+
+    public Long getWorkspaceId() { return workspaceId; }
+
+    public Type getType() { return type; }
+
+    public enum Type {
+        STORED, REVISED, DELETED
+    }
+
+    @Override
+    public String toString() {
+        return "FileEvent{" +
+                "fileId=" + fileId +
+                ", workspaceId=" + workspaceId +
+                ", type=" + type +
+                '}';
+    }
+}
@@ -0,0 +1,26 @@
+package com.researchsync.event;
+
+import java.util.List;
+
+/**
+ * Many task changes made in one transaction, e.g. a bulk request, published once instead of
+ * as one TaskEvent each so listeners can read and index the tasks together. Listeners of
+ * TaskEvent must listen for this too.
+ */
+public class TaskBatchEvent {
+
+    private final List<TaskEvent> events;
+
+    public TaskBatchEvent(List<TaskEvent> events) {
+        this.events = List.copyOf(events);
+    }
+
+    public List<TaskEvent> getEvents() { return events; }
+
+    @Override
+    public String toString() {
+        return "TaskBatchEvent{" +
+                "events=" + events.size() +
+                '}';
+    }
+}
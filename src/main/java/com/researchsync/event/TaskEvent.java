@@ -0,0 +1,70 @@
+package com.researchsync.event;
+
+import com.researchsync.model.Task;
+import com.researchsync.model.TaskActivity;
+
+/**
+ * Published when a task is created, changed or deleted. Listeners that act on it outside the
+ * request should use @TransactionalEventListener so they only see committed changes.
+ *
+ * When the change moved the task to another status, previousStatus and status say from where
+ * to where; both are null otherwise. Where the publisher has them, before and after hold the
+ * task as it was and as it is now (before is null for a creation, after for a deletion).
+ */
+public class TaskEvent {
+
+    private final Long taskId;
+    private final Long workspaceId;
+    private final Type type;
+    private final Task.TaskStatus previousStatus;
+    private final Task.TaskStatus status;
+    private final TaskActivity before;
+    private final TaskActivity after;
+
+    public TaskEvent(Long taskId, Long workspaceId, Type type) {
+        this(taskId, workspaceId, type, null, null);
+    }
+
+    public TaskEvent(Long taskId, Long workspaceId, Type type, TaskActivity before, TaskActivity after) {
+        this.taskId = taskId;
+        this.workspaceId = workspaceId;
+        this.type = type;
+        this.before = before;
+        this.after = after;
+        boolean statusChanged = before != null && after != null && before.getStatus() != after.getStatus();
+        this.previousStatus = statusChanged ? before.getStatus() : null;
+        this.status = statusChanged ? after.getStatus() : null;
+    }
+
+    public Long getTaskId() { return taskId; }
+
+    public Long getWorkspaceId() { return workspaceId; }
+
+    public Type getType() { return type; }
+
+    public Task.TaskStatus getPreviousStatus() { return previousStatus; }
+
+    public Task.TaskStatus getStatus() { return status; }
+
+    public TaskActivity getBefore() { return before; }
+
+    public TaskActivity getAfter() { return after; }
+
+    public boolean isStatusChange() {
+        return status != null && status != previousStatus;
+    }
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    @Override
+    public String toString() {
+        return "TaskEvent{" +
+                "taskId=" + taskId +
+                ", workspaceId=" + workspaceId +
+                ", type=" + type +
+                (isStatusChange() ? ", status=" + previousStatus + "->" + status : "") +
+                '}';
+    }
+}
@@ -0,0 +1,34 @@
+package com.researchsync.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published, outside any transaction, when an open task's due date passes
+ */
+public class TaskOverdueEvent {
+
+    private final Long taskId;
+    private final Long workspaceId;
+    private final LocalDateTime dueDate;
+
+    public TaskOverdueEvent(Long taskId, Long workspaceId, LocalDateTime dueDate) {
+        this.taskId = taskId;
+        this.workspaceId = workspaceId;
+        this.dueDate = dueDate;
+    }
+
+    public Long getTaskId() { return taskId; }
+
+    public Long getWorkspaceId() { return workspaceId; }
+
+    public LocalDateTime getDueDate() { return dueDate; }
+
+    @Override
+    public String toString() {
+        return "TaskOverdueEvent{" +
+                "taskId=" + taskId +
+                ", workspaceId=" + workspaceId +
+                ", dueDate=" + dueDate +
+                '}';
+    }
+}
@@ -0,0 +1,21 @@
+package com.researchsync.exception;
+
+import java.util.List;
+
+/**
+ * A bulk task request failed validation; nothing was applied. errors has one entry per
+ * offending item.
+ */
+public class BulkTaskRejectedException extends RuntimeException {
+
+    private final List<String> errors;
+
+    public BulkTaskRejectedException(List<String> errors) {
+        super(errors.size() + " task operation(s) rejected: " + errors.get(0) + (errors.size() > 1 ? " ..." : ""));
+        this.errors = errors;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
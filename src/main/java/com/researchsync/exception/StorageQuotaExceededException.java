@@ -0,0 +1,7 @@
+package com.researchsync.exception;
+
+public class StorageQuotaExceededException extends RuntimeException {
+    public StorageQuotaExceededException(String message) {
+        super(message);
+    }
+}
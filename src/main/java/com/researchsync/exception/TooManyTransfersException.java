@@ -0,0 +1,7 @@
+package com.researchsync.exception;
+
+public class TooManyTransfersException extends RuntimeException {
+    public TooManyTransfersException(String message) {
+        super(message);
+    }
+}
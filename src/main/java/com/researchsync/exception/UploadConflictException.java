@@ -0,0 +1,19 @@
+package com.researchsync.exception;
+
+/**
+ * Thrown when a chunk arrives out of order for a resumable upload.
+ * Carries the offset the server currently holds so the client can resume from it.
+ */
+public class UploadConflictException extends RuntimeException {
+
+    private final long receivedBytes;
+
+    public UploadConflictException(String message, long receivedBytes) {
+        super(message);
+        this.receivedBytes = receivedBytes;
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+}
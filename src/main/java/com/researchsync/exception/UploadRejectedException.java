@@ -0,0 +1,19 @@
+package com.researchsync.exception;
+
+public class UploadRejectedException extends RuntimeException {
+
+    public enum Reason {
+        TOO_LARGE, TYPE_NOT_ALLOWED
+    }
+
+    private final Reason reason;
+
+    public UploadRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
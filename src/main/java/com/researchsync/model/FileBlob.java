@@ -0,0 +1,82 @@
+package com.researchsync.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One physical file in the content-addressed store, keyed by the SHA-256 of its bytes.
+ * UploadedFile rows point at a blob; the blob is deleted from disk when refCount drops to zero.
+ */
+@Entity
+@Table(name = "file_blobs")
+public class FileBlob {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(name = "storage_path", nullable = false)
+    private String storagePath;
+
+    // Content-Encoding of the bytes on disk ("gzip"), null when stored as uploaded.
+    // size is always the logical size; storedSize is what the file takes on disk.
+    @Column(name = "encoding", length = 16)
+    private String encoding;
+
+    @Column(name = "stored_size")
+    private Long storedSize;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_date", nullable = false)
+    private LocalDateTime createdDate;
+
+    // CRC-32 of the content, filled in the first time a ZIP export needs it for a STORED entry
+    @Column(name = "crc32")
+    private Long crc32;
+
+    // Constructors
+    public FileBlob() {
+        this.createdDate = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+    public Long getSize() { return size; }
+    public void setSize(Long size) { this.size = size; }
+
+    public String getStoragePath() { return storagePath; }
+    public void setStoragePath(String storagePath) { this.storagePath = storagePath; }
+
+    public String getEncoding() { return encoding; }
+    public void setEncoding(String encoding) { this.encoding = encoding; }
+
+    public Long getStoredSize() { return storedSize != null ? storedSize : size; }
+    public void setStoredSize(Long storedSize) { this.storedSize = storedSize; }
+
+    public boolean isCompressed() { return encoding != null; }
+
+    public int getRefCount() { return refCount; }
+    public void setRefCount(int refCount) { this.refCount = refCount; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+
+    public Long getCrc32() { return crc32; }
+    public void setCrc32(Long crc32) { this.crc32 = crc32; }
+
+    @Override
+    public String toString() {
+        return "FileBlob{" +
+                "contentHash='" + contentHash + '\'' +
+                ", size=" + size +
+                ", refCount=" + refCount +
+                '}';
+    }
+}
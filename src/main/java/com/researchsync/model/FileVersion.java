@@ -0,0 +1,132 @@
+package com.researchsync.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One revision of an UploadedFile. The file row always carries the newest revision's full
+ * content; older revisions are turned into binary deltas against the one before them, with
+ * a full snapshot every so often so rebuilding a revision never walks a long chain.
+ *
+ * Each row holds one reference on its blob, which is the full content for FULL and SNAPSHOT
+ * and the delta bytes for DELTA. The newest row shares its blob (and reference) with the file.
+ */
+@Entity
+@Table(name = "file_versions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_file_versions_number", columnNames = {"file_id", "version_number"})
+})
+public class FileVersion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long versionId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "file_id", nullable = false)
+    private UploadedFile file;
+
+    @Column(name = "version_number", nullable = false)
+    private int versionNumber;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "storage_hash", nullable = false)
+    private FileBlob blob;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Storage storage = Storage.FULL;
+
+    // Revision a DELTA applies to; always the previous version number
+    @Column(name = "base_version_id")
+    private Long baseVersionId;
+
+    // Deltas between this revision and the nearest snapshot, 0 for whole content
+    @Column(name = "chain_depth", nullable = false)
+    private int chainDepth;
+
+    // SHA-256 and size of the revision's full content, whatever the blob holds
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Column(name = "original_filename")
+    private String originalFilename;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "uploaded_by", nullable = false)
+    private User uploadedBy;
+
+    @Column(name = "uploaded_date", nullable = false)
+    private LocalDateTime uploadedDate;
+
+    /**
+     * FULL: whole content, not yet considered for delta encoding (the newest revision stays FULL).
+     * SNAPSHOT: whole content kept on purpose to start a new chain.
+     * DELTA: a delta against baseVersionId.
+     */
+    public enum Storage {
+        FULL, SNAPSHOT, DELTA
+    }
+
+    // Constructors
+    public FileVersion() {
+        this.uploadedDate = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getVersionId() { return versionId; }
+    public void setVersionId(Long versionId) { this.versionId = versionId; }
+
+    public UploadedFile getFile() { return file; }
+    public void setFile(UploadedFile file) { this.file = file; }
+
+    public int getVersionNumber() { return versionNumber; }
+    public void setVersionNumber(int versionNumber) { this.versionNumber = versionNumber; }
+
+    public FileBlob getBlob() { return blob; }
+    public void setBlob(FileBlob blob) { this.blob = blob; }
+
+    public Storage getStorage() { return storage; }
+    public void setStorage(Storage storage) { this.storage = storage; }
+
+    public Long getBaseVersionId() { return baseVersionId; }
+    public void setBaseVersionId(Long baseVersionId) { this.baseVersionId = baseVersionId; }
+
+    public int getChainDepth() { return chainDepth; }
+    public void setChainDepth(int chainDepth) { this.chainDepth = chainDepth; }
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+
+    public String getOriginalFilename() { return originalFilename; }
+    public void setOriginalFilename(String originalFilename) { this.originalFilename = originalFilename; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public User getUploadedBy() { return uploadedBy; }
+    public void setUploadedBy(User uploadedBy) { this.uploadedBy = uploadedBy; }
+
+    public LocalDateTime getUploadedDate() { return uploadedDate; }
+    public void setUploadedDate(LocalDateTime uploadedDate) { this.uploadedDate = uploadedDate; }
+
+    public boolean isDelta() { return storage == Storage.DELTA; }
+
+    @Override
+    public String toString() {
+        return "FileVersion{" +
+                "versionId=" + versionId +
+                ", versionNumber=" + versionNumber +
+                ", storage=" + storage +
+                ", chainDepth=" + chainDepth +
+                '}';
+    }
+}
@@ -6,7 +6,14 @@ import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tasks")
+// Keyset listings walk (created_date, task_id) newest first per assignee, creator or workspace
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_assignee_listing", columnList = "assigned_to, created_date, task_id"),
+        @Index(name = "idx_tasks_creator_listing", columnList = "created_by, created_date, task_id"),
+        @Index(name = "idx_tasks_workspace_listing", columnList = "workspace_id, created_date, task_id"),
+        @Index(name = "idx_tasks_workspace_status_listing", columnList = "workspace_id, status, created_date, task_id"),
+        @Index(name = "idx_tasks_due_date", columnList = "due_date, task_id")
+})
 public class Task {
 
     @Id
@@ -54,6 +61,10 @@ public class Task {
     @Column(name = "completed_date")
     private LocalDateTime completedDate;
 
+    // The due date the assignee was last reminded of; moving the deadline makes the task due for a reminder again
+    @Column(name = "reminder_sent_for")
+    private LocalDateTime reminderSentFor;
+
     // Constructors
     public Task() {
         this.createdDate = LocalDateTime.now();
@@ -111,6 +122,9 @@ public class Task {
     public LocalDateTime getCompletedDate() { return completedDate; }
     public void setCompletedDate(LocalDateTime completedDate) { this.completedDate = completedDate; }
 
+    public LocalDateTime getReminderSentFor() { return reminderSentFor; }
+    public void setReminderSentFor(LocalDateTime reminderSentFor) { this.reminderSentFor = reminderSentFor; }
+
     // Utility methods
     public boolean isOverdue() {
         return dueDate != null && dueDate.isBefore(LocalDateTime.now()) && status != TaskStatus.COMPLETED;
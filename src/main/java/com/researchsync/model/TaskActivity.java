@@ -0,0 +1,135 @@
+package com.researchsync.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the append-only task activity log. Besides what happened and who did it, each
+ * entry holds the task's fields as they were right after the change, so the state of a task
+ * at any time is the latest entry at or before it. Plain ids rather than associations: the
+ * log outlives the tasks and users it mentions.
+ *
+ * Compaction collapses entries past the retention window (or beyond the per-task cap) into
+ * the newest of them, relabelled SNAPSHOT.
+ */
+@Entity
+@Table(name = "task_activity", indexes = {
+        @Index(name = "idx_task_activity_task", columnList = "task_id, activity_id"),
+        @Index(name = "idx_task_activity_workspace", columnList = "workspace_id, activity_id"),
+        @Index(name = "idx_task_activity_task_time", columnList = "task_id, occurred_at")
+})
+public class TaskActivity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "activity_id")
+    private Long activityId;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "workspace_id", nullable = false)
+    private Long workspaceId;
+
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Action action;
+
+    // Which fields this entry changed, comma separated, e.g. "STATUS,ASSIGNEE"
+    @Column(length = 100)
+    private String changes;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    // The task's state after the change
+    @Column(length = 200)
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Task.TaskStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Task.TaskPriority priority;
+
+    @Column(name = "assignee_id")
+    private Long assigneeId;
+
+    @Column(name = "due_date")
+    private LocalDateTime dueDate;
+
+    public enum Action {
+        CREATED, UPDATED, DELETED, SNAPSHOT
+    }
+
+    public enum Field {
+        TITLE, DESCRIPTION, STATUS, PRIORITY, ASSIGNEE, DUE_DATE
+    }
+
+    // Constructors
+    public TaskActivity() {}
+
+    /**
+     * The task's current fields, with no action yet
+     */
+    public static TaskActivity capture(Task task) {
+        TaskActivity state = new TaskActivity();
+        state.taskId = task.getTaskId();
+        state.workspaceId = task.getWorkspace().getWorkspaceId();
+        state.title = task.getTitle();
+        state.description = task.getDescription();
+        state.status = task.getStatus();
+        state.priority = task.getPriority();
+        state.assigneeId = task.getAssignedTo() != null ? task.getAssignedTo().getUserId() : null;
+        state.dueDate = task.getDueDate();
+        return state;
+    }
+
+    // Getters and Setters
+    public Long getActivityId() { return activityId; }
+    public void setActivityId(Long activityId) { this.activityId = activityId; }
+
+    public Long getTaskId() { return taskId; }
+    public void setTaskId(Long taskId) { this.taskId = taskId; }
+
+    public Long getWorkspaceId() { return workspaceId; }
+    public void setWorkspaceId(Long workspaceId) { this.workspaceId = workspaceId; }
+
+    public Long getActorId() { return actorId; }
+    public void setActorId(Long actorId) { this.actorId = actorId; }
+
+    public Action getAction() { return action; }
+    public void setAction(Action action) { this.action = action; }
+
+    public String getChanges() { return changes; }
+    public void setChanges(String changes) { this.changes = changes; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public Task.TaskStatus getStatus() { return status; }
+    public void setStatus(Task.TaskStatus status) { this.status = status; }
+
+    public Task.TaskPriority getPriority() { return priority; }
+    public void setPriority(Task.TaskPriority priority) { this.priority = priority; }
+
+    public Long getAssigneeId() { return assigneeId; }
+    public void setAssigneeId(Long assigneeId) { this.assigneeId = assigneeId; }
+
+    public LocalDateTime getDueDate() { return dueDate; }
+    public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
+}
@@ -0,0 +1,108 @@
+package com.researchsync.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Task counters for one workspace or user, one day and one priority. Counts are of things that
+ * happened that day: tasks created, completed, reopened, or passing their due date; cycle
+ * minutes add up creation-to-completion time of the tasks completed. Closed counts open tasks
+ * completed, cancelled or deleted; moved in and out count open tasks changing assignee or
+ * priority, and cancelled tasks brought back. Tasks still open at the end of a day is the
+ * running sum of created - closed + reopened + movedIn - movedOut.
+ */
+@Entity
+@Table(name = "task_daily_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_task_daily_rollups_key", columnNames = {"scope", "scope_id", "stat_date", "priority"})
+})
+public class TaskDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long rollupId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Scope scope;
+
+    @Column(name = "scope_id", nullable = false)
+    private Long scopeId;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Task.TaskPriority priority;
+
+    @Column(nullable = false)
+    private long created;
+
+    @Column(nullable = false)
+    private long completed;
+
+    @Column(nullable = false)
+    private long closed;
+
+    @Column(nullable = false)
+    private long reopened;
+
+    @Column(name = "moved_in", nullable = false)
+    private long movedIn;
+
+    @Column(name = "moved_out", nullable = false)
+    private long movedOut;
+
+    @Column(nullable = false)
+    private long overdue;
+
+    @Column(name = "cycle_minutes", nullable = false)
+    private long cycleMinutes;
+
+    public enum Scope {
+        WORKSPACE, USER
+    }
+
+    // Constructors
+    public TaskDailyRollup() {}
+
+    // Getters and Setters
+    public Long getRollupId() { return rollupId; }
+    public void setRollupId(Long rollupId) { this.rollupId = rollupId; }
+
+    public Scope getScope() { return scope; }
+    public void setScope(Scope scope) { this.scope = scope; }
+
+    public Long getScopeId() { return scopeId; }
+    public void setScopeId(Long scopeId) { this.scopeId = scopeId; }
+
+    public LocalDate getStatDate() { return statDate; }
+    public void setStatDate(LocalDate statDate) { this.statDate = statDate; }
+
+    public Task.TaskPriority getPriority() { return priority; }
+    public void setPriority(Task.TaskPriority priority) { this.priority = priority; }
+
+    public long getCreated() { return created; }
+    public void setCreated(long created) { this.created = created; }
+
+    public long getCompleted() { return completed; }
+    public void setCompleted(long completed) { this.completed = completed; }
+
+    public long getClosed() { return closed; }
+    public void setClosed(long closed) { this.closed = closed; }
+
+    public long getReopened() { return reopened; }
+    public void setReopened(long reopened) { this.reopened = reopened; }
+
+    public long getMovedIn() { return movedIn; }
+    public void setMovedIn(long movedIn) { this.movedIn = movedIn; }
+
+    public long getMovedOut() { return movedOut; }
+    public void setMovedOut(long movedOut) { this.movedOut = movedOut; }
+
+    public long getOverdue() { return overdue; }
+    public void setOverdue(long overdue) { this.overdue = overdue; }
+
+    public long getCycleMinutes() { return cycleMinutes; }
+    public void setCycleMinutes(long cycleMinutes) { this.cycleMinutes = cycleMinutes; }
+}
@@ -0,0 +1,73 @@
+package com.researchsync.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * "blocker blocks blocked": blocked cannot sensibly finish before blocker does. Both tasks
+ * belong to the same workspace, which is repeated here so a workspace's whole graph loads
+ * with one indexed query. The edges of a workspace never form a cycle.
+ */
+@Entity
+@Table(name = "task_dependencies", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_task_dependencies_edge", columnNames = {"blocker_task_id", "blocked_task_id"})
+}, indexes = {
+        @Index(name = "idx_task_dependencies_workspace", columnList = "workspace_id"),
+        @Index(name = "idx_task_dependencies_blocked", columnList = "blocked_task_id")
+})
+public class TaskDependency {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long dependencyId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blocker_task_id", nullable = false)
+    private Task blocker;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blocked_task_id", nullable = false)
+    private Task blocked;
+
+    @Column(name = "workspace_id", nullable = false)
+    private Long workspaceId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "created_by")
+    private User createdBy;
+
+    @Column(name = "created_date", nullable = false)
+    private LocalDateTime createdDate;
+
+    // Constructors
+    public TaskDependency() {
+        this.createdDate = LocalDateTime.now();
+    }
+
+    public TaskDependency(Task blocker, Task blocked, User createdBy) {
+        this();
+        this.blocker = blocker;
+        this.blocked = blocked;
+        this.workspaceId = blocked.getWorkspace().getWorkspaceId();
+        this.createdBy = createdBy;
+    }
+
+    // Getters and Setters
+    public Long getDependencyId() { return dependencyId; }
+    public void setDependencyId(Long dependencyId) { this.dependencyId = dependencyId; }
+
+    public Task getBlocker() { return blocker; }
+    public void setBlocker(Task blocker) { this.blocker = blocker; }
+
+    public Task getBlocked() { return blocked; }
+    public void setBlocked(Task blocked) { this.blocked = blocked; }
+
+    public Long getWorkspaceId() { return workspaceId; }
+    public void setWorkspaceId(Long workspaceId) { this.workspaceId = workspaceId; }
+
+    public User getCreatedBy() { return createdBy; }
+    public void setCreatedBy(User createdBy) { this.createdBy = createdBy; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+}
@@ -0,0 +1,152 @@
+package com.researchsync.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "upload_sessions")
+public class UploadSession {
+
+    @Id
+    @Column(name = "upload_id", length = 36)
+    private String uploadId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "workspace_id", nullable = false)
+    private Workspace workspace;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "uploaded_by", nullable = false)
+    private User uploadedBy;
+
+    @Column(name = "original_filename", nullable = false)
+    private String originalFilename;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "category")
+    private String category;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "total_size", nullable = false)
+    private Long totalSize;
+
+    @Column(name = "chunk_size", nullable = false)
+    private Long chunkSize;
+
+    // Bytes persisted to the staging file so far; always a whole number of chunks
+    @Column(name = "received_bytes", nullable = false)
+    private Long receivedBytes = 0L;
+
+    @Column(name = "staging_path", nullable = false)
+    private String stagingPath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UploadStatus status = UploadStatus.ACTIVE;
+
+    // Set once the upload has been committed into an UploadedFile
+    @Column(name = "file_id")
+    private Long fileId;
+
+    @Column(name = "created_date", nullable = false)
+    private LocalDateTime createdDate;
+
+    @Column(name = "last_updated")
+    private LocalDateTime lastUpdated;
+
+    // An active upload not touched again by then is abandoned; each stored chunk pushes it out
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    // Constructors
+    public UploadSession() {
+        this.createdDate = LocalDateTime.now();
+        this.lastUpdated = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getUploadId() { return uploadId; }
+    public void setUploadId(String uploadId) { this.uploadId = uploadId; }
+
+    public Workspace getWorkspace() { return workspace; }
+    public void setWorkspace(Workspace workspace) { this.workspace = workspace; }
+
+    public User getUploadedBy() { return uploadedBy; }
+    public void setUploadedBy(User uploadedBy) { this.uploadedBy = uploadedBy; }
+
+    public String getOriginalFilename() { return originalFilename; }
+    public void setOriginalFilename(String originalFilename) { this.originalFilename = originalFilename; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public Long getTotalSize() { return totalSize; }
+    public void setTotalSize(Long totalSize) { this.totalSize = totalSize; }
+
+    public Long getChunkSize() { return chunkSize; }
+    public void setChunkSize(Long chunkSize) { this.chunkSize = chunkSize; }
+
+    public Long getReceivedBytes() { return receivedBytes; }
+    public void setReceivedBytes(Long receivedBytes) { this.receivedBytes = receivedBytes; }
+
+    public String getStagingPath() { return stagingPath; }
+    public void setStagingPath(String stagingPath) { this.stagingPath = stagingPath; }
+
+    public UploadStatus getStatus() { return status; }
+    public void setStatus(UploadStatus status) { this.status = status; }
+
+    public Long getFileId() { return fileId; }
+    public void setFileId(Long fileId) { this.fileId = fileId; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+
+    public LocalDateTime getLastUpdated() { return lastUpdated; }
+    public void setLastUpdated(LocalDateTime lastUpdated) { this.lastUpdated = lastUpdated; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    // Utility methods
+    public boolean isComplete() {
+        return receivedBytes != null && receivedBytes.equals(totalSize);
+    }
+
+    public long getChunkCount() {
+        if (totalSize == 0) return 1;
+        return (totalSize + chunkSize - 1) / chunkSize;
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+
+    public long getNextChunkIndex() {
+        return receivedBytes / chunkSize;
+    }
+
+    public enum UploadStatus {
+        ACTIVE, COMMITTED, ABORTED
+    }
+
+    @Override
+    public String toString() {
+        return "UploadSession{" +
+                "uploadId='" + uploadId + '\'' +
+                ", originalFilename='" + originalFilename + '\'' +
+                ", receivedBytes=" + receivedBytes +
+                ", totalSize=" + totalSize +
+                ", status=" + status +
+                '}';
+    }
+}
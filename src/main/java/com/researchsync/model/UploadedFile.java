@@ -6,7 +6,11 @@ import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "uploaded_files")
+// Keyset listings walk (uploaded_date, file_id) newest first, optionally within one category
+@Table(name = "uploaded_files", indexes = {
+        @Index(name = "idx_uploaded_files_listing", columnList = "workspace_id, is_active, uploaded_date, file_id"),
+        @Index(name = "idx_uploaded_files_category_listing", columnList = "workspace_id, category, is_active, uploaded_date, file_id")
+})
 public class UploadedFile {
 
     @Id
@@ -38,18 +42,35 @@ public class UploadedFile {
     @Column(name = "content_type")
     private String contentType;
 
+    // Type sniffed from the file's leading bytes at upload; content_type is what the client claimed
+    @Column(name = "detected_content_type")
+    private String detectedContentType;
+
     @Column(name = "file_size")
     private Long fileSize;
 
     @Column(name = "file_path")
     private String filePath;
 
+    // Content-addressed blob holding the bytes; null for files stored before deduplication
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "content_hash")
+    private FileBlob blob;
+
     @Column(name = "uploaded_date", nullable = false)
     private LocalDateTime uploadedDate;
 
+    // Revision the row currently holds; earlier ones live in file_versions. Null means 1.
+    @Column(name = "version_number")
+    private Integer versionNumber;
+
     @Column(name = "is_active")
     private boolean isActive = true;
 
+    // When the search index last caught up with this file; written only by FileIndexingService
+    @Column(name = "indexed_date", insertable = false, updatable = false)
+    private LocalDateTime indexedDate;
+
     // Constructors
     public UploadedFile() {
         this.uploadedDate = LocalDateTime.now();
@@ -85,18 +106,29 @@ public class UploadedFile {
     public String getContentType() { return contentType; }
     public void setContentType(String contentType) { this.contentType = contentType; }
 
+    public String getDetectedContentType() { return detectedContentType; }
+    public void setDetectedContentType(String detectedContentType) { this.detectedContentType = detectedContentType; }
+
     public Long getFileSize() { return fileSize; }
     public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
 
     public String getFilePath() { return filePath; }
     public void setFilePath(String filePath) { this.filePath = filePath; }
 
+    public FileBlob getBlob() { return blob; }
+    public void setBlob(FileBlob blob) { this.blob = blob; }
+
     public LocalDateTime getUploadedDate() { return uploadedDate; }
     public void setUploadedDate(LocalDateTime uploadedDate) { this.uploadedDate = uploadedDate; }
 
+    public int getVersionNumber() { return versionNumber != null ? versionNumber : 1; }
+    public void setVersionNumber(Integer versionNumber) { this.versionNumber = versionNumber; }
+
     public boolean isActive() { return isActive; }
     public void setActive(boolean active) { isActive = active; }
 
+    public LocalDateTime getIndexedDate() { return indexedDate; }
+
     // Utility methods
     public String getFileExtension() {
         if (originalFilename != null && originalFilename.contains(".")) {
@@ -41,6 +41,18 @@ public class Workspace {
     @Column(name = "privacy_level")
     private PrivacyLevel privacyLevel = PrivacyLevel.PRIVATE;
 
+    // Usage counters are only ever changed by atomic UPDATEs in WorkspaceRepository, never by
+    // saving the entity, so a stale copy cannot overwrite them. Null until first counted.
+    @Column(name = "storage_used", updatable = false)
+    private Long storageUsed = 0L;
+
+    @Column(name = "file_count", updatable = false)
+    private Long fileCount = 0L;
+
+    // Per-workspace override of app.workspace.storage-quota; null uses the default
+    @Column(name = "storage_quota")
+    private Long storageQuota;
+
     // Relationships
     @OneToMany(mappedBy = "workspace", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<WorkspaceMember> members = new ArrayList<>();
@@ -92,6 +104,15 @@ public class Workspace {
     public PrivacyLevel getPrivacyLevel() { return privacyLevel; }
     public void setPrivacyLevel(PrivacyLevel privacyLevel) { this.privacyLevel = privacyLevel; }
 
+    public Long getStorageUsed() { return storageUsed; }
+    public void setStorageUsed(Long storageUsed) { this.storageUsed = storageUsed; }
+
+    public Long getFileCount() { return fileCount; }
+    public void setFileCount(Long fileCount) { this.fileCount = fileCount; }
+
+    public Long getStorageQuota() { return storageQuota; }
+    public void setStorageQuota(Long storageQuota) { this.storageQuota = storageQuota; }
+
     public List<WorkspaceMember> getMembers() { return members; }
     public void setMembers(List<WorkspaceMember> members) { this.members = members; }
 
@@ -147,6 +168,15 @@ public class Workspace {
         return (completedTasks * 100.0) / tasks.size();
     }
 
+    public String getFormattedStorageUsed() {
+        long bytes = storageUsed != null ? storageUsed : 0L;
+
+        if (bytes < 1024) return bytes + " B";
+        else if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        else if (bytes < 1024 * 1024 * 1024) return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+        else return String.format("%.1f GB", bytes / (1024.0 * 1024.0 * 1024.0));
+    }
+
     // Enums
     public enum PrivacyLevel {
         PRIVATE, PUBLIC, PROTECTED
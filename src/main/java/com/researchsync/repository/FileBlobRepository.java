@@ -0,0 +1,67 @@
+package com.researchsync.repository;
+
+import com.researchsync.model.FileBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, String> {
+
+    // Atomic insert-or-increment; concurrent uploads of the same content serialize on the row lock
+    @Modifying(flushAutomatically = true)
+    // An existing row keeps its own path and encoding; the caller reads them back to see which won
+    @Query(value = "INSERT INTO file_blobs (content_hash, size, storage_path, encoding, stored_size, ref_count, created_date) " +
+            "VALUES (:hash, :size, :storagePath, :encoding, :storedSize, 1, :createdDate) " +
+            "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1", nativeQuery = true)
+    int addReference(@Param("hash") String hash, @Param("size") long size,
+                     @Param("storagePath") String storagePath, @Param("encoding") String encoding,
+                     @Param("storedSize") long storedSize, @Param("createdDate") LocalDateTime createdDate);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount - 1 WHERE b.contentHash = :hash AND b.refCount > 0")
+    int removeReference(@Param("hash") String hash);
+
+    @Query("SELECT b.refCount FROM FileBlob b WHERE b.contentHash = :hash")
+    Integer findRefCount(@Param("hash") String hash);
+
+    @Query("SELECT b.storagePath FROM FileBlob b WHERE b.contentHash = :hash")
+    String findStoragePath(@Param("hash") String hash);
+
+    @Query("SELECT b.encoding FROM FileBlob b WHERE b.contentHash = :hash")
+    String findEncoding(@Param("hash") String hash);
+
+    @Modifying
+    @Query("DELETE FROM FileBlob b WHERE b.contentHash = :hash AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+
+    // Keyset paging over all blobs, used by the storage layout migrator
+    List<FileBlob> findByContentHashGreaterThanOrderByContentHashAsc(String afterHash, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.storagePath = :storagePath WHERE b.contentHash = :hash")
+    int updateStoragePath(@Param("hash") String hash, @Param("storagePath") String storagePath);
+
+    // Live bytes per pack segment; packed locations look like pack:<segment>:<offset>:<length>
+    @Query(value = "SELECT CAST(SUBSTRING_INDEX(SUBSTRING_INDEX(storage_path, ':', 2), ':', -1) AS UNSIGNED) AS segment, " +
+            "SUM(COALESCE(stored_size, size)), COUNT(*) FROM file_blobs WHERE storage_path LIKE 'pack:%' GROUP BY segment",
+            nativeQuery = true)
+    List<Object[]> sumPackedBytesBySegment();
+
+    List<FileBlob> findByStoragePathStartingWith(String prefix);
+
+    // Only moves the blob if nothing else changed its location in the meantime
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.storagePath = :newPath WHERE b.contentHash = :hash AND b.storagePath = :oldPath")
+    int relocate(@Param("hash") String hash, @Param("oldPath") String oldPath, @Param("newPath") String newPath);
+
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.crc32 = :crc32 WHERE b.contentHash = :hash")
+    int updateCrc32(@Param("hash") String hash, @Param("crc32") long crc32);
+}
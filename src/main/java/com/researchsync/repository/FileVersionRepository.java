@@ -0,0 +1,39 @@
+package com.researchsync.repository;
+
+import com.researchsync.model.FileBlob;
+import com.researchsync.model.FileVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FileVersionRepository extends JpaRepository<FileVersion, Long> {
+
+    // A file's whole revision chain, oldest first
+    @Query("SELECT v FROM FileVersion v JOIN FETCH v.blob WHERE v.file.fileId = :fileId ORDER BY v.versionNumber")
+    List<FileVersion> findChain(@Param("fileId") Long fileId);
+
+    boolean existsByFileFileId(Long fileId);
+
+    // Active files with superseded revisions still stored whole, waiting for delta encoding
+    @Query("SELECT DISTINCT v.file.fileId FROM FileVersion v WHERE v.storage = com.researchsync.model.FileVersion.Storage.FULL " +
+            "AND v.file.isActive = true AND v.versionNumber < v.file.versionNumber")
+    List<Long> findFileIdsPendingEncoding();
+
+    // Conditional on the row still being FULL, so a revision is only ever converted once
+    @Modifying
+    @Query("UPDATE FileVersion v SET v.storage = com.researchsync.model.FileVersion.Storage.DELTA, v.blob = :blob, " +
+            "v.baseVersionId = :baseVersionId, v.chainDepth = :chainDepth " +
+            "WHERE v.versionId = :versionId AND v.storage = com.researchsync.model.FileVersion.Storage.FULL")
+    int convertToDelta(@Param("versionId") Long versionId, @Param("blob") FileBlob blob,
+                       @Param("baseVersionId") Long baseVersionId, @Param("chainDepth") int chainDepth);
+
+    @Modifying
+    @Query("UPDATE FileVersion v SET v.storage = com.researchsync.model.FileVersion.Storage.SNAPSHOT, v.chainDepth = 0 " +
+            "WHERE v.versionId = :versionId AND v.storage = com.researchsync.model.FileVersion.Storage.FULL")
+    int markSnapshot(@Param("versionId") Long versionId);
+}
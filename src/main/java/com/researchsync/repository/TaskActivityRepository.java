@@ -0,0 +1,61 @@
+package com.researchsync.repository;
+
+import com.researchsync.model.TaskActivity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TaskActivityRepository extends JpaRepository<TaskActivity, Long> {
+
+    // Histories page newest first on the activity id, which follows write order
+    @Query("SELECT a FROM TaskActivity a WHERE a.taskId = :taskId AND a.activityId < :beforeId ORDER BY a.activityId DESC")
+    Slice<TaskActivity> findTaskPage(@Param("taskId") Long taskId, @Param("beforeId") Long beforeId, Pageable pageable);
+
+    @Query("SELECT a FROM TaskActivity a WHERE a.workspaceId = :workspaceId AND a.activityId < :beforeId ORDER BY a.activityId DESC")
+    Slice<TaskActivity> findWorkspacePage(@Param("workspaceId") Long workspaceId, @Param("beforeId") Long beforeId, Pageable pageable);
+
+    // The entry in force at a point in time: the latest at or before it
+    @Query("SELECT a FROM TaskActivity a WHERE a.taskId = :taskId AND a.occurredAt <= :at " +
+            "ORDER BY a.occurredAt DESC, a.activityId DESC")
+    List<TaskActivity> findStateAt(@Param("taskId") Long taskId, @Param("at") LocalDateTime at, Pageable pageable);
+
+    TaskActivity findFirstByTaskIdOrderByActivityIdDesc(Long taskId);
+
+    // Compaction candidates: (task id, id of its newest entry before the cutoff) where there is more than one
+    @Query("SELECT a.taskId, MAX(a.activityId) FROM TaskActivity a WHERE a.occurredAt < :cutoff " +
+            "GROUP BY a.taskId HAVING COUNT(a) > 1")
+    List<Object[]> findExpiredHistories(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // Tasks deleted before the cutoff, whose whole history is due to go
+    @Query("SELECT a.taskId FROM TaskActivity a WHERE a.action = com.researchsync.model.TaskActivity.Action.DELETED " +
+            "AND a.occurredAt < :cutoff")
+    List<Long> findDeletedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Query("SELECT a.taskId FROM TaskActivity a GROUP BY a.taskId HAVING COUNT(a) > :maxEntries")
+    List<Long> findOversizedHistories(@Param("maxEntries") long maxEntries, Pageable pageable);
+
+    // Id of a task's n-th newest entry, as the page's single element
+    @Query("SELECT a.activityId FROM TaskActivity a WHERE a.taskId = :taskId ORDER BY a.activityId DESC")
+    List<Long> findActivityIds(@Param("taskId") Long taskId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM TaskActivity a WHERE a.taskId = :taskId AND a.activityId < :activityId")
+    int deleteOlderThan(@Param("taskId") Long taskId, @Param("activityId") Long activityId);
+
+    @Modifying
+    @Query("UPDATE TaskActivity a SET a.action = com.researchsync.model.TaskActivity.Action.SNAPSHOT WHERE a.activityId = :activityId")
+    int markSnapshot(@Param("activityId") Long activityId);
+
+    @Modifying
+    @Query("DELETE FROM TaskActivity a WHERE a.taskId IN :taskIds")
+    int deleteByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+}
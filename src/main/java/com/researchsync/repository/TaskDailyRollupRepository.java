@@ -0,0 +1,41 @@
+package com.researchsync.repository;
+
+import com.researchsync.model.TaskDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface TaskDailyRollupRepository extends JpaRepository<TaskDailyRollup, Long> {
+
+    // Atomic insert-or-add, so concurrent events for the same day never lose an update
+    @Modifying
+    @Query(value = "INSERT INTO task_daily_rollups (scope, scope_id, stat_date, priority, created, completed, closed, " +
+            "reopened, moved_in, moved_out, overdue, cycle_minutes) " +
+            "VALUES (:scope, :scopeId, :statDate, :priority, :created, :completed, :closed, :reopened, :movedIn, :movedOut, " +
+            ":overdue, :cycleMinutes) " +
+            "ON DUPLICATE KEY UPDATE created = created + VALUES(created), completed = completed + VALUES(completed), " +
+            "closed = closed + VALUES(closed), reopened = reopened + VALUES(reopened), " +
+            "moved_in = moved_in + VALUES(moved_in), moved_out = moved_out + VALUES(moved_out), " +
+            "overdue = overdue + VALUES(overdue), cycle_minutes = cycle_minutes + VALUES(cycle_minutes)", nativeQuery = true)
+    int addCounts(@Param("scope") String scope, @Param("scopeId") Long scopeId, @Param("statDate") LocalDate statDate,
+                  @Param("priority") String priority, @Param("created") long created, @Param("completed") long completed,
+                  @Param("closed") long closed, @Param("reopened") long reopened, @Param("movedIn") long movedIn,
+                  @Param("movedOut") long movedOut, @Param("overdue") long overdue, @Param("cycleMinutes") long cycleMinutes);
+
+    @Query("SELECT r FROM TaskDailyRollup r WHERE r.scope = :scope AND r.scopeId = :scopeId " +
+            "AND r.statDate BETWEEN :fromDate AND :toDate ORDER BY r.statDate")
+    List<TaskDailyRollup> findRange(@Param("scope") TaskDailyRollup.Scope scope, @Param("scopeId") Long scopeId,
+                                    @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    // Tasks open at the start of a day
+    @Query("SELECT COALESCE(SUM(r.created - r.closed + r.reopened + r.movedIn - r.movedOut), 0) FROM TaskDailyRollup r " +
+            "WHERE r.scope = :scope AND r.scopeId = :scopeId AND r.statDate < :fromDate")
+    Long sumOpenBefore(@Param("scope") TaskDailyRollup.Scope scope, @Param("scopeId") Long scopeId,
+                       @Param("fromDate") LocalDate fromDate);
+}
@@ -0,0 +1,29 @@
+package com.researchsync.repository;
+
+import com.researchsync.model.TaskDependency;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TaskDependencyRepository extends JpaRepository<TaskDependency, Long> {
+
+    // A workspace's whole graph as (blocker id, blocked id) pairs
+    @Query("SELECT d.blocker.taskId, d.blocked.taskId FROM TaskDependency d WHERE d.workspaceId = :workspaceId")
+    List<Object[]> findEdgesByWorkspaceId(@Param("workspaceId") Long workspaceId);
+
+    boolean existsByBlockerTaskIdAndBlockedTaskId(Long blockerId, Long blockedId);
+
+    @Modifying
+    @Query("DELETE FROM TaskDependency d WHERE d.blocker.taskId = :blockerId AND d.blocked.taskId = :blockedId")
+    int deleteEdge(@Param("blockerId") Long blockerId, @Param("blockedId") Long blockedId);
+
+    // Before a task is deleted, so no edge points at a missing row
+    @Modifying
+    @Query("DELETE FROM TaskDependency d WHERE d.blocker.taskId = :taskId OR d.blocked.taskId = :taskId")
+    int deleteByTaskId(@Param("taskId") Long taskId);
+}
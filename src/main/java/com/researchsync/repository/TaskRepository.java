@@ -3,12 +3,15 @@ package com.researchsync.repository;
 import com.researchsync.model.Task;
 import com.researchsync.model.User;
 import com.researchsync.model.Workspace;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -46,11 +49,54 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     @Query("SELECT t FROM Task t WHERE t.workspace = :workspace AND (t.title LIKE %:searchTerm% OR t.description LIKE %:searchTerm%)")
     List<Task> findByWorkspaceAndTitleOrDescriptionContaining(@Param("workspace") Workspace workspace, @Param("searchTerm") String searchTerm);
 
-    @Query("SELECT t FROM Task t WHERE t.workspace = :workspace ORDER BY t.createdDate DESC")
-    List<Task> findRecentTasksByWorkspace(@Param("workspace") Workspace workspace);
-
-    @Query("SELECT t FROM Task t WHERE t.assignedTo = :user ORDER BY t.createdDate DESC")
-    List<Task> findRecentTasksByUser(@Param("user") User user);
+    @Query("SELECT t FROM Task t JOIN FETCH t.workspace LEFT JOIN FETCH t.assignedTo WHERE t.taskId IN :taskIds")
+    List<Task> findWithWorkspaceByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    // Keyset listings, newest first: rows strictly after (beforeDate, beforeId) in that order.
+    // The relations the list pages show are fetched with the page.
+    @Query("SELECT t FROM Task t JOIN FETCH t.workspace WHERE t.assignedTo.userId = :userId " +
+            "AND (t.createdDate < :beforeDate OR (t.createdDate = :beforeDate AND t.taskId < :beforeId)) " +
+            "ORDER BY t.createdDate DESC, t.taskId DESC")
+    Slice<Task> findAssignedPage(@Param("userId") Long userId, @Param("beforeDate") LocalDateTime beforeDate,
+                                 @Param("beforeId") Long beforeId, Pageable pageable);
+
+    @Query("SELECT t FROM Task t JOIN FETCH t.workspace LEFT JOIN FETCH t.assignedTo WHERE t.createdBy.userId = :userId " +
+            "AND (t.createdDate < :beforeDate OR (t.createdDate = :beforeDate AND t.taskId < :beforeId)) " +
+            "ORDER BY t.createdDate DESC, t.taskId DESC")
+    Slice<Task> findCreatedPage(@Param("userId") Long userId, @Param("beforeDate") LocalDateTime beforeDate,
+                                @Param("beforeId") Long beforeId, Pageable pageable);
+
+    // Any status when status is null
+    @Query("SELECT t FROM Task t LEFT JOIN FETCH t.assignedTo WHERE t.workspace.workspaceId = :workspaceId " +
+            "AND (:status IS NULL OR t.status = :status) " +
+            "AND (t.createdDate < :beforeDate OR (t.createdDate = :beforeDate AND t.taskId < :beforeId)) " +
+            "ORDER BY t.createdDate DESC, t.taskId DESC")
+    Slice<Task> findWorkspacePage(@Param("workspaceId") Long workspaceId, @Param("status") Task.TaskStatus status,
+                                  @Param("beforeDate") LocalDateTime beforeDate, @Param("beforeId") Long beforeId,
+                                  Pageable pageable);
+
+    // Open, assigned tasks due in [from, to) whose assignee was not yet reminded of this due date,
+    // keyset by id, with what the reminder shows fetched along
+    @Query("SELECT t FROM Task t JOIN FETCH t.assignedTo JOIN FETCH t.workspace " +
+            "WHERE t.dueDate >= :from AND t.dueDate < :to AND t.taskId > :afterId " +
+            "AND t.status NOT IN ('COMPLETED', 'CANCELLED') " +
+            "AND (t.reminderSentFor IS NULL OR t.reminderSentFor <> t.dueDate) " +
+            "ORDER BY t.taskId")
+    List<Task> findReminderBatch(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                 @Param("afterId") Long afterId, Pageable pageable);
+
+    // Open tasks of a workspace still ahead of their deadline, as (id, due date); seeds the overdue timer wheel
+    @Query("SELECT t.taskId, t.dueDate FROM Task t WHERE t.workspace.workspaceId = :workspaceId AND t.dueDate > :now " +
+            "AND t.status NOT IN ('COMPLETED', 'CANCELLED')")
+    List<Object[]> findUpcomingDueDates(@Param("workspaceId") Long workspaceId, @Param("now") LocalDateTime now);
+
+    // A workspace's tasks as (id, title, status, due date), for building its dependency graph
+    @Query("SELECT t.taskId, t.title, t.status, t.dueDate FROM Task t WHERE t.workspace.workspaceId = :workspaceId")
+    List<Object[]> findGraphNodes(@Param("workspaceId") Long workspaceId);
+
+    // Just the searchable columns (id, workspace id, title, description), for rebuilding the search index in batches
+    @Query("SELECT t.taskId, t.workspace.workspaceId, t.title, t.description FROM Task t WHERE t.taskId > :afterId ORDER BY t.taskId")
+    List<Object[]> findSearchFields(@Param("afterId") Long afterId, Pageable pageable);
 
     @Query("SELECT t FROM Task t WHERE t.status = 'COMPLETED' AND t.completedDate BETWEEN :startDate AND :endDate")
     List<Task> findTasksCompletedBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
@@ -0,0 +1,30 @@
+package com.researchsync.repository;
+
+import com.researchsync.model.UploadSession;
+import com.researchsync.model.User;
+import com.researchsync.model.Workspace;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    List<UploadSession> findByUploadedByAndStatus(User uploadedBy, UploadSession.UploadStatus status);
+
+    // Bytes promised to unfinished uploads, counted against the quota before they arrive
+    @Query("SELECT COALESCE(SUM(s.totalSize), 0) FROM UploadSession s WHERE s.workspace = :workspace AND s.status = 'ACTIVE' " +
+            "AND (s.expiresAt IS NULL OR s.expiresAt > :now)")
+    Long sumPendingBytesByWorkspace(@Param("workspace") Workspace workspace, @Param("now") LocalDateTime now);
+
+    // Sessions from before expiry was recorded count as abandoned once idle since staleBefore
+    @Query("SELECT s FROM UploadSession s WHERE s.status = 'ACTIVE' AND (s.expiresAt <= :now " +
+            "OR (s.expiresAt IS NULL AND s.lastUpdated < :staleBefore)) ORDER BY s.lastUpdated")
+    List<UploadSession> findExpired(@Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore,
+                                    Pageable pageable);
+}
@@ -49,12 +49,18 @@ package com.researchsync.repository;
 import com.researchsync.model.UploadedFile;
 import com.researchsync.model.User;
 import com.researchsync.model.Workspace;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface UploadedFileRepository extends JpaRepository<UploadedFile, Long> {
@@ -76,4 +82,60 @@ public interface UploadedFileRepository extends JpaRepository<UploadedFile, Long
 
     List<UploadedFile> findByCategoryAndIsActiveTrueOrderByUploadedDateDesc(String category);
     List<UploadedFile> findByContentTypeContainingAndIsActiveTrue(String contentType);
+
+    // Storage layout migration: files stored before deduplication, paged by id
+    List<UploadedFile> findByBlobIsNullAndFileIdGreaterThanOrderByFileIdAsc(Long afterFileId, Pageable pageable);
+
+    long countByBlobIsNull();
+
+    @Modifying
+    @Query("UPDATE UploadedFile f SET f.filePath = :filePath WHERE f.fileId = :fileId")
+    int updateFilePath(@Param("fileId") Long fileId, @Param("filePath") String filePath);
+
+    @Modifying
+    @Query("UPDATE UploadedFile f SET f.filePath = :filePath WHERE f.blob.contentHash = :hash")
+    int updateFilePathForBlob(@Param("hash") String hash, @Param("filePath") String filePath);
+
+    // Search index bookkeeping: active files not yet indexed, and deleted files still in the index
+    @Query("SELECT f.fileId FROM UploadedFile f WHERE f.fileId > :afterFileId AND " +
+            "((f.isActive = true AND f.indexedDate IS NULL) OR (f.isActive = false AND f.indexedDate IS NOT NULL)) " +
+            "ORDER BY f.fileId")
+    List<Long> findFileIdsPendingIndex(@Param("afterFileId") Long afterFileId, Pageable pageable);
+
+    @Modifying
+    @Query(value = "UPDATE uploaded_files SET indexed_date = :indexedDate WHERE file_id IN (:fileIds)", nativeQuery = true)
+    int markIndexed(@Param("fileIds") Collection<Long> fileIds, @Param("indexedDate") LocalDateTime indexedDate);
+
+    @Modifying
+    @Query(value = "UPDATE uploaded_files SET indexed_date = NULL WHERE file_id IN (:fileIds)", nativeQuery = true)
+    int markUnindexed(@Param("fileIds") Collection<Long> fileIds);
+
+    // ZIP export: active files of a workspace (optionally one category), paged by id
+    @Query("SELECT f FROM UploadedFile f LEFT JOIN FETCH f.blob WHERE f.workspace = :workspace AND f.isActive = true " +
+            "AND (:category IS NULL OR f.category = :category) AND f.fileId > :afterFileId ORDER BY f.fileId")
+    List<UploadedFile> findExportBatch(@Param("workspace") Workspace workspace, @Param("category") String category,
+                                       @Param("afterFileId") Long afterFileId, Pageable pageable);
+
+    @Query("SELECT f FROM UploadedFile f LEFT JOIN FETCH f.blob WHERE f.fileId IN :fileIds")
+    List<UploadedFile> findWithBlobByFileIdIn(@Param("fileIds") Collection<Long> fileIds);
+
+    // Keyset listing, newest first: rows strictly after (beforeDate, beforeId) in that order.
+    // Null filters drop out as constant conditions, so each variant uses its listing index.
+    @Query("SELECT f FROM UploadedFile f WHERE f.workspace.workspaceId = :workspaceId AND f.isActive = true " +
+            "AND (:category IS NULL OR f.category = :category) " +
+            "AND (:uploaderId IS NULL OR f.uploadedBy.userId = :uploaderId) " +
+            "AND (f.uploadedDate < :beforeDate OR (f.uploadedDate = :beforeDate AND f.fileId < :beforeId)) " +
+            "ORDER BY f.uploadedDate DESC, f.fileId DESC")
+    List<UploadedFile> findListingPage(@Param("workspaceId") Long workspaceId, @Param("category") String category,
+                                       @Param("uploaderId") Long uploaderId, @Param("beforeDate") LocalDateTime beforeDate,
+                                       @Param("beforeId") Long beforeId, Pageable pageable);
+
+    // Serialises new revisions, delta encoding and deletion of one file
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM UploadedFile f WHERE f.fileId = :fileId")
+    Optional<UploadedFile> findByIdForUpdate(@Param("fileId") Long fileId);
+
+    // Storage reconciliation
+    List<UploadedFile> findByFilenameAndIsActiveTrue(String filename);
+    List<UploadedFile> findByIsActiveTrueAndFileIdGreaterThanOrderByFileIdAsc(Long afterFileId, Pageable pageable);
 }
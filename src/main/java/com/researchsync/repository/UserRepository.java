@@ -35,4 +35,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findUnverifiedUsers();
 
     boolean existsByEmail(String email);
+
+    // Dashboard counters in one round trip: assigned tasks, completed tasks, active files,
+    // involved workspaces and the distinct collaborators across those workspaces
+    @Query(value = "SELECT " +
+            "(SELECT COUNT(*) FROM tasks t WHERE t.assigned_to = :userId), " +
+            "(SELECT COUNT(*) FROM tasks t WHERE t.assigned_to = :userId AND t.status = 'COMPLETED'), " +
+            "(SELECT COUNT(*) FROM uploaded_files f WHERE f.uploaded_by = :userId AND f.is_active = true), " +
+            "(SELECT COUNT(DISTINCT w.workspace_id) FROM workspaces w " +
+            "  LEFT JOIN workspace_members m ON m.workspace_id = w.workspace_id " +
+            "  WHERE w.creator_id = :userId OR (m.user_id = :userId AND m.invitation_status = 'ACCEPTED')), " +
+            "(SELECT COUNT(DISTINCT o.user_id) FROM workspace_members o " +
+            "  WHERE o.invitation_status = 'ACCEPTED' AND o.user_id <> :userId AND o.workspace_id IN (" +
+            "    SELECT w.workspace_id FROM workspaces w WHERE w.creator_id = :userId " +
+            "    UNION SELECT m.workspace_id FROM workspace_members m " +
+            "    WHERE m.user_id = :userId AND m.invitation_status = 'ACCEPTED'))",
+            nativeQuery = true)
+    List<Object[]> countDashboardStats(@Param("userId") Long userId);
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -49,5 +50,8 @@ public interface WorkspaceMemberRepository extends JpaRepository<WorkspaceMember
     @Query("SELECT wm FROM WorkspaceMember wm WHERE wm.joinedDate BETWEEN :startDate AND :endDate")
     List<WorkspaceMember> findMembersJoinedBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 
+    @Query("SELECT wm FROM WorkspaceMember wm WHERE wm.workspace.workspaceId IN :workspaceIds")
+    List<WorkspaceMember> findByWorkspaceIds(@Param("workspaceIds") Collection<Long> workspaceIds);
+
     boolean existsByWorkspaceAndUser(Workspace workspace, User user);
 }
@@ -2,13 +2,17 @@ package com.researchsync.repository;
 
 import com.researchsync.model.User;
 import com.researchsync.model.Workspace;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface WorkspaceRepository extends JpaRepository<Workspace, Long> {
@@ -39,4 +43,36 @@ public interface WorkspaceRepository extends JpaRepository<Workspace, Long> {
 
     @Query("SELECT COUNT(w) FROM Workspace w WHERE w.creator = :user")
     Long countWorkspacesByCreator(@Param("user") User user);
+
+    // Storage usage counters. Uncounted (null) workspaces accept uploads and are filled in by a recount.
+    // A workspace's own quota, when set, wins over the default in both directions.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE workspaces SET storage_used = storage_used + :bytes, file_count = file_count + 1 " +
+            "WHERE workspace_id = :workspaceId AND (storage_used IS NULL OR COALESCE(storage_quota, :quota) < 0 " +
+            "OR storage_used + :bytes <= COALESCE(storage_quota, :quota))", nativeQuery = true)
+    int reserveStorage(@Param("workspaceId") Long workspaceId, @Param("bytes") long bytes, @Param("quota") long defaultQuota);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE workspaces SET storage_used = GREATEST(storage_used - :bytes, 0), " +
+            "file_count = GREATEST(file_count - 1, 0) WHERE workspace_id = :workspaceId", nativeQuery = true)
+    int releaseStorage(@Param("workspaceId") Long workspaceId, @Param("bytes") long bytes);
+
+    @Modifying
+    @Query(value = "UPDATE workspaces SET storage_used = :storageUsed, file_count = :fileCount " +
+            "WHERE workspace_id = :workspaceId", nativeQuery = true)
+    int setStorageUsage(@Param("workspaceId") Long workspaceId, @Param("storageUsed") long storageUsed,
+                        @Param("fileCount") long fileCount);
+
+    @Query("SELECT w.storageUsed FROM Workspace w WHERE w.workspaceId = :workspaceId")
+    Long findStorageUsed(@Param("workspaceId") Long workspaceId);
+
+    @Query("SELECT w.fileCount FROM Workspace w WHERE w.workspaceId = :workspaceId")
+    Long findFileCount(@Param("workspaceId") Long workspaceId);
+
+    @Query("SELECT w.workspaceId FROM Workspace w WHERE w.storageUsed IS NULL OR w.fileCount IS NULL")
+    List<Long> findIdsWithUncountedStorage();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Workspace w WHERE w.workspaceId = :workspaceId")
+    Optional<Workspace> findByIdForUpdate(@Param("workspaceId") Long workspaceId);
 }
@@ -0,0 +1,176 @@
+package com.researchsync.search;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Embedded on-disk Lucene index over uploaded files: original filename, description and
+ * extracted document text, filtered by workspace and ranked with BM25.
+ *
+ * One document per file, keyed by its id, so re-indexing a file replaces it in place.
+ */
+@Component
+public class FileSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(FileSearchIndex.class);
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_WORKSPACE = "workspace";
+    private static final String FIELD_FILENAME = "filename";
+    private static final String FIELD_DESCRIPTION = "description";
+    private static final String FIELD_CONTENT = "content";
+
+    // Matches in the name count most, then the description, then the body text
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(
+            FIELD_FILENAME, 3.0f,
+            FIELD_DESCRIPTION, 2.0f,
+            FIELD_CONTENT, 1.0f);
+
+    @Value("${app.search.index-dir:./search-index/files}")
+    private String indexDir;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private FSDirectory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path indexPath = Paths.get(indexDir);
+        Files.createDirectories(indexPath);
+
+        directory = FSDirectory.open(indexPath);
+        IndexWriterConfig config = new IndexWriterConfig(analyzer);
+        config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        writer = new IndexWriter(directory, config);
+        searcherManager = new SearcherManager(writer, null);
+        log.info("File search index opened at {} with {} documents", indexPath.toAbsolutePath(), writer.getDocStats().numDocs);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Add or replace the document for a file
+     */
+    public void index(Long fileId, Long workspaceId, String filename, String description, String content) throws IOException {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, fileId.toString(), Field.Store.YES));
+        document.add(new StringField(FIELD_WORKSPACE, workspaceId.toString(), Field.Store.NO));
+        document.add(new TextField(FIELD_FILENAME, filename != null ? filename : "", Field.Store.NO));
+        document.add(new TextField(FIELD_DESCRIPTION, description != null ? description : "", Field.Store.NO));
+        document.add(new TextField(FIELD_CONTENT, content != null ? content : "", Field.Store.NO));
+        writer.updateDocument(new Term(FIELD_ID, fileId.toString()), document);
+    }
+
+    public void delete(Long fileId) throws IOException {
+        writer.deleteDocuments(new Term(FIELD_ID, fileId.toString()));
+    }
+
+    /**
+     * Make pending changes durable and visible to searches
+     */
+    public void commit() throws IOException {
+        writer.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    /**
+     * Best matches for a free-text query within one workspace, best first
+     */
+    public List<Hit> search(Long workspaceId, String queryText, int limit) throws IOException {
+        Query query = buildQuery(workspaceId, queryText);
+        if (query == null) {
+            return List.of();
+        }
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs topDocs = searcher.search(query, limit);
+            List<Hit> hits = new ArrayList<>(topDocs.scoreDocs.length);
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                String id = searcher.storedFields().document(scoreDoc.doc).get(FIELD_ID);
+                hits.add(new Hit(Long.valueOf(id), scoreDoc.score));
+            }
+            return hits;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private Query buildQuery(Long workspaceId, String queryText) {
+        if (queryText == null || queryText.trim().isEmpty()) {
+            return null;
+        }
+
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(
+                FIELD_BOOSTS.keySet().toArray(new String[0]), analyzer, FIELD_BOOSTS);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        Query textQuery;
+        try {
+            // User input is treated as plain words, never as Lucene query syntax
+            textQuery = parser.parse(QueryParser.escape(queryText.trim()));
+        } catch (ParseException e) {
+            log.debug("Could not parse search query '{}': {}", queryText, e.getMessage());
+            return null;
+        }
+
+        return new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(FIELD_WORKSPACE, workspaceId.toString())), BooleanClause.Occur.FILTER)
+                .add(textQuery, BooleanClause.Occur.MUST)
+                .build();
+    }
+
+    public static final class Hit {
+        private final Long fileId;
+        private final float score;
+
+        Hit(Long fileId, float score) {
+            this.fileId = fileId;
+            this.score = score;
+        }
+
+        public Long getFileId() { return fileId; }
+
+        public float getScore() { return score; }
+    }
+}
@@ -0,0 +1,168 @@
+package com.researchsync.search;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory Lucene index over task titles and descriptions, ranked with BM25.
+ *
+ * Every query word must match a word of the task, either exactly or as a prefix ("analy"
+ * finds "analysis"); exact matches and matches in the title rank higher. The index is not
+ * persisted: it is rebuilt from the database at startup and kept current from task events.
+ */
+@Component
+public class TaskSearchIndex {
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_WORKSPACE = "workspace";
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_DESCRIPTION = "description";
+
+    private static final float TITLE_BOOST = 3.0f;
+    private static final float PREFIX_BOOST = 0.5f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private ByteBuffersDirectory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    @PostConstruct
+    public void open() throws IOException {
+        directory = new ByteBuffersDirectory();
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Add or replace the document for a task
+     */
+    public void index(Long taskId, Long workspaceId, String title, String description) throws IOException {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, taskId.toString(), Field.Store.YES));
+        document.add(new StringField(FIELD_WORKSPACE, workspaceId.toString(), Field.Store.NO));
+        document.add(new TextField(FIELD_TITLE, title != null ? title : "", Field.Store.NO));
+        document.add(new TextField(FIELD_DESCRIPTION, description != null ? description : "", Field.Store.NO));
+        writer.updateDocument(new Term(FIELD_ID, taskId.toString()), document);
+    }
+
+    public void delete(Long taskId) throws IOException {
+        writer.deleteDocuments(new Term(FIELD_ID, taskId.toString()));
+    }
+
+    public void clear() throws IOException {
+        writer.deleteAll();
+    }
+
+    /**
+     * Make pending changes visible to searches
+     */
+    public void refresh() throws IOException {
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    public int size() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /**
+     * Ids of the best matching tasks, best first; workspaceId null searches all workspaces
+     */
+    public List<Long> search(Long workspaceId, String queryText, int limit) throws IOException {
+        Query query = buildQuery(workspaceId, queryText);
+        if (query == null) {
+            return List.of();
+        }
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs topDocs = searcher.search(query, limit);
+            List<Long> taskIds = new ArrayList<>(topDocs.scoreDocs.length);
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                taskIds.add(Long.valueOf(searcher.storedFields().document(scoreDoc.doc).get(FIELD_ID)));
+            }
+            return taskIds;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private Query buildQuery(Long workspaceId, String queryText) throws IOException {
+        List<String> words = tokenize(queryText);
+        if (words.isEmpty()) {
+            return null;
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        if (workspaceId != null) {
+            query.add(new TermQuery(new Term(FIELD_WORKSPACE, workspaceId.toString())), BooleanClause.Occur.FILTER);
+        }
+        for (String word : words) {
+            query.add(wordQuery(word), BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    private Query wordQuery(String word) {
+        BooleanQuery.Builder either = new BooleanQuery.Builder()
+                .add(new BoostQuery(new TermQuery(new Term(FIELD_TITLE, word)), TITLE_BOOST), BooleanClause.Occur.SHOULD)
+                .add(new TermQuery(new Term(FIELD_DESCRIPTION, word)), BooleanClause.Occur.SHOULD);
+        if (word.length() >= MIN_PREFIX_LENGTH) {
+            either.add(new BoostQuery(new PrefixQuery(new Term(FIELD_TITLE, word)), TITLE_BOOST * PREFIX_BOOST), BooleanClause.Occur.SHOULD)
+                    .add(new BoostQuery(new PrefixQuery(new Term(FIELD_DESCRIPTION, word)), PREFIX_BOOST), BooleanClause.Occur.SHOULD);
+        }
+        return either.build();
+    }
+
+    // Same analysis as the indexed text, so query words line up with indexed terms
+    private List<String> tokenize(String text) throws IOException {
+        List<String> words = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return words;
+        }
+        try (TokenStream stream = analyzer.tokenStream(FIELD_TITLE, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                words.add(term.toString());
+            }
+            stream.end();
+        }
+        return words;
+    }
+}
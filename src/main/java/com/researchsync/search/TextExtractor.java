@@ -0,0 +1,125 @@
+package com.researchsync.search;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Pulls plain text out of the document types worth searching (txt, csv, md, pdf, docx).
+ * Output is capped so a single huge document cannot dominate the indexer's memory.
+ */
+@Component
+public class TextExtractor {
+
+    private static final Set<String> PLAIN_TEXT_EXTENSIONS = Set.of("txt", "csv", "md", "markdown");
+
+    @Value("${app.search.max-extracted-chars:1000000}")
+    private int maxChars;
+
+    @Value("${app.search.max-extract-file-size:50MB}")
+    private DataSize maxFileSize;
+
+    public boolean supports(String extension) {
+        return PLAIN_TEXT_EXTENSIONS.contains(extension) || "pdf".equals(extension) || "docx".equals(extension);
+    }
+
+    /**
+     * Text content of the file, or an empty string if the type is not searchable
+     *
+     * @param content the file's logical (decompressed) bytes; the caller closes it
+     */
+    public String extract(InputStream content, String extension, long size) throws IOException {
+        if (!supports(extension) || size > maxFileSize.toBytes()) {
+            return "";
+        }
+        if ("pdf".equals(extension)) {
+            return extractPdf(content);
+        }
+        if ("docx".equals(extension)) {
+            return extractDocx(content);
+        }
+        return extractPlainText(content);
+    }
+
+    private String extractPlainText(InputStream content) throws IOException {
+        // Undecodable bytes become replacement characters instead of failing the whole file
+        Reader reader = new InputStreamReader(content, StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE));
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[8192];
+        int read;
+        while (text.length() < maxChars && (read = reader.read(buffer)) != -1) {
+            text.append(buffer, 0, Math.min(read, maxChars - text.length()));
+        }
+        return text.toString();
+    }
+
+    private String extractPdf(InputStream content) throws IOException {
+        try (PDDocument document = Loader.loadPDF(new RandomAccessReadBuffer(content))) {
+            String text = new PDFTextStripper().getText(document);
+            return text.length() > maxChars ? text.substring(0, maxChars) : text;
+        }
+    }
+
+    /**
+     * A .docx is a zip; the body text sits in the w:t runs of word/document.xml
+     */
+    private String extractDocx(InputStream content) throws IOException {
+        ZipInputStream zip = new ZipInputStream(content);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if ("word/document.xml".equals(entry.getName())) {
+                return extractDocumentXml(zip);
+            }
+        }
+        return "";
+    }
+
+    private String extractDocumentXml(InputStream in) throws IOException {
+        try {
+            XMLInputFactory factory = XMLInputFactory.newFactory();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            StringBuilder text = new StringBuilder();
+            boolean inText = false;
+            while (reader.hasNext() && text.length() < maxChars) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    inText = "t".equals(reader.getLocalName());
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if ("p".equals(reader.getLocalName())) {
+                        text.append('\n');
+                    }
+                    inText = false;
+                } else if (inText && event == XMLStreamConstants.CHARACTERS) {
+                    text.append(reader.getText());
+                }
+            }
+            reader.close();
+            return text.length() > maxChars ? text.substring(0, maxChars) : text.toString();
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed docx: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package com.researchsync.service;
+
+import com.researchsync.exception.TooManyTransfersException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Shares upload and download bandwidth fairly between users.
+ *
+ * Every transfer draws from its user's bucket, its workspace's bucket and a global bucket;
+ * any of them may be unlimited. A transfer takes at most QUANTUM bytes at a time, and only
+ * once every one of its buckets holds them; until then it sleeps for as long as the emptiest
+ * bucket needs to refill, without holding tokens it cannot use yet. Small takes mean active
+ * transfers sharing a bucket interleave and each gets about an equal share of it.
+ *
+ * A throttled transfer keeps its request thread while it sleeps, so each user may only run
+ * a few at once; begin() refuses the rest with TooManyTransfersException.
+ *
+ * Each transfer's current throughput is published as the bandwidth.transfer.rate gauge.
+ */
+@Service
+public class BandwidthScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(BandwidthScheduler.class);
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+
+    // Largest booking; smaller means finer interleaving between transfers
+    private static final int QUANTUM = 64 * 1024;
+
+    private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Value("${app.bandwidth.enabled:false}")
+    private boolean enabled;
+
+    // All limits are per second; zero or negative means unlimited
+    @Value("${app.bandwidth.global:0}")
+    private DataSize globalLimit;
+
+    @Value("${app.bandwidth.per-user:0}")
+    private DataSize perUserLimit;
+
+    @Value("${app.bandwidth.per-workspace:0}")
+    private DataSize perWorkspaceLimit;
+
+    // How far a bucket may fill while idle, in seconds of its rate
+    @Value("${app.bandwidth.burst-seconds:1}")
+    private double burstSeconds;
+
+    // Concurrent transfers per user; zero or negative means no cap
+    @Value("${app.bandwidth.max-transfers-per-user:4}")
+    private int maxTransfersPerUser;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private TokenBucket globalBucket;
+    private final Map<Long, SharedBucket> userBuckets = new ConcurrentHashMap<>();
+    private final Map<Long, SharedBucket> workspaceBuckets = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> userTransfers = new ConcurrentHashMap<>();
+    private final AtomicLong transferIds = new AtomicLong();
+    private final AtomicInteger activeTransfers = new AtomicInteger();
+
+    private Timer throttledTime;
+
+    @PostConstruct
+    public void init() {
+        globalBucket = globalLimit.toBytes() > 0 ? newBucket(globalLimit) : null;
+        throttledTime = meterRegistry.timer("bandwidth.throttled");
+        Gauge.builder("bandwidth.transfers.active", activeTransfers, AtomicInteger::get).register(meterRegistry);
+        if (enabled) {
+            log.info("Bandwidth limits: global {}/s, per user {}/s, per workspace {}/s",
+                    describe(globalLimit), describe(perUserLimit), describe(perWorkspaceLimit));
+        }
+    }
+
+    /**
+     * Start accounting a transfer; close it when the transfer ends
+     *
+     * @param direction "upload" or "download"
+     * @throws TooManyTransfersException if the user already runs as many transfers as allowed
+     */
+    public Transfer begin(Long userId, Long workspaceId, String direction) {
+        if (!enabled) {
+            return new Transfer(this, null, null, direction, userId, workspaceId);
+        }
+        if (userId != null && maxTransfersPerUser > 0) {
+            userTransfers.compute(userId, (k, count) -> {
+                int running = count == null ? 0 : count;
+                if (running >= maxTransfersPerUser) {
+                    throw new TooManyTransfersException("At most " + maxTransfersPerUser
+                            + " uploads and downloads can run at once; try again when one has finished");
+                }
+                return running + 1;
+            });
+        }
+        SharedBucket user = perUserLimit.toBytes() > 0 && userId != null
+                ? join(userBuckets, userId, perUserLimit) : null;
+        SharedBucket workspace = perWorkspaceLimit.toBytes() > 0 && workspaceId != null
+                ? join(workspaceBuckets, workspaceId, perWorkspaceLimit) : null;
+        return new Transfer(this, user, workspace, direction, userId, workspaceId);
+    }
+
+    private SharedBucket join(Map<Long, SharedBucket> buckets, Long key, DataSize limit) {
+        return buckets.compute(key, (k, shared) -> {
+            if (shared == null) {
+                shared = new SharedBucket(newBucket(limit));
+            }
+            shared.transfers++;
+            return shared;
+        });
+    }
+
+    private void leave(Map<Long, SharedBucket> buckets, Long key) {
+        // The last transfer out drops the bucket, so idle users cost nothing
+        buckets.computeIfPresent(key, (k, shared) -> --shared.transfers > 0 ? shared : null);
+    }
+
+    private void endTransfer(Long userId) {
+        if (userId != null && maxTransfersPerUser > 0) {
+            userTransfers.computeIfPresent(userId, (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private TokenBucket newBucket(DataSize limit) {
+        long rate = limit.toBytes();
+        return new TokenBucket(rate, Math.max(QUANTUM, (long) (rate * burstSeconds)));
+    }
+
+    private static String describe(DataSize limit) {
+        return limit.toBytes() > 0 ? limit.toString() : "unlimited";
+    }
+
+    /**
+     * Token bucket that never goes into debt. Tokens are taken from several buckets together
+     * or not at all; see take().
+     */
+    static final class TokenBucket {
+        private final double bytesPerNano;
+        private final long capacity;
+        private double available;
+        private long lastRefill;
+
+        TokenBucket(long bytesPerSecond, long capacity) {
+            this.bytesPerNano = bytesPerSecond / 1e9;
+            this.capacity = capacity;
+            this.available = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        /**
+         * Take bytes from every bucket if all of them hold that many, otherwise from none.
+         * Buckets must be passed in a fixed order (user, workspace, global) so that callers
+         * locking them one inside the other cannot deadlock.
+         *
+         * @return 0 once taken, else roughly how long until the emptiest bucket could supply them
+         */
+        static long take(TokenBucket[] buckets, long bytes) {
+            return take(buckets, 0, bytes);
+        }
+
+        private static long take(TokenBucket[] buckets, int next, long bytes) {
+            if (next < buckets.length) {
+                synchronized (buckets[next]) {
+                    return take(buckets, next + 1, bytes);
+                }
+            }
+            long now = System.nanoTime();
+            long waitNanos = 0;
+            for (TokenBucket bucket : buckets) {
+                waitNanos = Math.max(waitNanos, bucket.waitFor(bytes, now));
+            }
+            if (waitNanos == 0) {
+                for (TokenBucket bucket : buckets) {
+                    bucket.available -= bytes;
+                }
+            }
+            return waitNanos;
+        }
+
+        // Caller holds the bucket's monitor
+        private long waitFor(long bytes, long now) {
+            available = Math.min(capacity, available + (now - lastRefill) * bytesPerNano);
+            lastRefill = now;
+            return available >= bytes ? 0 : Math.max(1, (long) ((bytes - available) / bytesPerNano));
+        }
+    }
+
+    private static final class SharedBucket {
+        final TokenBucket bucket;
+        int transfers;
+
+        SharedBucket(TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+
+    /**
+     * One upload or download. Streams and servlet objects passed through wrap() are throttled
+     * and counted; when bandwidth limiting is off they are returned untouched.
+     */
+    public static final class Transfer implements Closeable {
+        private final BandwidthScheduler scheduler;
+        private final SharedBucket user;
+        private final SharedBucket workspace;
+        private final Long userId;
+        private final Long workspaceId;
+        private final Gauge rateGauge;
+        private final Counter bytesCounter;
+        private final TokenBucket[] buckets;
+
+        private long windowStart = System.nanoTime();
+        private long windowBytes;
+        private volatile double rate;
+        private boolean closed;
+
+        Transfer(BandwidthScheduler scheduler, SharedBucket user, SharedBucket workspace,
+                 String direction, Long userId, Long workspaceId) {
+            this.scheduler = scheduler;
+            this.user = user;
+            this.workspace = workspace;
+            this.userId = userId;
+            this.workspaceId = workspaceId;
+            if (scheduler.enabled) {
+                scheduler.activeTransfers.incrementAndGet();
+                Tags tags = Tags.of("direction", direction, "transfer", String.valueOf(scheduler.transferIds.incrementAndGet()),
+                        "user", String.valueOf(userId), "workspace", String.valueOf(workspaceId));
+                rateGauge = Gauge.builder("bandwidth.transfer.rate", this, transfer -> transfer.rate)
+                        .baseUnit("bytes")
+                        .description("Bytes per second over the last second of an active transfer")
+                        .tags(tags)
+                        .register(scheduler.meterRegistry);
+                bytesCounter = scheduler.meterRegistry.counter("bandwidth.bytes", "direction", direction);
+            } else {
+                rateGauge = null;
+                bytesCounter = null;
+            }
+            buckets = Stream.of(user != null ? user.bucket : null, workspace != null ? workspace.bucket : null,
+                    scheduler.globalBucket).filter(Objects::nonNull).toArray(TokenBucket[]::new);
+        }
+
+        public boolean isLimited() {
+            return scheduler.enabled;
+        }
+
+        /**
+         * Take bytes from every bucket the transfer draws from, waiting until all can supply them
+         */
+        void acquire(int bytes) throws IOException {
+            if (!scheduler.enabled) {
+                return;
+            }
+            long throttledNanos = 0;
+            long waitNanos;
+            while ((waitNanos = TokenBucket.take(buckets, bytes)) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while throttled");
+                }
+                throttledNanos += waitNanos;
+            }
+            if (throttledNanos > 0) {
+                scheduler.throttledTime.record(throttledNanos, TimeUnit.NANOSECONDS);
+            }
+            record(bytes);
+        }
+
+        private void record(int bytes) {
+            bytesCounter.increment(bytes);
+            windowBytes += bytes;
+            long now = System.nanoTime();
+            long elapsed = now - windowStart;
+            if (elapsed >= RATE_WINDOW_NANOS) {
+                rate = windowBytes * 1e9 / elapsed;
+                windowBytes = 0;
+                windowStart = now;
+            }
+        }
+
+        public InputStream wrap(InputStream in) {
+            return scheduler.enabled ? new ThrottledInputStream(in, this) : in;
+        }
+
+        public OutputStream wrap(OutputStream out) {
+            return scheduler.enabled ? new ThrottledOutputStream(out, this) : out;
+        }
+
+        /**
+         * Hides the container's sendfile support, which would bypass the throttled stream
+         */
+        public HttpServletRequest wrap(HttpServletRequest request) {
+            if (!scheduler.enabled) {
+                return request;
+            }
+            return new HttpServletRequestWrapper(request) {
+                @Override
+                public Object getAttribute(String name) {
+                    return SENDFILE_SUPPORT_ATTR.equals(name) ? null : super.getAttribute(name);
+                }
+            };
+        }
+
+        public HttpServletResponse wrap(HttpServletResponse response) {
+            if (!scheduler.enabled) {
+                return response;
+            }
+            Transfer transfer = this;
+            return new HttpServletResponseWrapper(response) {
+                private ServletOutputStream stream;
+
+                @Override
+                public ServletOutputStream getOutputStream() throws IOException {
+                    if (stream == null) {
+                        stream = new ThrottledServletOutputStream(super.getOutputStream(), transfer);
+                    }
+                    return stream;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            if (closed || !scheduler.enabled) {
+                return;
+            }
+            closed = true;
+            scheduler.activeTransfers.decrementAndGet();
+            scheduler.meterRegistry.remove(rateGauge);
+            scheduler.endTransfer(userId);
+            if (user != null) {
+                scheduler.leave(scheduler.userBuckets, userId);
+            }
+            if (workspace != null) {
+                scheduler.leave(scheduler.workspaceBuckets, workspaceId);
+            }
+        }
+    }
+
+    private static final class ThrottledInputStream extends FilterInputStream {
+        private final Transfer transfer;
+
+        ThrottledInputStream(InputStream in, Transfer transfer) {
+            super(in);
+            this.transfer = transfer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                transfer.acquire(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, Math.min(len, QUANTUM));
+            if (read > 0) {
+                transfer.acquire(read);
+            }
+            return read;
+        }
+    }
+
+    private static final class ThrottledOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final Transfer transfer;
+
+        ThrottledOutputStream(OutputStream out, Transfer transfer) {
+            this.out = out;
+            this.transfer = transfer;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            transfer.acquire(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int count = Math.min(len, QUANTUM);
+                transfer.acquire(count);
+                out.write(b, off, count);
+                off += count;
+                len -= count;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static final class ThrottledServletOutputStream extends ServletOutputStream {
+        private final ServletOutputStream out;
+        private final Transfer transfer;
+
+        ThrottledServletOutputStream(ServletOutputStream out, Transfer transfer) {
+            this.out = out;
+            this.transfer = transfer;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            transfer.acquire(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int count = Math.min(len, QUANTUM);
+                transfer.acquire(count);
+                out.write(b, off, count);
+                off += count;
+                len -= count;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return out.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            out.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package com.researchsync.service;
+
+import com.researchsync.model.FileBlob;
+import com.researchsync.repository.FileBlobRepository;
+import com.researchsync.storage.BlobBackend;
+import com.researchsync.storage.CompressionPolicy;
+import com.researchsync.storage.HotFileCache;
+import com.researchsync.storage.Ingest;
+import com.researchsync.storage.LocalDirectoryBackend;
+import com.researchsync.storage.PackFileBackend;
+import com.researchsync.storage.StorageLayout;
+import com.researchsync.storage.StoredRegion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed, deduplicated file store. Every distinct content is kept once on disk
+ * under its SHA-256 and shared by all UploadedFile rows that reference it.
+ *
+ * The physical file is placed just before the surrounding transaction commits, so a failure
+ * rolls the upload back instead of committing a row without bytes. Removal happens after
+ * commit. Both run under a per-hash lock, and removal re-checks the database and skips blobs
+ * an uncommitted upload has just placed, so a concurrent upload of the same content can never
+ * lose its file to a concurrent delete.
+ *
+ * Where the bytes go is up to a BlobBackend: small blobs into pack segments when packing is
+ * enabled, everything else into its own file in the sharded uploads directory.
+ */
+@Service
+public class BlobStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobStorageService.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private FileBlobRepository fileBlobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LocalDirectoryBackend localDirectoryBackend;
+
+    @Autowired
+    private PackFileBackend packFileBackend;
+
+    @Autowired
+    private CompressionPolicy compressionPolicy;
+
+    @Autowired
+    private HotFileCache hotFileCache;
+
+    @Value("${app.upload.staging-dir:${app.upload.dir:./uploads/}/.staging}")
+    private String stagingDir;
+
+    private final Object[] hashLocks = new Object[LOCK_STRIPES];
+
+    // Blobs placed by uploads whose transaction has not finished yet; changed under the hash lock
+    private final Map<String, Integer> unsettledPlacements = new ConcurrentHashMap<>();
+
+    public BlobStorageService() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            hashLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Stream content into the store in a single pass: it is hashed, size-checked and written
+     * to staging as it is read, and its leading bytes are sniffed and checked before the copy.
+     * Compressible content is gzipped on the way in when compression at rest is enabled.
+     */
+    @Transactional
+    public FileBlob store(InputStream content, String contentType, String filename, Ingest ingest) throws IOException {
+        Path stagedFile = Files.createTempFile(getStagingPath(), "blob-", ".tmp");
+        MessageDigest digest = newDigest();
+        String encoding = null;
+        long size;
+
+        // Buffered above the digest so peeking at the sample does not hash it twice
+        try (InputStream in = new BufferedInputStream(new DigestInputStream(ingest.wrap(content), digest), CompressionPolicy.SAMPLE_SIZE)) {
+            byte[] sample = peekSample(in);
+            // A rejected type is refused before anything is written to staging
+            ingest.inspect(sample, sample.length);
+
+            // A short sample is the whole upload, so small ones skip compression like staged ones do
+            long knownSize = sample.length < CompressionPolicy.SAMPLE_SIZE ? sample.length : -1;
+            if (compressionPolicy.isCandidate(contentType, filename, knownSize) && compressionPolicy.looksCompressible(sample, sample.length)) {
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(stagedFile), BUFFER_SIZE)) {
+                    size = in.transferTo(out);
+                }
+                encoding = CompressionPolicy.GZIP;
+            } else {
+                size = Files.copy(in, stagedFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(stagedFile);
+            throw e;
+        }
+
+        if (encoding != null && Files.size(stagedFile) >= size) {
+            // The sample misled us; keep the original bytes instead
+            Path decompressed = recode(stagedFile, false);
+            Files.deleteIfExists(stagedFile);
+            stagedFile = decompressed;
+            encoding = null;
+        }
+        return addStaged(stagedFile, toHex(digest.digest()), size, encoding);
+    }
+
+    /**
+     * Take ownership of a fully written staging file and add one reference to its blob.
+     * If the content is already stored the staging file is discarded instead of kept twice.
+     *
+     * @param contentHash SHA-256 of the file if the caller already computed it, otherwise null
+     */
+    @Transactional
+    public FileBlob storeStaged(Path stagedFile, String contentHash, String contentType, String filename) throws IOException {
+        String hash = contentHash != null ? contentHash : hashFile(stagedFile);
+        long size = Files.size(stagedFile);
+        String encoding = null;
+
+        if (compressionPolicy.isCandidate(contentType, filename, size) && sampleLooksCompressible(stagedFile)) {
+            // Chunks arrive raw; compressing them costs one extra pass over the staged file
+            Path compressed = recode(stagedFile, true);
+            if (Files.size(compressed) < size) {
+                Files.deleteIfExists(stagedFile);
+                stagedFile = compressed;
+                encoding = CompressionPolicy.GZIP;
+            } else {
+                Files.deleteIfExists(compressed);
+            }
+        }
+        return addStaged(stagedFile, hash, size, encoding);
+    }
+
+    private FileBlob addStaged(Path stagedFile, String hash, long size, String encoding) throws IOException {
+        long storedSize = Files.size(stagedFile);
+        BlobBackend backend = packFileBackend.accepts(storedSize) ? packFileBackend : localDirectoryBackend;
+
+        // Content already in a pack is referenced where it is instead of being appended again
+        String existing = backend == packFileBackend ? fileBlobRepository.findStoragePath(hash) : null;
+        boolean reused = existing != null && packFileBackend.contains(existing);
+        String location = reused ? existing : backend.prepare(hash, encoding, stagedFile);
+
+        fileBlobRepository.addReference(hash, size, location, encoding, storedSize, LocalDateTime.now());
+        Integer refCount = fileBlobRepository.findRefCount(hash);
+        if (reused && refCount != null && refCount == 1) {
+            // The row was deleted after the lookup and this upload re-created it; append after all
+            location = backend.prepare(hash, encoding, stagedFile);
+            fileBlobRepository.updateStoragePath(hash, location);
+            reused = false;
+        }
+        log.debug("Added reference to blob {} ({} bytes, {} stored by {})", hash, size, storedSize, backend.getName());
+
+        // When the content was already stored, its existing file wins whatever its encoding
+        boolean ownsFile = !reused && location.equals(fileBlobRepository.findStoragePath(hash))
+                && Objects.equals(encoding, fileBlobRepository.findEncoding(hash));
+        Path finalStagedFile = stagedFile;
+        String finalLocation = location;
+
+        if (!ownsFile) {
+            afterTransaction(committed -> deleteQuietly(finalStagedFile));
+        } else if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            placeBlob(backend, finalStagedFile, finalLocation, hash);
+        } else {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean placed;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // Throwing here rolls the upload back
+                    placeUnsettled(backend, finalStagedFile, finalLocation, hash);
+                    placed = true;
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (placed) {
+                        settle(hash, finalLocation, status == STATUS_COMMITTED);
+                    } else {
+                        deleteQuietly(finalStagedFile);
+                    }
+                }
+            });
+        }
+
+        return fileBlobRepository.getReferenceById(hash);
+    }
+
+    /**
+     * Logical content of a stored blob, decompressing if it is stored compressed
+     */
+    public InputStream openBlob(String location, String encoding) throws IOException {
+        InputStream in = backendFor(location).open(location);
+        return CompressionPolicy.GZIP.equals(encoding) ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+    }
+
+    /**
+     * The stored bytes behind a location, or null when they are missing
+     */
+    public StoredRegion locate(String location) throws IOException {
+        return backendFor(location).locate(location);
+    }
+
+    /**
+     * Whether a location is a plain file of its own rather than an entry inside a pack
+     */
+    public boolean isFileLocation(String location) {
+        return localDirectoryBackend.handles(location);
+    }
+
+    /**
+     * Drop one reference; the blob is removed from disk once nothing points at it
+     */
+    @Transactional
+    public void release(String hash) {
+        fileBlobRepository.removeReference(hash);
+        Integer remaining = fileBlobRepository.findRefCount(hash);
+        log.debug("Released reference to blob {}, {} remaining", hash, remaining);
+
+        if (remaining != null && remaining <= 0) {
+            String storagePath = fileBlobRepository.findStoragePath(hash);
+            fileBlobRepository.deleteIfUnreferenced(hash);
+
+            afterTransaction(committed -> {
+                if (committed) {
+                    hotFileCache.invalidate(hash);
+                    deleteIfUnreferenced(hash, storagePath);
+                }
+            });
+        }
+    }
+
+    /**
+     * Compute the SHA-256 of a file on disk
+     */
+    public String hashFile(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return toHex(digest.digest());
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static String toHex(byte[] digest) {
+        return HexFormat.of().formatHex(digest);
+    }
+
+    private byte[] peekSample(InputStream in) throws IOException {
+        in.mark(CompressionPolicy.SAMPLE_SIZE);
+        byte[] sample = in.readNBytes(CompressionPolicy.SAMPLE_SIZE);
+        in.reset();
+        return sample;
+    }
+
+    private boolean sampleLooksCompressible(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] sample = in.readNBytes(CompressionPolicy.SAMPLE_SIZE);
+            return compressionPolicy.looksCompressible(sample, sample.length);
+        }
+    }
+
+    /**
+     * Gzip (or gunzip) a staging file into a new staging file, leaving the original in place
+     */
+    private Path recode(Path source, boolean compress) throws IOException {
+        Path target = Files.createTempFile(getStagingPath(), "blob-", ".tmp");
+        try (InputStream in = compress ? Files.newInputStream(source) : new GZIPInputStream(Files.newInputStream(source), BUFFER_SIZE);
+             OutputStream out = compress ? new GZIPOutputStream(Files.newOutputStream(target), BUFFER_SIZE) : Files.newOutputStream(target)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        return target;
+    }
+
+    private Path getStagingPath() throws IOException {
+        Path stagingPath = Paths.get(stagingDir);
+        if (!Files.exists(stagingPath)) {
+            Files.createDirectories(stagingPath);
+        }
+        return stagingPath;
+    }
+
+    private BlobBackend backendFor(String location) {
+        return packFileBackend.handles(location) ? packFileBackend : localDirectoryBackend;
+    }
+
+    private void placeBlob(BlobBackend backend, Path stagedFile, String location, String hash) {
+        synchronized (lockFor(hash)) {
+            try {
+                backend.place(hash, location, stagedFile);
+            } catch (IOException e) {
+                log.error("Failed to place blob {} at {}", hash, location, e);
+                deleteQuietly(stagedFile);
+                throw new RuntimeException("Failed to store file: " + e.getMessage());
+            }
+        }
+    }
+
+    private void placeUnsettled(BlobBackend backend, Path stagedFile, String location, String hash) {
+        synchronized (lockFor(hash)) {
+            placeBlob(backend, stagedFile, location, hash);
+            unsettledPlacements.merge(hash, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * The placing transaction finished: a commit leaves the bytes to the row, a rollback
+     * removes them unless something else references the blob by now
+     */
+    private void settle(String hash, String location, boolean committed) {
+        synchronized (lockFor(hash)) {
+            unsettledPlacements.computeIfPresent(hash, (key, count) -> count > 1 ? count - 1 : null);
+            if (!committed) {
+                deleteIfUnreferenced(hash, location);
+            }
+        }
+    }
+
+    private void deleteIfUnreferenced(String hash, String location) {
+        synchronized (lockFor(hash)) {
+            // A concurrent upload may have re-created the blob row since our transaction removed it
+            if (blobExists(hash)) {
+                log.debug("Blob {} was referenced again, keeping it on disk", hash);
+                return;
+            }
+            // Or placed it for a row it has not committed yet; it cleans up itself if it rolls back
+            if (unsettledPlacements.containsKey(hash)) {
+                log.debug("Blob {} is being stored again, keeping it on disk", hash);
+                return;
+            }
+            try {
+                backendFor(location).delete(hash, location);
+            } catch (IOException e) {
+                log.warn("Warning: Failed to delete blob from disk: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Apply action to a file named after a blob only if the blob row does not point at it.
+     * Runs under the hash lock, so a concurrent upload of the same content either sees the
+     * file before it is collected or places its own copy afterwards.
+     *
+     * @return true if the file was unreferenced and the action ran
+     */
+    public boolean collectIfUnreferenced(String hash, Path file, FileAction action) throws IOException {
+        synchronized (lockFor(hash)) {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            template.setReadOnly(true);
+            String storagePath = template.execute(status -> fileBlobRepository.findStoragePath(hash));
+            if (unsettledPlacements.containsKey(hash)) {
+                return false;
+            }
+
+            if (storagePath != null && isFileLocation(storagePath)) {
+                Path recorded = Paths.get(storagePath);
+                if (StorageLayout.isSameFile(recorded, file)) {
+                    return false;
+                }
+                // Same name at another location is what resolveStoredPath falls back to
+                if (recorded.getFileName().equals(file.getFileName()) && !Files.exists(recorded)) {
+                    return false;
+                }
+            }
+            action.apply(file);
+            return true;
+        }
+    }
+
+    @FunctionalInterface
+    public interface FileAction {
+        void apply(Path file) throws IOException;
+    }
+
+    private boolean blobExists(String hash) {
+        // Runs after commit, so the lookup needs its own transaction rather than the finished one
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        return Boolean.TRUE.equals(template.execute(status -> fileBlobRepository.existsById(hash)));
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Warning: Failed to delete staging file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Object lockFor(String hash) {
+        return hashLocks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private void afterTransaction(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
@@ -0,0 +1,448 @@
+package com.researchsync.service;
+
+import com.researchsync.exception.StorageQuotaExceededException;
+import com.researchsync.exception.UploadConflictException;
+import com.researchsync.exception.UploadRejectedException;
+import com.researchsync.model.UploadSession;
+import com.researchsync.model.UploadedFile;
+import com.researchsync.model.User;
+import com.researchsync.model.Workspace;
+import com.researchsync.repository.UploadSessionRepository;
+import com.researchsync.storage.UploadPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Resumable upload protocol: init a session, PUT numbered chunks, then commit.
+ * Chunk bodies are streamed straight into a per-upload staging file at their offset,
+ * and commit renames that file into the blob store.
+ *
+ * A session left untouched for the session TTL is abandoned: it stops counting against the
+ * workspace quota at once, and a scheduled sweep aborts it and deletes its staged chunks.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final int SWEEP_BATCH_SIZE = 100;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private WorkspaceService workspaceService;
+
+    @Autowired
+    private WorkspaceStorageService workspaceStorageService;
+
+    @Autowired
+    private UploadPolicy uploadPolicy;
+
+    @Value("${app.upload.staging-dir:${app.upload.dir:./uploads/}/.staging}")
+    private String stagingDir;
+
+    @Value("${app.upload.chunk-size:8MB}")
+    private DataSize defaultChunkSize;
+
+    @Value("${app.upload.max-chunk-size:64MB}")
+    private DataSize maxChunkSize;
+
+    @Value("${app.upload.max-chunked-file-size:20GB}")
+    private DataSize maxFileSize;
+
+    @Value("${app.upload.session-ttl:PT24H}")
+    private Duration sessionTtl;
+
+    // One monitor per upload so concurrent PUTs of the same upload cannot interleave offsets
+    private final ConcurrentHashMap<String, Object> uploadLocks = new ConcurrentHashMap<>();
+
+    // Running SHA-256 over the bytes received so far, so commit does not re-read the staging file.
+    // Lost on restart; the blob store then hashes the staged file itself.
+    private final ConcurrentHashMap<String, MessageDigest> uploadDigests = new ConcurrentHashMap<>();
+
+    /**
+     * Open a new upload session and create its empty staging file
+     */
+    public UploadSession initUpload(Workspace workspace, User uploader, String originalFilename,
+                                    String contentType, long totalSize, Long requestedChunkSize,
+                                    String category, String description) {
+        if (originalFilename == null || originalFilename.trim().isEmpty()) {
+            throw new RuntimeException("Filename is required");
+        }
+        if (totalSize < 0) {
+            throw new RuntimeException("File size cannot be negative");
+        }
+        if (totalSize > maxFileSize.toBytes()) {
+            throw new RuntimeException("File exceeds the maximum upload size of " + maxFileSize.toMegabytes() + " MB");
+        }
+
+        long chunkSize = requestedChunkSize != null ? requestedChunkSize : defaultChunkSize.toBytes();
+        if (chunkSize <= 0 || chunkSize > maxChunkSize.toBytes()) {
+            throw new RuntimeException("Chunk size must be between 1 byte and " + maxChunkSize.toMegabytes() + " MB");
+        }
+
+        String resolvedCategory = category != null && !category.trim().isEmpty() ? category : "Other";
+        uploadPolicy.checkSize(resolvedCategory, totalSize);
+
+        // The whole declared size must fit before the first chunk is accepted
+        workspaceStorageService.checkQuota(workspace, totalSize);
+
+        try {
+            String uploadId = UUID.randomUUID().toString();
+            Path stagingPath = getStagingPath().resolve(uploadId + ".part");
+            Files.createFile(stagingPath);
+
+            UploadSession session = new UploadSession();
+            session.setUploadId(uploadId);
+            session.setWorkspace(workspace);
+            session.setUploadedBy(uploader);
+            session.setOriginalFilename(originalFilename.trim());
+            session.setContentType(contentType);
+            session.setCategory(resolvedCategory);
+            session.setDescription(description);
+            session.setTotalSize(totalSize);
+            session.setChunkSize(chunkSize);
+            session.setReceivedBytes(0L);
+            session.setStagingPath(stagingPath.toString());
+            session.setExpiresAt(LocalDateTime.now().plus(sessionTtl));
+
+            UploadSession savedSession = uploadSessionRepository.save(session);
+            log.info("Chunked upload {} started for {} ({} bytes in {} chunks)",
+                    uploadId, originalFilename, totalSize, savedSession.getChunkCount());
+            return savedSession;
+
+        } catch (IOException e) {
+            log.error("Failed to create staging file for chunked upload", e);
+            throw new RuntimeException("Failed to start upload: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Find an upload session owned by the given user
+     */
+    public UploadSession getUpload(String uploadId, User user) {
+        UploadSession session = uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new RuntimeException("Upload not found: " + uploadId));
+
+        if (!session.getUploadedBy().getUserId().equals(user.getUserId())) {
+            log.warn("User {} attempted to access upload {} owned by another user", user.getEmail(), uploadId);
+            throw new RuntimeException("Upload not found: " + uploadId);
+        }
+        return session;
+    }
+
+    /**
+     * Active uploads of a user, so a client can resume after losing its upload id
+     */
+    public List<UploadSession> getActiveUploads(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        return uploadSessionRepository.findByUploadedByAndStatus(user, UploadSession.UploadStatus.ACTIVE).stream()
+                .filter(session -> !session.isExpired(now))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Stream one chunk into the staging file at its offset.
+     * Re-sending a chunk that is already stored is a no-op, so clients can retry blindly.
+     */
+    public UploadSession writeChunk(String uploadId, long chunkIndex, InputStream body, User user) {
+        synchronized (lockFor(uploadId)) {
+            UploadSession session = getUpload(uploadId, user);
+            requireActive(session);
+
+            if (chunkIndex < 0 || chunkIndex >= session.getChunkCount()) {
+                throw new RuntimeException("Chunk index " + chunkIndex + " is out of range (0-"
+                        + (session.getChunkCount() - 1) + ")");
+            }
+
+            long offset = chunkIndex * session.getChunkSize();
+            long received = session.getReceivedBytes();
+
+            if (offset < received) {
+                log.debug("Chunk {} of upload {} already stored, ignoring retry", chunkIndex, uploadId);
+                return session;
+            }
+            if (offset > received) {
+                throw new UploadConflictException("Expected chunk " + session.getNextChunkIndex()
+                        + " but received chunk " + chunkIndex, received);
+            }
+
+            long expectedLength = Math.min(session.getChunkSize(), session.getTotalSize() - offset);
+            MessageDigest chunkDigest = digestContinuing(uploadId, offset);
+
+            try {
+                long written = writeAt(Paths.get(session.getStagingPath()), offset, body, expectedLength, chunkDigest);
+                if (written != expectedLength) {
+                    // Partial bytes past the offset are simply overwritten by the retry
+                    throw new RuntimeException("Chunk " + chunkIndex + " was incomplete: expected "
+                            + expectedLength + " bytes, received " + written);
+                }
+            } catch (IOException e) {
+                log.error("IO error writing chunk {} of upload {}", chunkIndex, uploadId, e);
+                throw new RuntimeException("Failed to write chunk: " + e.getMessage());
+            }
+
+            if (offset == 0) {
+                // The first chunk shows the real type; refuse the upload now rather than at commit
+                try {
+                    uploadPolicy.begin(session.getCategory(), session.getOriginalFilename(), session.getTotalSize())
+                            .inspect(Paths.get(session.getStagingPath()));
+                } catch (UploadRejectedException e) {
+                    log.info("Chunked upload {} rejected: {}", uploadId, e.getMessage());
+                    discard(session);
+                    throw e;
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to check chunk: " + e.getMessage());
+                }
+            }
+
+            session.setReceivedBytes(offset + expectedLength);
+            session.setLastUpdated(LocalDateTime.now());
+            session.setExpiresAt(session.getLastUpdated().plus(sessionTtl));
+            UploadSession savedSession = uploadSessionRepository.save(session);
+            if (chunkDigest != null) {
+                uploadDigests.put(uploadId, chunkDigest);
+            }
+
+            log.debug("Upload {}: stored chunk {} ({} / {} bytes)",
+                    uploadId, chunkIndex, savedSession.getReceivedBytes(), savedSession.getTotalSize());
+            return savedSession;
+        }
+    }
+
+    /**
+     * Turn a complete upload into an UploadedFile. Committing twice returns the same file.
+     */
+    public UploadedFile commitUpload(String uploadId, User user) {
+        synchronized (lockFor(uploadId)) {
+            UploadSession session = getUpload(uploadId, user);
+
+            if (session.getStatus() == UploadSession.UploadStatus.COMMITTED) {
+                return fileService.findById(session.getFileId());
+            }
+            requireActive(session);
+
+            if (!session.isComplete()) {
+                throw new RuntimeException("Upload is incomplete: received " + session.getReceivedBytes()
+                        + " of " + session.getTotalSize() + " bytes");
+            }
+
+            MessageDigest digest = uploadDigests.remove(uploadId);
+            String contentHash = digest != null ? BlobStorageService.toHex(digest.digest()) : null;
+
+            Workspace workspace = workspaceService.findById(session.getWorkspace().getWorkspaceId());
+            UploadedFile uploadedFile;
+            try {
+                uploadedFile = fileService.storeStagedFile(
+                        Paths.get(session.getStagingPath()),
+                        contentHash,
+                        session.getOriginalFilename(),
+                        session.getContentType(),
+                        workspace,
+                        user,
+                        session.getCategory(),
+                        session.getDescription()
+                );
+            } catch (StorageQuotaExceededException e) {
+                // The rolled-back store already discarded the staged bytes
+                session.setStatus(UploadSession.UploadStatus.ABORTED);
+                session.setLastUpdated(LocalDateTime.now());
+                uploadSessionRepository.save(session);
+                uploadLocks.remove(uploadId);
+                throw e;
+            } catch (UploadRejectedException e) {
+                discard(session);
+                throw e;
+            }
+
+            session.setStatus(UploadSession.UploadStatus.COMMITTED);
+            session.setFileId(uploadedFile.getFileId());
+            session.setLastUpdated(LocalDateTime.now());
+            uploadSessionRepository.save(session);
+            uploadLocks.remove(uploadId);
+
+            log.info("Chunked upload {} committed as file {}", uploadId, uploadedFile.getFileId());
+            return uploadedFile;
+        }
+    }
+
+    /**
+     * Abandon an upload and discard its staging file
+     */
+    public void abortUpload(String uploadId, User user) {
+        synchronized (lockFor(uploadId)) {
+            UploadSession session = getUpload(uploadId, user);
+            requireActive(session);
+            discard(session);
+
+            log.info("Chunked upload {} aborted by {}", uploadId, user.getEmail());
+        }
+    }
+
+    /**
+     * Abort uploads past their expiry and delete their staged chunks
+     */
+    @Scheduled(fixedDelayString = "${app.upload.session-sweep-interval:PT15M}", initialDelayString = "${app.upload.session-sweep-interval:PT15M}")
+    public void sweepExpiredUploads() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minus(sessionTtl);
+        int swept = 0;
+        try {
+            List<UploadSession> expired;
+            do {
+                expired = uploadSessionRepository.findExpired(now, staleBefore, PageRequest.of(0, SWEEP_BATCH_SIZE));
+                for (UploadSession candidate : expired) {
+                    synchronized (lockFor(candidate.getUploadId())) {
+                        // A chunk may have arrived since the query
+                        UploadSession session = uploadSessionRepository.findById(candidate.getUploadId()).orElse(null);
+                        if (session != null && session.getStatus() == UploadSession.UploadStatus.ACTIVE
+                                && isAbandoned(session, now, staleBefore)) {
+                            discard(session);
+                            swept++;
+                        }
+                    }
+                }
+            } while (expired.size() == SWEEP_BATCH_SIZE);
+        } catch (Exception e) {
+            log.error("Failed to sweep expired uploads", e);
+        }
+        if (swept > 0) {
+            log.info("Aborted {} expired chunked uploads", swept);
+        }
+    }
+
+    private static boolean isAbandoned(UploadSession session, LocalDateTime now, LocalDateTime staleBefore) {
+        if (session.getExpiresAt() != null) {
+            return session.isExpired(now);
+        }
+        return session.getLastUpdated() != null && session.getLastUpdated().isBefore(staleBefore);
+    }
+
+    private void discard(UploadSession session) {
+        try {
+            Files.deleteIfExists(Paths.get(session.getStagingPath()));
+        } catch (IOException e) {
+            log.warn("Warning: Failed to delete staging file {}: {}", session.getStagingPath(), e.getMessage());
+        }
+
+        session.setStatus(UploadSession.UploadStatus.ABORTED);
+        session.setLastUpdated(LocalDateTime.now());
+        uploadSessionRepository.save(session);
+        uploadLocks.remove(session.getUploadId());
+        uploadDigests.remove(session.getUploadId());
+    }
+
+    private Object lockFor(String uploadId) {
+        return uploadLocks.computeIfAbsent(uploadId, id -> new Object());
+    }
+
+    /**
+     * Copy of the running digest to extend with the chunk at offset, or null if the digest
+     * no longer covers everything before it (e.g. after a restart)
+     */
+    private MessageDigest digestContinuing(String uploadId, long offset) {
+        if (offset == 0) {
+            return BlobStorageService.newDigest();
+        }
+        MessageDigest digest = uploadDigests.get(uploadId);
+        if (digest == null) {
+            return null;
+        }
+        try {
+            // Work on a clone so a failed chunk leaves the stored digest untouched
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            uploadDigests.remove(uploadId);
+            return null;
+        }
+    }
+
+    private void requireActive(UploadSession session) {
+        if (session.getStatus() != UploadSession.UploadStatus.ACTIVE) {
+            throw new RuntimeException("Upload " + session.getUploadId() + " is " + session.getStatus());
+        }
+        if (session.isExpired(LocalDateTime.now())) {
+            throw new RuntimeException("Upload " + session.getUploadId() + " has expired");
+        }
+    }
+
+    private Path getStagingPath() throws IOException {
+        Path stagingPath = Paths.get(stagingDir);
+        if (!Files.exists(stagingPath)) {
+            Files.createDirectories(stagingPath);
+            log.info("Created staging directory: {}", stagingPath.toAbsolutePath());
+        }
+        return stagingPath;
+    }
+
+    /**
+     * Copy at most maxLength bytes from the request body into the file at offset,
+     * feeding them to the digest when one is given.
+     * Returns the number of bytes written; a body longer than maxLength is rejected.
+     */
+    private long writeAt(Path stagingFile, long offset, InputStream body, long maxLength,
+                         MessageDigest digest) throws IOException {
+        // The request stream belongs to the container, so the wrapping channel is not closed here
+        ReadableByteChannel source = Channels.newChannel(body);
+        try (FileChannel target = FileChannel.open(stagingFile, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+            long position = offset;
+            long end = offset + maxLength;
+
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                int read = source.read(buffer);
+                if (read < 0) {
+                    break;
+                }
+                buffer.flip();
+                if (digest != null) {
+                    digest.update(buffer.duplicate());
+                }
+                while (buffer.hasRemaining()) {
+                    position += target.write(buffer, position);
+                }
+            }
+
+            if (position == end) {
+                buffer.clear();
+                buffer.limit(1);
+                if (source.read(buffer) > 0) {
+                    throw new RuntimeException("Chunk is larger than the expected " + maxLength + " bytes");
+                }
+            }
+            return position - offset;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.researchsync.service;
+
+import com.researchsync.model.Task;
+import com.researchsync.model.User;
+import com.researchsync.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reminds assignees of open tasks whose deadline is within the lead time, one email per
+ * user listing all of their due tasks.
+ *
+ * Due tasks are read in keyset batches with the assignee and workspace fetched along. Each
+ * batch is marked with the due date it was reminded of (reminder_sent_for) in the same
+ * transaction that read it, so a task is reminded once per deadline however often the job
+ * runs, and again if its deadline moves. Marking happens before the emails go out: a crash
+ * in between loses a reminder rather than sending it twice.
+ */
+@Service
+public class DeadlineReminderService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadlineReminderService.class);
+
+    private static final DateTimeFormatter DUE_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' hh:mm a");
+
+    // Conditional on the due date the reminder was built from, so a deadline moved meanwhile stays pending
+    private static final String MARK_SQL = "UPDATE tasks SET reminder_sent_for = due_date WHERE task_id = ? AND due_date = ?";
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private NotificationQueue notificationQueue;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.reminders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.reminders.lead-time:PT24H}")
+    private Duration leadTime;
+
+    @Value("${app.reminders.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.reminders.interval:PT15M}", initialDelayString = "${app.reminders.initial-delay:PT1M}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            sendReminders();
+        } catch (Exception e) {
+            log.error("Deadline reminder run failed", e);
+        }
+    }
+
+    /**
+     * Remind everyone with a task due within the lead time who was not yet reminded of it
+     *
+     * @return the number of tasks reminded of
+     */
+    public synchronized int sendReminders() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(leadTime);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        Map<Long, Reminder> reminders = new LinkedHashMap<>();
+        int reminded = 0;
+        Long lastTaskId = 0L;
+        while (true) {
+            Long afterId = lastTaskId;
+            List<Task> batch = transaction.execute(status -> {
+                List<Task> tasks = taskRepository.findReminderBatch(now, until, afterId, PageRequest.of(0, batchSize));
+                if (!tasks.isEmpty()) {
+                    jdbcTemplate.batchUpdate(MARK_SQL, tasks, tasks.size(), (statement, task) -> {
+                        statement.setLong(1, task.getTaskId());
+                        statement.setObject(2, task.getDueDate());
+                    });
+                }
+                return tasks;
+            });
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            for (Task task : batch) {
+                reminders.computeIfAbsent(task.getAssignedTo().getUserId(), id -> new Reminder(task.getAssignedTo()))
+                        .lines.add(task.getTitle() + " (" + task.getWorkspace().getName() + "), due "
+                                + task.getDueDate().format(DUE_FORMAT));
+            }
+            reminded += batch.size();
+            lastTaskId = batch.get(batch.size() - 1).getTaskId();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        for (Reminder reminder : reminders.values()) {
+            notificationQueue.afterCommit(() -> emailService.sendDeadlineReminder(reminder.user, reminder.lines));
+        }
+        if (reminded > 0) {
+            log.info("Queued deadline reminders for {} tasks to {} users", reminded, reminders.size());
+        }
+        return reminded;
+    }
+
+    private static final class Reminder {
+        final User user;
+        final List<String> lines = new ArrayList<>();
+
+        Reminder(User user) {
+            this.user = user;
+        }
+    }
+}
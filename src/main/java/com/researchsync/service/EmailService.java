@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 @Service
 public class EmailService {
@@ -82,6 +83,29 @@ public class EmailService {
         }
     }
 
+    public void sendTaskAssignmentsNotification(User assignee, List<String> taskLines) {
+        try {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmail);
+            message.setTo(assignee.getEmail());
+            message.setSubject(taskLines.size() == 1
+                    ? "ResearchSync - New Task Assigned" : "ResearchSync - " + taskLines.size() + " New Tasks Assigned");
+            message.setText("Hello " + assignee.getName() + ",\n\n" +
+                    (taskLines.size() == 1 ? "A new task has been" : taskLines.size() + " tasks have been") +
+                    " assigned to you:\n\n" +
+                    "- " + String.join("\n- ", taskLines) + "\n\n" +
+                    "Please log in to view task details and start working:\n" +
+                    "http://localhost:8081/dashboard\n\n" +
+                    "Best regards,\n" +
+                    "ResearchSync Team");
+
+            mailSender.send(message);
+            System.out.println("✅ Task assignment summary sent to: " + assignee.getEmail());
+        } catch (Exception e) {
+            System.err.println("❌ Failed to send task assignment summary: " + e.getMessage());
+        }
+    }
+
     public void sendDeadlineAlert(User user, String taskTitle, String workspaceName) {
         try {
             SimpleMailMessage message = new SimpleMailMessage();
@@ -105,6 +129,53 @@ public class EmailService {
         }
     }
 
+    public void sendDeadlineReminder(User user, List<String> taskLines) {
+        try {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmail);
+            message.setTo(user.getEmail());
+            message.setSubject(taskLines.size() == 1
+                    ? "ResearchSync - Task Deadline Alert" : "ResearchSync - " + taskLines.size() + " Task Deadlines Approaching");
+            message.setText("Hello " + user.getName() + ",\n\n" +
+                    "⚠️ REMINDER: " + (taskLines.size() == 1 ? "Your task deadline is" : "These task deadlines are") +
+                    " approaching!\n\n" +
+                    "- " + String.join("\n- ", taskLines) + "\n\n" +
+                    "Please complete " + (taskLines.size() == 1 ? "this task" : "these tasks") +
+                    " soon to avoid missing the deadline.\n\n" +
+                    "Log in to update task status:\n" +
+                    "http://localhost:8081/dashboard\n\n" +
+                    "Best regards,\n" +
+                    "ResearchSync Team");
+
+            mailSender.send(message);
+            System.out.println("✅ Deadline reminder sent to: " + user.getEmail());
+        } catch (Exception e) {
+            System.err.println("❌ Failed to send deadline reminder: " + e.getMessage());
+        }
+    }
+
+    public void sendTaskOverdueNotification(User user, String taskTitle, String workspaceName) {
+        try {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmail);
+            message.setTo(user.getEmail());
+            message.setSubject("ResearchSync - Task Overdue");
+            message.setText("Hello " + user.getName() + ",\n\n" +
+                    "The deadline for one of your tasks has passed.\n\n" +
+                    "Task: " + taskTitle + "\n" +
+                    "Workspace: " + workspaceName + "\n\n" +
+                    "Log in to update task status or agree a new deadline:\n" +
+                    "http://localhost:8081/dashboard\n\n" +
+                    "Best regards,\n" +
+                    "ResearchSync Team");
+
+            mailSender.send(message);
+            System.out.println("✅ Overdue notification sent to: " + user.getEmail());
+        } catch (Exception e) {
+            System.err.println("❌ Failed to send overdue notification: " + e.getMessage());
+        }
+    }
+
     public void sendPasswordResetEmail(User user, String resetToken) {
         try {
             SimpleMailMessage message = new SimpleMailMessage();
@@ -0,0 +1,324 @@
+package com.researchsync.service;
+
+import com.researchsync.event.FileEvent;
+import com.researchsync.model.FileBlob;
+import com.researchsync.model.UploadedFile;
+import com.researchsync.storage.HotFileCache;
+import com.researchsync.storage.StoredRegion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+
+/**
+ * Writes stored files to the HTTP response with conditional GET, single byte-range
+ * support and zero-copy transfer. When the container offers sendfile (Tomcat NIO) the
+ * bytes never enter the JVM; otherwise FileChannel.transferTo streams them.
+ * Files compressed at rest are sent gzip-encoded when possible, otherwise inflated on the fly.
+ * Frequently downloaded blobs are served from the off-heap HotFileCache when it is enabled.
+ */
+@Service
+public class FileDownloadService {
+
+    private static final Logger log = LoggerFactory.getLogger(FileDownloadService.class);
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private HotFileCache hotFileCache;
+
+    /**
+     * Serve a file, answering 304/206/416 where the request headers call for it
+     */
+    public void serve(UploadedFile file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (StoredRegion stored = fileService.locateContent(file)) {
+            if (stored == null) {
+                log.error("File not found or not readable: {}", file.getFilePath());
+                throw new RuntimeException("File not found or not readable");
+            }
+            serve(file, stored, request, response);
+        }
+    }
+
+    private void serve(UploadedFile file, StoredRegion stored, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        // Content compressed at rest goes out as-is to clients that accept gzip, unless they
+        // want a byte range; ranges always refer to the original bytes
+        FileBlob blob = file.getBlob();
+        boolean compressedAtRest = blob != null && blob.isCompressed();
+        boolean sendEncoded = compressedAtRest && acceptsGzip(request) && request.getHeader(HttpHeaders.RANGE) == null;
+
+        long length = compressedAtRest ? blob.getSize() : stored.getLength();
+        String etag = buildETag(file, length, sendEncoded);
+        long lastModified = file.getUploadedDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        if (compressedAtRest) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        // Handles If-None-Match / If-Modified-Since (and If-Match / If-Unmodified-Since),
+        // setting ETag and Last-Modified on the response either way
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            log.debug("File {} not modified for client, answered without body", file.getFileId());
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(file.getOriginalFilename(), StandardCharsets.UTF_8)
+                .build().toString());
+        response.setContentType(file.getContentType() != null ? file.getContentType() : "application/octet-stream");
+
+        if (sendEncoded) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.setContentLengthLong(stored.getLength());
+            if (!"HEAD".equalsIgnoreCase(request.getMethod())
+                    && !transferCached(file, stored, 0, stored.getLength(), response)) {
+                transfer(stored, 0, stored.getLength(), request, response);
+            }
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+
+        ByteRange range = rangeFor(request, etag, lastModified, length);
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        if (range != null) {
+            start = range.start;
+            end = range.end;
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || count == 0) {
+            return;
+        }
+        if (compressedAtRest) {
+            transferDecoded(file, start, count, response);
+        } else if (!transferCached(file, stored, start, count, response)) {
+            transfer(stored, start, count, request, response);
+        }
+    }
+
+    /**
+     * A deleted or revised file's cached bytes are freed rather than left to age out
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFileEvent(FileEvent event) {
+        if (event.getType() != FileEvent.Type.STORED) {
+            hotFileCache.invalidateFile(event.getFileId());
+        }
+    }
+
+    private boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private String buildETag(UploadedFile file, long length, boolean gzipEncoded) {
+        // Content-addressed files are named by their SHA-256, which makes a natural strong validator;
+        // the gzip representation has different bytes, so it needs its own tag
+        if (file.getBlob() != null) {
+            return "\"" + file.getBlob().getContentHash() + (gzipEncoded ? "-gzip" : "") + "\"";
+        }
+        return "\"" + file.getFileId() + "-" + length + "-"
+                + file.getUploadedDate().atZone(ZoneId.systemDefault()).toEpochSecond() + "\"";
+    }
+
+    /**
+     * The byte range to send, null for the whole file, or UNSATISFIABLE.
+     * Multi-range requests are answered with the full file, which RFC 9110 permits.
+     */
+    private ByteRange rangeFor(HttpServletRequest request, String etag, long lastModified, long length) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !rangeHeader.startsWith("bytes=") || rangeHeader.contains(",")) {
+            return null;
+        }
+
+        // If-Range: only honour the range if the client's copy is still current
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null) {
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                if (!ifRange.equals(etag)) {
+                    return null;
+                }
+            } else {
+                long ifRangeDate = request.getDateHeader(HttpHeaders.IF_RANGE);
+                if (ifRangeDate == -1 || lastModified / 1000 > ifRangeDate / 1000) {
+                    return null;
+                }
+            }
+        }
+
+        String spec = rangeHeader.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // Suffix range: the final N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return ByteRange.UNSATISFIABLE;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                if (end < start) {
+                    return null;
+                }
+                end = Math.min(end, length - 1);
+            }
+            if (start >= length) {
+                return ByteRange.UNSATISFIABLE;
+            }
+            return new ByteRange(start, end);
+        } catch (NumberFormatException e) {
+            // A malformed Range header is ignored rather than rejected
+            return null;
+        }
+    }
+
+    /**
+     * Send count bytes starting at start within the stored region; a blob in a pack segment
+     * is sent straight from the segment file at its offset. Sendfile reads the file after this
+     * returns, so pinned regions are copied here instead.
+     */
+    private void transfer(StoredRegion stored, long start, long count, HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        Path path = stored.getPath();
+        start += stored.getOffset();
+        if (!stored.isPinned() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            // Tomcat performs the write with sendfile once the servlet returns
+            request.setAttribute(SENDFILE_FILENAME_ATTR, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, start + count);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * Send count bytes of the stored bytes from the hot-file cache, loading them first if the
+     * cache admits them. Returns false when the caller should read from disk instead.
+     */
+    private boolean transferCached(UploadedFile file, StoredRegion stored, long start, long count,
+                                   HttpServletResponse response) throws IOException {
+        if (!hotFileCache.isEnabled() || file.getBlob() == null) {
+            return false;
+        }
+        String hash = file.getBlob().getContentHash();
+        ByteBuffer cached = hotFileCache.get(hash, file.getFileId());
+        if (cached != null) {
+            hotFileCache.recordBytesSaved(count);
+        } else if (hotFileCache.shouldLoad(hash, stored.getLength())) {
+            cached = hotFileCache.load(hash, file.getFileId(), stored);
+        } else {
+            return false;
+        }
+
+        ByteBuffer slice = cached.slice((int) start, (int) count);
+        WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+        while (slice.hasRemaining()) {
+            target.write(slice);
+        }
+        return true;
+    }
+
+    /**
+     * Inflate on the fly, skipping to the start of the requested range
+     */
+    private void transferDecoded(UploadedFile file, long start, long count, HttpServletResponse response) throws IOException {
+        try (InputStream in = fileService.openContent(file)) {
+            in.skipNBytes(start);
+            OutputStream out = response.getOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long remaining = count;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read == -1) {
+                    break;
+                }
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
+    private static final class ByteRange {
+        static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+        final long start;
+        final long end;
+
+        ByteRange(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.researchsync.service;
+
+import com.researchsync.event.FileEvent;
+import com.researchsync.model.UploadedFile;
+import com.researchsync.repository.UploadedFileRepository;
+import com.researchsync.search.FileSearchIndex;
+import com.researchsync.search.TextExtractor;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the file search index in step with the database from a single background thread.
+ *
+ * Upload and delete events only queue the file id. The worker decides what to do from the
+ * file's current row (active: index it, otherwise: drop it), so events can arrive in any
+ * order or more than once. indexed_date records what the index holds, which lets a restart
+ * pick up anything queued but not yet processed.
+ */
+@Service
+public class FileIndexingService {
+
+    private static final Logger log = LoggerFactory.getLogger(FileIndexingService.class);
+
+    @Autowired
+    private UploadedFileRepository uploadedFileRepository;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FileSearchIndex fileSearchIndex;
+
+    @Autowired
+    private TextExtractor textExtractor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.search.batch-size:100}")
+    private int batchSize;
+
+    private final BlockingQueue<Long> queue = new LinkedBlockingQueue<>();
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+    private Thread worker;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFileEvent(FileEvent event) {
+        enqueue(event.getFileId());
+    }
+
+    /**
+     * Start the worker and queue whatever the index missed while the application was down
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        worker = new Thread(this::run, "file-indexer");
+        worker.setDaemon(true);
+        worker.start();
+
+        long pending = 0;
+        Long lastFileId = 0L;
+        while (true) {
+            List<Long> fileIds = uploadedFileRepository.findFileIdsPendingIndex(lastFileId, PageRequest.of(0, 1000));
+            if (fileIds.isEmpty()) {
+                break;
+            }
+            fileIds.forEach(this::enqueue);
+            pending += fileIds.size();
+            lastFileId = fileIds.get(fileIds.size() - 1);
+        }
+        if (pending > 0) {
+            log.info("Queued {} files for search indexing", pending);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Ranked search within a workspace; only active files are returned
+     */
+    public List<UploadedFile> search(Long workspaceId, String query, int limit) {
+        try {
+            List<FileSearchIndex.Hit> hits = fileSearchIndex.search(workspaceId, query, limit);
+            if (hits.isEmpty()) {
+                return List.of();
+            }
+
+            Map<Long, Integer> rank = new HashMap<>();
+            for (int i = 0; i < hits.size(); i++) {
+                rank.put(hits.get(i).getFileId(), i);
+            }
+            return uploadedFileRepository.findAllById(rank.keySet()).stream()
+                    .filter(UploadedFile::isActive)
+                    .filter(file -> workspaceId.equals(file.getWorkspace().getWorkspaceId()))
+                    .sorted(Comparator.comparing(file -> rank.get(file.getFileId())))
+                    .collect(Collectors.toList());
+
+        } catch (IOException e) {
+            log.error("File search failed for workspace {}", workspaceId, e);
+            throw new RuntimeException("Search failed: " + e.getMessage());
+        }
+    }
+
+    private void enqueue(Long fileId) {
+        if (queued.add(fileId)) {
+            queue.add(fileId);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                List<Long> batch = new ArrayList<>();
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                // Ids leave the dedup set before processing, so a change during it is queued again
+                queued.removeAll(batch);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("File indexing batch failed", e);
+            }
+        }
+    }
+
+    private void process(List<Long> fileIds) throws IOException {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Map<Long, UploadedFile> files = readOnly.execute(status ->
+                uploadedFileRepository.findWithBlobByFileIdIn(fileIds).stream()
+                        .collect(Collectors.toMap(UploadedFile::getFileId, file -> file)));
+
+        List<Long> indexed = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        for (Long fileId : fileIds) {
+            UploadedFile file = files.get(fileId);
+            if (file == null || !file.isActive()) {
+                fileSearchIndex.delete(fileId);
+                removed.add(fileId);
+                continue;
+            }
+            fileSearchIndex.index(fileId, file.getWorkspace().getWorkspaceId(),
+                    file.getOriginalFilename(), file.getDescription(), extractText(file));
+            indexed.add(fileId);
+        }
+
+        // The index must be durable before the database says it is
+        fileSearchIndex.commit();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (!indexed.isEmpty()) {
+                uploadedFileRepository.markIndexed(indexed, LocalDateTime.now());
+            }
+            if (!removed.isEmpty()) {
+                uploadedFileRepository.markUnindexed(removed);
+            }
+        });
+        log.debug("Search index updated: {} indexed, {} removed", indexed.size(), removed.size());
+    }
+
+    private String extractText(UploadedFile file) {
+        String extension = file.getFileExtension();
+        if (!textExtractor.supports(extension)) {
+            return "";
+        }
+        try {
+            if (!fileService.hasContent(file)) {
+                log.warn("File {} is not readable at {}, indexing metadata only", file.getFileId(), file.getFilePath());
+                return "";
+            }
+        } catch (IOException e) {
+            log.warn("Could not locate file {}: {}", file.getFileId(), e.getMessage());
+            return "";
+        }
+        try (InputStream content = fileService.openContent(file)) {
+            return textExtractor.extract(content, extension, file.getFileSize() != null ? file.getFileSize() : 0L);
+        } catch (Exception e) {
+            // A corrupt document should still be findable by name and description
+            log.warn("Could not extract text from file {}: {}", file.getFileId(), e.getMessage());
+            return "";
+        }
+    }
+}
@@ -1,13 +1,26 @@
 package com.researchsync.service;
 
+import com.researchsync.dto.CursorPage;
+import com.researchsync.event.FileEvent;
+import com.researchsync.exception.StorageQuotaExceededException;
+import com.researchsync.exception.UploadRejectedException;
+import com.researchsync.model.FileBlob;
+import com.researchsync.model.FileVersion;
 import com.researchsync.model.UploadedFile;
 import com.researchsync.model.User;
 import com.researchsync.model.Workspace;
 import com.researchsync.repository.UploadedFileRepository;
+import com.researchsync.storage.ContentSniffer;
+import com.researchsync.storage.Ingest;
+import com.researchsync.storage.StorageLayout;
+import com.researchsync.storage.StoredRegion;
+import com.researchsync.storage.UploadPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
@@ -15,27 +28,46 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 public class FileService {
 
     private static final Logger log = LoggerFactory.getLogger(FileService.class);
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private UploadedFileRepository uploadedFileRepository;
 
     @Autowired
     private WorkspaceService workspaceService;
 
-    @Value("${app.upload.dir:./uploads/}")
-    private String uploadDir;
+    @Autowired
+    private BlobStorageService blobStorageService;
+
+    @Autowired
+    private StorageLayout storageLayout;
+
+    @Autowired
+    private WorkspaceStorageService workspaceStorageService;
+
+    @Autowired
+    private UploadPolicy uploadPolicy;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private FileIndexingService fileIndexingService;
+
+    @Autowired
+    private FileVersionService fileVersionService;
 
     /**
      * Upload file with category and description
@@ -47,46 +79,22 @@ public class FileService {
             log.info("Starting file upload: {} for workspace: {}",
                     file.getOriginalFilename(), workspace.getName());
 
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-                log.info("Created upload directory: {}", uploadPath.toAbsolutePath());
-            }
+            // Refuse before writing anything if the file is over its category's limit
+            // or the workspace has no room left
+            Ingest ingest = uploadPolicy.begin(category, file.getOriginalFilename(), file.getSize());
+            workspaceStorageService.checkQuota(workspace, file.getSize());
 
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            }
-            String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-
-            // Save file to disk
-            Path filePath = uploadPath.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            log.info("File saved to disk: {}", filePath.toAbsolutePath());
-
-            // Create and populate file record
-            UploadedFile uploadedFile = new UploadedFile();
-            uploadedFile.setFilename(uniqueFilename);
-            uploadedFile.setOriginalFilename(originalFilename);
-            uploadedFile.setDescription(description);
-            uploadedFile.setCategory(category != null && !category.trim().isEmpty() ? category : "Other");
-            uploadedFile.setContentType(file.getContentType());
-            uploadedFile.setFileSize(file.getSize());
-            uploadedFile.setFilePath(filePath.toString());
-            uploadedFile.setWorkspace(workspace);
-            uploadedFile.setUploadedBy(uploader);
-            uploadedFile.setUploadedDate(LocalDateTime.now());
-            uploadedFile.setActive(true);
-
-            // Save to database
-            UploadedFile savedFile = uploadedFileRepository.save(uploadedFile);
-            log.info("File record saved to database with ID: {}", savedFile.getFileId());
-
-            return savedFile;
+            // Save file into the content-addressed store, hashing and checking it on the way
+            FileBlob blob = blobStorageService.store(file.getInputStream(), file.getContentType(),
+                    file.getOriginalFilename(), ingest);
+            log.info("File content stored as blob: {} (detected type {})", blob.getContentHash(), ingest.getDetectedType());
+            workspaceStorageService.reserve(workspace, file.getSize());
+
+            return saveFileRecord(blob, file.getOriginalFilename(), file.getContentType(), ingest.getDetectedType(),
+                    file.getSize(), workspace, uploader, category, description);
 
+        } catch (StorageQuotaExceededException | UploadRejectedException e) {
+            throw e;
         } catch (IOException e) {
             log.error("IO error during file upload", e);
             throw new RuntimeException("Failed to upload file: " + e.getMessage());
@@ -96,6 +104,134 @@ public class FileService {
         }
     }
 
+    /**
+     * Hand a fully written staging file to the blob store and record it.
+     * The file is renamed rather than copied, so chunked uploads touch the bytes only once.
+     *
+     * @param contentHash SHA-256 computed while the chunks arrived, or null to hash the file here
+     */
+    @Transactional
+    public UploadedFile storeStagedFile(Path stagedFile, String contentHash, String originalFilename,
+                                        String contentType, Workspace workspace, User uploader,
+                                        String category, String description) {
+        try {
+            log.info("Storing staged upload: {} for workspace: {}", originalFilename, workspace.getName());
+
+            long fileSize = Files.size(stagedFile);
+            Ingest ingest = uploadPolicy.begin(category, originalFilename, fileSize);
+            ingest.inspect(stagedFile);
+
+            FileBlob blob = blobStorageService.storeStaged(stagedFile, contentHash, contentType, originalFilename);
+            log.info("Staged upload stored as blob: {} (detected type {})", blob.getContentHash(), ingest.getDetectedType());
+            workspaceStorageService.reserve(workspace, fileSize);
+
+            return saveFileRecord(blob, originalFilename, contentType, ingest.getDetectedType(), fileSize,
+                    workspace, uploader, category, description);
+
+        } catch (IOException e) {
+            log.error("IO error while storing staged upload", e);
+            throw new RuntimeException("Failed to store uploaded file: " + e.getMessage());
+        }
+    }
+
+    private UploadedFile saveFileRecord(FileBlob blob, String originalFilename, String contentType,
+                                        String detectedType, long fileSize, Workspace workspace, User uploader,
+                                        String category, String description) {
+        String contentHash = blob.getContentHash();
+
+        // Create and populate file record
+        UploadedFile uploadedFile = new UploadedFile();
+        uploadedFile.setFilename(contentHash);
+        uploadedFile.setOriginalFilename(originalFilename);
+        uploadedFile.setDescription(description);
+        uploadedFile.setCategory(category != null && !category.trim().isEmpty() ? category : "Other");
+        // The client's type is kept unless it told us nothing, in which case the sniffed one is used
+        boolean genericType = contentType == null || contentType.isBlank() || ContentSniffer.OCTET_STREAM.equals(contentType);
+        uploadedFile.setContentType(genericType && detectedType != null ? detectedType : contentType);
+        uploadedFile.setDetectedContentType(detectedType);
+        uploadedFile.setFileSize(fileSize);
+        uploadedFile.setFilePath(blob.getStoragePath());
+        uploadedFile.setBlob(blob);
+        uploadedFile.setWorkspace(workspace);
+        uploadedFile.setUploadedBy(uploader);
+        uploadedFile.setUploadedDate(LocalDateTime.now());
+        uploadedFile.setActive(true);
+
+        // Save to database
+        UploadedFile savedFile = uploadedFileRepository.save(uploadedFile);
+        log.info("File record saved to database with ID: {}", savedFile.getFileId());
+
+        eventPublisher.publishEvent(new FileEvent(savedFile.getFileId(), workspace.getWorkspaceId(), FileEvent.Type.STORED));
+
+        return savedFile;
+    }
+
+    /**
+     * Replace a file's content with a new revision. The file keeps its id, name and category;
+     * the revision it held moves into its version history, where it is later delta-encoded.
+     */
+    @Transactional
+    public UploadedFile uploadNewVersion(Long fileId, MultipartFile file, User uploader) {
+        try {
+            // Locked so concurrent revisions get consecutive numbers and cannot race a delete
+            UploadedFile current = uploadedFileRepository.findByIdForUpdate(fileId)
+                    .orElseThrow(() -> new RuntimeException("File not found with ID: " + fileId));
+            Workspace workspace = current.getWorkspace();
+
+            if (!current.isActive()) {
+                throw new RuntimeException("File has been deleted");
+            }
+            if (!workspaceService.canUserAccessWorkspace(uploader, workspace.getWorkspaceId())) {
+                log.warn("User {} attempted to revise file {} without access", uploader.getEmail(), fileId);
+                throw new RuntimeException("You don't have access to this workspace");
+            }
+            if (current.getBlob() == null) {
+                throw new RuntimeException("This file was stored before versioning was available; upload it as a new file");
+            }
+
+            long previousSize = current.getFileSize() != null ? current.getFileSize() : 0L;
+            Ingest ingest = uploadPolicy.begin(current.getCategory(), file.getOriginalFilename(), file.getSize());
+            workspaceStorageService.checkQuota(workspace, Math.max(0, file.getSize() - previousSize));
+
+            FileBlob blob = blobStorageService.store(file.getInputStream(), file.getContentType(),
+                    file.getOriginalFilename(), ingest);
+            if (blob.getContentHash().equals(current.getBlob().getContentHash())) {
+                blobStorageService.release(blob.getContentHash());
+                log.info("New version of file {} is identical to the current one, nothing to record", fileId);
+                return current;
+            }
+
+            FileVersion revision = fileVersionService.addRevision(current, blob, file.getSize(),
+                    file.getOriginalFilename(), file.getContentType(), uploader);
+
+            // Quotas count each file's current size; history is stored as deltas on top
+            workspaceStorageService.release(workspace, previousSize);
+            workspaceStorageService.reserve(workspace, file.getSize());
+
+            String contentType = file.getContentType();
+            boolean genericType = contentType == null || contentType.isBlank() || ContentSniffer.OCTET_STREAM.equals(contentType);
+            current.setContentType(genericType && ingest.getDetectedType() != null ? ingest.getDetectedType() : contentType);
+            current.setDetectedContentType(ingest.getDetectedType());
+            current.setFilename(blob.getContentHash());
+            current.setFilePath(blob.getStoragePath());
+            current.setBlob(blob);
+            current.setFileSize(file.getSize());
+            current.setVersionNumber(revision.getVersionNumber());
+            current.setUploadedDate(LocalDateTime.now());
+            UploadedFile saved = uploadedFileRepository.save(current);
+            log.info("File {} revised to version {} by {}", fileId, revision.getVersionNumber(), uploader.getEmail());
+
+            eventPublisher.publishEvent(new FileEvent(fileId, workspace.getWorkspaceId(), FileEvent.Type.REVISED));
+            return saved;
+
+        } catch (StorageQuotaExceededException | UploadRejectedException e) {
+            throw e;
+        } catch (IOException e) {
+            log.error("IO error during new version upload for file {}", fileId, e);
+            throw new RuntimeException("Failed to upload new version: " + e.getMessage());
+        }
+    }
+
     /**
      * Legacy method for backward compatibility
      */
@@ -142,14 +278,89 @@ public class FileService {
         return uploadedFileRepository.findByWorkspaceAndIsActiveTrueOrderByUploadedDateDesc(workspace);
     }
 
+    /**
+     * One page of a workspace's active files, newest first. Pages are keyed on
+     * (uploaded_date, file_id) rather than offset, so every page costs the same.
+     *
+     * @param category   only files in this category, or null
+     * @param uploaderId only files uploaded by this user, or null
+     * @param cursor     nextCursor of the previous page, or null for the first page
+     */
+    public CursorPage<UploadedFile> listWorkspaceFiles(Long workspaceId, String category, Long uploaderId,
+                                                       String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        CursorPage.Position after = CursorPage.decodeCursor(cursor);
+
+        // One extra row tells whether another page follows
+        List<UploadedFile> files = uploadedFileRepository.findListingPage(workspaceId,
+                category != null && !category.isBlank() ? category : null, uploaderId,
+                after.getTimestamp(), after.getId(), PageRequest.of(0, pageSize + 1));
+
+        if (files.size() <= pageSize) {
+            return new CursorPage<>(files, null);
+        }
+        List<UploadedFile> page = files.subList(0, pageSize);
+        UploadedFile last = page.get(pageSize - 1);
+        return new CursorPage<>(page, CursorPage.encodeCursor(last.getUploadedDate(), last.getFileId()));
+    }
+
+    /**
+     * Location of a file's bytes on disk. Falls back to the sharded location when the
+     * recorded path is gone, so a row read just before the layout migrator rewrote it
+     * still resolves. Only meaningful for files of their own; see locateContent.
+     */
+    public Path resolveStoredPath(UploadedFile file) {
+        Path recorded = Paths.get(file.getFilePath());
+        if (Files.exists(recorded)) {
+            return recorded;
+        }
+        Path sharded = storageLayout.resolve(recorded.getFileName().toString());
+        return Files.exists(sharded) ? sharded : recorded;
+    }
+
+    /**
+     * Where a file's stored bytes are, or null when they are missing. A blob kept in a pack
+     * segment is a slice of the segment; anything else is a whole file. Close it when done.
+     */
+    public StoredRegion locateContent(UploadedFile file) throws IOException {
+        if (!blobStorageService.isFileLocation(file.getFilePath())) {
+            return blobStorageService.locate(file.getFilePath());
+        }
+        Path path = resolveStoredPath(file);
+        return Files.isReadable(path) ? new StoredRegion(path, 0, Files.size(path)) : null;
+    }
+
+    /**
+     * Whether the file's stored bytes are where its row says
+     */
+    public boolean hasContent(UploadedFile file) throws IOException {
+        try (StoredRegion stored = locateContent(file)) {
+            return stored != null;
+        }
+    }
+
+    /**
+     * The file's bytes as uploaded, decompressing content that is compressed at rest
+     */
+    public InputStream openContent(UploadedFile file) throws IOException {
+        String encoding = file.getBlob() != null ? file.getBlob().getEncoding() : null;
+        String location = blobStorageService.isFileLocation(file.getFilePath())
+                ? resolveStoredPath(file).toString()
+                : file.getFilePath();
+        return blobStorageService.openBlob(location, encoding);
+    }
+
     /**
      * Download file as Resource
      */
     public Resource downloadFile(Long fileId) {
         try {
             UploadedFile file = findById(fileId);
-            Path filePath = Paths.get(file.getFilePath());
-            Resource resource = new UrlResource(filePath.toUri());
+            Path filePath = resolveStoredPath(file);
+            boolean packed = !blobStorageService.isFileLocation(file.getFilePath());
+            Resource resource = packed || (file.getBlob() != null && file.getBlob().isCompressed())
+                    ? new InputStreamResource(openContent(file))
+                    : new UrlResource(filePath.toUri());
 
             if (resource.exists() && resource.isReadable()) {
                 log.info("File {} downloaded successfully", file.getOriginalFilename());
@@ -170,7 +381,9 @@ public class FileService {
     @Transactional
     public void deleteFile(Long fileId, User deleter) {
         try {
-            UploadedFile file = findById(fileId);
+            // Locked against a new revision or the version encoder working on the same file
+            UploadedFile file = uploadedFileRepository.findByIdForUpdate(fileId)
+                    .orElseThrow(() -> new RuntimeException("File not found with ID: " + fileId));
 
             // Check permissions
             if (!file.getUploadedBy().getUserId().equals(deleter.getUserId()) &&
@@ -180,19 +393,35 @@ public class FileService {
                 throw new RuntimeException("You don't have permission to delete this file");
             }
 
+            boolean wasActive = file.isActive();
+
             // Soft delete - mark as inactive
             file.setActive(false);
             uploadedFileRepository.save(file);
             log.info("File {} marked as inactive by {}", fileId, deleter.getEmail());
 
-            // Optionally delete from disk
-            try {
-                Path filePath = Paths.get(file.getFilePath());
-                if (Files.deleteIfExists(filePath)) {
-                    log.info("File deleted from disk: {}", filePath);
+            if (wasActive) {
+                workspaceStorageService.release(file.getWorkspace(), file.getFileSize() != null ? file.getFileSize() : 0L);
+            }
+            eventPublisher.publishEvent(new FileEvent(fileId, file.getWorkspace().getWorkspaceId(), FileEvent.Type.DELETED));
+
+            // A file already deleted gave up its references the first time
+            if (wasActive) {
+                fileVersionService.releaseRevisions(file);
+                if (file.getBlob() != null) {
+                    // Shared content: only the last reference removes the blob from disk
+                    blobStorageService.release(file.getBlob().getContentHash());
+                } else {
+                    // Files stored before deduplication own their path outright
+                    try {
+                        Path filePath = resolveStoredPath(file);
+                        if (Files.deleteIfExists(filePath)) {
+                            log.info("File deleted from disk: {}", filePath);
+                        }
+                    } catch (IOException e) {
+                        log.warn("Warning: Failed to delete file from disk: {}", e.getMessage());
+                    }
                 }
-            } catch (IOException e) {
-                log.warn("Warning: Failed to delete file from disk: {}", e.getMessage());
             }
 
         } catch (Exception e) {
@@ -217,22 +446,25 @@ public class FileService {
         return uploadedFileRepository.findByOriginalFilenameContainingIgnoreCaseAndIsActiveTrue(searchTerm);
     }
 
+    /**
+     * Ranked full-text search over names, descriptions and document text in a workspace
+     */
+    public List<UploadedFile> searchWorkspaceFiles(Long workspaceId, String query, int limit) {
+        log.debug("Searching workspace {} files for: {}", workspaceId, query);
+        return fileIndexingService.search(workspaceId, query, limit);
+    }
+
     /**
      * Get file count for a workspace
      */
     public long getWorkspaceFileCount(Long workspaceId) {
-        Workspace workspace = workspaceService.findById(workspaceId);
-        return uploadedFileRepository.findByWorkspaceAndIsActiveTrue(workspace).size();
+        return workspaceStorageService.getFileCount(workspaceId);
     }
 
     /**
      * Get total storage used by a workspace (in bytes)
      */
     public long getWorkspaceStorageUsed(Long workspaceId) {
-        Workspace workspace = workspaceService.findById(workspaceId);
-        return uploadedFileRepository.findByWorkspaceAndIsActiveTrue(workspace)
-                .stream()
-                .mapToLong(UploadedFile::getFileSize)
-                .sum();
+        return workspaceStorageService.getStorageUsed(workspaceId);
     }
 }
@@ -0,0 +1,418 @@
+package com.researchsync.service;
+
+import com.researchsync.event.FileEvent;
+import com.researchsync.model.FileBlob;
+import com.researchsync.model.FileVersion;
+import com.researchsync.model.UploadedFile;
+import com.researchsync.model.User;
+import com.researchsync.repository.FileVersionRepository;
+import com.researchsync.repository.UploadedFileRepository;
+import com.researchsync.storage.BinaryDelta;
+import com.researchsync.storage.StoredRegion;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Revision history of uploaded files.
+ *
+ * A new revision is stored whole, exactly like an upload, so the file row keeps pointing at
+ * plain content and downloads, search and export never see a delta. A background worker then
+ * re-encodes each superseded revision as an rsync-style delta against the revision before it
+ * and drops the full copy. Every max-chain-length deltas (or when a delta saves too little)
+ * a revision is kept whole as a snapshot, so rebuilding any revision applies a bounded number
+ * of deltas. Only the last step of a rebuild streams; earlier steps go through staging files.
+ */
+@Service
+public class FileVersionService {
+
+    private static final Logger log = LoggerFactory.getLogger(FileVersionService.class);
+
+    private static final String DELTA_CONTENT_TYPE = "application/x-researchsync-delta";
+
+    @Autowired
+    private FileVersionRepository fileVersionRepository;
+
+    @Autowired
+    private UploadedFileRepository uploadedFileRepository;
+
+    @Autowired
+    private BlobStorageService blobStorageService;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.upload.staging-dir:${app.upload.dir:./uploads/}/.staging}")
+    private String stagingDir;
+
+    // Deltas allowed between a revision and the snapshot it is rebuilt from
+    @Value("${app.versions.max-chain-length:8}")
+    private int maxChainLength;
+
+    // A delta larger than this fraction of the revision is not worth it; the revision stays whole
+    @Value("${app.versions.max-delta-ratio:0.5}")
+    private double maxDeltaRatio;
+
+    private final BlockingQueue<Long> queue = new LinkedBlockingQueue<>();
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+    private Thread worker;
+
+    /**
+     * Record a new revision of a file, before the file row is switched to it. The caller holds
+     * the file's row lock, and the new blob's reference passes to the new revision row.
+     * Files that never had a revision get a row for their current content first.
+     */
+    @Transactional
+    public FileVersion addRevision(UploadedFile file, FileBlob blob, long fileSize, String originalFilename,
+                                   String contentType, User uploader) {
+        if (!fileVersionRepository.existsByFileFileId(file.getFileId())) {
+            FileVersion first = new FileVersion();
+            first.setFile(file);
+            first.setVersionNumber(file.getVersionNumber());
+            first.setBlob(file.getBlob());
+            first.setContentHash(file.getBlob().getContentHash());
+            first.setFileSize(file.getFileSize());
+            first.setOriginalFilename(file.getOriginalFilename());
+            first.setContentType(file.getContentType());
+            first.setUploadedBy(file.getUploadedBy());
+            first.setUploadedDate(file.getUploadedDate());
+            fileVersionRepository.save(first);
+        }
+
+        FileVersion revision = new FileVersion();
+        revision.setFile(file);
+        revision.setVersionNumber(file.getVersionNumber() + 1);
+        revision.setBlob(blob);
+        revision.setContentHash(blob.getContentHash());
+        revision.setFileSize(fileSize);
+        revision.setOriginalFilename(originalFilename);
+        revision.setContentType(contentType);
+        revision.setUploadedBy(uploader);
+        FileVersion saved = fileVersionRepository.save(revision);
+        log.info("Recorded version {} of file {}", saved.getVersionNumber(), file.getFileId());
+        return saved;
+    }
+
+    /**
+     * A file's revisions, newest first; empty for a file that was never revised
+     */
+    public List<FileVersion> getVersions(Long fileId) {
+        List<FileVersion> chain = fileVersionRepository.findChain(fileId);
+        Collections.reverse(chain);
+        return chain;
+    }
+
+    /**
+     * Drop the references held by a deleted file's earlier revisions. The current revision's
+     * reference belongs to the file row and is released with it.
+     */
+    @Transactional
+    public void releaseRevisions(UploadedFile file) {
+        for (FileVersion version : fileVersionRepository.findChain(file.getFileId())) {
+            if (version.getVersionNumber() != file.getVersionNumber()) {
+                blobStorageService.release(version.getBlob().getContentHash());
+            }
+        }
+    }
+
+    /**
+     * Write one revision's content to out, rebuilding it from deltas if need be
+     */
+    public void writeVersion(UploadedFile file, int versionNumber, OutputStream out) throws IOException {
+        if (versionNumber == file.getVersionNumber()) {
+            try (InputStream in = fileService.openContent(file)) {
+                in.transferTo(out);
+            }
+            return;
+        }
+
+        Map<Long, FileVersion> chain = fileVersionRepository.findChain(file.getFileId()).stream()
+                .collect(Collectors.toMap(FileVersion::getVersionId, Function.identity()));
+        FileVersion version = chain.values().stream()
+                .filter(v -> v.getVersionNumber() == versionNumber)
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Version " + versionNumber + " of file " + file.getFileId() + " not found"));
+
+        if (!version.isDelta()) {
+            try (InputStream in = blobStorageService.openBlob(version.getBlob().getStoragePath(), version.getBlob().getEncoding())) {
+                in.transferTo(out);
+            }
+            return;
+        }
+        try (Materialized base = materialize(chain.get(version.getBaseVersionId()), chain)) {
+            applyDelta(version, base, out);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFileEvent(FileEvent event) {
+        if (event.getType() == FileEvent.Type.REVISED) {
+            enqueue(event.getFileId());
+        }
+    }
+
+    /**
+     * Start the worker and queue revisions left whole when the application last stopped
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        worker = new Thread(this::run, "file-version-encoder");
+        worker.setDaemon(true);
+        worker.start();
+
+        List<Long> pending = fileVersionRepository.findFileIdsPendingEncoding();
+        pending.forEach(this::enqueue);
+        if (!pending.isEmpty()) {
+            log.info("Queued {} files for revision delta encoding", pending.size());
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void enqueue(Long fileId) {
+        if (queued.add(fileId)) {
+            queue.add(fileId);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Long fileId = queue.take();
+                queued.remove(fileId);
+                encodePending(fileId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Revision delta encoding failed", e);
+            }
+        }
+    }
+
+    /**
+     * Encode a file's superseded whole revisions oldest first, so each one's base is settled.
+     * The chain is reloaded after every step since each step changes it.
+     */
+    private void encodePending(Long fileId) throws IOException {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        while (running) {
+            UploadedFile file = readOnly.execute(status -> uploadedFileRepository.findById(fileId).orElse(null));
+            if (file == null || !file.isActive()) {
+                return;
+            }
+            List<FileVersion> chain = readOnly.execute(status -> fileVersionRepository.findChain(fileId));
+
+            FileVersion previous = null;
+            FileVersion next = null;
+            for (FileVersion version : chain) {
+                if (version.getStorage() == FileVersion.Storage.FULL && version.getVersionNumber() < file.getVersionNumber()) {
+                    next = version;
+                    break;
+                }
+                previous = version;
+            }
+            if (next == null) {
+                return;
+            }
+            Map<Long, FileVersion> byId = chain.stream()
+                    .collect(Collectors.toMap(FileVersion::getVersionId, Function.identity()));
+            encode(fileId, next, previous, byId);
+        }
+    }
+
+    private void encode(Long fileId, FileVersion version, FileVersion previous, Map<Long, FileVersion> chain) throws IOException {
+        if (previous == null) {
+            snapshot(version, "first revision");
+            return;
+        }
+        int depth = previous.isDelta() ? previous.getChainDepth() + 1 : 1;
+        if (depth > maxChainLength) {
+            snapshot(version, "chain length reached");
+            return;
+        }
+
+        Path delta = Files.createTempFile(getStagingPath(), "delta-", ".tmp");
+        try {
+            try (Materialized base = materialize(previous, chain)) {
+                try (FileChannel baseChannel = FileChannel.open(base.path, StandardOpenOption.READ);
+                     InputStream target = blobStorageService.openBlob(version.getBlob().getStoragePath(), version.getBlob().getEncoding());
+                     OutputStream out = Files.newOutputStream(delta)) {
+                    BinaryDelta.encode(baseChannel, base.offset, previous.getFileSize(), target, out);
+                }
+
+                // Compared with what the whole revision takes on disk, which may be gzipped
+                if (Files.size(delta) > maxDeltaRatio * version.getBlob().getStoredSize()) {
+                    snapshot(version, "delta too large");
+                    return;
+                }
+
+                // The full copy is only dropped once the delta is known to rebuild it exactly
+                MessageDigest digest = BlobStorageService.newDigest();
+                try (InputStream in = Files.newInputStream(delta);
+                     FileChannel baseChannel = FileChannel.open(base.path, StandardOpenOption.READ);
+                     OutputStream sink = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+                    BinaryDelta.apply(in, baseChannel, base.offset, sink);
+                }
+                if (!BlobStorageService.toHex(digest.digest()).equals(version.getContentHash())) {
+                    log.warn("Delta for version {} of file {} did not verify", version.getVersionNumber(), fileId);
+                    snapshot(version, "delta did not verify");
+                    return;
+                }
+            }
+
+            long deltaSize = Files.size(delta);
+            Boolean converted = new TransactionTemplate(transactionManager).execute(status -> {
+                // Deletion and new revisions take the same lock, so the file cannot change under us
+                UploadedFile file = uploadedFileRepository.findByIdForUpdate(fileId).orElse(null);
+                if (file == null || !file.isActive()) {
+                    return false;
+                }
+                try {
+                    FileBlob deltaBlob = blobStorageService.storeStaged(delta, null, DELTA_CONTENT_TYPE,
+                            "version-" + version.getVersionNumber() + ".delta");
+                    if (fileVersionRepository.convertToDelta(version.getVersionId(), deltaBlob,
+                            previous.getVersionId(), depth) == 0) {
+                        status.setRollbackOnly();
+                        return false;
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to store delta: " + e.getMessage(), e);
+                }
+                blobStorageService.release(version.getBlob().getContentHash());
+                return true;
+            });
+
+            if (Boolean.TRUE.equals(converted)) {
+                log.info("Encoded version {} of file {} as a delta: {} bytes instead of {}",
+                        version.getVersionNumber(), fileId, deltaSize, version.getFileSize());
+            }
+        } finally {
+            // Already gone if the blob store took it
+            Files.deleteIfExists(delta);
+        }
+    }
+
+    private void snapshot(FileVersion version, String reason) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                fileVersionRepository.markSnapshot(version.getVersionId()));
+        log.debug("Keeping version {} ({}) whole: {}", version.getVersionNumber(), version.getVersionId(), reason);
+    }
+
+    /**
+     * A revision's full content as a file that can be read at random. Whole revisions stored
+     * uncompressed are used where they lie; anything else is rebuilt into staging.
+     */
+    private Materialized materialize(FileVersion version, Map<Long, FileVersion> chain) throws IOException {
+        FileBlob blob = version.getBlob();
+        if (!version.isDelta() && !blob.isCompressed()) {
+            StoredRegion region = blobStorageService.locate(blob.getStoragePath());
+            if (region == null) {
+                throw new IOException("Content of version " + version.getVersionNumber() + " is missing");
+            }
+            return new Materialized(region.getPath(), region.getOffset(), false, region);
+        }
+
+        Path rebuilt = Files.createTempFile(getStagingPath(), "version-", ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(rebuilt))) {
+            if (version.isDelta()) {
+                try (Materialized base = materialize(chain.get(version.getBaseVersionId()), chain)) {
+                    applyDelta(version, base, out);
+                }
+            } else {
+                try (InputStream in = blobStorageService.openBlob(blob.getStoragePath(), blob.getEncoding())) {
+                    in.transferTo(out);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(rebuilt);
+            throw e;
+        }
+        return new Materialized(rebuilt, 0, true, null);
+    }
+
+    private void applyDelta(FileVersion version, Materialized base, OutputStream out) throws IOException {
+        try (InputStream delta = blobStorageService.openBlob(version.getBlob().getStoragePath(), version.getBlob().getEncoding());
+             FileChannel baseChannel = FileChannel.open(base.path, StandardOpenOption.READ)) {
+            BinaryDelta.apply(delta, baseChannel, base.offset, out);
+        }
+    }
+
+    private Path getStagingPath() throws IOException {
+        Path stagingPath = Paths.get(stagingDir);
+        if (!Files.exists(stagingPath)) {
+            Files.createDirectories(stagingPath);
+        }
+        return stagingPath;
+    }
+
+    private static final class Materialized implements Closeable {
+        final Path path;
+        final long offset;
+        final boolean temporary;
+        // Keeps a pack segment from being deleted while it is read
+        final StoredRegion region;
+
+        Materialized(Path path, long offset, boolean temporary, StoredRegion region) {
+            this.path = path;
+            this.offset = offset;
+            this.temporary = temporary;
+            this.region = region;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (region != null) {
+                region.close();
+            }
+            if (temporary) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.researchsync.service;
+
+import com.researchsync.event.TaskBatchEvent;
+import com.researchsync.event.TaskEvent;
+import com.researchsync.event.TaskOverdueEvent;
+import com.researchsync.model.Task;
+import com.researchsync.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Notices tasks becoming overdue without polling the tasks table.
+ *
+ * Open tasks with a future due date are held in an in-memory timing wheel, one workspace at a
+ * time: a workspace is loaded the first time it is viewed or one of its tasks changes, and
+ * dropped again after idle-timeout without either. Task events keep the wheel current. A
+ * one-second tick expires what is due, re-reads those rows by id, and publishes a
+ * TaskOverdueEvent for each task still open, then mails the assignee.
+ */
+@Service
+public class OverdueTaskService {
+
+    private static final Logger log = LoggerFactory.getLogger(OverdueTaskService.class);
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private NotificationQueue notificationQueue;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.overdue.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.overdue.notify:true}")
+    private boolean notify;
+
+    @Value("${app.overdue.idle-timeout:PT2H}")
+    private Duration idleTimeout;
+
+    private final TimingWheel<Long> wheel = new TimingWheel<>(1000, System.currentTimeMillis());
+    private final Map<Long, Long> workspaceByTask = new HashMap<>();
+    private final Map<Long, Set<Long>> tasksByWorkspace = new HashMap<>();
+    private final Map<Long, Long> lastUsed = new HashMap<>();
+    // Workspaces whose deadlines are being read, with the tasks events have updated since
+    private final Map<Long, Set<Long>> changedWhileLoading = new HashMap<>();
+
+    /**
+     * Mark a workspace as in use, loading its upcoming deadlines if they are not held yet.
+     * The query runs outside the lock, so the tick and other workspaces never wait on it.
+     * A task an event updated meanwhile keeps what the event gave it, not the older row.
+     */
+    public void touch(Long workspaceId) {
+        if (!enabled || workspaceId == null) {
+            return;
+        }
+        synchronized (this) {
+            if (lastUsed.put(workspaceId, System.currentTimeMillis()) != null) {
+                return;
+            }
+            tasksByWorkspace.put(workspaceId, new HashSet<>());
+            changedWhileLoading.put(workspaceId, new HashSet<>());
+        }
+
+        List<Object[]> upcoming;
+        try {
+            upcoming = taskRepository.findUpcomingDueDates(workspaceId, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            // Let the next touch try again
+            synchronized (this) {
+                lastUsed.remove(workspaceId);
+                changedWhileLoading.remove(workspaceId);
+            }
+            throw e;
+        }
+        synchronized (this) {
+            Set<Long> changed = changedWhileLoading.remove(workspaceId);
+            for (Object[] row : upcoming) {
+                Long taskId = (Long) row[0];
+                if (!changed.contains(taskId)) {
+                    schedule(taskId, workspaceId, (LocalDateTime) row[1]);
+                }
+            }
+        }
+        log.debug("Tracking {} upcoming deadlines in workspace {}", upcoming.size(), workspaceId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvent(TaskEvent event) {
+        update(List.of(event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskBatch(TaskBatchEvent batch) {
+        update(batch.getEvents());
+    }
+
+    private void update(List<TaskEvent> events) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Set<Long> workspaceIds = new LinkedHashSet<>();
+            Set<Long> taskIds = new HashSet<>();
+            for (TaskEvent event : events) {
+                if (event.getType() != TaskEvent.Type.DELETED) {
+                    workspaceIds.add(event.getWorkspaceId());
+                    taskIds.add(event.getTaskId());
+                }
+            }
+            workspaceIds.forEach(this::touch);
+            Map<Long, Task> tasks = new HashMap<>();
+            if (!taskIds.isEmpty()) {
+                taskRepository.findAllById(taskIds).forEach(task -> tasks.put(task.getTaskId(), task));
+            }
+            synchronized (this) {
+                for (TaskEvent event : events) {
+                    noteChanged(event.getWorkspaceId(), event.getTaskId());
+                    Task task = event.getType() == TaskEvent.Type.DELETED ? null : tasks.get(event.getTaskId());
+                    if (task != null && isOpen(task)) {
+                        schedule(task.getTaskId(), event.getWorkspaceId(), task.getDueDate());
+                    } else {
+                        cancel(event.getTaskId());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to update overdue tracking for {} task change(s)", events.size(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.overdue.tick:PT1S}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        List<Long> expired;
+        synchronized (this) {
+            expired = wheel.advance(System.currentTimeMillis());
+            expired.forEach(this::forget);
+            evictIdle();
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            for (Task task : taskRepository.findWithWorkspaceByTaskIdIn(expired)) {
+                // The row has the last word: an event may still be on its way
+                if (!isOpen(task)) {
+                    continue;
+                }
+                if (task.getDueDate().isAfter(now)) {
+                    // Held with a stale deadline; track the real one
+                    Long workspaceId = task.getWorkspace().getWorkspaceId();
+                    synchronized (this) {
+                        if (lastUsed.containsKey(workspaceId)) {
+                            noteChanged(workspaceId, task.getTaskId());
+                            schedule(task.getTaskId(), workspaceId, task.getDueDate());
+                        }
+                    }
+                    continue;
+                }
+                eventPublisher.publishEvent(new TaskOverdueEvent(task.getTaskId(),
+                        task.getWorkspace().getWorkspaceId(), task.getDueDate()));
+                if (notify && task.getAssignedTo() != null) {
+                    String title = task.getTitle();
+                    String workspaceName = task.getWorkspace().getName();
+                    notificationQueue.afterCommit(() ->
+                            emailService.sendTaskOverdueNotification(task.getAssignedTo(), title, workspaceName));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to publish overdue events for tasks {}", expired, e);
+        }
+    }
+
+    private boolean isOpen(Task task) {
+        return task.getDueDate() != null
+                && task.getStatus() != Task.TaskStatus.COMPLETED
+                && task.getStatus() != Task.TaskStatus.CANCELLED;
+    }
+
+    private void noteChanged(Long workspaceId, Long taskId) {
+        Set<Long> changed = changedWhileLoading.get(workspaceId);
+        if (changed != null) {
+            changed.add(taskId);
+        }
+    }
+
+    private void schedule(Long taskId, Long workspaceId, LocalDateTime dueDate) {
+        long deadline = dueDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (wheel.schedule(taskId, deadline)) {
+            workspaceByTask.put(taskId, workspaceId);
+            tasksByWorkspace.computeIfAbsent(workspaceId, id -> new HashSet<>()).add(taskId);
+        } else {
+            // Already past due when it was saved; nothing is about to become overdue
+            forget(taskId);
+        }
+    }
+
+    private void cancel(Long taskId) {
+        wheel.cancel(taskId);
+        forget(taskId);
+    }
+
+    private void forget(Long taskId) {
+        Long workspaceId = workspaceByTask.remove(taskId);
+        if (workspaceId != null) {
+            Set<Long> tasks = tasksByWorkspace.get(workspaceId);
+            if (tasks != null) {
+                tasks.remove(taskId);
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeout.toMillis();
+        Iterator<Map.Entry<Long, Long>> it = lastUsed.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Long> workspace = it.next();
+            // One still loading is in use, and its rows are yet to be placed
+            if (workspace.getValue() >= cutoff || changedWhileLoading.containsKey(workspace.getKey())) {
+                continue;
+            }
+            it.remove();
+            Set<Long> tasks = tasksByWorkspace.remove(workspace.getKey());
+            if (tasks != null) {
+                for (Long taskId : tasks) {
+                    wheel.cancel(taskId);
+                    workspaceByTask.remove(taskId);
+                }
+            }
+        }
+    }
+}
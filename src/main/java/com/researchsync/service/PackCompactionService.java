@@ -0,0 +1,156 @@
+package com.researchsync.service;
+
+import com.researchsync.model.FileBlob;
+import com.researchsync.repository.FileBlobRepository;
+import com.researchsync.repository.UploadedFileRepository;
+import com.researchsync.storage.PackFileBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reclaims the space deleted blobs leave behind in pack segments.
+ *
+ * A sealed segment whose dead share passes the threshold has its live entries copied into
+ * the active segment; each row is then moved with a conditional update, so a blob deleted
+ * or re-uploaded meanwhile simply keeps (or loses) its old entry. The old segment is retired
+ * and deleted after a grace period, letting downloads that already read its location finish.
+ */
+@Service
+public class PackCompactionService {
+
+    private static final Logger log = LoggerFactory.getLogger(PackCompactionService.class);
+
+    @Autowired
+    private PackFileBackend packFileBackend;
+
+    @Autowired
+    private FileBlobRepository fileBlobRepository;
+
+    @Autowired
+    private UploadedFileRepository uploadedFileRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Fraction of a segment that must be dead before it is worth rewriting
+    @Value("${app.upload.pack.compact-threshold:0.5}")
+    private double compactThreshold;
+
+    // Segments written to more recently than this may still gain references from open uploads
+    @Value("${app.upload.pack.compact-min-age:PT1H}")
+    private Duration minAge;
+
+    @Value("${app.upload.pack.retire-grace:PT10M}")
+    private Duration retireGrace;
+
+    private final Map<Long, Instant> retired = new ConcurrentHashMap<>();
+
+    @Scheduled(fixedDelayString = "${app.upload.pack.compact-interval:PT15M}", initialDelayString = "${app.upload.pack.compact-interval:PT15M}")
+    public synchronized void compact() {
+        try {
+            List<Long> segments = packFileBackend.listSegments();
+            if (segments.isEmpty()) {
+                return;
+            }
+            Map<Long, Long> liveBytes = liveBytesBySegment();
+            deleteRetiredSegments(liveBytes);
+
+            long newest = Math.max(segments.get(segments.size() - 1), packFileBackend.getActiveSegment());
+            Instant sealedBefore = Instant.now().minus(minAge);
+            for (Long segment : segments) {
+                if (segment >= newest || retired.containsKey(segment)
+                        || packFileBackend.getSegmentModified(segment).isAfter(sealedBefore)) {
+                    continue;
+                }
+                long size = packFileBackend.getSegmentSize(segment);
+                long live = liveBytes.getOrDefault(segment, 0L);
+                if (live == 0) {
+                    retire(segment);
+                } else if (size - live >= compactThreshold * size) {
+                    compactSegment(segment, size, live);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Pack compaction run failed", e);
+        }
+    }
+
+    private void compactSegment(long segment, long size, long live) throws IOException {
+        List<FileBlob> blobs = fileBlobRepository.findByStoragePathStartingWith(PackFileBackend.segmentPrefix(segment));
+
+        // Copies are forced to disk before any row points at them
+        List<String[]> moves = new ArrayList<>();
+        for (FileBlob blob : blobs) {
+            moves.add(new String[] {blob.getContentHash(), blob.getStoragePath(),
+                    packFileBackend.copy(blob.getContentHash(), blob.getStoragePath())});
+        }
+
+        int moved = new TransactionTemplate(transactionManager).execute(status -> {
+            int count = 0;
+            for (String[] move : moves) {
+                if (fileBlobRepository.relocate(move[0], move[1], move[2]) > 0) {
+                    uploadedFileRepository.updateFilePathForBlob(move[0], move[2]);
+                    count++;
+                }
+            }
+            return count;
+        });
+
+        retire(segment);
+        log.info("Compacted pack segment {}: moved {} of {} entries, reclaiming {} bytes",
+                segment, moved, blobs.size(), size - live);
+    }
+
+    private void retire(long segment) {
+        retired.put(segment, Instant.now());
+        log.debug("Retired pack segment {}", segment);
+    }
+
+    private void deleteRetiredSegments(Map<Long, Long> liveBytes) throws IOException {
+        Instant cutoff = Instant.now().minus(retireGrace);
+        Iterator<Map.Entry<Long, Instant>> it = retired.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Instant> entry = it.next();
+            if (entry.getValue().isAfter(cutoff)) {
+                continue;
+            }
+            it.remove();
+            if (liveBytes.getOrDefault(entry.getKey(), 0L) > 0) {
+                // Something still points into it; leave it for a later pass to reconsider
+                log.warn("Retired pack segment {} is still referenced, keeping it", entry.getKey());
+                continue;
+            }
+            packFileBackend.deleteSegment(entry.getKey());
+        }
+    }
+
+    /**
+     * Bytes each segment holds for blobs still in the database, headers included
+     */
+    private Map<Long, Long> liveBytesBySegment() {
+        Map<Long, Long> live = new HashMap<>();
+        for (Object[] row : fileBlobRepository.sumPackedBytesBySegment()) {
+            long segment = ((Number) row[0]).longValue();
+            long bytes = ((Number) row[1]).longValue();
+            long entries = ((Number) row[2]).longValue();
+            live.put(segment, bytes + entries * PackFileBackend.HEADER_SIZE);
+        }
+        return live;
+    }
+}
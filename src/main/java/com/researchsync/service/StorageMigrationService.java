@@ -0,0 +1,370 @@
+package com.researchsync.service;
+
+import com.researchsync.model.FileBlob;
+import com.researchsync.model.UploadedFile;
+import com.researchsync.repository.FileBlobRepository;
+import com.researchsync.repository.UploadedFileRepository;
+import com.researchsync.storage.PackFileBackend;
+import com.researchsync.storage.StorageLayout;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves files from the old flat uploads directory into the sharded layout while the
+ * application keeps serving them.
+ *
+ * Each batch first hard-links every file to its new location, then rewrites the database
+ * paths in one transaction, and only after that commits removes the old names. A download
+ * therefore always finds the bytes under whichever path it read, and an interrupted run
+ * leaves nothing worse than an extra link that the next run picks up.
+ *
+ * Runs at startup when enabled, or on demand from the storage admin API, which can also pause
+ * and resume it between batches. Progress is published as storage.migration.* metrics.
+ */
+@Service
+public class StorageMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageMigrationService.class);
+
+    @Autowired
+    private FileBlobRepository fileBlobRepository;
+
+    @Autowired
+    private UploadedFileRepository uploadedFileRepository;
+
+    @Autowired
+    private StorageLayout storageLayout;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.upload.migration.enabled:false}")
+    private boolean migrateOnStartup;
+
+    @Value("${app.upload.migration.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.upload.migration.batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong migratedCount = new AtomicLong();
+    private final AtomicLong missingCount = new AtomicLong();
+    private final AtomicLong scannedCount = new AtomicLong();
+    private final AtomicLong totalCount = new AtomicLong();
+
+    private final Object pauseLock = new Object();
+    private volatile boolean paused;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("storage.migration.files.migrated", migratedCount, AtomicLong::get)
+                .description("Files moved to the sharded layout by the current or last run")
+                .register(meterRegistry);
+        Gauge.builder("storage.migration.files.missing", missingCount, AtomicLong::get)
+                .description("Recorded files not found on disk by the current or last run")
+                .register(meterRegistry);
+        Gauge.builder("storage.migration.files.scanned", scannedCount, AtomicLong::get)
+                .description("Rows examined by the current or last run")
+                .register(meterRegistry);
+        Gauge.builder("storage.migration.files.total", totalCount, AtomicLong::get)
+                .description("Rows to examine, counted when the run started")
+                .register(meterRegistry);
+        Gauge.builder("storage.migration.running", running, flag -> flag.get() ? 1 : 0)
+                .register(meterRegistry);
+        Gauge.builder("storage.migration.paused", this, service -> service.paused ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateOnStartup) {
+            startMigration();
+        }
+    }
+
+    /**
+     * Start the migration on a background thread; returns false if one is already running.
+     * Finished runs can be started again: files already in place are skipped.
+     */
+    public boolean startMigration() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        paused = false;
+        Thread worker = new Thread(() -> {
+            try {
+                migrate();
+            } catch (Exception e) {
+                log.error("Storage layout migration stopped", e);
+            } finally {
+                paused = false;
+                running.set(false);
+            }
+        }, "storage-migration");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    /**
+     * Hold the running migration after its current batch
+     */
+    public boolean pauseMigration() {
+        if (!running.get()) {
+            return false;
+        }
+        paused = true;
+        log.info("Storage layout migration paused");
+        return true;
+    }
+
+    public boolean resumeMigration() {
+        synchronized (pauseLock) {
+            if (!paused) {
+                return false;
+            }
+            paused = false;
+            pauseLock.notifyAll();
+        }
+        log.info("Storage layout migration resumed");
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public long getScannedCount() {
+        return scannedCount.get();
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public long getMigratedCount() {
+        return migratedCount.get();
+    }
+
+    public long getMissingCount() {
+        return missingCount.get();
+    }
+
+    private void migrate() throws InterruptedException {
+        log.info("Storage layout migration started ({} shard levels, batches of {})",
+                storageLayout.getShardLevels(), batchSize);
+        migratedCount.set(0);
+        missingCount.set(0);
+        scannedCount.set(0);
+        totalCount.set(fileBlobRepository.count() + uploadedFileRepository.countByBlobIsNull());
+
+        // Content-addressed blobs: one file per hash, shared by every row that references it
+        String lastHash = "";
+        while (true) {
+            List<FileBlob> blobs = fileBlobRepository.findByContentHashGreaterThanOrderByContentHashAsc(
+                    lastHash, PageRequest.of(0, batchSize));
+            if (blobs.isEmpty()) {
+                break;
+            }
+            List<Relocation> batch = new ArrayList<>();
+            for (FileBlob blob : blobs) {
+                if (PackFileBackend.isPackLocation(blob.getStoragePath())) {
+                    // Packed blobs live in segment files, which are not part of the shard layout
+                    continue;
+                }
+                Relocation relocation = prepare(blob.getStoragePath(), storedName(blob.getStoragePath()));
+                if (relocation != null) {
+                    relocation.contentHash = blob.getContentHash();
+                    batch.add(relocation);
+                }
+            }
+            apply(batch);
+            scannedCount.addAndGet(blobs.size());
+            lastHash = blobs.get(blobs.size() - 1).getContentHash();
+            betweenBatches();
+        }
+
+        // Files stored before deduplication own their path outright
+        Long lastFileId = 0L;
+        while (true) {
+            List<UploadedFile> files = uploadedFileRepository.findByBlobIsNullAndFileIdGreaterThanOrderByFileIdAsc(
+                    lastFileId, PageRequest.of(0, batchSize));
+            if (files.isEmpty()) {
+                break;
+            }
+            List<Relocation> batch = new ArrayList<>();
+            for (UploadedFile file : files) {
+                Relocation relocation = prepare(file.getFilePath(), file.getFilename());
+                if (relocation != null) {
+                    relocation.fileId = file.getFileId();
+                    batch.add(relocation);
+                }
+            }
+            apply(batch);
+            scannedCount.addAndGet(files.size());
+            lastFileId = files.get(files.size() - 1).getFileId();
+            betweenBatches();
+        }
+
+        log.info("Storage layout migration finished: {} files moved, {} missing on disk",
+                migratedCount.get(), missingCount.get());
+    }
+
+    private void betweenBatches() throws InterruptedException {
+        Thread.sleep(batchPauseMs);
+        synchronized (pauseLock) {
+            while (paused) {
+                pauseLock.wait();
+            }
+        }
+    }
+
+    /**
+     * Make the file reachable at its sharded location; null when there is nothing to do
+     */
+    private Relocation prepare(String recordedPath, String storedName) {
+        if (recordedPath == null) {
+            return null;
+        }
+        Path source = Paths.get(recordedPath);
+        Path target = storageLayout.resolve(storedName);
+        if (source.equals(target)) {
+            return null;
+        }
+
+        try {
+            if (!Files.exists(source)) {
+                if (Files.exists(target)) {
+                    // Moved by an earlier, interrupted run; only the database is behind
+                    return new Relocation(source, target, false);
+                }
+                log.warn("File {} is missing on disk, leaving its path unchanged", source);
+                missingCount.incrementAndGet();
+                return null;
+            }
+
+            Files.createDirectories(target.getParent());
+            boolean created = linkOrCopy(source, target);
+            return new Relocation(source, target, created);
+        } catch (IOException e) {
+            log.warn("Could not relocate {} to {}: {}", source, target, e.getMessage());
+            return null;
+        }
+    }
+
+    private String storedName(String storagePath) {
+        // Blobs compressed at rest carry an encoding suffix after the hash
+        return Paths.get(storagePath).getFileName().toString();
+    }
+
+    private boolean linkOrCopy(Path source, Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            // Same name means same content: blobs are named by hash, legacy files by UUID
+            return false;
+        } catch (UnsupportedOperationException | IOException e) {
+            // No hard links on this file system: copy next to the target, then rename into place
+            Path temp = Files.createTempFile(target.getParent(), ".migrate-", ".tmp");
+            try {
+                Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException ex) {
+                    Files.move(temp, target);
+                }
+                return true;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private void apply(List<Relocation> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                for (Relocation relocation : batch) {
+                    String newPath = relocation.target.toString();
+                    if (relocation.contentHash != null) {
+                        fileBlobRepository.updateStoragePath(relocation.contentHash, newPath);
+                        uploadedFileRepository.updateFilePathForBlob(relocation.contentHash, newPath);
+                    } else {
+                        uploadedFileRepository.updateFilePath(relocation.fileId, newPath);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // Database still points at the old paths, so drop the links this batch created
+            for (Relocation relocation : batch) {
+                if (relocation.created) {
+                    deleteQuietly(relocation.target);
+                }
+            }
+            throw e;
+        }
+
+        for (Relocation relocation : batch) {
+            deleteQuietly(relocation.source);
+        }
+        migratedCount.addAndGet(batch.size());
+        log.debug("Migrated batch of {} files to the sharded layout", batch.size());
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Warning: Failed to delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static final class Relocation {
+        final Path source;
+        final Path target;
+        final boolean created;
+        String contentHash;
+        Long fileId;
+
+        Relocation(Path source, Path target, boolean created) {
+            this.source = source;
+            this.target = target;
+            this.created = created;
+        }
+    }
+}
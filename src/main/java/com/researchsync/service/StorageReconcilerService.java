@@ -0,0 +1,349 @@
+package com.researchsync.service;
+
+import com.researchsync.model.UploadSession;
+import com.researchsync.model.UploadedFile;
+import com.researchsync.repository.UploadSessionRepository;
+import com.researchsync.repository.UploadedFileRepository;
+import com.researchsync.storage.StorageLayout;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Finds drift between the upload store and the database, a slice at a time.
+ *
+ * Disk side: each run walks the next few shard directories (plus the legacy flat root and
+ * the staging area) and reports, quarantines or deletes files that no row points at; it is
+ * off, and only reports, until an operator opts in. Database side: each run checks the next
+ * batch of active UploadedFile rows and counts those whose bytes are missing. Both sides keep a cursor, so a full pass spreads over many runs, and file
+ * operations are rate limited to keep backup-sized trees from saturating the disk.
+ */
+@Service
+public class StorageReconcilerService {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageReconcilerService.class);
+
+    private static final Pattern BLOB_NAME = Pattern.compile("([0-9a-f]{64})(\\.[a-z0-9]+)?");
+    private static final String QUARANTINE_DIR = ".quarantine";
+
+    @Autowired
+    private UploadedFileRepository uploadedFileRepository;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private BlobStorageService blobStorageService;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private StorageMigrationService storageMigrationService;
+
+    @Autowired
+    private StorageLayout storageLayout;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.upload.staging-dir:${app.upload.dir:./uploads/}/.staging}")
+    private String stagingDir;
+
+    @Value("${app.reconciler.enabled:false}")
+    private boolean enabled;
+
+    // "report" only counts and logs orphans; "quarantine" moves them aside for later purge;
+    // "delete" removes them at once
+    @Value("${app.reconciler.action:report}")
+    private String action;
+
+    @Value("${app.reconciler.dirs-per-run:64}")
+    private int dirsPerRun;
+
+    @Value("${app.reconciler.rows-per-run:2000}")
+    private int rowsPerRun;
+
+    @Value("${app.reconciler.files-per-second:200}")
+    private int filesPerSecond;
+
+    // Files younger than this are never touched; uploads place their blob just after commit
+    @Value("${app.reconciler.min-age:PT1H}")
+    private Duration minAge;
+
+    @Value("${app.reconciler.quarantine-retention:P7D}")
+    private Duration quarantineRetention;
+
+    // Shard directory cursor; -1 stands for the flat root and the staging area
+    private long dirCursor = -1;
+    private Long rowCursor = 0L;
+    private long danglingInPass = 0;
+    private long nextFileAt = 0;
+
+    private final AtomicLong danglingFiles = new AtomicLong();
+    private final AtomicLong diskPassProgress = new AtomicLong();
+
+    private Counter filesScanned;
+    private Counter orphansFound;
+    private Counter bytesQuarantined;
+    private Counter bytesReclaimed;
+    private Counter rowsChecked;
+
+    @PostConstruct
+    public void registerMetrics() {
+        filesScanned = meterRegistry.counter("storage.reconciler.files.scanned");
+        orphansFound = meterRegistry.counter("storage.reconciler.orphans");
+        bytesQuarantined = meterRegistry.counter("storage.reconciler.bytes.quarantined");
+        bytesReclaimed = meterRegistry.counter("storage.reconciler.bytes.reclaimed");
+        rowsChecked = meterRegistry.counter("storage.reconciler.rows.checked");
+        Gauge.builder("storage.reconciler.dangling.files", danglingFiles, AtomicLong::get)
+                .description("Active files whose bytes were missing in the last full pass")
+                .register(meterRegistry);
+        Gauge.builder("storage.reconciler.disk.progress", diskPassProgress, progress -> progress.get() / 10000.0)
+                .description("Fraction of shard directories covered by the current disk pass")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.reconciler.interval:PT1M}", initialDelayString = "${app.reconciler.initial-delay:PT5M}")
+    public synchronized void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        // Migration links files before the database points at them; they would look orphaned
+        if (storageMigrationService.isRunning()) {
+            log.debug("Storage migration running, skipping reconciliation");
+            return;
+        }
+
+        try {
+            scanDisk();
+            checkRows();
+            purgeQuarantine();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Storage reconciliation run failed", e);
+        }
+    }
+
+    private void scanDisk() throws IOException, InterruptedException {
+        long shardDirCount = 1L << (8 * storageLayout.getShardLevels());
+
+        for (int i = 0; i < dirsPerRun; i++) {
+            if (dirCursor == -1) {
+                scanDirectory(storageLayout.getRoot());
+                scanStaging();
+            } else {
+                scanDirectory(shardDirectory(dirCursor));
+            }
+
+            dirCursor++;
+            if (dirCursor >= shardDirCount) {
+                log.info("Storage reconciliation completed a full disk pass");
+                dirCursor = -1;
+            }
+            diskPassProgress.set((dirCursor + 1) * 10000 / (shardDirCount + 1));
+        }
+    }
+
+    private Path shardDirectory(long index) {
+        Path dir = storageLayout.getRoot();
+        for (int level = storageLayout.getShardLevels() - 1; level >= 0; level--) {
+            dir = dir.resolve(String.format("%02x", (index >> (8 * level)) & 0xff));
+        }
+        return dir;
+    }
+
+    private void scanDirectory(Path dir) throws IOException, InterruptedException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, Files::isRegularFile)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(".") || isTooYoung(file)) {
+                    continue;
+                }
+                throttle();
+                filesScanned.increment();
+
+                var blobName = BLOB_NAME.matcher(name);
+                if (blobName.matches()) {
+                    blobStorageService.collectIfUnreferenced(blobName.group(1), file, this::collect);
+                } else if (!isReferencedLegacyFile(file)) {
+                    collect(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Files stored before deduplication are referenced by an active row with the same stored
+     * name, either at the recorded path or, when that is gone, at the sharded fallback.
+     */
+    private boolean isReferencedLegacyFile(Path file) {
+        for (UploadedFile row : uploadedFileRepository.findByFilenameAndIsActiveTrue(file.getFileName().toString())) {
+            Path recorded = Paths.get(row.getFilePath());
+            if (StorageLayout.isSameFile(recorded, file) || !Files.exists(recorded)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Staging leftovers: chunk files of uploads that are no longer active, and temp files of
+     * single-request uploads that failed before the blob was placed
+     */
+    private void scanStaging() throws IOException, InterruptedException {
+        Path staging = Paths.get(stagingDir);
+        if (!Files.isDirectory(staging)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(staging, Files::isRegularFile)) {
+            for (Path file : files) {
+                if (isTooYoung(file)) {
+                    continue;
+                }
+                throttle();
+                filesScanned.increment();
+
+                String name = file.getFileName().toString();
+                if (name.endsWith(".part")) {
+                    String uploadId = name.substring(0, name.length() - ".part".length());
+                    Optional<UploadSession> session = uploadSessionRepository.findById(uploadId);
+                    if (session.isPresent() && session.get().getStatus() == UploadSession.UploadStatus.ACTIVE) {
+                        continue;
+                    }
+                }
+                collect(file);
+            }
+        }
+    }
+
+    private void checkRows() throws IOException, InterruptedException {
+        List<UploadedFile> files = uploadedFileRepository.findByIsActiveTrueAndFileIdGreaterThanOrderByFileIdAsc(
+                rowCursor, PageRequest.of(0, rowsPerRun));
+
+        for (UploadedFile file : files) {
+            throttle();
+            rowsChecked.increment();
+            if (!fileService.hasContent(file)) {
+                danglingInPass++;
+                log.warn("File {} ({}) is missing on disk at {}", file.getFileId(), file.getOriginalFilename(), file.getFilePath());
+            }
+        }
+
+        if (files.size() < rowsPerRun) {
+            danglingFiles.set(danglingInPass);
+            if (danglingInPass > 0) {
+                log.warn("Storage reconciliation found {} active files missing on disk", danglingInPass);
+            }
+            danglingInPass = 0;
+            rowCursor = 0L;
+        } else {
+            rowCursor = files.get(files.size() - 1).getFileId();
+        }
+    }
+
+    private void collect(Path file) throws IOException {
+        long size = Files.size(file);
+        orphansFound.increment();
+
+        if ("report".equalsIgnoreCase(action)) {
+            log.info("Found orphaned file {} ({} bytes), leaving it in place", file, size);
+            return;
+        }
+
+        if ("delete".equalsIgnoreCase(action)) {
+            Files.deleteIfExists(file);
+            bytesReclaimed.increment(size);
+            log.info("Deleted orphaned file {} ({} bytes)", file, size);
+            return;
+        }
+
+        Path root = storageLayout.getRoot();
+        Path relative = file.startsWith(root) ? root.relativize(file) : Paths.get("staging").resolve(file.getFileName());
+        Path target = root.resolve(QUARANTINE_DIR).resolve(LocalDate.now().toString()).resolve(relative);
+        Files.createDirectories(target.getParent());
+        Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+        bytesQuarantined.increment(size);
+        log.info("Quarantined orphaned file {} ({} bytes) to {}", file, size, target);
+    }
+
+    /**
+     * Delete quarantine days older than the retention period
+     */
+    private void purgeQuarantine() throws IOException {
+        Path quarantine = storageLayout.getRoot().resolve(QUARANTINE_DIR);
+        if (!Files.isDirectory(quarantine)) {
+            return;
+        }
+        LocalDate cutoff = LocalDate.now().minusDays(quarantineRetention.toDays());
+
+        try (DirectoryStream<Path> days = Files.newDirectoryStream(quarantine, Files::isDirectory)) {
+            for (Path day : days) {
+                try {
+                    if (!LocalDate.parse(day.getFileName().toString()).isBefore(cutoff)) {
+                        continue;
+                    }
+                } catch (DateTimeParseException e) {
+                    continue;
+                }
+
+                List<Path> entries = new ArrayList<>();
+                try (Stream<Path> walk = Files.walk(day)) {
+                    walk.sorted(Comparator.reverseOrder()).forEach(entries::add);
+                }
+                long reclaimed = 0;
+                for (Path entry : entries) {
+                    if (Files.isRegularFile(entry)) {
+                        reclaimed += Files.size(entry);
+                    }
+                    Files.deleteIfExists(entry);
+                }
+                bytesReclaimed.increment(reclaimed);
+                log.info("Purged quarantine {} ({} bytes)", day, reclaimed);
+            }
+        }
+    }
+
+    private boolean isTooYoung(Path file) throws IOException {
+        Instant modified = Files.getLastModifiedTime(file).toInstant();
+        return modified.isAfter(Instant.now().minus(minAge));
+    }
+
+    private void throttle() throws InterruptedException {
+        long now = System.nanoTime();
+        if (nextFileAt > now) {
+            Thread.sleep((nextFileAt - now) / 1_000_000, (int) ((nextFileAt - now) % 1_000_000));
+        }
+        nextFileAt = Math.max(now, nextFileAt) + 1_000_000_000L / filesPerSecond;
+    }
+}
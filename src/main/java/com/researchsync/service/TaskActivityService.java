@@ -0,0 +1,325 @@
+package com.researchsync.service;
+
+import com.researchsync.dto.CursorPage;
+import com.researchsync.model.Task;
+import com.researchsync.model.TaskActivity;
+import com.researchsync.model.User;
+import com.researchsync.repository.TaskActivityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * The append-only task activity log.
+ *
+ * Entries are written in the transaction that makes the change, as one JDBC batch just before
+ * it commits, so an entry exists exactly when its change does. Each is stamped as it is
+ * inserted, one writer at a time, so activity ids and times never disagree on order.
+ *
+ * A scheduled compaction keeps the log bounded: history of tasks deleted before the retention
+ * window is dropped, and for other tasks everything before the window, or beyond the newest
+ * max-entries-per-task, collapses into a single SNAPSHOT entry.
+ */
+@Service
+public class TaskActivityService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskActivityService.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final String INSERT_SQL = "INSERT INTO task_activity (task_id, workspace_id, actor_id, action, changes, " +
+            "occurred_at, title, description, status, priority, assignee_id, due_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private TaskActivityRepository taskActivityRepository;
+
+    @Autowired
+    private WorkspaceService workspaceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.activity.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.activity.retention:P180D}")
+    private Duration retention;
+
+    @Value("${app.activity.max-entries-per-task:500}")
+    private int maxEntriesPerTask;
+
+    private final Object writeLock = new Object();
+    private LocalDateTime lastStamp = LocalDateTime.MIN;
+
+    /**
+     * Record a task's creation (before is null) or a change to it. A change that left every
+     * logged field as it was is not recorded.
+     */
+    public void record(TaskActivity before, Task task, User actor) {
+        record(before, TaskActivity.capture(task), actor);
+    }
+
+    public void record(TaskActivity before, TaskActivity after, User actor) {
+        String changes = before == null ? null : changes(before, after);
+        if (before != null && changes == null) {
+            return;
+        }
+        after.setAction(before == null ? TaskActivity.Action.CREATED : TaskActivity.Action.UPDATED);
+        after.setChanges(changes);
+        append(after, actor);
+    }
+
+    public void recordDeletion(Task task, User actor) {
+        TaskActivity entry = TaskActivity.capture(task);
+        entry.setAction(TaskActivity.Action.DELETED);
+        append(entry, actor);
+    }
+
+    public CursorPage<TaskActivity> getTaskHistory(Long taskId, User user, String cursor, int limit) {
+        try {
+            TaskActivity latest = taskActivityRepository.findFirstByTaskIdOrderByActivityIdDesc(taskId);
+            if (latest == null) {
+                return new CursorPage<>(List.of(), null);
+            }
+            checkAccess(user, latest.getWorkspaceId());
+            return toPage(taskActivityRepository.findTaskPage(taskId, decodeCursor(cursor), pageRequest(limit)));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to get task history: " + e.getMessage());
+        }
+    }
+
+    public CursorPage<TaskActivity> getWorkspaceHistory(Long workspaceId, User user, String cursor, int limit) {
+        try {
+            checkAccess(user, workspaceId);
+            return toPage(taskActivityRepository.findWorkspacePage(workspaceId, decodeCursor(cursor), pageRequest(limit)));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to get workspace history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The task as it was at the given time: the log entry in force then. DELETED if it had
+     * been deleted by then.
+     */
+    public TaskActivity getStateAt(Long taskId, LocalDateTime at, User user) {
+        try {
+            List<TaskActivity> found = taskActivityRepository.findStateAt(taskId, at, PageRequest.of(0, 1));
+            if (found.isEmpty()) {
+                throw new RuntimeException("No history recorded for this task at " + at);
+            }
+            checkAccess(user, found.get(0).getWorkspaceId());
+            return found.get(0);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to get task state: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.activity.compaction-interval:PT1H}", initialDelayString = "${app.activity.compaction-initial-delay:PT10M}")
+    public void scheduledCompaction() {
+        try {
+            compact();
+        } catch (Exception e) {
+            log.error("Task activity compaction failed", e);
+        }
+    }
+
+    /**
+     * @return the number of entries removed
+     */
+    public synchronized int compact() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        PageRequest batch = PageRequest.of(0, batchSize);
+        int removed = 0;
+
+        // Each pass removes what it found, so the next query returns the following candidates
+        while (true) {
+            List<Long> deleted = taskActivityRepository.findDeletedBefore(cutoff, batch);
+            if (deleted.isEmpty()) {
+                break;
+            }
+            removed += transaction.execute(status -> taskActivityRepository.deleteByTaskIdIn(deleted));
+        }
+
+        while (true) {
+            List<Object[]> expired = taskActivityRepository.findExpiredHistories(cutoff, batch);
+            if (expired.isEmpty()) {
+                break;
+            }
+            removed += transaction.execute(status -> {
+                int count = 0;
+                for (Object[] row : expired) {
+                    count += collapse((Long) row[0], (Long) row[1]);
+                }
+                return count;
+            });
+        }
+
+        while (true) {
+            List<Long> oversized = taskActivityRepository.findOversizedHistories(maxEntriesPerTask, batch);
+            if (oversized.isEmpty()) {
+                break;
+            }
+            removed += transaction.execute(status -> {
+                int count = 0;
+                for (Long taskId : oversized) {
+                    List<Long> oldestKept = taskActivityRepository.findActivityIds(taskId, PageRequest.of(maxEntriesPerTask - 1, 1));
+                    if (!oldestKept.isEmpty()) {
+                        count += collapse(taskId, oldestKept.get(0));
+                    }
+                }
+                return count;
+            });
+        }
+
+        if (removed > 0) {
+            log.info("Compacted task activity log: {} entries removed", removed);
+        }
+        return removed;
+    }
+
+    // Everything before the entry goes; the entry, which holds the state as of then, stands in for it
+    private int collapse(Long taskId, Long activityId) {
+        int count = taskActivityRepository.deleteOlderThan(taskId, activityId);
+        taskActivityRepository.markSnapshot(activityId);
+        return count;
+    }
+
+    private void append(TaskActivity entry, User actor) {
+        entry.setActorId(actor != null ? actor.getUserId() : null);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> write(List.of(entry)));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<TaskActivity> pending = (List<TaskActivity>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<TaskActivity> entries = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, entries);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                // A nested REQUIRES_NEW transaction collects its own entries
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(TaskActivityService.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(TaskActivityService.this, entries);
+                }
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // A failed write fails the commit, so the change is not kept without its entry
+                    write(entries);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TaskActivityService.this);
+                }
+            });
+            pending = entries;
+        }
+        pending.add(entry);
+    }
+
+    void write(List<TaskActivity> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            synchronized (writeLock) {
+                // Never earlier than an entry already written, even if the clock steps back
+                LocalDateTime now = LocalDateTime.now();
+                lastStamp = now.isAfter(lastStamp) ? now : lastStamp;
+                for (TaskActivity entry : entries) {
+                    entry.setOccurredAt(lastStamp);
+                }
+                jdbcTemplate.batchUpdate(INSERT_SQL, entries, batchSize, (statement, entry) -> {
+                    statement.setLong(1, entry.getTaskId());
+                    statement.setLong(2, entry.getWorkspaceId());
+                    statement.setObject(3, entry.getActorId());
+                    statement.setString(4, entry.getAction().name());
+                    statement.setString(5, entry.getChanges());
+                    statement.setObject(6, entry.getOccurredAt());
+                    statement.setString(7, entry.getTitle());
+                    statement.setString(8, entry.getDescription());
+                    statement.setString(9, entry.getStatus() != null ? entry.getStatus().name() : null);
+                    statement.setString(10, entry.getPriority() != null ? entry.getPriority().name() : null);
+                    statement.setObject(11, entry.getAssigneeId());
+                    statement.setObject(12, entry.getDueDate());
+                });
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to record task activity: " + e.getMessage());
+        }
+    }
+
+    private static String changes(TaskActivity before, TaskActivity after) {
+        StringJoiner changed = new StringJoiner(",");
+        compare(changed, TaskActivity.Field.TITLE, before.getTitle(), after.getTitle());
+        compare(changed, TaskActivity.Field.DESCRIPTION, before.getDescription(), after.getDescription());
+        compare(changed, TaskActivity.Field.STATUS, before.getStatus(), after.getStatus());
+        compare(changed, TaskActivity.Field.PRIORITY, before.getPriority(), after.getPriority());
+        compare(changed, TaskActivity.Field.ASSIGNEE, before.getAssigneeId(), after.getAssigneeId());
+        compare(changed, TaskActivity.Field.DUE_DATE, before.getDueDate(), after.getDueDate());
+        return changed.length() > 0 ? changed.toString() : null;
+    }
+
+    private static void compare(StringJoiner changed, TaskActivity.Field field, Object before, Object after) {
+        if (!Objects.equals(before, after)) {
+            changed.add(field.name());
+        }
+    }
+
+    private void checkAccess(User user, Long workspaceId) {
+        if (!workspaceService.canUserAccessWorkspace(user, workspaceId)) {
+            throw new RuntimeException("You don't have access to this workspace");
+        }
+    }
+
+    private PageRequest pageRequest(int limit) {
+        return PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    // The cursor is the id of the last entry shown
+    private CursorPage<TaskActivity> toPage(Slice<TaskActivity> slice) {
+        List<TaskActivity> entries = slice.getContent();
+        if (!slice.hasNext() || entries.isEmpty()) {
+            return new CursorPage<>(entries, null);
+        }
+        return new CursorPage<>(entries, String.valueOf(entries.get(entries.size() - 1).getActivityId()));
+    }
+
+    private Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.researchsync.service;
+
+import com.researchsync.dto.DailyTaskStats;
+import com.researchsync.dto.WeeklyVelocity;
+import com.researchsync.event.TaskBatchEvent;
+import com.researchsync.event.TaskEvent;
+import com.researchsync.event.TaskOverdueEvent;
+import com.researchsync.model.Task;
+import com.researchsync.model.TaskActivity;
+import com.researchsync.model.TaskDailyRollup;
+import com.researchsync.model.User;
+import com.researchsync.repository.TaskDailyRollupRepository;
+import com.researchsync.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Burndown, velocity and cycle-time figures from daily rollups (see TaskDailyRollup), so a
+ * chart reads one row per day and priority instead of scanning tasks.
+ *
+ * Task events keep the counters current from each change's before and after state, so an open
+ * task that changes assignee or priority moves from one row to the other, and a reopening is
+ * only ever a completed task going back to open. History like that is not in the tasks table,
+ * so these counters are never partly recomputed: a full rebuild from the tasks table, which
+ * starts reopenings and moves over from zero, fills the table only when it is empty.
+ *
+ * Overdue is the exception. It depends on nothing but a task's current fields and feeds no
+ * other figure, and deadlines pass in workspaces nobody has open, so besides the live count it
+ * is recounted from the tasks table for the last few days on a schedule.
+ */
+@Service
+public class TaskAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskAnalyticsService.class);
+
+    private static final int MAX_RANGE_DAYS = 731;
+
+    private static final LocalDate ALL_TIME = LocalDate.of(1970, 1, 1);
+
+    private static final String COLUMNS = "(scope, scope_id, stat_date, priority, created, completed, closed, reopened, " +
+            "moved_in, moved_out, overdue, cycle_minutes) ";
+
+    // %1$s is the scope name, %2$s the tasks column it is keyed on
+    private static final String REBUILD_CREATED_SQL = "INSERT INTO task_daily_rollups " + COLUMNS +
+            "SELECT '%1$s', %2$s, DATE(created_date), priority, COUNT(*), 0, 0, 0, 0, 0, 0, 0 FROM tasks " +
+            "WHERE %2$s IS NOT NULL GROUP BY %2$s, DATE(created_date), priority " +
+            "ON DUPLICATE KEY UPDATE created = VALUES(created)";
+
+    private static final String REBUILD_COMPLETED_SQL = "INSERT INTO task_daily_rollups " + COLUMNS +
+            "SELECT '%1$s', %2$s, DATE(completed_date), priority, 0, COUNT(*), 0, 0, 0, 0, 0, " +
+            "SUM(GREATEST(TIMESTAMPDIFF(MINUTE, created_date, completed_date), 0)) FROM tasks " +
+            "WHERE %2$s IS NOT NULL AND status = 'COMPLETED' AND completed_date IS NOT NULL " +
+            "GROUP BY %2$s, DATE(completed_date), priority " +
+            "ON DUPLICATE KEY UPDATE completed = VALUES(completed), cycle_minutes = VALUES(cycle_minutes)";
+
+    // A cancelled task has no closing time of its own; its last update stands in
+    private static final String REBUILD_CLOSED_SQL = "INSERT INTO task_daily_rollups " + COLUMNS +
+            "SELECT '%1$s', %2$s, DATE(closed_at), priority, 0, 0, COUNT(*), 0, 0, 0, 0, 0 FROM (" +
+            "SELECT %2$s, priority, CASE WHEN status = 'COMPLETED' THEN COALESCE(completed_date, updated_date, created_date) " +
+            "ELSE COALESCE(updated_date, created_date) END AS closed_at FROM tasks " +
+            "WHERE %2$s IS NOT NULL AND status IN ('COMPLETED', 'CANCELLED')) closed_tasks " +
+            "GROUP BY %2$s, DATE(closed_at), priority " +
+            "ON DUPLICATE KEY UPDATE closed = VALUES(closed)";
+
+    // Overdue: the deadline passed while the task was still open
+    private static final String RECOUNT_OVERDUE_SQL = "INSERT INTO task_daily_rollups " + COLUMNS +
+            "SELECT '%1$s', %2$s, DATE(due_date), priority, 0, 0, 0, 0, 0, 0, COUNT(*), 0 FROM tasks " +
+            "WHERE %2$s IS NOT NULL AND due_date >= ? AND due_date < NOW() AND (status IN ('PENDING', 'IN_PROGRESS') " +
+            "OR (status = 'COMPLETED' AND completed_date > due_date)) " +
+            "GROUP BY %2$s, DATE(due_date), priority " +
+            "ON DUPLICATE KEY UPDATE overdue = VALUES(overdue)";
+
+    private static final String[][] SCOPES = {{"WORKSPACE", "workspace_id"}, {"USER", "assigned_to"}};
+
+    // The counters of a rollup row, in the order addCounts takes them
+    private enum Counter {
+        CREATED, COMPLETED, CLOSED, REOPENED, MOVED_IN, MOVED_OUT, OVERDUE, CYCLE_MINUTES
+    }
+
+    @Autowired
+    private TaskDailyRollupRepository taskDailyRollupRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private WorkspaceService workspaceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.analytics.overdue-recount-days:7}")
+    private int overdueRecountDays;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvent(TaskEvent event) {
+        record(List.of(event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskBatch(TaskBatchEvent batch) {
+        record(batch.getEvents());
+    }
+
+    // The batch's counts are summed per row and written in one transaction
+    private void record(List<TaskEvent> events) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Set<Long> completedIds = events.stream().filter(TaskAnalyticsService::isCompletion)
+                    .map(TaskEvent::getTaskId).collect(Collectors.toSet());
+            Map<Long, LocalDateTime> createdDates = new HashMap<>();
+            if (!completedIds.isEmpty()) {
+                for (Task task : taskRepository.findWithWorkspaceByTaskIdIn(completedIds)) {
+                    createdDates.put(task.getTaskId(), task.getCreatedDate());
+                }
+            }
+
+            Map<List<Object>, long[]> rows = new LinkedHashMap<>();
+            for (TaskEvent event : events) {
+                count(event, now, createdDates, rows);
+            }
+            if (!rows.isEmpty()) {
+                inNewTransaction(() -> write(rows));
+            }
+        } catch (Exception e) {
+            log.error("Failed to update task rollups for {} task change(s)", events.size(), e);
+        }
+    }
+
+    /**
+     * Per scope: a creation counts where the task starts, and an open task that is closed
+     * counts where it was. One coming back to open counts where it lands, as a reopening if it
+     * had been completed. An open task whose row changes moves out of one and into the other.
+     */
+    private void count(TaskEvent event, LocalDateTime now, Map<Long, LocalDateTime> createdDates, Map<List<Object>, long[]> rows) {
+        TaskActivity before = event.getBefore();
+        TaskActivity after = event.getAfter();
+        if (before == null && after == null) {
+            return;
+        }
+        boolean wasOpen = before != null && isOpen(before.getStatus());
+        boolean open = after != null && isOpen(after.getStatus());
+        LocalDate today = now.toLocalDate();
+
+        for (TaskDailyRollup.Scope scope : TaskDailyRollup.Scope.values()) {
+            List<Object> from = before != null ? row(scope, before, today) : null;
+            List<Object> to = after != null ? row(scope, after, today) : null;
+            if (before == null) {
+                bump(rows, to, Counter.CREATED, 1);
+                if (!open) {
+                    bump(rows, to, Counter.CLOSED, 1);
+                }
+            } else if (wasOpen && !open) {
+                bump(rows, from, Counter.CLOSED, 1);
+            } else if (!wasOpen && open) {
+                bump(rows, to, before.getStatus() == Task.TaskStatus.COMPLETED ? Counter.REOPENED : Counter.MOVED_IN, 1);
+            } else if (wasOpen && open && !Objects.equals(from, to)) {
+                bump(rows, from, Counter.MOVED_OUT, 1);
+                bump(rows, to, Counter.MOVED_IN, 1);
+            }
+
+            if (isCompletion(event)) {
+                LocalDateTime created = createdDates.get(event.getTaskId());
+                bump(rows, to, Counter.COMPLETED, 1);
+                bump(rows, to, Counter.CYCLE_MINUTES, created != null ? Math.max(Duration.between(created, now).toMinutes(), 0) : 0);
+            }
+        }
+    }
+
+    private static boolean isCompletion(TaskEvent event) {
+        return event.getAfter() != null && event.getAfter().getStatus() == Task.TaskStatus.COMPLETED
+                && (event.getBefore() == null || event.getBefore().getStatus() != Task.TaskStatus.COMPLETED);
+    }
+
+    private static boolean isOpen(Task.TaskStatus status) {
+        return status != Task.TaskStatus.COMPLETED && status != Task.TaskStatus.CANCELLED;
+    }
+
+    // Null for a user row of an unassigned task
+    private static List<Object> row(TaskDailyRollup.Scope scope, TaskActivity state, LocalDate date) {
+        Long scopeId = scope == TaskDailyRollup.Scope.WORKSPACE ? state.getWorkspaceId() : state.getAssigneeId();
+        return scopeId == null ? null : List.of(scope, scopeId, date, state.getPriority());
+    }
+
+    private static void bump(Map<List<Object>, long[]> rows, List<Object> row, Counter counter, long amount) {
+        if (row != null) {
+            rows.computeIfAbsent(row, key -> new long[Counter.values().length])[counter.ordinal()] += amount;
+        }
+    }
+
+    private void write(Map<List<Object>, long[]> rows) {
+        rows.forEach((row, counts) -> taskDailyRollupRepository.addCounts(((TaskDailyRollup.Scope) row.get(0)).name(),
+                (Long) row.get(1), (LocalDate) row.get(2), ((Task.TaskPriority) row.get(3)).name(),
+                counts[0], counts[1], counts[2], counts[3], counts[4], counts[5], counts[6], counts[7]));
+    }
+
+    @EventListener
+    public void onTaskOverdue(TaskOverdueEvent event) {
+        try {
+            Task task = load(event.getTaskId());
+            if (task == null) {
+                return;
+            }
+            Map<List<Object>, long[]> rows = new LinkedHashMap<>();
+            TaskActivity state = TaskActivity.capture(task);
+            for (TaskDailyRollup.Scope scope : TaskDailyRollup.Scope.values()) {
+                bump(rows, row(scope, state, event.getDueDate().toLocalDate()), Counter.OVERDUE, 1);
+            }
+            inNewTransaction(() -> write(rows));
+        } catch (Exception e) {
+            log.error("Failed to update task rollups for {}", event, e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (taskDailyRollupRepository.count() == 0) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("Task rollup backfill failed", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.analytics.overdue-recount-cron:0 30 3 * * *}")
+    public void scheduledOverdueRecount() {
+        try {
+            recountOverdue(LocalDate.now().minusDays(overdueRecountDays));
+        } catch (Exception e) {
+            log.error("Overdue task recount failed", e);
+        }
+    }
+
+    /**
+     * Recompute every counter from the tasks table, in one transaction. Reopenings and moves
+     * are not in the table, so they start over from zero and tasks count where they are now.
+     */
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM task_daily_rollups");
+            for (String[] scope : SCOPES) {
+                jdbcTemplate.update(String.format(REBUILD_CREATED_SQL, scope[0], scope[1]));
+                jdbcTemplate.update(String.format(REBUILD_COMPLETED_SQL, scope[0], scope[1]));
+                jdbcTemplate.update(String.format(REBUILD_CLOSED_SQL, scope[0], scope[1]));
+                jdbcTemplate.update(String.format(RECOUNT_OVERDUE_SQL, scope[0], scope[1]), ALL_TIME.atStartOfDay());
+            }
+        });
+        log.info("Rebuilt task rollups in {} ms", System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Recompute the overdue counter for deadlines from the given day on, in one transaction
+     */
+    public synchronized void recountOverdue(LocalDate from) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE task_daily_rollups SET overdue = 0 WHERE stat_date >= ?", from);
+            for (String[] scope : SCOPES) {
+                jdbcTemplate.update(String.format(RECOUNT_OVERDUE_SQL, scope[0], scope[1]), from.atStartOfDay());
+            }
+        });
+    }
+
+    public List<DailyTaskStats> getWorkspaceDaily(Long workspaceId, LocalDate from, LocalDate to, User user) {
+        try {
+            if (!workspaceService.canUserAccessWorkspace(user, workspaceId)) {
+                throw new RuntimeException("You don't have access to this workspace");
+            }
+            return daily(TaskDailyRollup.Scope.WORKSPACE, workspaceId, from, to);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to get workspace task stats: " + e.getMessage());
+        }
+    }
+
+    public List<DailyTaskStats> getUserDaily(User user, LocalDate from, LocalDate to) {
+        try {
+            return daily(TaskDailyRollup.Scope.USER, user.getUserId(), from, to);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to get task stats: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Weekly completions from the same rollups, weeks starting on Monday
+     */
+    public List<WeeklyVelocity> toWeekly(List<DailyTaskStats> days) {
+        Map<LocalDate, WeeklyVelocity> weeks = new LinkedHashMap<>();
+        for (DailyTaskStats day : days) {
+            LocalDate weekStart = day.getDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            weeks.computeIfAbsent(weekStart, WeeklyVelocity::new).add(day);
+        }
+        return new ArrayList<>(weeks.values());
+    }
+
+    // One entry per day of the range, empty days included, with the running open count
+    private List<DailyTaskStats> daily(TaskDailyRollup.Scope scope, Long scopeId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("The range ends before it starts");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new RuntimeException("At most " + MAX_RANGE_DAYS + " days can be shown at once");
+        }
+
+        Map<LocalDate, DailyTaskStats> days = new LinkedHashMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            days.put(date, new DailyTaskStats(date));
+        }
+        for (TaskDailyRollup rollup : taskDailyRollupRepository.findRange(scope, scopeId, from, to)) {
+            days.get(rollup.getStatDate()).add(rollup);
+        }
+
+        long open = taskDailyRollupRepository.sumOpenBefore(scope, scopeId, from);
+        for (DailyTaskStats day : days.values()) {
+            open += day.getOpenChange();
+            day.setOpen(open);
+        }
+        return new ArrayList<>(days.values());
+    }
+
+    private Task load(Long taskId) {
+        // Workspace and assignee fetched along: this can run outside any request or session
+        List<Task> found = taskRepository.findWithWorkspaceByTaskIdIn(List.of(taskId));
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    // A new transaction: after commit, the finished one's connection is still bound
+    private void inNewTransaction(Runnable work) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.executeWithoutResult(status -> work.run());
+    }
+}
@@ -0,0 +1,159 @@
+package com.researchsync.service;
+
+import com.researchsync.dto.TaskBoardChanges;
+import com.researchsync.dto.TaskBoardDelta;
+import com.researchsync.event.TaskBatchEvent;
+import com.researchsync.event.TaskEvent;
+import com.researchsync.model.Task;
+import com.researchsync.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes committed task changes to each workspace's board channel over STOMP.
+ *
+ * Every delta gets the next sequence number of its workspace, and the last replay-size deltas
+ * are held so a client that reconnects can fetch what it missed instead of reloading. Numbers
+ * restart with the server; the epoch tells a client its numbers are from an earlier run.
+ */
+@Service
+public class TaskBoardService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskBoardService.class);
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Value("${app.board.replay-size:200}")
+    private int replaySize;
+
+    private final long epoch = System.currentTimeMillis();
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+
+    public static String destination(Long workspaceId) {
+        return "/topic/workspace/" + workspaceId + "/tasks";
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * The workspace's latest sequence number. Read it before loading the board, so no delta
+     * committed in between is skipped (seeing one twice is harmless).
+     */
+    public long currentSequence(Long workspaceId) {
+        Channel channel = channels.get(workspaceId);
+        if (channel == null) {
+            return 0;
+        }
+        synchronized (channel) {
+            return channel.seq;
+        }
+    }
+
+    public TaskBoardChanges getChangesSince(Long workspaceId, long clientEpoch, long since) {
+        Channel channel = channels.computeIfAbsent(workspaceId, id -> new Channel());
+        synchronized (channel) {
+            if (clientEpoch != epoch || since > channel.seq) {
+                return new TaskBoardChanges(epoch, channel.seq, true, List.of());
+            }
+            if (since == channel.seq) {
+                return new TaskBoardChanges(epoch, channel.seq, false, List.of());
+            }
+            // Contiguous numbers: the oldest held delta must directly follow what the client has
+            TaskBoardDelta oldest = channel.recent.peekFirst();
+            if (oldest == null || oldest.getSeq() > since + 1) {
+                return new TaskBoardChanges(epoch, channel.seq, true, List.of());
+            }
+            List<TaskBoardDelta> missed = new ArrayList<>((int) (channel.seq - since));
+            for (TaskBoardDelta delta : channel.recent) {
+                if (delta.getSeq() > since) {
+                    missed.add(delta);
+                }
+            }
+            return new TaskBoardChanges(epoch, channel.seq, false, missed);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvent(TaskEvent event) {
+        publish(List.of(event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskBatch(TaskBatchEvent batch) {
+        publish(batch.getEvents());
+    }
+
+    // The changed rows are read in one query; each still becomes its own delta
+    private void publish(List<TaskEvent> events) {
+        Map<Long, Task> tasks = new HashMap<>();
+        try {
+            Set<Long> taskIds = events.stream().filter(event -> event.getType() != TaskEvent.Type.DELETED)
+                    .map(TaskEvent::getTaskId).collect(Collectors.toSet());
+            if (!taskIds.isEmpty()) {
+                // Assignee fetched along: this can run outside any request or session
+                taskRepository.findWithWorkspaceByTaskIdIn(taskIds).forEach(task -> tasks.put(task.getTaskId(), task));
+            }
+        } catch (Exception e) {
+            // Clients notice the gap in sequence numbers only once later deltas arrive, so reload is on them
+            log.error("Failed to read tasks for {} board delta(s)", events.size(), e);
+            return;
+        }
+
+        for (TaskEvent event : events) {
+            try {
+                Task task = event.getType() == TaskEvent.Type.DELETED ? null : tasks.get(event.getTaskId());
+                Channel channel = channels.computeIfAbsent(event.getWorkspaceId(), id -> new Channel());
+                synchronized (channel) {
+                    long seq = ++channel.seq;
+                    TaskBoardDelta delta = task == null
+                            ? TaskBoardDelta.deleted(seq, event.getTaskId())
+                            : toDelta(seq, event.getType(), task);
+                    channel.recent.addLast(delta);
+                    while (channel.recent.size() > replaySize) {
+                        channel.recent.removeFirst();
+                    }
+                    // Sent under the lock so deltas leave in sequence order
+                    messagingTemplate.convertAndSend(destination(event.getWorkspaceId()), delta);
+                }
+            } catch (Exception e) {
+                log.error("Failed to publish board delta for task {}", event.getTaskId(), e);
+            }
+        }
+    }
+
+    private TaskBoardDelta toDelta(long seq, TaskEvent.Type type, Task task) {
+        TaskBoardDelta.Type deltaType = type == TaskEvent.Type.CREATED
+                ? TaskBoardDelta.Type.CREATED : TaskBoardDelta.Type.UPDATED;
+        return new TaskBoardDelta(seq, deltaType, task.getTaskId(), task.getTitle(), task.getStatus(),
+                task.getPriority(),
+                task.getAssignedTo() != null ? task.getAssignedTo().getUserId() : null,
+                task.getAssignedTo() != null ? task.getAssignedTo().getName() : null,
+                task.getDueDate());
+    }
+
+    private static final class Channel {
+        long seq;
+        final Deque<TaskBoardDelta> recent = new ArrayDeque<>();
+    }
+}
@@ -0,0 +1,407 @@
+package com.researchsync.service;
+
+import com.researchsync.dto.BulkTaskRequest;
+import com.researchsync.dto.BulkTaskResult;
+import com.researchsync.event.TaskBatchEvent;
+import com.researchsync.event.TaskEvent;
+import com.researchsync.exception.BulkTaskRejectedException;
+import com.researchsync.model.Task;
+import com.researchsync.model.TaskActivity;
+import com.researchsync.model.User;
+import com.researchsync.model.Workspace;
+import com.researchsync.model.WorkspaceMember;
+import com.researchsync.repository.TaskRepository;
+import com.researchsync.repository.UserRepository;
+import com.researchsync.repository.WorkspaceMemberRepository;
+import com.researchsync.repository.WorkspaceRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates and changes many tasks in one transaction.
+ *
+ * Everything the request refers to is loaded up front with one IN query per table, every
+ * item is checked with the same rules as the single-task operations, and only if all pass
+ * are the rows written, with JDBC batches. Assignment emails are queued after commit, one
+ * per assignee.
+ */
+@Service
+public class TaskBulkService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskBulkService.class);
+
+    private static final int JDBC_BATCH_SIZE = 200;
+
+    private static final String INSERT_SQL = "INSERT INTO tasks (workspace_id, title, description, assigned_to, created_by, " +
+            "status, priority, due_date, created_date, updated_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // completed_date is set like updateTaskStatus does: whenever the new status is COMPLETED
+    private static final String UPDATE_SQL = "UPDATE tasks SET " +
+            "completed_date = CASE WHEN ? = 'COMPLETED' THEN ? ELSE completed_date END, " +
+            "status = COALESCE(?, status), priority = COALESCE(?, priority), assigned_to = COALESCE(?, assigned_to), " +
+            "updated_date = ? WHERE task_id = ?";
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private WorkspaceRepository workspaceRepository;
+
+    @Autowired
+    private WorkspaceMemberRepository workspaceMemberRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private NotificationQueue notificationQueue;
+
+    @Autowired
+    private TaskActivityService taskActivityService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.tasks.bulk.max-operations:1000}")
+    private int maxOperations;
+
+    @Transactional
+    public BulkTaskResult apply(BulkTaskRequest request, User actor) {
+        List<BulkTaskRequest.NewTask> creates = request.getCreate() != null ? request.getCreate() : List.of();
+        List<BulkTaskRequest.TaskChange> changes = request.getUpdate() != null ? request.getUpdate() : List.of();
+        if (creates.isEmpty() && changes.isEmpty()) {
+            return new BulkTaskResult(List.of(), 0);
+        }
+        if (creates.size() + changes.size() > maxOperations) {
+            throw new RuntimeException("At most " + maxOperations + " task operations are allowed per request");
+        }
+
+        Context context = load(creates, changes);
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < creates.size(); i++) {
+            checkCreate("create[" + i + "]", creates.get(i), actor, context, errors);
+        }
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < changes.size(); i++) {
+            checkChange("update[" + i + "]", changes.get(i), actor, context, seen, errors);
+        }
+        if (!errors.isEmpty()) {
+            throw new BulkTaskRejectedException(errors);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> createdIds = creates.isEmpty() ? List.of() : insert(creates, actor, now);
+        int updated = changes.isEmpty() ? 0 : update(changes, now);
+        // The loaded rows no longer match the database; later reads in this request must reload them
+        context.tasks.values().forEach(entityManager::detach);
+
+        // One event for the lot, so listeners read and index the tasks in one go
+        List<TaskEvent> events = events(creates, createdIds, changes, context);
+        eventPublisher.publishEvent(new TaskBatchEvent(events));
+        recordActivity(events, actor);
+        queueAssignmentEmails(creates, changes, context);
+
+        log.info("Bulk task request by {}: {} created, {} updated", actor.getEmail(), createdIds.size(), updated);
+        return new BulkTaskResult(createdIds, updated);
+    }
+
+    private Context load(List<BulkTaskRequest.NewTask> creates, List<BulkTaskRequest.TaskChange> changes) {
+        Context context = new Context();
+
+        Set<Long> taskIds = changes.stream().map(BulkTaskRequest.TaskChange::getTaskId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        if (!taskIds.isEmpty()) {
+            context.tasks = taskRepository.findWithWorkspaceByTaskIdIn(taskIds).stream()
+                    .collect(Collectors.toMap(Task::getTaskId, Function.identity()));
+        }
+
+        Set<Long> workspaceIds = creates.stream().map(BulkTaskRequest.NewTask::getWorkspaceId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        context.tasks.values().forEach(task -> workspaceIds.add(task.getWorkspace().getWorkspaceId()));
+        if (!workspaceIds.isEmpty()) {
+            context.workspaces = workspaceRepository.findAllById(workspaceIds).stream()
+                    .collect(Collectors.toMap(Workspace::getWorkspaceId, Function.identity()));
+            for (WorkspaceMember member : workspaceMemberRepository.findByWorkspaceIds(workspaceIds)) {
+                context.members.computeIfAbsent(member.getWorkspace().getWorkspaceId(), id -> new HashMap<>())
+                        .put(member.getUser().getUserId(), member);
+            }
+        }
+
+        Set<Long> assigneeIds = new HashSet<>();
+        creates.forEach(create -> assigneeIds.add(create.getAssigneeId()));
+        changes.forEach(change -> assigneeIds.add(change.getAssigneeId()));
+        assigneeIds.remove(null);
+        if (!assigneeIds.isEmpty()) {
+            context.users = userRepository.findAllById(assigneeIds).stream()
+                    .collect(Collectors.toMap(User::getUserId, Function.identity()));
+        }
+        return context;
+    }
+
+    private void checkCreate(String item, BulkTaskRequest.NewTask create, User actor, Context context, List<String> errors) {
+        Workspace workspace = create.getWorkspaceId() != null ? context.workspaces.get(create.getWorkspaceId()) : null;
+        if (workspace == null) {
+            errors.add(item + ": workspace " + create.getWorkspaceId() + " not found");
+            return;
+        }
+        if (!context.canAccess(actor.getUserId(), workspace)) {
+            errors.add(item + ": you don't have access to workspace " + workspace.getWorkspaceId());
+            return;
+        }
+        String title = create.getTitle() != null ? create.getTitle().trim() : "";
+        if (title.length() < 2 || title.length() > 200) {
+            errors.add(item + ": task title must be between 2 and 200 characters");
+        }
+        if (create.getDescription() != null && create.getDescription().length() > 2000) {
+            errors.add(item + ": description cannot exceed 2000 characters");
+        }
+        checkAssignee(item, create.getAssigneeId(), workspace, context, errors);
+    }
+
+    private void checkChange(String item, BulkTaskRequest.TaskChange change, User actor, Context context,
+                             Set<Long> seen, List<String> errors) {
+        Task task = change.getTaskId() != null ? context.tasks.get(change.getTaskId()) : null;
+        if (task == null) {
+            errors.add(item + ": task " + change.getTaskId() + " not found");
+            return;
+        }
+        if (!seen.add(task.getTaskId())) {
+            errors.add(item + ": task " + task.getTaskId() + " appears more than once");
+            return;
+        }
+        if (change.getStatus() == null && change.getPriority() == null && change.getAssigneeId() == null) {
+            errors.add(item + ": nothing to change for task " + task.getTaskId());
+            return;
+        }
+
+        Workspace workspace = task.getWorkspace();
+        Long actorId = actor.getUserId();
+        boolean admin = context.isAdmin(actorId, workspace);
+        boolean creator = task.getCreatedBy().getUserId().equals(actorId);
+        boolean assignee = task.getAssignedTo() != null && task.getAssignedTo().getUserId().equals(actorId);
+
+        // Same rules as updateTaskStatus, updateTask and assignTask
+        if (change.getStatus() != null && !context.isMember(actorId, workspace)) {
+            errors.add(item + ": you don't have permission to change the status of task " + task.getTaskId());
+        }
+        if (change.getPriority() != null && !admin && !creator && !assignee) {
+            errors.add(item + ": you don't have permission to change the priority of task " + task.getTaskId());
+        }
+        if (change.getAssigneeId() != null) {
+            if (!admin && !creator) {
+                errors.add(item + ": you don't have permission to assign task " + task.getTaskId());
+            } else {
+                checkAssignee(item, change.getAssigneeId(), workspace, context, errors);
+            }
+        }
+    }
+
+    private void checkAssignee(String item, Long assigneeId, Workspace workspace, Context context, List<String> errors) {
+        if (assigneeId == null) {
+            return;
+        }
+        if (!context.users.containsKey(assigneeId)) {
+            errors.add(item + ": user " + assigneeId + " not found");
+        } else if (!context.canAccess(assigneeId, workspace)) {
+            errors.add(item + ": user " + assigneeId + " is not a member of workspace " + workspace.getWorkspaceId());
+        }
+    }
+
+    private List<Long> insert(List<BulkTaskRequest.NewTask> creates, User actor, LocalDateTime now) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            List<Long> ids = new ArrayList<>(creates.size());
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int start = 0; start < creates.size(); start += JDBC_BATCH_SIZE) {
+                    for (BulkTaskRequest.NewTask create : creates.subList(start, Math.min(start + JDBC_BATCH_SIZE, creates.size()))) {
+                        Task.TaskPriority priority = create.getPriority() != null ? create.getPriority() : Task.TaskPriority.MEDIUM;
+                        statement.setLong(1, create.getWorkspaceId());
+                        statement.setString(2, create.getTitle().trim());
+                        statement.setString(3, create.getDescription());
+                        setNullable(statement, 4, create.getAssigneeId(), Types.BIGINT);
+                        statement.setLong(5, actor.getUserId());
+                        statement.setString(6, Task.TaskStatus.PENDING.name());
+                        statement.setString(7, priority.name());
+                        setNullable(statement, 8, create.getDueDate(), Types.TIMESTAMP);
+                        statement.setObject(9, now);
+                        statement.setObject(10, now);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    // Keys come back in insert order
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            ids.add(keys.getLong(1));
+                        }
+                    }
+                }
+            }
+            if (ids.size() != creates.size()) {
+                throw new IllegalStateException("Expected " + creates.size() + " generated task ids, got " + ids.size());
+            }
+            return ids;
+        });
+    }
+
+    private int update(List<BulkTaskRequest.TaskChange> changes, LocalDateTime now) {
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, changes, JDBC_BATCH_SIZE, (statement, change) -> {
+            String status = change.getStatus() != null ? change.getStatus().name() : null;
+            setNullable(statement, 1, status, Types.VARCHAR);
+            statement.setObject(2, now);
+            setNullable(statement, 3, status, Types.VARCHAR);
+            setNullable(statement, 4, change.getPriority() != null ? change.getPriority().name() : null, Types.VARCHAR);
+            setNullable(statement, 5, change.getAssigneeId(), Types.BIGINT);
+            statement.setObject(6, now);
+            statement.setLong(7, change.getTaskId());
+        });
+
+        int updated = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Drivers may report SUCCESS_NO_INFO (-2) instead of a row count
+                updated += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+        }
+        return updated;
+    }
+
+    private static void setNullable(PreparedStatement statement, int index, Object value, int sqlType) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, sqlType);
+        } else {
+            statement.setObject(index, value);
+        }
+    }
+
+    // The inserted and updated rows were written by SQL; their new state follows from the request
+    // Each with the task before and after, as the activity log records them
+    private List<TaskEvent> events(List<BulkTaskRequest.NewTask> creates, List<Long> createdIds,
+                                   List<BulkTaskRequest.TaskChange> changes, Context context) {
+        List<TaskEvent> events = new ArrayList<>(createdIds.size() + changes.size());
+        for (int i = 0; i < createdIds.size(); i++) {
+            BulkTaskRequest.NewTask create = creates.get(i);
+            TaskActivity created = new TaskActivity();
+            created.setTaskId(createdIds.get(i));
+            created.setWorkspaceId(create.getWorkspaceId());
+            created.setTitle(create.getTitle().trim());
+            created.setDescription(create.getDescription());
+            created.setStatus(Task.TaskStatus.PENDING);
+            created.setPriority(create.getPriority() != null ? create.getPriority() : Task.TaskPriority.MEDIUM);
+            created.setAssigneeId(create.getAssigneeId());
+            created.setDueDate(create.getDueDate());
+            events.add(new TaskEvent(created.getTaskId(), created.getWorkspaceId(), TaskEvent.Type.CREATED, null, created));
+        }
+        for (BulkTaskRequest.TaskChange change : changes) {
+            // The loaded task still has its fields from before the update
+            TaskActivity before = TaskActivity.capture(context.tasks.get(change.getTaskId()));
+            TaskActivity after = TaskActivity.capture(context.tasks.get(change.getTaskId()));
+            if (change.getStatus() != null) {
+                after.setStatus(change.getStatus());
+            }
+            if (change.getPriority() != null) {
+                after.setPriority(change.getPriority());
+            }
+            if (change.getAssigneeId() != null) {
+                after.setAssigneeId(change.getAssigneeId());
+            }
+            events.add(new TaskEvent(before.getTaskId(), before.getWorkspaceId(), TaskEvent.Type.UPDATED, before, after));
+        }
+        return events;
+    }
+
+    private void recordActivity(List<TaskEvent> events, User actor) {
+        for (TaskEvent event : events) {
+            taskActivityService.record(event.getBefore(), event.getAfter(), actor);
+        }
+    }
+
+    private void queueAssignmentEmails(List<BulkTaskRequest.NewTask> creates, List<BulkTaskRequest.TaskChange> changes,
+                                       Context context) {
+        Map<Long, List<String>> linesByAssignee = new LinkedHashMap<>();
+        for (BulkTaskRequest.NewTask create : creates) {
+            if (create.getAssigneeId() != null) {
+                String workspaceName = context.workspaces.get(create.getWorkspaceId()).getName();
+                linesByAssignee.computeIfAbsent(create.getAssigneeId(), id -> new ArrayList<>())
+                        .add(create.getTitle().trim() + " (" + workspaceName + ")");
+            }
+        }
+        for (BulkTaskRequest.TaskChange change : changes) {
+            Task task = context.tasks.get(change.getTaskId());
+            boolean reassigned = change.getAssigneeId() != null && (task.getAssignedTo() == null
+                    || !task.getAssignedTo().getUserId().equals(change.getAssigneeId()));
+            if (reassigned) {
+                linesByAssignee.computeIfAbsent(change.getAssigneeId(), id -> new ArrayList<>())
+                        .add(task.getTitle() + " (" + task.getWorkspace().getName() + ")");
+            }
+        }
+
+        linesByAssignee.forEach((assigneeId, lines) -> {
+            User assignee = context.users.get(assigneeId);
+            notificationQueue.afterCommit(() -> emailService.sendTaskAssignmentsNotification(assignee, lines));
+        });
+    }
+
+    /**
+     * Everything the request refers to, loaded once
+     */
+    private static final class Context {
+        Map<Long, Task> tasks = new HashMap<>();
+        Map<Long, Workspace> workspaces = new HashMap<>();
+        Map<Long, Map<Long, WorkspaceMember>> members = new HashMap<>();
+        Map<Long, User> users = new HashMap<>();
+
+        private WorkspaceMember membership(Long userId, Workspace workspace) {
+            return members.getOrDefault(workspace.getWorkspaceId(), Map.of()).get(userId);
+        }
+
+        // As WorkspaceService.canUserAccessWorkspace: the creator or an accepted member
+        boolean canAccess(Long userId, Workspace workspace) {
+            WorkspaceMember member = membership(userId, workspace);
+            return workspace.getCreator().getUserId().equals(userId)
+                    || (member != null && member.getInvitationStatus() == WorkspaceMember.InvitationStatus.ACCEPTED);
+        }
+
+        boolean isMember(Long userId, Workspace workspace) {
+            return membership(userId, workspace) != null;
+        }
+
+        boolean isAdmin(Long userId, Workspace workspace) {
+            WorkspaceMember member = membership(userId, workspace);
+            return member != null && member.getRole() == WorkspaceMember.Role.ADMIN;
+        }
+    }
+}
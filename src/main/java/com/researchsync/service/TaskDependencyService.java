@@ -0,0 +1,270 @@
+package com.researchsync.service;
+
+import com.researchsync.dto.DependencyNode;
+import com.researchsync.dto.TaskBlockers;
+import com.researchsync.event.TaskBatchEvent;
+import com.researchsync.event.TaskEvent;
+import com.researchsync.model.Task;
+import com.researchsync.model.TaskDependency;
+import com.researchsync.model.User;
+import com.researchsync.repository.TaskDependencyRepository;
+import com.researchsync.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * "Blocks / blocked by" links between tasks of one workspace.
+ *
+ * Each workspace's graph is loaded into memory the first time it is asked about (two queries:
+ * its tasks and its edges) and from then on kept current by this service's own writes and by
+ * task events, so asking what blocks a task never touches the database. New links are checked
+ * for cycles against the in-memory graph before they are written; if the transaction then
+ * rolls back, the cached graph is dropped and reloaded on next use.
+ */
+@Service
+@Transactional
+public class TaskDependencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskDependencyService.class);
+
+    @Autowired
+    private TaskDependencyRepository taskDependencyRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private WorkspaceService workspaceService;
+
+    private final Map<Long, TaskGraph> graphs = new ConcurrentHashMap<>();
+
+    /**
+     * Record that blocker has to be finished before blocked
+     */
+    public void addDependency(Long blockedId, Long blockerId, User user) {
+        try {
+            Task blocked = taskService.findById(blockedId);
+            Task blocker = taskService.findById(blockerId);
+            Long workspaceId = blocked.getWorkspace().getWorkspaceId();
+
+            if (!workspaceService.canUserAccessWorkspace(user, workspaceId)) {
+                throw new RuntimeException("You don't have access to this task");
+            }
+            if (!blocker.getWorkspace().getWorkspaceId().equals(workspaceId)) {
+                throw new RuntimeException("Both tasks must be in the same workspace");
+            }
+            if (blocker.getTaskId().equals(blocked.getTaskId())) {
+                throw new RuntimeException("A task cannot block itself");
+            }
+
+            TaskGraph graph = graph(workspaceId);
+            synchronized (graph) {
+                if (taskDependencyRepository.existsByBlockerTaskIdAndBlockedTaskId(blockerId, blockedId)) {
+                    return;
+                }
+                graph.putTask(blocker.getTaskId(), blocker.getTitle(), blocker.getStatus(), blocker.getDueDate());
+                graph.putTask(blocked.getTaskId(), blocked.getTitle(), blocked.getStatus(), blocked.getDueDate());
+                if (!graph.addEdge(blockerId, blockedId)) {
+                    throw new RuntimeException("\"" + blocked.getTitle() + "\" already blocks \""
+                            + blocker.getTitle() + "\"; the dependency would form a cycle");
+                }
+                evictOnRollback(workspaceId, graph);
+                taskDependencyRepository.save(new TaskDependency(blocker, blocked, user));
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to add dependency: " + e.getMessage());
+        }
+    }
+
+    public void removeDependency(Long blockedId, Long blockerId, User user) {
+        try {
+            Task blocked = taskService.findById(blockedId);
+            Long workspaceId = blocked.getWorkspace().getWorkspaceId();
+
+            if (!workspaceService.canUserAccessWorkspace(user, workspaceId)) {
+                throw new RuntimeException("You don't have access to this task");
+            }
+
+            TaskGraph graph = graph(workspaceId);
+            synchronized (graph) {
+                if (taskDependencyRepository.deleteEdge(blockerId, blockedId) > 0) {
+                    graph.removeEdge(blockerId, blockedId);
+                    evictOnRollback(workspaceId, graph);
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to remove dependency: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Everything still open that the task waits on, directly or through other tasks
+     */
+    @Transactional(readOnly = true)
+    public TaskBlockers getBlockers(Long taskId, User user) {
+        try {
+            Task task = taskService.findById(taskId);
+            Long workspaceId = task.getWorkspace().getWorkspaceId();
+
+            if (!workspaceService.canUserAccessWorkspace(user, workspaceId)) {
+                throw new RuntimeException("You don't have access to this task");
+            }
+
+            TaskGraph graph = graph(workspaceId);
+            synchronized (graph) {
+                TaskGraph.Node node = graph.get(taskId);
+                if (node == null) {
+                    return new TaskBlockers(null, List.of(), List.of());
+                }
+                return new TaskBlockers(toDto(node), toDtos(graph.openBlockersOf(taskId)),
+                        toDtos(graph.criticalPathTo(taskId)));
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to get blockers: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The longest chain of open tasks in the workspace, first task first
+     */
+    @Transactional(readOnly = true)
+    public List<DependencyNode> getCriticalPath(Long workspaceId, User user) {
+        try {
+            if (!workspaceService.canUserAccessWorkspace(user, workspaceId)) {
+                throw new RuntimeException("You don't have access to this workspace");
+            }
+
+            TaskGraph graph = graph(workspaceId);
+            synchronized (graph) {
+                return toDtos(graph.criticalPath());
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to get critical path: " + e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvent(TaskEvent event) {
+        update(List.of(event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskBatch(TaskBatchEvent batch) {
+        update(batch.getEvents());
+    }
+
+    // Only workspaces whose graph is loaded care; their changed rows are read in one query
+    private void update(List<TaskEvent> events) {
+        Map<Long, List<TaskEvent>> byWorkspace = events.stream()
+                .filter(event -> graphs.containsKey(event.getWorkspaceId()))
+                .collect(Collectors.groupingBy(TaskEvent::getWorkspaceId, LinkedHashMap::new, Collectors.toList()));
+        if (byWorkspace.isEmpty()) {
+            return;
+        }
+        Map<Long, Task> tasks = new HashMap<>();
+        try {
+            Set<Long> taskIds = byWorkspace.values().stream().flatMap(List::stream)
+                    .filter(event -> event.getType() != TaskEvent.Type.DELETED)
+                    .map(TaskEvent::getTaskId).collect(Collectors.toSet());
+            if (!taskIds.isEmpty()) {
+                taskRepository.findAllById(taskIds).forEach(task -> tasks.put(task.getTaskId(), task));
+            }
+        } catch (Exception e) {
+            // Better rebuilt on next use than answered from a graph that missed a change
+            byWorkspace.keySet().forEach(graphs::remove);
+            log.error("Failed to update dependency graphs for {} task change(s)", events.size(), e);
+            return;
+        }
+
+        byWorkspace.forEach((workspaceId, changes) -> {
+            TaskGraph graph = graphs.get(workspaceId);
+            if (graph == null) {
+                return;
+            }
+            try {
+                synchronized (graph) {
+                    for (TaskEvent event : changes) {
+                        Task task = event.getType() == TaskEvent.Type.DELETED ? null : tasks.get(event.getTaskId());
+                        if (task == null) {
+                            graph.removeTask(event.getTaskId());
+                        } else {
+                            graph.putTask(task.getTaskId(), task.getTitle(), task.getStatus(), task.getDueDate());
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                graphs.remove(workspaceId, graph);
+                log.error("Failed to update dependency graph of workspace {}", workspaceId, e);
+            }
+        });
+    }
+
+    private TaskGraph graph(Long workspaceId) {
+        TaskGraph graph = graphs.get(workspaceId);
+        if (graph != null) {
+            return graph;
+        }
+
+        List<TaskGraph.Node> nodes = new ArrayList<>();
+        for (Object[] row : taskRepository.findGraphNodes(workspaceId)) {
+            TaskGraph.Node node = new TaskGraph.Node((Long) row[0]);
+            node.title = (String) row[1];
+            node.status = (Task.TaskStatus) row[2];
+            node.dueDate = (LocalDateTime) row[3];
+            nodes.add(node);
+        }
+        List<Long[]> edges = taskDependencyRepository.findEdgesByWorkspaceId(workspaceId).stream()
+                .map(row -> new Long[]{(Long) row[0], (Long) row[1]})
+                .collect(Collectors.toList());
+
+        graph = new TaskGraph();
+        graph.load(nodes, edges);
+        log.debug("Loaded dependency graph of workspace {}: {} tasks, {} edges", workspaceId, nodes.size(), edges.size());
+
+        TaskGraph existing = graphs.putIfAbsent(workspaceId, graph);
+        return existing != null ? existing : graph;
+    }
+
+    // The in-memory change is made before the row is written; undo it by forgetting the graph
+    private void evictOnRollback(Long workspaceId, TaskGraph graph) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    graphs.remove(workspaceId, graph);
+                }
+            }
+        });
+    }
+
+    private List<DependencyNode> toDtos(List<TaskGraph.Node> nodes) {
+        return nodes.stream().map(this::toDto).collect(Collectors.toList());
+    }
+
+    private DependencyNode toDto(TaskGraph.Node node) {
+        return new DependencyNode(node.taskId, node.title, node.status, node.dueDate,
+                node.projectedFinish, node.depth, node.isAtRisk());
+    }
+}
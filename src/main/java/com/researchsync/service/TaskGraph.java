@@ -0,0 +1,355 @@
+package com.researchsync.service;
+
+import com.researchsync.model.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * One workspace's task dependency graph, kept in topological order with per-task critical
+ * path values, all maintained incrementally.
+ *
+ * Adding an edge reorders only the tasks between its two ends (Pearce-Kelly), which is also
+ * where a cycle would show up. After any change the derived values are recomputed from the
+ * changed tasks downstream in topological order, stopping wherever they come out the same.
+ *
+ * Not thread-safe; callers synchronize on the graph.
+ */
+final class TaskGraph {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskGraph.class);
+
+    private static final Comparator<Node> BY_ORDER = Comparator.comparingInt(node -> node.order);
+
+    static final class Node {
+        final Long taskId;
+        String title;
+        Task.TaskStatus status;
+        LocalDateTime dueDate;
+
+        final Set<Node> blockers = new HashSet<>();
+        final Set<Node> blocking = new HashSet<>();
+
+        // Position in topological order: every blocker comes before what it blocks
+        int order;
+        // Open tasks on the longest open chain ending here, this one included; 0 once done
+        int depth;
+        // Latest due date along any open chain ending here: the earliest this can realistically finish
+        LocalDateTime projectedFinish;
+        // The open blocker the longest chain comes through
+        Node critical;
+
+        Node(Long taskId) {
+            this.taskId = taskId;
+        }
+
+        boolean isOpen() {
+            return status != Task.TaskStatus.COMPLETED && status != Task.TaskStatus.CANCELLED;
+        }
+
+        // Its own deadline cannot be met if something it waits for is due later
+        boolean isAtRisk() {
+            return isOpen() && dueDate != null && projectedFinish != null && projectedFinish.isAfter(dueDate);
+        }
+    }
+
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private int nextOrder;
+
+    Node get(Long taskId) {
+        return nodes.get(taskId);
+    }
+
+    /**
+     * Build from scratch: Kahn's algorithm for the order, then every value once, in order
+     */
+    void load(Collection<Node> tasks, Collection<Long[]> edges) {
+        for (Node node : tasks) {
+            nodes.put(node.taskId, node);
+        }
+        for (Long[] edge : edges) {
+            Node blocker = nodes.get(edge[0]);
+            Node blocked = nodes.get(edge[1]);
+            if (blocker != null && blocked != null) {
+                blocker.blocking.add(blocked);
+                blocked.blockers.add(blocker);
+            }
+        }
+
+        Map<Node, Integer> waiting = new HashMap<>();
+        Deque<Node> ready = new ArrayDeque<>();
+        for (Node node : nodes.values()) {
+            waiting.put(node, node.blockers.size());
+            if (node.blockers.isEmpty()) {
+                ready.add(node);
+            }
+        }
+        List<Node> ordered = new ArrayList<>(nodes.size());
+        while (!ready.isEmpty()) {
+            Node node = ready.poll();
+            node.order = nextOrder++;
+            ordered.add(node);
+            for (Node next : node.blocking) {
+                if (waiting.merge(next, -1, Integer::sum) == 0) {
+                    ready.add(next);
+                }
+            }
+        }
+        if (ordered.size() < nodes.size()) {
+            // Only possible if rows were written around this service; those tasks go last
+            log.warn("Dependency graph has a cycle among {} tasks; ordering them arbitrarily", nodes.size() - ordered.size());
+            for (Node node : nodes.values()) {
+                if (waiting.get(node) > 0) {
+                    node.order = nextOrder++;
+                    ordered.add(node);
+                }
+            }
+        }
+        ordered.forEach(TaskGraph::compute);
+    }
+
+    /**
+     * Add a task or refresh its fields, recomputing downstream if status or due date changed
+     */
+    void putTask(Long taskId, String title, Task.TaskStatus status, LocalDateTime dueDate) {
+        Node node = nodes.get(taskId);
+        if (node == null) {
+            node = new Node(taskId);
+            node.order = nextOrder++;
+            nodes.put(taskId, node);
+        } else if (node.status == status && Objects.equals(node.dueDate, dueDate)) {
+            node.title = title;
+            return;
+        }
+        node.title = title;
+        node.status = status;
+        node.dueDate = dueDate;
+        propagate(List.of(node));
+    }
+
+    void removeTask(Long taskId) {
+        Node node = nodes.remove(taskId);
+        if (node == null) {
+            return;
+        }
+        for (Node blocker : node.blockers) {
+            blocker.blocking.remove(node);
+        }
+        for (Node blocked : node.blocking) {
+            blocked.blockers.remove(node);
+        }
+        propagate(node.blocking);
+    }
+
+    /**
+     * Record that blocker blocks blocked. Returns false, changing nothing, if blocked already
+     * (transitively) blocks blocker.
+     */
+    boolean addEdge(Long blockerId, Long blockedId) {
+        Node blocker = nodes.get(blockerId);
+        Node blocked = nodes.get(blockedId);
+        if (blocker == null || blocked == null || blocker == blocked) {
+            return false;
+        }
+        if (blocker.blocking.contains(blocked)) {
+            return true;
+        }
+
+        if (blocker.order > blocked.order) {
+            // Tasks that must now move: everything reachable from blocked up to blocker's position,
+            // and everything reaching blocker down to blocked's position
+            int lower = blocked.order;
+            int upper = blocker.order;
+            List<Node> forward = new ArrayList<>();
+            if (!collect(blocked, upper, true, forward, blocker)) {
+                return false;
+            }
+            List<Node> backward = new ArrayList<>();
+            collect(blocker, lower, false, backward, null);
+            reorder(backward, forward);
+        }
+
+        blocker.blocking.add(blocked);
+        blocked.blockers.add(blocker);
+        propagate(List.of(blocked));
+        return true;
+    }
+
+    void removeEdge(Long blockerId, Long blockedId) {
+        Node blocker = nodes.get(blockerId);
+        Node blocked = nodes.get(blockedId);
+        if (blocker == null || blocked == null || !blocker.blocking.remove(blocked)) {
+            return;
+        }
+        blocked.blockers.remove(blocker);
+        propagate(List.of(blocked));
+    }
+
+    /**
+     * Every open task that still has to finish before this one can, in an order they can be done in
+     */
+    List<Node> openBlockersOf(Long taskId) {
+        Node node = nodes.get(taskId);
+        if (node == null) {
+            return List.of();
+        }
+        Set<Node> seen = new HashSet<>();
+        Deque<Node> pending = new ArrayDeque<>(node.blockers);
+        while (!pending.isEmpty()) {
+            Node blocker = pending.poll();
+            if (blocker.isOpen() && seen.add(blocker)) {
+                pending.addAll(blocker.blockers);
+            }
+        }
+        List<Node> blockers = new ArrayList<>(seen);
+        blockers.sort(BY_ORDER);
+        return blockers;
+    }
+
+    /**
+     * The longest chain of open tasks ending at this one, first task first
+     */
+    List<Node> criticalPathTo(Long taskId) {
+        Node node = nodes.get(taskId);
+        if (node == null || !node.isOpen()) {
+            return List.of();
+        }
+        return chainEndingAt(node);
+    }
+
+    /**
+     * The longest chain of open tasks anywhere in the workspace; later projected finish breaks ties
+     */
+    List<Node> criticalPath() {
+        Node end = null;
+        for (Node node : nodes.values()) {
+            if (node.isOpen() && (end == null || node.depth > end.depth
+                    || (node.depth == end.depth && laterThan(node.projectedFinish, end.projectedFinish)))) {
+                end = node;
+            }
+        }
+        return end == null ? List.of() : chainEndingAt(end);
+    }
+
+    private List<Node> chainEndingAt(Node end) {
+        List<Node> chain = new ArrayList<>(end.depth);
+        for (Node node = end; node != null; node = node.critical) {
+            chain.add(node);
+        }
+        Collections.reverse(chain);
+        return chain;
+    }
+
+    /**
+     * Depth-first walk from start in one direction, staying within the order bound. Returns
+     * false as soon as it reaches stopAt.
+     */
+    private boolean collect(Node start, int bound, boolean forward, List<Node> found, Node stopAt) {
+        Set<Node> seen = new HashSet<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(start);
+        seen.add(start);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            found.add(node);
+            for (Node next : forward ? node.blocking : node.blockers) {
+                if (next == stopAt) {
+                    return false;
+                }
+                boolean inRange = forward ? next.order < bound : next.order > bound;
+                if (inRange && seen.add(next)) {
+                    pending.push(next);
+                }
+            }
+        }
+        return true;
+    }
+
+    // The moved tasks take over the same positions: blocker's ancestors first, then blocked's descendants
+    private void reorder(List<Node> backward, List<Node> forward) {
+        backward.sort(BY_ORDER);
+        forward.sort(BY_ORDER);
+        List<Integer> positions = new ArrayList<>(backward.size() + forward.size());
+        backward.forEach(node -> positions.add(node.order));
+        forward.forEach(node -> positions.add(node.order));
+        positions.sort(null);
+
+        int i = 0;
+        for (Node node : backward) {
+            node.order = positions.get(i++);
+        }
+        for (Node node : forward) {
+            node.order = positions.get(i++);
+        }
+    }
+
+    /**
+     * Recompute the changed tasks and, in topological order, whatever downstream of them
+     * actually changes as a result
+     */
+    private void propagate(Collection<Node> changed) {
+        PriorityQueue<Node> queue = new PriorityQueue<>(BY_ORDER);
+        Set<Node> queued = new LinkedHashSet<>(changed);
+        queue.addAll(queued);
+        Set<Node> forced = new HashSet<>(changed);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            queued.remove(node);
+            if (compute(node) || forced.contains(node)) {
+                for (Node next : node.blocking) {
+                    if (queued.add(next)) {
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+    }
+
+    // Returns whether anything the blocked tasks depend on changed
+    private static boolean compute(Node node) {
+        int depth = 0;
+        LocalDateTime projected = null;
+        Node critical = null;
+        if (node.isOpen()) {
+            projected = node.dueDate;
+            for (Node blocker : node.blockers) {
+                if (!blocker.isOpen()) {
+                    continue;
+                }
+                if (critical == null || blocker.depth > critical.depth
+                        || (blocker.depth == critical.depth && laterThan(blocker.projectedFinish, critical.projectedFinish))) {
+                    critical = blocker;
+                }
+                if (laterThan(blocker.projectedFinish, projected)) {
+                    projected = blocker.projectedFinish;
+                }
+            }
+            depth = 1 + (critical != null ? critical.depth : 0);
+        }
+
+        boolean changed = depth != node.depth || !Objects.equals(projected, node.projectedFinish);
+        node.depth = depth;
+        node.projectedFinish = projected;
+        node.critical = critical;
+        return changed;
+    }
+
+    private static boolean laterThan(LocalDateTime a, LocalDateTime b) {
+        return a != null && (b == null || a.isAfter(b));
+    }
+}
@@ -0,0 +1,142 @@
+package com.researchsync.service;
+
+import com.researchsync.event.TaskBatchEvent;
+import com.researchsync.event.TaskEvent;
+import com.researchsync.model.Task;
+import com.researchsync.repository.TaskRepository;
+import com.researchsync.search.TaskSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the in-memory task search index in step with the database.
+ *
+ * The index is built from scratch when the application starts, then every committed task
+ * change re-reads that task's row and replaces its document; a batch of changes is read and
+ * refreshed in one go. Until the first build is done
+ * searches fall back to the database.
+ */
+@Service
+public class TaskIndexingService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskIndexingService.class);
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    @Value("${app.search.tasks.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.search.tasks.max-results:200}")
+    private int maxResults;
+
+    private volatile boolean ready;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvent(TaskEvent event) {
+        update(List.of(event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskBatch(TaskBatchEvent batch) {
+        update(batch.getEvents());
+    }
+
+    // One read of the changed rows and one refresh for the whole batch
+    private synchronized void update(List<TaskEvent> events) {
+        try {
+            Set<Long> taskIds = events.stream().filter(event -> event.getType() != TaskEvent.Type.DELETED)
+                    .map(TaskEvent::getTaskId).collect(Collectors.toSet());
+            Map<Long, Task> tasks = taskIds.isEmpty() ? Map.of() : taskRepository.findWithWorkspaceByTaskIdIn(taskIds).stream()
+                    .collect(Collectors.toMap(Task::getTaskId, Function.identity()));
+            for (TaskEvent event : events) {
+                Task task = tasks.get(event.getTaskId());
+                if (task == null || event.getType() == TaskEvent.Type.DELETED) {
+                    taskSearchIndex.delete(event.getTaskId());
+                } else {
+                    taskSearchIndex.index(task.getTaskId(), task.getWorkspace().getWorkspaceId(),
+                            task.getTitle(), task.getDescription());
+                }
+            }
+            taskSearchIndex.refresh();
+        } catch (Exception e) {
+            // The next change to the task or the next restart puts it right
+            log.error("Failed to update search index for {} task change(s)", events.size(), e);
+        }
+    }
+
+    /**
+     * Build the index from the tasks table. Task events wait for it, so none are lost.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        try {
+            long started = System.currentTimeMillis();
+            taskSearchIndex.clear();
+            Long lastTaskId = 0L;
+            while (true) {
+                List<Object[]> rows = taskRepository.findSearchFields(lastTaskId, PageRequest.of(0, batchSize));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                for (Object[] row : rows) {
+                    taskSearchIndex.index((Long) row[0], (Long) row[1], (String) row[2], (String) row[3]);
+                }
+                lastTaskId = (Long) rows.get(rows.size() - 1)[0];
+            }
+            taskSearchIndex.refresh();
+            ready = true;
+            log.info("Task search index built with {} tasks in {} ms",
+                    taskSearchIndex.size(), System.currentTimeMillis() - started);
+        } catch (IOException e) {
+            log.error("Failed to build task search index; task search stays on the database", e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ranked task search, best first; workspaceId null searches every workspace
+     */
+    public List<Task> search(Long workspaceId, String query) {
+        try {
+            List<Long> taskIds = taskSearchIndex.search(workspaceId, query, maxResults);
+            if (taskIds.isEmpty()) {
+                return List.of();
+            }
+
+            Map<Long, Integer> rank = new HashMap<>();
+            for (int i = 0; i < taskIds.size(); i++) {
+                rank.put(taskIds.get(i), i);
+            }
+            return taskRepository.findAllById(taskIds).stream()
+                    .sorted(Comparator.comparing(task -> rank.get(task.getTaskId())))
+                    .collect(Collectors.toList());
+
+        } catch (IOException e) {
+            log.error("Task search failed for workspace {}", workspaceId, e);
+            throw new RuntimeException("Search failed: " + e.getMessage());
+        }
+    }
+}
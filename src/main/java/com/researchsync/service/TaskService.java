@@ -1,10 +1,17 @@
 package com.researchsync.service;
 
+import com.researchsync.dto.CursorPage;
+import com.researchsync.event.TaskEvent;
 import com.researchsync.model.Task;
+import com.researchsync.model.TaskActivity;
 import com.researchsync.model.User;
 import com.researchsync.model.Workspace;
+import com.researchsync.repository.TaskDependencyRepository;
 import com.researchsync.repository.TaskRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,9 +22,14 @@ import java.util.List;
 @Transactional
 public class TaskService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private TaskRepository taskRepository;
 
+    @Autowired
+    private TaskDependencyRepository taskDependencyRepository;
+
     @Autowired
     private WorkspaceService workspaceService;
 
@@ -27,6 +39,21 @@ public class TaskService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private TaskIndexingService taskIndexingService;
+
+    @Autowired
+    private NotificationQueue notificationQueue;
+
+    @Autowired
+    private DeadlineReminderService deadlineReminderService;
+
+    @Autowired
+    private TaskActivityService taskActivityService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public Task createTask(Task task, User creator) {
         try {
             task.setCreatedBy(creator);
@@ -38,13 +65,11 @@ public class TaskService {
             }
 
             Task savedTask = taskRepository.save(task);
+            publish(null, savedTask, TaskEvent.Type.CREATED);
+            taskActivityService.record(null, savedTask, creator);
 
             if (savedTask.getAssignedTo() != null) {
-                emailService.sendTaskAssignmentNotification(
-                        savedTask.getAssignedTo(),
-                        savedTask.getTitle(),
-                        savedTask.getWorkspace().getName()
-                );
+                queueAssignmentEmail(savedTask.getAssignedTo(), savedTask);
             }
 
             return savedTask;
@@ -79,6 +104,33 @@ public class TaskService {
         }
     }
 
+    /**
+     * One page of the tasks assigned to a user, newest first. Pages are keyed on
+     * (created_date, task_id) rather than offset, so every page costs the same.
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    public CursorPage<Task> getTasksByUser(User user, String cursor, int limit) {
+        CursorPage.Position after = CursorPage.decodeCursor(cursor);
+        return toPage(taskRepository.findAssignedPage(user.getUserId(), after.getTimestamp(), after.getId(), pageRequest(limit)));
+    }
+
+    /**
+     * One page of the tasks a user created, newest first; see getTasksByUser(User, String, int)
+     */
+    public CursorPage<Task> getTasksByCreator(User creator, String cursor, int limit) {
+        CursorPage.Position after = CursorPage.decodeCursor(cursor);
+        return toPage(taskRepository.findCreatedPage(creator.getUserId(), after.getTimestamp(), after.getId(), pageRequest(limit)));
+    }
+
+    /**
+     * One page of a workspace's tasks, newest first, optionally with one status only
+     */
+    public CursorPage<Task> getTasksByWorkspace(Long workspaceId, Task.TaskStatus status, String cursor, int limit) {
+        CursorPage.Position after = CursorPage.decodeCursor(cursor);
+        return toPage(taskRepository.findWorkspacePage(workspaceId, status, after.getTimestamp(), after.getId(), pageRequest(limit)));
+    }
+
     public List<Task> getTasksByCreator(User creator) {
         try {
             return taskRepository.findByCreatedBy(creator);
@@ -131,15 +183,14 @@ public class TaskService {
                 throw new RuntimeException("You don't have permission to assign this task");
             }
 
+            TaskActivity before = TaskActivity.capture(task);
             task.setAssignedTo(assignee);
             task.setUpdatedDate(LocalDateTime.now());
             Task savedTask = taskRepository.save(task);
+            publish(before, savedTask, TaskEvent.Type.UPDATED);
+            taskActivityService.record(before, savedTask, assigner);
 
-            emailService.sendTaskAssignmentNotification(
-                    assignee,
-                    task.getTitle(),
-                    task.getWorkspace().getName()
-            );
+            queueAssignmentEmail(assignee, savedTask);
 
             return savedTask;
         } catch (Exception e) {
@@ -155,6 +206,7 @@ public class TaskService {
                 throw new RuntimeException("You don't have permission to update this task");
             }
 
+            TaskActivity before = TaskActivity.capture(task);
             task.setStatus(status);
             task.setUpdatedDate(LocalDateTime.now());
 
@@ -162,7 +214,10 @@ public class TaskService {
                 task.setCompletedDate(LocalDateTime.now());
             }
 
-            return taskRepository.save(task);
+            Task savedTask = taskRepository.save(task);
+            publish(before, savedTask, TaskEvent.Type.UPDATED);
+            taskActivityService.record(before, savedTask, updater);
+            return savedTask;
         } catch (Exception e) {
             throw new RuntimeException("Failed to update task status: " + e.getMessage());
         }
@@ -178,13 +233,17 @@ public class TaskService {
                 throw new RuntimeException("You don't have permission to update this task");
             }
 
+            TaskActivity before = TaskActivity.capture(existingTask);
             existingTask.setTitle(task.getTitle());
             existingTask.setDescription(task.getDescription());
             existingTask.setPriority(task.getPriority());
             existingTask.setDueDate(task.getDueDate());
             existingTask.setUpdatedDate(LocalDateTime.now());
 
-            return taskRepository.save(existingTask);
+            Task savedTask = taskRepository.save(existingTask);
+            publish(before, savedTask, TaskEvent.Type.UPDATED);
+            taskActivityService.record(before, savedTask, updater);
+            return savedTask;
         } catch (Exception e) {
             throw new RuntimeException("Failed to update task: " + e.getMessage());
         }
@@ -199,7 +258,10 @@ public class TaskService {
                 throw new RuntimeException("You don't have permission to delete this task");
             }
 
+            taskDependencyRepository.deleteByTaskId(taskId);
             taskRepository.delete(task);
+            publish(TaskActivity.capture(task), task, TaskEvent.Type.DELETED);
+            taskActivityService.recordDeletion(task, deleter);
         } catch (Exception e) {
             throw new RuntimeException("Failed to delete task: " + e.getMessage());
         }
@@ -225,6 +287,9 @@ public class TaskService {
 
     public List<Task> searchTasks(String searchTerm) {
         try {
+            if (taskIndexingService.isReady()) {
+                return taskIndexingService.search(null, searchTerm);
+            }
             return taskRepository.findByTitleOrDescriptionContaining(searchTerm);
         } catch (Exception e) {
             throw new RuntimeException("Failed to search tasks: " + e.getMessage());
@@ -233,6 +298,9 @@ public class TaskService {
 
     public List<Task> searchTasksInWorkspace(Long workspaceId, String searchTerm) {
         try {
+            if (taskIndexingService.isReady()) {
+                return taskIndexingService.search(workspaceId, searchTerm);
+            }
             Workspace workspace = workspaceService.findById(workspaceId);
             return taskRepository.findByWorkspaceAndTitleOrDescriptionContaining(workspace, searchTerm);
         } catch (Exception e) {
@@ -266,24 +334,40 @@ public class TaskService {
         }
     }
 
+    /**
+     * Run the deadline reminder pass now instead of waiting for its schedule
+     */
     public void sendDeadlineReminders() {
         try {
-            LocalDateTime tomorrow = LocalDateTime.now().plusDays(1);
-            LocalDateTime dayAfterTomorrow = LocalDateTime.now().plusDays(2);
-
-            List<Task> tasksDueSoon = taskRepository.findTasksByDueDateRange(LocalDateTime.now(), tomorrow);
-
-            for (Task task : tasksDueSoon) {
-                if (task.getAssignedTo() != null && task.getStatus() != Task.TaskStatus.COMPLETED) {
-                    emailService.sendDeadlineAlert(
-                            task.getAssignedTo(),
-                            task.getTitle(),
-                            task.getWorkspace().getName()
-                    );
-                }
-            }
+            deadlineReminderService.sendReminders();
         } catch (Exception e) {
             throw new RuntimeException("Failed to send deadline reminders: " + e.getMessage());
         }
     }
+
+    private PageRequest pageRequest(int limit) {
+        return PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    private CursorPage<Task> toPage(Slice<Task> slice) {
+        List<Task> tasks = slice.getContent();
+        if (!slice.hasNext() || tasks.isEmpty()) {
+            return new CursorPage<>(tasks, null);
+        }
+        Task last = tasks.get(tasks.size() - 1);
+        return new CursorPage<>(tasks, CursorPage.encodeCursor(last.getCreatedDate(), last.getTaskId()));
+    }
+
+    // Sent after commit from the notification thread, so the request never waits on SMTP
+    private void queueAssignmentEmail(User assignee, Task task) {
+        String title = task.getTitle();
+        String workspaceName = task.getWorkspace().getName();
+        notificationQueue.afterCommit(() -> emailService.sendTaskAssignmentNotification(assignee, title, workspaceName));
+    }
+
+    // The task as it is now is left out of a deletion
+    private void publish(TaskActivity before, Task task, TaskEvent.Type type) {
+        TaskActivity after = type == TaskEvent.Type.DELETED ? null : TaskActivity.capture(task);
+        eventPublisher.publishEvent(new TaskEvent(task.getTaskId(), task.getWorkspace().getWorkspaceId(), type, before, after));
+    }
 }
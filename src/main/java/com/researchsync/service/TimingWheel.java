@@ -0,0 +1,125 @@
+package com.researchsync.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel: keys with a deadline, expired in deadline order as time advances.
+ *
+ * Level 0 has one slot per tick; each level above has slots as wide as a full turn of the
+ * level below. A key sits at the lowest level whose span covers its remaining time. When a
+ * higher-level slot comes round its keys are placed again, falling to finer levels, so
+ * scheduling, cancelling and expiring are all O(1) regardless of how many keys are held.
+ * Deadlines beyond the top level's span park in its slots and are re-placed each turn.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+final class TimingWheel<K> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 5;
+
+    private final long tickMillis;
+    private final List<List<Set<K>>> levels = new ArrayList<>(LEVELS);
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    private long currentTick;
+
+    TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (int level = 0; level < LEVELS; level++) {
+            List<Set<K>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new HashSet<>());
+            }
+            levels.add(slots);
+        }
+    }
+
+    /**
+     * Add or move a key. Returns false, holding nothing, when the deadline has already passed.
+     */
+    boolean schedule(K key, long deadlineMillis) {
+        cancel(key);
+        long deadlineTick = Math.floorDiv(deadlineMillis, tickMillis);
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+        Entry<K> entry = new Entry<>(deadlineTick);
+        entries.put(key, entry);
+        place(key, entry);
+        return true;
+    }
+
+    void cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry != null) {
+            entry.slot.remove(key);
+        }
+    }
+
+    /**
+     * Move time forward and return the keys whose deadline was reached, earliest first
+     */
+    List<K> advance(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Coarse levels first, so their keys can drop into the level 0 slot due this tick
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+            Set<K> due = levels.get(0).get((int) (currentTick & (SLOTS - 1)));
+            for (K key : due) {
+                entries.remove(key);
+                expired.add(key);
+            }
+            due.clear();
+        }
+        return expired;
+    }
+
+    private void cascade(int level) {
+        Set<K> slot = levels.get(level).get(slotIndex(currentTick, level));
+        if (slot.isEmpty()) {
+            return;
+        }
+        List<K> keys = new ArrayList<>(slot);
+        slot.clear();
+        for (K key : keys) {
+            place(key, entries.get(key));
+        }
+    }
+
+    // Into the lowest level whose span covers the time left, judged from the current tick
+    private void place(K key, Entry<K> entry) {
+        long remaining = entry.deadlineTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && remaining >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        entry.slot = levels.get(level).get(slotIndex(entry.deadlineTick, level));
+        entry.slot.add(key);
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+    }
+
+    private static final class Entry<K> {
+        final long deadlineTick;
+        Set<K> slot;
+
+        Entry(long deadlineTick) {
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
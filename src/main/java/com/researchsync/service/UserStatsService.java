@@ -0,0 +1,73 @@
+package com.researchsync.service;
+
+import com.researchsync.dto.UserStats;
+import com.researchsync.model.User;
+import com.researchsync.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dashboard and profile counters for a user, computed by a single aggregate query and
+ * cached briefly so reloading the dashboard does not hit the database every time.
+ */
+@Service
+public class UserStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatsService.class);
+
+    @Value("${app.dashboard.stats-ttl:PT30S}")
+    private Duration ttl;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Map<Long, CachedStats> cache = new ConcurrentHashMap<>();
+
+    public UserStats getStats(User user) {
+        long now = System.nanoTime();
+        CachedStats cached = cache.get(user.getUserId());
+        if (cached != null && now < cached.expiresAt) {
+            return cached.stats;
+        }
+
+        UserStats stats = load(user);
+        cache.put(user.getUserId(), new CachedStats(stats, now + ttl.toNanos()));
+        if (cache.size() > 10_000) {
+            cache.values().removeIf(entry -> now >= entry.expiresAt);
+        }
+        return stats;
+    }
+
+    private UserStats load(User user) {
+        try {
+            List<Object[]> rows = userRepository.countDashboardStats(user.getUserId());
+            Object[] row = rows.get(0);
+            return new UserStats(count(row[0]), count(row[1]), count(row[2]), count(row[3]), count(row[4]));
+        } catch (Exception e) {
+            log.error("Failed to count statistics for user {}", user.getUserId(), e);
+            throw new RuntimeException("Failed to load user statistics: " + e.getMessage());
+        }
+    }
+
+    private static long count(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    private static final class CachedStats {
+        final UserStats stats;
+        final long expiresAt;
+
+        CachedStats(UserStats stats, long expiresAt) {
+            this.stats = stats;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
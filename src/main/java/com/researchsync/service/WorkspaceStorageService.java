@@ -0,0 +1,153 @@
+package com.researchsync.service;
+
+import com.researchsync.exception.StorageQuotaExceededException;
+import com.researchsync.model.Workspace;
+import com.researchsync.repository.UploadSessionRepository;
+import com.researchsync.repository.UploadedFileRepository;
+import com.researchsync.repository.WorkspaceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keeps each workspace's storage used and file count as counters on the workspace row and
+ * enforces the storage quota.
+ *
+ * Uploads are checked against the quota before any bytes are written, then reserve their
+ * size with a single conditional UPDATE in the upload's transaction, so concurrent uploads
+ * cannot overshoot the quota and a rolled-back upload never leaves the counters off.
+ */
+@Service
+public class WorkspaceStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkspaceStorageService.class);
+
+    @Autowired
+    private WorkspaceRepository workspaceRepository;
+
+    @Autowired
+    private UploadedFileRepository uploadedFileRepository;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Negative means unlimited
+    @Value("${app.workspace.storage-quota:10GB}")
+    private DataSize defaultQuota;
+
+    /**
+     * Fail fast, before anything is written, if the incoming bytes would not fit.
+     * Bytes promised to other unfinished chunked uploads count as used.
+     */
+    public void checkQuota(Workspace workspace, long incomingBytes) {
+        long quota = getQuota(workspace);
+        if (quota < 0) {
+            return;
+        }
+        Long used = workspaceRepository.findStorageUsed(workspace.getWorkspaceId());
+        if (used == null) {
+            return;
+        }
+        long pending = uploadSessionRepository.sumPendingBytesByWorkspace(workspace, LocalDateTime.now());
+        if (used + pending + incomingBytes > quota) {
+            throw quotaExceeded(workspace, quota);
+        }
+    }
+
+    /**
+     * Add a new file to the counters, or fail if it would exceed the quota.
+     * Must run in the transaction that records the file.
+     */
+    @Transactional
+    public void reserve(Workspace workspace, long bytes) {
+        int updated = workspaceRepository.reserveStorage(workspace.getWorkspaceId(), bytes, defaultQuota.toBytes());
+        if (updated == 0) {
+            throw quotaExceeded(workspace, getQuota(workspace));
+        }
+        log.debug("Reserved {} bytes in workspace {}", bytes, workspace.getWorkspaceId());
+    }
+
+    /**
+     * Remove a deleted file from the counters
+     */
+    @Transactional
+    public void release(Workspace workspace, long bytes) {
+        workspaceRepository.releaseStorage(workspace.getWorkspaceId(), bytes);
+        log.debug("Released {} bytes in workspace {}", bytes, workspace.getWorkspaceId());
+    }
+
+    public long getStorageUsed(Long workspaceId) {
+        Long used = workspaceRepository.findStorageUsed(workspaceId);
+        return used != null ? used : 0L;
+    }
+
+    public long getFileCount(Long workspaceId) {
+        Long count = workspaceRepository.findFileCount(workspaceId);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * Effective quota in bytes, negative when unlimited
+     */
+    public long getQuota(Workspace workspace) {
+        return workspace.getStorageQuota() != null ? workspace.getStorageQuota() : defaultQuota.toBytes();
+    }
+
+    /**
+     * Recompute a workspace's counters from its files. The row lock makes concurrent
+     * uploads wait, so no increment can slip in between the count and the write.
+     */
+    @Transactional
+    public void recount(Long workspaceId) {
+        Workspace workspace = workspaceRepository.findByIdForUpdate(workspaceId)
+                .orElseThrow(() -> new RuntimeException("Workspace not found with ID: " + workspaceId));
+
+        Long totalSize = uploadedFileRepository.getTotalFileSizeByWorkspace(workspace);
+        Long fileCount = uploadedFileRepository.countActiveFilesByWorkspace(workspace);
+        workspaceRepository.setStorageUsage(workspaceId,
+                totalSize != null ? totalSize : 0L,
+                fileCount != null ? fileCount : 0L);
+        log.info("Recounted storage for workspace {}: {} files, {} bytes", workspaceId, fileCount, totalSize);
+    }
+
+    /**
+     * Workspaces created before the counters existed start uncounted; fill them in once
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void countUncountedWorkspaces() {
+        List<Long> workspaceIds = workspaceRepository.findIdsWithUncountedStorage();
+        if (workspaceIds.isEmpty()) {
+            return;
+        }
+        log.info("Counting storage for {} workspaces", workspaceIds.size());
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        for (Long workspaceId : workspaceIds) {
+            try {
+                template.executeWithoutResult(status -> recount(workspaceId));
+            } catch (Exception e) {
+                log.error("Failed to count storage for workspace {}", workspaceId, e);
+            }
+        }
+    }
+
+    private StorageQuotaExceededException quotaExceeded(Workspace workspace, long quota) {
+        log.warn("Storage quota of {} bytes exceeded for workspace {}", quota, workspace.getWorkspaceId());
+        return new StorageQuotaExceededException("This workspace has reached its storage limit of "
+                + DataSize.ofBytes(quota).toMegabytes() + " MB");
+    }
+}
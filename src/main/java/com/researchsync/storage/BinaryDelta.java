@@ -0,0 +1,291 @@
+package com.researchsync.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * rsync-style binary deltas. The base is cut into fixed blocks, each indexed by a rolling
+ * (Adler-style) checksum and an MD5; the target is scanned byte by byte with the rolling
+ * checksum, and every block found is encoded as a COPY of base bytes, everything else as
+ * LITERAL bytes. Adjacent copies are merged, so an unchanged stretch costs one op.
+ *
+ * Format: magic, block size, then ops (COPY offset length | LITERAL length bytes) up to END.
+ * Applying needs random access to the base but streams the target out in order.
+ */
+public final class BinaryDelta {
+
+    private static final int MAGIC = 0x5253444c; // "RSDL"
+
+    private static final byte OP_END = 0;
+    private static final byte OP_COPY = 1;
+    private static final byte OP_LITERAL = 2;
+
+    private static final int MIN_BLOCK_SIZE = 2048;
+    private static final int MAX_BLOCK_SIZE = 64 * 1024;
+    private static final int SCAN_BUFFER_SIZE = 1024 * 1024;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private BinaryDelta() {
+    }
+
+    /**
+     * Blocks of about sqrt(base size) balance index size against match granularity
+     */
+    public static int blockSizeFor(long baseLength) {
+        long size = (long) Math.sqrt((double) baseLength);
+        size = Math.max(MIN_BLOCK_SIZE, Math.min(MAX_BLOCK_SIZE, size));
+        return (int) (size / 512 * 512);
+    }
+
+    /**
+     * Write the delta that turns the base region into target
+     */
+    public static void encode(FileChannel base, long baseOffset, long baseLength,
+                              InputStream target, OutputStream deltaOut) throws IOException {
+        int blockSize = blockSizeFor(baseLength);
+        Signature signature = signature(base, baseOffset, baseLength, blockSize);
+
+        Encoder encoder = new Encoder(new DataOutputStream(new BufferedOutputStream(deltaOut, COPY_BUFFER_SIZE)));
+        encoder.out.writeInt(MAGIC);
+        encoder.out.writeInt(blockSize);
+
+        MessageDigest md5 = md5();
+        byte[] data = new byte[Math.max(SCAN_BUFFER_SIZE, blockSize * 4)];
+        int filled = 0;
+        int p = 0;
+        int literalStart = 0;
+        boolean eof = false;
+        boolean windowValid = false;
+        int a = 0;
+        int b = 0;
+
+        while (true) {
+            if (filled - p < blockSize + 1 && !eof) {
+                // Keep the current window (and the byte after it) in the buffer
+                encoder.literal(data, literalStart, p - literalStart);
+                System.arraycopy(data, p, data, 0, filled - p);
+                filled -= p;
+                p = 0;
+                literalStart = 0;
+                int read;
+                while (filled < data.length && (read = target.read(data, filled, data.length - filled)) != -1) {
+                    filled += read;
+                }
+                eof = filled < data.length;
+            }
+            if (filled - p < blockSize) {
+                break;
+            }
+
+            if (!windowValid) {
+                a = 0;
+                b = 0;
+                for (int i = 0; i < blockSize; i++) {
+                    int x = data[p + i] & 0xff;
+                    a += x;
+                    b += (blockSize - i) * x;
+                }
+                a &= 0xffff;
+                b &= 0xffff;
+                windowValid = true;
+            }
+
+            int match = signature.find(a | (b << 16), data, p, blockSize, md5);
+            if (match >= 0) {
+                encoder.literal(data, literalStart, p - literalStart);
+                encoder.copy((long) match * blockSize, blockSize);
+                p += blockSize;
+                literalStart = p;
+                windowValid = false;
+                continue;
+            }
+
+            if (p + blockSize >= filled) {
+                if (eof) {
+                    break;
+                }
+                // Refill at the top of the loop; the window stays valid across the move
+                continue;
+            }
+            int out = data[p] & 0xff;
+            int in = data[p + blockSize] & 0xff;
+            a = (a - out + in) & 0xffff;
+            b = (b - blockSize * out + a) & 0xffff;
+            p++;
+        }
+
+        encoder.literal(data, literalStart, filled - literalStart);
+        encoder.finish();
+    }
+
+    /**
+     * Rebuild the target from a delta and its base, writing it to out in order
+     *
+     * @return number of bytes written
+     */
+    public static long apply(InputStream delta, FileChannel base, long baseOffset, OutputStream out) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(delta, COPY_BUFFER_SIZE));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a binary delta");
+        }
+        in.readInt(); // block size, only needed when encoding
+
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long written = 0;
+        while (true) {
+            byte op = in.readByte();
+            if (op == OP_END) {
+                return written;
+            } else if (op == OP_COPY) {
+                long position = baseOffset + in.readLong();
+                long remaining = in.readLong();
+                while (remaining > 0) {
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    int read = base.read(chunk, position);
+                    if (read <= 0) {
+                        throw new EOFException("Delta copies past the end of its base");
+                    }
+                    out.write(buffer, 0, read);
+                    position += read;
+                    remaining -= read;
+                    written += read;
+                }
+            } else if (op == OP_LITERAL) {
+                int remaining = in.readInt();
+                while (remaining > 0) {
+                    int count = Math.min(buffer.length, remaining);
+                    in.readFully(buffer, 0, count);
+                    out.write(buffer, 0, count);
+                    remaining -= count;
+                    written += count;
+                }
+            } else {
+                throw new IOException("Corrupt binary delta: unknown op " + op);
+            }
+        }
+    }
+
+    private static Signature signature(FileChannel base, long baseOffset, long baseLength, int blockSize) throws IOException {
+        int blocks = (int) (baseLength / blockSize);
+        Signature signature = new Signature(blocks);
+        MessageDigest md5 = md5();
+        byte[] block = new byte[blockSize];
+
+        for (int i = 0; i < blocks; i++) {
+            ByteBuffer buffer = ByteBuffer.wrap(block);
+            long position = baseOffset + (long) i * blockSize;
+            while (buffer.hasRemaining()) {
+                int read = base.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    throw new EOFException("Delta base is shorter than expected");
+                }
+            }
+            int a = 0;
+            int b = 0;
+            for (int j = 0; j < blockSize; j++) {
+                int x = block[j] & 0xff;
+                a += x;
+                b += (blockSize - j) * x;
+            }
+            signature.add((a & 0xffff) | ((b & 0xffff) << 16), i, md5.digest(block));
+        }
+        return signature;
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+
+    private static final class Signature {
+        final Map<Integer, List<Integer>> blocksByWeak = new HashMap<>();
+        final byte[][] strong;
+
+        Signature(int blocks) {
+            strong = new byte[blocks][];
+        }
+
+        void add(int weak, int block, byte[] strongHash) {
+            strong[block] = strongHash;
+            blocksByWeak.computeIfAbsent(weak, key -> new ArrayList<>(1)).add(block);
+        }
+
+        int find(int weak, byte[] data, int offset, int length, MessageDigest md5) {
+            List<Integer> candidates = blocksByWeak.get(weak);
+            if (candidates == null) {
+                return -1;
+            }
+            md5.update(data, offset, length);
+            byte[] strongHash = md5.digest();
+            for (int block : candidates) {
+                if (Arrays.equals(strong[block], strongHash)) {
+                    return block;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static final class Encoder {
+        final DataOutputStream out;
+        long copyOffset = -1;
+        long copyLength;
+
+        Encoder(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void copy(long offset, long length) throws IOException {
+            if (copyOffset >= 0 && copyOffset + copyLength == offset) {
+                copyLength += length;
+                return;
+            }
+            flushCopy();
+            copyOffset = offset;
+            copyLength = length;
+        }
+
+        void literal(byte[] data, int offset, int length) throws IOException {
+            if (length <= 0) {
+                return;
+            }
+            flushCopy();
+            out.writeByte(OP_LITERAL);
+            out.writeInt(length);
+            out.write(data, offset, length);
+        }
+
+        void finish() throws IOException {
+            flushCopy();
+            out.writeByte(OP_END);
+            out.flush();
+        }
+
+        private void flushCopy() throws IOException {
+            if (copyOffset >= 0) {
+                out.writeByte(OP_COPY);
+                out.writeLong(copyOffset);
+                out.writeLong(copyLength);
+                copyOffset = -1;
+            }
+        }
+    }
+}
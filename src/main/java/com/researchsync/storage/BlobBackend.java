@@ -0,0 +1,46 @@
+package com.researchsync.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Where blob bytes live. A backend hands out an opaque location string, which is recorded
+ * in file_blobs.storage_path (and uploaded_files.file_path), and later resolves it again.
+ *
+ * Storing happens in two steps so the database stays the source of truth: prepare runs inside
+ * the upload transaction and returns the location to record, place runs just before commit,
+ * under the blob's hash lock, and only when the row kept that location. A failing place rolls
+ * the upload back.
+ */
+public interface BlobBackend {
+
+    String getName();
+
+    /**
+     * Whether a location recorded in the database belongs to this backend
+     */
+    boolean handles(String location);
+
+    /**
+     * Choose (and, if the backend needs to, write) the location for a staged blob file
+     */
+    String prepare(String hash, String encoding, Path stagedFile) throws IOException;
+
+    /**
+     * Make the blob readable at its location; the staged file is consumed either way
+     */
+    void place(String hash, String location, Path stagedFile) throws IOException;
+
+    /**
+     * The stored bytes, or null when they are missing
+     */
+    StoredRegion locate(String location) throws IOException;
+
+    InputStream open(String location) throws IOException;
+
+    /**
+     * Remove an unreferenced blob; called under the hash lock after the row is gone
+     */
+    void delete(String hash, String location) throws IOException;
+}
@@ -0,0 +1,83 @@
+package com.researchsync.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Decides which uploads are compressed at rest. A file qualifies when compression is enabled,
+ * its content type or extension is a text-like format, and a sample of its first bytes has
+ * low enough byte entropy to be worth compressing (so e.g. a .csv holding base64 is skipped).
+ */
+@Component
+public class CompressionPolicy {
+
+    public static final String GZIP = "gzip";
+
+    public static final int SAMPLE_SIZE = 64 * 1024;
+
+    private static final Set<String> COMPRESSIBLE_TYPES = Set.of(
+            "application/json", "application/x-ndjson", "application/xml", "application/javascript",
+            "application/sql", "application/x-yaml", "application/yaml", "application/csv",
+            "application/x-tex", "image/svg+xml");
+
+    private static final Set<String> COMPRESSIBLE_EXTENSIONS = Set.of(
+            "txt", "csv", "tsv", "json", "ndjson", "jsonl", "log", "xml", "md", "yaml", "yml",
+            "sql", "tex", "bib", "html", "htm", "js", "css", "svg", "r", "py", "java", "ipynb");
+
+    @Value("${app.upload.compression.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.upload.compression.max-entropy:6.5}")
+    private double maxEntropy;
+
+    @Value("${app.upload.compression.min-size:4096}")
+    private long minSize;
+
+    /**
+     * Cheap check on metadata alone, before any bytes are read
+     */
+    public boolean isCandidate(String contentType, String filename, long size) {
+        if (!enabled || (size >= 0 && size < minSize)) {
+            return false;
+        }
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            int semicolon = type.indexOf(';');
+            if (semicolon >= 0) {
+                type = type.substring(0, semicolon).trim();
+            }
+            if (type.startsWith("text/") || COMPRESSIBLE_TYPES.contains(type)) {
+                return true;
+            }
+        }
+        if (filename != null && filename.contains(".")) {
+            String extension = filename.substring(filename.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+            return COMPRESSIBLE_EXTENSIONS.contains(extension);
+        }
+        return false;
+    }
+
+    /**
+     * Shannon entropy of the sample in bits per byte; 8 means incompressible
+     */
+    public boolean looksCompressible(byte[] sample, int length) {
+        if (length == 0) {
+            return false;
+        }
+        int[] counts = new int[256];
+        for (int i = 0; i < length; i++) {
+            counts[sample[i] & 0xff]++;
+        }
+        double entropy = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                double p = (double) count / length;
+                entropy -= p * (Math.log(p) / Math.log(2));
+            }
+        }
+        return entropy <= maxEntropy;
+    }
+}
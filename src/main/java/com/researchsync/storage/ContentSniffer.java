@@ -0,0 +1,188 @@
+package com.researchsync.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Works out a file's real type from its leading bytes rather than the client's Content-Type.
+ * Containers that several formats share (ZIP, RIFF, plain text) are narrowed down by the
+ * file name's extension; anything unrecognised is application/octet-stream.
+ */
+@Component
+public class ContentSniffer {
+
+    public static final String OCTET_STREAM = "application/octet-stream";
+
+    // Bytes needed to recognise every signature below and to judge whether content is text
+    public static final int HEADER_SIZE = 8 * 1024;
+
+    private static final Map<String, String> ZIP_BASED = Map.of(
+            "docx", "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+            "xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+            "pptx", "application/vnd.openxmlformats-officedocument.presentationml.presentation",
+            "odt", "application/vnd.oasis.opendocument.text",
+            "ods", "application/vnd.oasis.opendocument.spreadsheet",
+            "odp", "application/vnd.oasis.opendocument.presentation",
+            "epub", "application/epub+zip",
+            "jar", "application/java-archive");
+
+    private static final Map<String, String> TEXT_BASED = Map.ofEntries(
+            Map.entry("csv", "text/csv"),
+            Map.entry("tsv", "text/tab-separated-values"),
+            Map.entry("json", "application/json"),
+            Map.entry("ndjson", "application/x-ndjson"),
+            Map.entry("jsonl", "application/x-ndjson"),
+            Map.entry("xml", "application/xml"),
+            Map.entry("html", "text/html"),
+            Map.entry("htm", "text/html"),
+            Map.entry("md", "text/markdown"),
+            Map.entry("yaml", "application/yaml"),
+            Map.entry("yml", "application/yaml"),
+            Map.entry("tex", "application/x-tex"),
+            Map.entry("svg", "image/svg+xml"),
+            Map.entry("rtf", "application/rtf"));
+
+    /**
+     * Best guess at the type of content starting with header[0..length)
+     */
+    public String sniff(byte[] header, int length, String filename) {
+        String extension = extensionOf(filename);
+
+        if (startsWith(header, length, 0, "%PDF-")) return "application/pdf";
+        if (startsWith(header, length, 0, 0x89, 'P', 'N', 'G', 0x0d, 0x0a, 0x1a, 0x0a)) return "image/png";
+        if (startsWith(header, length, 0, 0xff, 0xd8, 0xff)) return "image/jpeg";
+        if (startsWith(header, length, 0, "GIF87a") || startsWith(header, length, 0, "GIF89a")) return "image/gif";
+        if (startsWith(header, length, 0, "BM")) return "image/bmp";
+        if (startsWith(header, length, 0, 'I', 'I', 0x2a, 0x00) || startsWith(header, length, 0, 'M', 'M', 0x00, 0x2a)) return "image/tiff";
+        if (startsWith(header, length, 0, "RIFF")) {
+            if (startsWith(header, length, 8, "WEBP")) return "image/webp";
+            if (startsWith(header, length, 8, "WAVE")) return "audio/wav";
+            if (startsWith(header, length, 8, "AVI ")) return "video/x-msvideo";
+        }
+        if (startsWith(header, length, 4, "ftyp")) {
+            if (startsWith(header, length, 8, "heic") || startsWith(header, length, 8, "heix")) return "image/heic";
+            if (startsWith(header, length, 8, "qt  ")) return "video/quicktime";
+            if (startsWith(header, length, 8, "M4A ")) return "audio/mp4";
+            return "video/mp4";
+        }
+        if (startsWith(header, length, 0, 0x1a, 0x45, 0xdf, 0xa3)) return "webm".equals(extension) ? "video/webm" : "video/x-matroska";
+        if (startsWith(header, length, 0, "OggS")) return "audio/ogg";
+        if (startsWith(header, length, 0, "fLaC")) return "audio/flac";
+        if (startsWith(header, length, 0, "ID3") || startsWith(header, length, 0, 0xff, 0xfb)) return "audio/mpeg";
+
+        if (startsWith(header, length, 0, 'P', 'K', 0x03, 0x04) || startsWith(header, length, 0, 'P', 'K', 0x05, 0x06)) {
+            return ZIP_BASED.getOrDefault(extension, "application/zip");
+        }
+        if (startsWith(header, length, 0, 0x1f, 0x8b)) return "application/gzip";
+        if (startsWith(header, length, 0, "BZh")) return "application/x-bzip2";
+        if (startsWith(header, length, 0, 0xfd, '7', 'z', 'X', 'Z', 0x00)) return "application/x-xz";
+        if (startsWith(header, length, 0, '7', 'z', 0xbc, 0xaf, 0x27, 0x1c)) return "application/x-7z-compressed";
+        if (startsWith(header, length, 0, "Rar!")) return "application/vnd.rar";
+        if (startsWith(header, length, 0, 0x28, 0xb5, 0x2f, 0xfd)) return "application/zstd";
+        if (startsWith(header, length, 257, "ustar")) return "application/x-tar";
+
+        // Research data formats
+        if (startsWith(header, length, 0, 0x89, 'H', 'D', 'F', 0x0d, 0x0a, 0x1a, 0x0a)) return "application/x-hdf5";
+        if (startsWith(header, length, 0, 'C', 'D', 'F', 0x01) || startsWith(header, length, 0, 'C', 'D', 'F', 0x02)) return "application/x-netcdf";
+        if (startsWith(header, length, 0, "PAR1")) return "application/vnd.apache.parquet";
+        if (startsWith(header, length, 0, "SQLite format 3")) return "application/vnd.sqlite3";
+        if (startsWith(header, length, 0, 0x93, 'N', 'U', 'M', 'P', 'Y')) return "application/x-npy";
+
+        // Legacy Office documents share the OLE2 compound file header
+        if (startsWith(header, length, 0, 0xd0, 0xcf, 0x11, 0xe0, 0xa1, 0xb1, 0x1a, 0xe1)) {
+            switch (extension) {
+                case "xls": return "application/vnd.ms-excel";
+                case "ppt": return "application/vnd.ms-powerpoint";
+                default: return "application/msword";
+            }
+        }
+
+        // Executables are recognised so the upload policy can refuse them
+        if (startsWith(header, length, 0, "MZ")) return "application/x-msdownload";
+        if (startsWith(header, length, 0, 0x7f, 'E', 'L', 'F')) return "application/x-executable";
+        if (startsWith(header, length, 0, 0xca, 0xfe, 0xba, 0xbe)) return "application/java-vm";
+        if (startsWith(header, length, 0, 0xcf, 0xfa, 0xed, 0xfe) || startsWith(header, length, 0, 0xfe, 0xed, 0xfa, 0xcf)) return "application/x-mach-binary";
+
+        if (looksLikeText(header, length)) {
+            if (startsWith(header, length, 0, "{\\rtf")) return "application/rtf";
+            if (startsWith(header, length, 0, "#!")) return "text/x-shellscript";
+            return TEXT_BASED.getOrDefault(extension, "text/plain");
+        }
+        return OCTET_STREAM;
+    }
+
+    /**
+     * Valid UTF-8 (a character may be cut off at the end of the sample) without NUL or other
+     * control bytes besides whitespace
+     */
+    private boolean looksLikeText(byte[] header, int length) {
+        if (length == 0) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            int b = header[i] & 0xff;
+            if (b < 0x20 && b != '\t' && b != '\n' && b != '\r' && b != '\f' && b != 0x1b) {
+                return false;
+            }
+        }
+        // Drop a trailing partial multi-byte sequence before decoding
+        int end = length;
+        for (int back = 1; back <= 3 && end - back >= 0; back++) {
+            int b = header[end - back] & 0xff;
+            if ((b & 0xc0) == 0xc0) {
+                end -= back;
+                break;
+            }
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        try {
+            StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(header, 0, end));
+            return true;
+        } catch (CharacterCodingException e) {
+            return false;
+        }
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, String signature) {
+        byte[] bytes = signature.getBytes(StandardCharsets.ISO_8859_1);
+        if (offset + bytes.length > length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (header[offset + i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, int... signature) {
+        if (offset + signature.length > length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((header[offset + i] & 0xff) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String extensionOf(String filename) {
+        if (filename != null && filename.contains(".")) {
+            return filename.substring(filename.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        }
+        return "";
+    }
+}
@@ -0,0 +1,292 @@
+package com.researchsync.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded off-heap cache of the stored bytes of frequently downloaded blobs, keyed by
+ * content hash, so a burst of downloads of the same file is served from memory.
+ *
+ * Entries live in direct ByteBuffers outside the heap. Eviction is LRU; admission is
+ * TinyLFU: a count-min sketch estimates how often every blob was requested recently (hits
+ * and misses alike, aged by halving), and a blob is only admitted when its frequency times
+ * its size beats that of the LRU entries it would push out. A one-off download of a large
+ * dataset therefore cannot flush the lecture PDFs everyone is fetching.
+ *
+ * Content-addressed entries can never go stale; invalidation only frees the memory early.
+ */
+@Component
+public class HotFileCache {
+
+    private static final Logger log = LoggerFactory.getLogger(HotFileCache.class);
+
+    @Value("${app.download.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.download.cache.max-size:256MB}")
+    private DataSize maxSize;
+
+    @Value("${app.download.cache.max-entry-size:16MB}")
+    private DataSize maxEntrySize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Access order: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Long, String> hashByFile = new HashMap<>();
+    private long usedBytes;
+    private long hitCount;
+    private long missCount;
+
+    private FrequencySketch sketch;
+    private Counter bytesSaved;
+
+    @PostConstruct
+    public void init() {
+        // Sketch width follows the number of small entries the cache could hold
+        sketch = new FrequencySketch((int) Math.max(1024, Math.min(1 << 22, maxSize.toBytes() / (16 * 1024))));
+
+        bytesSaved = meterRegistry.counter("download.cache.bytes.saved");
+        FunctionCounter.builder("download.cache.hits", this, cache -> cache.hitCount).register(meterRegistry);
+        FunctionCounter.builder("download.cache.misses", this, cache -> cache.missCount).register(meterRegistry);
+        Gauge.builder("download.cache.hit.ratio", this, HotFileCache::hitRatio)
+                .description("Share of cacheable downloads served from the hot-file cache")
+                .register(meterRegistry);
+        Gauge.builder("download.cache.size", this, cache -> cache.usedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("download.cache.entries", entries, Map::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The cached stored bytes of a blob, or null. Counts as a request for admission either way.
+     */
+    public synchronized ByteBuffer get(String hash, Long fileId) {
+        sketch.increment(hash);
+        Entry entry = entries.get(hash);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        track(entry, hash, fileId);
+        return entry.buffer.duplicate();
+    }
+
+    /**
+     * Whether a missed blob of this stored size is currently worth reading into the cache
+     */
+    public synchronized boolean shouldLoad(String hash, long size) {
+        return size <= maxEntrySize.toBytes() && size <= maxSize.toBytes() && admits(hash, size);
+    }
+
+    /**
+     * Read a blob's stored bytes into a direct buffer and cache them if admission still agrees.
+     * The bytes are returned either way, so the caller can serve from them.
+     */
+    public ByteBuffer load(String hash, Long fileId, StoredRegion region) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) region.getLength());
+        try (FileChannel channel = FileChannel.open(region.getPath(), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, region.getOffset() + buffer.position()) < 0) {
+                    throw new EOFException("Stored blob " + hash + " is shorter than expected");
+                }
+            }
+        }
+        buffer.flip();
+        ByteBuffer readOnly = buffer.asReadOnlyBuffer();
+
+        synchronized (this) {
+            if (!entries.containsKey(hash) && admits(hash, region.getLength())) {
+                evictFor(region.getLength());
+                Entry entry = new Entry(readOnly);
+                entries.put(hash, entry);
+                usedBytes += region.getLength();
+                track(entry, hash, fileId);
+                log.debug("Cached blob {} ({} bytes, {} in use)", hash, region.getLength(), usedBytes);
+            }
+        }
+        return readOnly.duplicate();
+    }
+
+    public void recordBytesSaved(long bytes) {
+        bytesSaved.increment(bytes);
+    }
+
+    /**
+     * Drop a blob, e.g. once it is deleted from the store
+     */
+    public synchronized void invalidate(String hash) {
+        remove(hash);
+    }
+
+    /**
+     * Drop whatever a file was last served from, e.g. after it was deleted or revised
+     */
+    public synchronized void invalidateFile(Long fileId) {
+        String hash = hashByFile.remove(fileId);
+        if (hash != null) {
+            remove(hash);
+        }
+    }
+
+    private double hitRatio() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * TinyLFU, weighted by size: admit when the candidate's expected bytes served beat those
+     * of the least recently used entries that would have to make room
+     */
+    private boolean admits(String hash, long size) {
+        long needed = usedBytes + size - maxSize.toBytes();
+        if (needed <= 0) {
+            return true;
+        }
+        long victimWeight = 0;
+        long freed = 0;
+        for (Map.Entry<String, Entry> victim : entries.entrySet()) {
+            if (freed >= needed) {
+                break;
+            }
+            long victimSize = victim.getValue().buffer.capacity();
+            victimWeight += sketch.frequency(victim.getKey()) * victimSize;
+            freed += victimSize;
+        }
+        return (long) sketch.frequency(hash) * size > victimWeight;
+    }
+
+    private void evictFor(long size) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (usedBytes + size > maxSize.toBytes() && it.hasNext()) {
+            Map.Entry<String, Entry> victim = it.next();
+            it.remove();
+            forget(victim.getKey(), victim.getValue());
+            usedBytes -= victim.getValue().buffer.capacity();
+        }
+    }
+
+    private void remove(String hash) {
+        Entry entry = entries.remove(hash);
+        if (entry != null) {
+            forget(hash, entry);
+            usedBytes -= entry.buffer.capacity();
+        }
+    }
+
+    private void track(Entry entry, String hash, Long fileId) {
+        if (fileId != null) {
+            hashByFile.put(fileId, hash);
+            entry.fileIds.add(fileId);
+        }
+    }
+
+    private void forget(String hash, Entry entry) {
+        // The buffer's memory is freed once the last response writing from it lets go.
+        // Only mappings still pointing here go; a file since served from other content keeps its own.
+        for (Long fileId : entry.fileIds) {
+            hashByFile.remove(fileId, hash);
+        }
+    }
+
+    private static final class Entry {
+        final ByteBuffer buffer;
+        final Set<Long> fileIds = new HashSet<>();
+
+        Entry(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Count-min sketch, four rows of byte counters saturating at 15. Counters are halved
+     * every sampleSize increments so old popularity fades.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+                0x9e3779b97f4a7c15L, 0xc2b2ae3d27d4eb4fL, 0x165667b19e3779f9L, 0xd6e8feb86659fd93L};
+        private static final int MAX_COUNT = 15;
+
+        private final byte[][] rows;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int width) {
+            int size = Integer.highestOneBit(width - 1) << 1;
+            rows = new byte[SEEDS.length][size];
+            mask = size - 1;
+            sampleSize = 10 * size;
+        }
+
+        int frequency(String key) {
+            long hash = spread(key);
+            int min = MAX_COUNT;
+            for (int row = 0; row < rows.length; row++) {
+                min = Math.min(min, rows[row][index(hash, row)]);
+            }
+            return min;
+        }
+
+        void increment(String key) {
+            long hash = spread(key);
+            boolean added = false;
+            for (int row = 0; row < rows.length; row++) {
+                int i = index(hash, row);
+                if (rows[row][i] < MAX_COUNT) {
+                    rows[row][i]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (byte[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = (byte) (row[i] >>> 1);
+                }
+            }
+            additions /= 2;
+        }
+
+        private int index(long hash, int row) {
+            long h = hash * SEEDS[row];
+            return (int) (h >>> 32) & mask;
+        }
+
+        private static long spread(String key) {
+            long h = key.hashCode() * 0x9e3779b97f4a7c15L;
+            return h ^ (h >>> 29) ^ key.length();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.researchsync.storage;
+
+import com.researchsync.exception.UploadRejectedException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Checks made on one upload while its bytes go by: the size limit is enforced as the stream
+ * is read, so an oversized upload stops at the limit instead of being written out first,
+ * and the type is sniffed from the leading bytes before the copy starts.
+ */
+public class Ingest {
+
+    private final UploadPolicy policy;
+    private final ContentSniffer sniffer;
+    private final String category;
+    private final String filename;
+    private final long maxSize;
+
+    private String detectedType;
+    private long bytesRead;
+
+    Ingest(UploadPolicy policy, ContentSniffer sniffer, String category, String filename, long maxSize) {
+        this.policy = policy;
+        this.sniffer = sniffer;
+        this.category = category;
+        this.filename = filename;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Wrap the upload stream so reading past the size limit rejects the upload
+     */
+    public InputStream wrap(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b != -1) {
+                    counted(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read > 0) {
+                    counted(read);
+                }
+                return read;
+            }
+        };
+    }
+
+    /**
+     * Sniff the type from the first bytes of the content and check it against the policy
+     */
+    public void inspect(byte[] header, int length) {
+        detectedType = sniffer.sniff(header, Math.min(length, ContentSniffer.HEADER_SIZE), filename);
+        policy.checkType(category, detectedType);
+    }
+
+    /**
+     * Same checks for content that is already on disk
+     */
+    public void inspect(Path file) throws IOException {
+        policy.checkSize(category, Files.size(file));
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] header = in.readNBytes(ContentSniffer.HEADER_SIZE);
+            inspect(header, header.length);
+        }
+    }
+
+    public String getDetectedType() {
+        return detectedType;
+    }
+
+    private void counted(int count) {
+        bytesRead += count;
+        if (maxSize >= 0 && bytesRead > maxSize) {
+            policy.checkSize(category, bytesRead);
+        }
+    }
+}
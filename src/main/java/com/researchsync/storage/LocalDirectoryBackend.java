@@ -0,0 +1,97 @@
+package com.researchsync.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The default backend: one file per blob in the sharded uploads directory, named by its
+ * hash. The location is the file's path.
+ */
+@Component
+public class LocalDirectoryBackend implements BlobBackend {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalDirectoryBackend.class);
+
+    @Autowired
+    private StorageLayout storageLayout;
+
+    @Override
+    public String getName() {
+        return "local";
+    }
+
+    @Override
+    public boolean handles(String location) {
+        return !PackFileBackend.isPackLocation(location);
+    }
+
+    @Override
+    public String prepare(String hash, String encoding, Path stagedFile) throws IOException {
+        return getBlobPath(hash, encoding).toString();
+    }
+
+    @Override
+    public void place(String hash, String location, Path stagedFile) throws IOException {
+        Path blobPath = Paths.get(location);
+        if (Files.exists(blobPath)) {
+            // Same content already on disk: the upload only added a reference
+            Files.deleteIfExists(stagedFile);
+            log.info("Deduplicated upload against existing blob {}", hash);
+            return;
+        }
+        try {
+            Files.move(stagedFile, blobPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(stagedFile, blobPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        log.info("Stored new blob {} at {}", hash, blobPath);
+    }
+
+    @Override
+    public StoredRegion locate(String location) throws IOException {
+        Path path = Paths.get(location);
+        return Files.isReadable(path) ? new StoredRegion(path, 0, Files.size(path)) : null;
+    }
+
+    @Override
+    public InputStream open(String location) throws IOException {
+        return Files.newInputStream(Paths.get(location));
+    }
+
+    @Override
+    public void delete(String hash, String location) throws IOException {
+        Path blobPath = Paths.get(location);
+        if (Files.deleteIfExists(blobPath)) {
+            log.info("Blob {} deleted from disk: {}", hash, blobPath);
+        }
+        // While the layout migration runs a copy may also sit at the sharded location
+        Path shardedPath = storageLayout.resolve(blobPath.getFileName().toString());
+        if (!shardedPath.equals(blobPath) && Files.deleteIfExists(shardedPath)) {
+            log.info("Blob {} deleted from disk: {}", hash, shardedPath);
+        }
+    }
+
+    /**
+     * Location of a blob on disk, inside its shard directory (created on demand).
+     * Compressed blobs get a suffix so they never collide with an uncompressed copy.
+     */
+    public Path getBlobPath(String hash, String encoding) throws IOException {
+        Path blobPath = storageLayout.resolve(CompressionPolicy.GZIP.equals(encoding) ? hash + ".gz" : hash);
+        Path shardDir = blobPath.getParent();
+        if (!Files.exists(shardDir)) {
+            Files.createDirectories(shardDir);
+            log.debug("Created shard directory: {}", shardDir);
+        }
+        return blobPath;
+    }
+}
@@ -0,0 +1,440 @@
+package com.researchsync.storage;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps small blobs appended to large segment files instead of one file each, saving an
+ * inode and an open/close per download.
+ *
+ * Each entry is a small header (magic, SHA-256, length) followed by the stored bytes. The
+ * location recorded in the database, pack:&lt;segment&gt;:&lt;offset&gt;:&lt;length&gt;, is the index:
+ * it points straight at the bytes. Entries are appended and forced to disk before the upload
+ * commits; an entry that ends up unreferenced (rolled back or deleted) is dead space until the
+ * compactor copies a segment's live entries forward and retires it. Content that is already
+ * packed is referenced where it is instead of appended again.
+ *
+ * Segments are read through memory mappings. Every open stream or located region pins its
+ * segment; a retired segment that is still pinned is deleted once its last reader is done.
+ */
+@Component
+public class PackFileBackend implements BlobBackend {
+
+    private static final Logger log = LoggerFactory.getLogger(PackFileBackend.class);
+
+    public static final String LOCATION_PREFIX = "pack:";
+
+    public static final int HEADER_SIZE = 4 + 32 + 8;
+
+    private static final int ENTRY_MAGIC = 0x5253504b; // "RSPK"
+
+    private static final Pattern LOCATION = Pattern.compile("pack:(\\d+):(\\d+):(\\d+)");
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.pack");
+
+    @Value("${app.upload.pack.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.upload.pack.dir:${app.upload.dir:./uploads/}/.packs}")
+    private String packDir;
+
+    @Value("${app.upload.pack.max-blob-size:64KB}")
+    private DataSize maxBlobSize;
+
+    @Value("${app.upload.pack.segment-size:256MB}")
+    private DataSize segmentSize;
+
+    private final Object appendLock = new Object();
+    private final Map<Long, MappedByteBuffer> mappings = new ConcurrentHashMap<>();
+
+    // Open readers per segment, and retired segments waiting for theirs; guarded by readers
+    private final Map<Long, Integer> readers = new HashMap<>();
+    private final Set<Long> pendingDeletion = new HashSet<>();
+
+    private FileChannel activeChannel;
+    private long activeSegment = -1;
+    private long writePosition;
+
+    public static boolean isPackLocation(String location) {
+        return location != null && location.startsWith(LOCATION_PREFIX);
+    }
+
+    /**
+     * Location prefix shared by every entry of a segment
+     */
+    public static String segmentPrefix(long segment) {
+        return String.format("%s%08d:", LOCATION_PREFIX, segment);
+    }
+
+    /**
+     * Whether new blobs of this stored size go into a pack
+     */
+    public boolean accepts(long storedSize) {
+        return enabled && storedSize <= maxBlobSize.toBytes();
+    }
+
+    @Override
+    public String getName() {
+        return "pack";
+    }
+
+    @Override
+    public boolean handles(String location) {
+        return isPackLocation(location);
+    }
+
+    @Override
+    public String prepare(String hash, String encoding, Path stagedFile) throws IOException {
+        try (FileChannel source = FileChannel.open(stagedFile, StandardOpenOption.READ)) {
+            return append(hash, source, source.size());
+        }
+    }
+
+    @Override
+    public void place(String hash, String location, Path stagedFile) throws IOException {
+        // The bytes went into the segment in prepare; only the staging copy is left
+        Files.deleteIfExists(stagedFile);
+        log.info("Stored new blob {} in {}", hash, location);
+    }
+
+    @Override
+    public StoredRegion locate(String location) throws IOException {
+        Entry entry = parse(location);
+        pin(entry.segment);
+        try {
+            if (!isPresent(entry)) {
+                unpin(entry.segment);
+                return null;
+            }
+        } catch (IOException | RuntimeException e) {
+            unpin(entry.segment);
+            throw e;
+        }
+        return new StoredRegion(segmentPath(entry.segment), entry.offset, entry.length, () -> unpin(entry.segment));
+    }
+
+    @Override
+    public InputStream open(String location) throws IOException {
+        Entry entry = parse(location);
+        pin(entry.segment);
+        try {
+            MappedByteBuffer mapped = mapping(entry.segment, entry.offset + entry.length);
+            return new ByteBufferInputStream(mapped.slice((int) entry.offset, (int) entry.length),
+                    () -> unpin(entry.segment));
+        } catch (IOException | RuntimeException e) {
+            unpin(entry.segment);
+            throw e;
+        }
+    }
+
+    /**
+     * Whether the entry at a location is still there to be referenced again
+     */
+    public boolean contains(String location) throws IOException {
+        return handles(location) && isPresent(parse(location));
+    }
+
+    @Override
+    public void delete(String hash, String location) {
+        // Nothing to remove in place; the entry is dead space until its segment is compacted
+        log.debug("Blob {} in {} is no longer referenced", hash, location);
+    }
+
+    /**
+     * Copy an entry into the active segment, returning its new location
+     */
+    public String copy(String hash, String location) throws IOException {
+        Entry entry = parse(location);
+        MappedByteBuffer mapped = mapping(entry.segment, entry.offset + entry.length);
+        ByteBuffer bytes = mapped.slice((int) entry.offset, (int) entry.length);
+
+        synchronized (appendLock) {
+            FileChannel channel = channelFor(entry.length);
+            long entryStart = writePosition;
+            writeFully(channel, header(hash, entry.length), entryStart);
+            writeFully(channel, bytes, entryStart + HEADER_SIZE);
+            channel.force(false);
+            writePosition = entryStart + HEADER_SIZE + entry.length;
+            return location(activeSegment, entryStart + HEADER_SIZE, entry.length);
+        }
+    }
+
+    /**
+     * Existing segment numbers in ascending order
+     */
+    public List<Long> listSegments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        Path dir = Paths.get(packDir);
+        if (!Files.isDirectory(dir)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "segment-*.pack")) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.add(Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    /**
+     * The segment new entries are appended to; never compacted
+     */
+    public long getActiveSegment() {
+        synchronized (appendLock) {
+            return activeSegment;
+        }
+    }
+
+    public long getSegmentSize(long segment) throws IOException {
+        return Files.size(segmentPath(segment));
+    }
+
+    public Instant getSegmentModified(long segment) throws IOException {
+        return Files.getLastModifiedTime(segmentPath(segment)).toInstant();
+    }
+
+    /**
+     * Remove a segment whose live entries have all been copied elsewhere, or, while readers
+     * still have it open, as soon as the last of them is done
+     */
+    public void deleteSegment(long segment) throws IOException {
+        synchronized (appendLock) {
+            if (segment == activeSegment) {
+                throw new IllegalStateException("Cannot delete the active pack segment " + segment);
+            }
+        }
+        synchronized (readers) {
+            if (readers.containsKey(segment)) {
+                pendingDeletion.add(segment);
+                log.info("Pack segment {} is still being read, deleting it when done", segment);
+                return;
+            }
+            removeSegment(segment);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            if (activeChannel != null) {
+                activeChannel.close();
+                activeChannel = null;
+            }
+        }
+    }
+
+    private String append(String hash, FileChannel source, long length) throws IOException {
+        synchronized (appendLock) {
+            FileChannel channel = channelFor(length);
+            long entryStart = writePosition;
+            writeFully(channel, header(hash, length), entryStart);
+
+            long position = entryStart + HEADER_SIZE;
+            long copied = 0;
+            while (copied < length) {
+                long transferred = channel.transferFrom(source, position + copied, length - copied);
+                if (transferred <= 0) {
+                    throw new IOException("Staged file for blob " + hash + " ended early");
+                }
+                copied += transferred;
+            }
+
+            // The database will point at these bytes as soon as the upload commits
+            channel.force(false);
+            writePosition = position + length;
+            return location(activeSegment, position, length);
+        }
+    }
+
+    /**
+     * The active segment's channel, rolling over to a new segment when the entry would not fit
+     */
+    private FileChannel channelFor(long length) throws IOException {
+        if (activeChannel == null) {
+            Files.createDirectories(Paths.get(packDir));
+            List<Long> segments = listSegments();
+            openSegment(segments.isEmpty() ? 1 : segments.get(segments.size() - 1));
+        }
+        // Mappings are sliced with int offsets, so a segment never grows past 2 GB
+        long maxSegmentBytes = Math.min(segmentSize.toBytes(), Integer.MAX_VALUE);
+        if (writePosition > 0 && writePosition + HEADER_SIZE + length > maxSegmentBytes) {
+            activeChannel.close();
+            openSegment(activeSegment + 1);
+            log.info("Started pack segment {}", activeSegment);
+        }
+        return activeChannel;
+    }
+
+    private void pin(long segment) {
+        synchronized (readers) {
+            readers.merge(segment, 1, Integer::sum);
+        }
+    }
+
+    private void unpin(long segment) {
+        synchronized (readers) {
+            if (readers.merge(segment, -1, (count, delta) -> count + delta > 0 ? count + delta : null) != null
+                    || !pendingDeletion.remove(segment)) {
+                return;
+            }
+            try {
+                removeSegment(segment);
+            } catch (IOException e) {
+                log.warn("Warning: Failed to delete pack segment {}: {}", segment, e.getMessage());
+            }
+        }
+    }
+
+    private void removeSegment(long segment) throws IOException {
+        mappings.remove(segment);
+        if (Files.deleteIfExists(segmentPath(segment))) {
+            log.info("Deleted pack segment {}", segment);
+        }
+    }
+
+    private boolean isPresent(Entry entry) throws IOException {
+        Path segmentPath = segmentPath(entry.segment);
+        return Files.isReadable(segmentPath) && Files.size(segmentPath) >= entry.offset + entry.length;
+    }
+
+    private void openSegment(long segment) throws IOException {
+        activeChannel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeSegment = segment;
+        // A torn entry left by a crash stays behind as dead space; nothing points at it
+        writePosition = activeChannel.size();
+    }
+
+    private MappedByteBuffer mapping(long segment, long end) throws IOException {
+        MappedByteBuffer mapped = mappings.get(segment);
+        if (mapped == null || mapped.capacity() < end) {
+            // The active segment grows, so its mapping is refreshed when an entry lies past it
+            try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (mapped.capacity() < end) {
+                throw new IOException("Pack segment " + segment + " is shorter than expected");
+            }
+            mappings.put(segment, mapped);
+        }
+        return mapped;
+    }
+
+    private ByteBuffer header(String hash, long length) {
+        return ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(ENTRY_MAGIC)
+                .put(HexFormat.of().parseHex(hash))
+                .putLong(length)
+                .flip();
+    }
+
+    private void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return Paths.get(packDir).resolve(String.format("segment-%08d.pack", segment));
+    }
+
+    private static String location(long segment, long offset, long length) {
+        return segmentPrefix(segment) + offset + ":" + length;
+    }
+
+    private static Entry parse(String location) throws IOException {
+        Matcher matcher = LOCATION.matcher(location);
+        if (!matcher.matches()) {
+            throw new IOException("Not a pack location: " + location);
+        }
+        return new Entry(Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)),
+                Long.parseLong(matcher.group(3)));
+    }
+
+    private static final class Entry {
+        final long segment;
+        final long offset;
+        final long length;
+
+        Entry(long segment, long offset, long length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+        private Runnable onClose;
+
+        ByteBufferInputStream(ByteBuffer buffer, Runnable onClose) {
+            this.buffer = buffer;
+            this.onClose = onClose;
+        }
+
+        @Override
+        public void close() {
+            Runnable pending = onClose;
+            onClose = null;
+            if (pending != null) {
+                pending.run();
+            }
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return len == 0 ? 0 : -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.researchsync.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Maps stored file names to a hashed, multi-level directory layout such as
+ * uploads/ab/cd/abcd1234..., so no single directory grows past a few thousand entries.
+ *
+ * Content-addressed names are already uniformly distributed and are sharded by their own
+ * prefix; any other name (legacy UUID files) is sharded by the SHA-256 of the name.
+ */
+@Component
+public class StorageLayout {
+
+    // A content hash, optionally followed by an encoding suffix such as ".gz"
+    private static final Pattern CONTENT_HASH_NAME = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]+)?");
+
+    @Value("${app.upload.dir:./uploads/}")
+    private String uploadDir;
+
+    @Value("${app.upload.shard-levels:2}")
+    private int shardLevels;
+
+    /**
+     * Sharded location of a stored name
+     */
+    public Path resolve(String storedName) {
+        String shardKey = CONTENT_HASH_NAME.matcher(storedName).matches() ? storedName : sha256Hex(storedName);
+        Path path = getRoot();
+        for (int level = 0; level < shardLevels; level++) {
+            path = path.resolve(shardKey.substring(level * 2, level * 2 + 2));
+        }
+        return path.resolve(storedName);
+    }
+
+    /**
+     * Location a name had in the original flat layout
+     */
+    public Path resolveFlat(String storedName) {
+        return getRoot().resolve(storedName);
+    }
+
+    public Path getRoot() {
+        return Paths.get(uploadDir);
+    }
+
+    public int getShardLevels() {
+        return shardLevels;
+    }
+
+    /**
+     * Whether a path recorded in the database names a file found on disk, however either was
+     * written: relative or absolute, with ./ or .. segments, or through a symlinked root.
+     * When the file system cannot tell, they count as the same, so nothing live is collected.
+     */
+    public static boolean isSameFile(Path recorded, Path found) {
+        if (recorded.toAbsolutePath().normalize().equals(found.toAbsolutePath().normalize())) {
+            return true;
+        }
+        try {
+            return Files.exists(recorded) && Files.isSameFile(recorded, found);
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.researchsync.storage;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+
+/**
+ * Where a blob's stored bytes sit: a byte range of a plain file. A blob in its own file
+ * spans the whole file; a blob in a pack segment is a slice of the segment.
+ *
+ * A slice of a pack segment pins the segment, so compaction cannot delete it while the bytes
+ * are being read; close the region when done with it.
+ */
+public final class StoredRegion implements Closeable {
+
+    private final Path path;
+    private final long offset;
+    private final long length;
+    private Runnable release;
+
+    public StoredRegion(Path path, long offset, long length) {
+        this(path, offset, length, null);
+    }
+
+    public StoredRegion(Path path, long offset, long length, Runnable release) {
+        this.path = path;
+        this.offset = offset;
+        this.length = length;
+        this.release = release;
+    }
+
+    public Path getPath() { return path; }
+
+    public long getOffset() { return offset; }
+
+    public long getLength() { return length; }
+
+    /**
+     * Whether the file only stays put until this region is closed, so it must not be handed
+     * to anything that reads it later
+     */
+    public boolean isPinned() {
+        return release != null;
+    }
+
+    @Override
+    public void close() {
+        Runnable pending = release;
+        release = null;
+        if (pending != null) {
+            pending.run();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.researchsync.storage;
+
+import com.researchsync.exception.UploadRejectedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Size and type limits for uploads, per category.
+ *
+ * Limits are read from app.upload.limits.&lt;category&gt;.max-size and .allowed-types, where the
+ * category key is the category name lower-cased with non-alphanumerics turned into dashes
+ * ("Research Paper" becomes research-paper). Categories without their own limits fall back
+ * to app.upload.limits.default.*; app.upload.limits.blocked-types applies to every category.
+ * Types are matched against what ContentSniffer detects, and may end in a wildcard (image/*).
+ */
+@Component
+public class UploadPolicy {
+
+    private static final String PREFIX = "app.upload.limits.";
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private ContentSniffer contentSniffer;
+
+    /**
+     * Start checking one upload, refusing it at once if its declared size is over the limit
+     *
+     * @param declaredSize size announced by the client, or -1 when unknown
+     */
+    public Ingest begin(String category, String filename, long declaredSize) {
+        checkSize(category, declaredSize);
+        return new Ingest(this, contentSniffer, category, filename, maxSize(category));
+    }
+
+    public void checkSize(String category, long size) {
+        long maxSize = maxSize(category);
+        if (maxSize >= 0 && size > maxSize) {
+            throw new UploadRejectedException(UploadRejectedException.Reason.TOO_LARGE,
+                    "Files in category '" + category + "' are limited to " + DataSize.ofBytes(maxSize).toMegabytes() + " MB");
+        }
+    }
+
+    public void checkType(String category, String detectedType) {
+        if (matchesAny(detectedType, typeList(PREFIX + "blocked-types"))) {
+            throw new UploadRejectedException(UploadRejectedException.Reason.TYPE_NOT_ALLOWED,
+                    "Files of type " + detectedType + " cannot be uploaded");
+        }
+        List<String> allowed = typeList(limitKey(category, "allowed-types"));
+        if (!allowed.isEmpty() && !matchesAny(detectedType, allowed)) {
+            throw new UploadRejectedException(UploadRejectedException.Reason.TYPE_NOT_ALLOWED,
+                    "Files of type " + detectedType + " are not allowed in category '" + category + "'");
+        }
+    }
+
+    /**
+     * Largest upload accepted for a category, or -1 for no limit
+     */
+    public long maxSize(String category) {
+        String value = environment.getProperty(limitKey(category, "max-size"));
+        return value == null || value.isBlank() || value.trim().equals("-1") ? -1 : DataSize.parse(value.trim()).toBytes();
+    }
+
+    private String limitKey(String category, String limit) {
+        String key = PREFIX + categoryKey(category) + "." + limit;
+        return environment.containsProperty(key) ? key : PREFIX + "default." + limit;
+    }
+
+    private String categoryKey(String category) {
+        if (category == null || category.isBlank()) {
+            return "other";
+        }
+        return category.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "");
+    }
+
+    private List<String> typeList(String key) {
+        String value = environment.getProperty(key, "");
+        return Arrays.stream(value.split(","))
+                .map(type -> type.trim().toLowerCase(Locale.ROOT))
+                .filter(type -> !type.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private boolean matchesAny(String type, List<String> patterns) {
+        for (String pattern : patterns) {
+            if (pattern.equals("*/*") || pattern.equals(type)
+                    || (pattern.endsWith("/*") && type.startsWith(pattern.substring(0, pattern.length() - 1)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
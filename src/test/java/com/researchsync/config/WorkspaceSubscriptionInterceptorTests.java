@@ -0,0 +1,97 @@
+package com.researchsync.config;
+
+import com.researchsync.model.User;
+import com.researchsync.service.UserService;
+import com.researchsync.service.WorkspaceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Principal;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WorkspaceSubscriptionInterceptorTests {
+
+    private WorkspaceSubscriptionInterceptor interceptor;
+    private WorkspaceService workspaceService;
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final User member = new User();
+
+    @BeforeEach
+    void setUp() {
+        UserService userService = mock(UserService.class);
+        workspaceService = mock(WorkspaceService.class);
+        when(userService.findByEmail("member@example.com")).thenReturn(member);
+        when(workspaceService.canUserAccessWorkspace(member, 7L)).thenReturn(true);
+        interceptor = new WorkspaceSubscriptionInterceptor();
+        ReflectionTestUtils.setField(interceptor, "userService", userService);
+        ReflectionTestUtils.setField(interceptor, "workspaceService", workspaceService);
+    }
+
+    @Test
+    void memberMaySubscribeToTheirWorkspace() {
+        Message<byte[]> message = subscribe("/topic/workspace/7/tasks");
+        assertSame(message, interceptor.preSend(message, channel));
+    }
+
+    @Test
+    void otherWorkspacesAreRefused() {
+        assertThrows(MessageDeliveryException.class,
+                () -> interceptor.preSend(subscribe("/topic/workspace/8/tasks"), channel));
+    }
+
+    @Test
+    void wildcardSubscriptionsAreRefused() {
+        for (String destination : new String[]{"/topic/workspace/*/tasks", "/topic/**", "/topic/workspace/7?/tasks",
+                "/topic/workspace/{id}/tasks", "/queue/*"}) {
+            assertThrows(MessageDeliveryException.class,
+                    () -> interceptor.preSend(subscribe(destination), channel), destination);
+        }
+        verify(workspaceService, never()).canUserAccessWorkspace(any(), anyLong());
+    }
+
+    @Test
+    void unknownTopicsAreRefused() {
+        for (String destination : new String[]{"/topic/workspace/7/files", "/topic/workspace/7", "/topic/chat"}) {
+            assertThrows(MessageDeliveryException.class,
+                    () -> interceptor.preSend(subscribe(destination), channel), destination);
+        }
+    }
+
+    @Test
+    void clientsMayNotPublishToTheBroker() {
+        for (String destination : new String[]{"/topic/workspace/7/tasks", "/queue/errors", "/user/member@example.com/queue/errors"}) {
+            assertThrows(MessageDeliveryException.class,
+                    () -> interceptor.preSend(frame(StompCommand.SEND, destination), channel), destination);
+        }
+        Message<byte[]> message = frame(StompCommand.SEND, "/app/board");
+        assertSame(message, interceptor.preSend(message, channel));
+    }
+
+    private Message<byte[]> subscribe(String destination) {
+        return frame(StompCommand.SUBSCRIBE, destination);
+    }
+
+    private Message<byte[]> frame(StompCommand command, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        Principal principal = () -> "member@example.com";
+        accessor.setUser(principal);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,34 @@
+package com.researchsync.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CursorPageTests {
+
+    @Test
+    void cursorRoundTrips() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 3, 5, 14, 7, 9, 123_000_000);
+        CursorPage.Position position = CursorPage.decodeCursor(CursorPage.encodeCursor(timestamp, 42L));
+        assertEquals(timestamp, position.getTimestamp());
+        assertEquals(42L, position.getId());
+    }
+
+    @Test
+    void missingCursorStartsTheListing() {
+        CursorPage.Position position = CursorPage.decodeCursor(" ");
+        assertTrue(position.getTimestamp().isAfter(LocalDateTime.now().plusYears(1000)));
+        assertEquals(Long.MAX_VALUE, position.getId());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        for (String cursor : new String[] {"not base64!", "bm8tc2VwYXJhdG9y", "eHx5"}) {
+            assertThrows(RuntimeException.class, () -> CursorPage.decodeCursor(cursor), cursor);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.researchsync.service;
+
+import com.researchsync.exception.TooManyTransfersException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BandwidthSchedulerTests {
+
+    private static final long CAPACITY = 64 * 1024;
+
+    @Test
+    void tokensAreTakenFromAllBucketsOrNone() {
+        BandwidthScheduler.TokenBucket user = new BandwidthScheduler.TokenBucket(1000, CAPACITY);
+        BandwidthScheduler.TokenBucket global = new BandwidthScheduler.TokenBucket(1000, CAPACITY);
+        assertEquals(0, BandwidthScheduler.TokenBucket.take(new BandwidthScheduler.TokenBucket[]{global}, CAPACITY));
+
+        // The global bucket is empty, so the user's must keep its tokens for now
+        long wait = BandwidthScheduler.TokenBucket.take(new BandwidthScheduler.TokenBucket[]{user, global}, 1000);
+        assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(900) && wait <= TimeUnit.SECONDS.toNanos(1), "wait " + wait);
+        assertEquals(0, BandwidthScheduler.TokenBucket.take(new BandwidthScheduler.TokenBucket[]{user}, CAPACITY));
+    }
+
+    @Test
+    void transfersPerUserAreCapped() {
+        BandwidthScheduler scheduler = scheduler(true, 2);
+        BandwidthScheduler.Transfer first = scheduler.begin(1L, 10L, "download");
+        BandwidthScheduler.Transfer second = scheduler.begin(1L, 10L, "upload");
+        assertThrows(TooManyTransfersException.class, () -> scheduler.begin(1L, 10L, "download"));
+        // Other users are unaffected
+        scheduler.begin(2L, 10L, "download").close();
+
+        second.close();
+        second.close();
+        BandwidthScheduler.Transfer third = scheduler.begin(1L, 10L, "download");
+        assertThrows(TooManyTransfersException.class, () -> scheduler.begin(1L, 10L, "download"));
+        first.close();
+        third.close();
+        scheduler.begin(1L, 10L, "download").close();
+    }
+
+    @Test
+    void nothingIsCappedWhileDisabled() {
+        BandwidthScheduler scheduler = scheduler(false, 1);
+        scheduler.begin(1L, 10L, "download");
+        scheduler.begin(1L, 10L, "download");
+    }
+
+    @Test
+    void throttledStreamPassesEveryByteThrough() throws Exception {
+        BandwidthScheduler scheduler = scheduler(true, 0);
+        ReflectionTestUtils.setField(scheduler, "perUserLimit", DataSize.ofMegabytes(64));
+        byte[] content = new byte[200_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (BandwidthScheduler.Transfer transfer = scheduler.begin(1L, 10L, "download")) {
+            OutputStream out = transfer.wrap(sink);
+            out.write(content);
+        }
+        assertEquals(content.length, sink.size());
+    }
+
+    private BandwidthScheduler scheduler(boolean enabled, int maxTransfersPerUser) {
+        BandwidthScheduler scheduler = new BandwidthScheduler();
+        ReflectionTestUtils.setField(scheduler, "enabled", enabled);
+        ReflectionTestUtils.setField(scheduler, "globalLimit", DataSize.ofBytes(0));
+        ReflectionTestUtils.setField(scheduler, "perUserLimit", DataSize.ofBytes(0));
+        ReflectionTestUtils.setField(scheduler, "perWorkspaceLimit", DataSize.ofBytes(0));
+        ReflectionTestUtils.setField(scheduler, "burstSeconds", 1.0);
+        ReflectionTestUtils.setField(scheduler, "maxTransfersPerUser", maxTransfersPerUser);
+        ReflectionTestUtils.setField(scheduler, "meterRegistry", new SimpleMeterRegistry());
+        scheduler.init();
+        return scheduler;
+    }
+}
@@ -0,0 +1,154 @@
+package com.researchsync.service;
+
+import com.researchsync.model.UploadedFile;
+import com.researchsync.storage.HotFileCache;
+import com.researchsync.storage.StoredRegion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileDownloadServiceTests {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    @TempDir
+    Path dir;
+
+    private FileDownloadService service;
+    private UploadedFile file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path stored = Files.writeString(dir.resolve("stored"), CONTENT, StandardCharsets.UTF_8);
+
+        FileService fileService = mock(FileService.class);
+        when(fileService.locateContent(any())).thenAnswer(invocation -> new StoredRegion(stored, 0, CONTENT.length()));
+        service = new FileDownloadService();
+        ReflectionTestUtils.setField(service, "fileService", fileService);
+        ReflectionTestUtils.setField(service, "hotFileCache", mock(HotFileCache.class));
+
+        file = new UploadedFile();
+        file.setFileId(7L);
+        file.setOriginalFilename("data.txt");
+        file.setContentType("text/plain");
+        file.setFilePath(stored.toString());
+        file.setUploadedDate(LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+
+    @Test
+    void noRangeSendsWholeFile() throws Exception {
+        MockHttpServletResponse response = serve(null);
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+    }
+
+    @Test
+    void closedRangeSendsThoseBytes() throws Exception {
+        MockHttpServletResponse response = serve("bytes=2-5");
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", response.getContentAsString());
+        assertEquals("bytes 2-5/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void openRangeRunsToTheEnd() throws Exception {
+        MockHttpServletResponse response = serve("bytes=15-");
+        assertEquals(206, response.getStatus());
+        assertEquals("fghij", response.getContentAsString());
+    }
+
+    @Test
+    void suffixRangeSendsTheLastBytes() throws Exception {
+        MockHttpServletResponse response = serve("bytes=-3");
+        assertEquals("hij", response.getContentAsString());
+        assertEquals("bytes 17-19/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void endPastTheFileIsClamped() throws Exception {
+        MockHttpServletResponse response = serve("bytes=18-100");
+        assertEquals(206, response.getStatus());
+        assertEquals("ij", response.getContentAsString());
+    }
+
+    @Test
+    void startPastTheFileIsUnsatisfiable() throws Exception {
+        for (String range : new String[] {"bytes=20-", "bytes=25-30"}) {
+            MockHttpServletResponse response = serve(range);
+            assertEquals(416, response.getStatus(), range);
+            assertEquals("bytes */20", response.getHeader(HttpHeaders.CONTENT_RANGE), range);
+        }
+    }
+
+    @Test
+    void malformedAndMultiRangesSendWholeFile() throws Exception {
+        for (String range : new String[] {"bytes=abc-", "bytes=5-2", "items=0-1", "bytes=0-1,4-5"}) {
+            MockHttpServletResponse response = serve(range);
+            assertEquals(200, response.getStatus(), range);
+            assertEquals(CONTENT, response.getContentAsString(), range);
+            assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE), range);
+        }
+    }
+
+    @Test
+    void staleIfRangeSendsWholeFile() throws Exception {
+        MockHttpServletRequest request = request("bytes=0-1");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"some-other-version\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.serve(file, request, response);
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    void currentIfRangeHonoursRange() throws Exception {
+        String etag = serve(null).getHeader(HttpHeaders.ETAG);
+        MockHttpServletRequest request = request("bytes=0-1");
+        request.addHeader(HttpHeaders.IF_RANGE, etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.serve(file, request, response);
+        assertEquals(206, response.getStatus());
+        assertEquals("01", response.getContentAsString());
+    }
+
+    @Test
+    void matchingETagIsNotModified() throws Exception {
+        String etag = serve(null).getHeader(HttpHeaders.ETAG);
+        MockHttpServletRequest request = request(null);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.serve(file, request, response);
+        assertEquals(304, response.getStatus());
+        assertEquals("", response.getContentAsString());
+    }
+
+    private MockHttpServletResponse serve(String range) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.serve(file, request(range), response);
+        return response;
+    }
+
+    private MockHttpServletRequest request(String range) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/files/download/7");
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,113 @@
+package com.researchsync.service;
+
+import com.researchsync.model.FileBlob;
+import com.researchsync.model.UploadedFile;
+import com.researchsync.model.User;
+import com.researchsync.model.Workspace;
+import com.researchsync.repository.UploadedFileRepository;
+import com.researchsync.storage.StorageLayout;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileServiceTests {
+
+    private static final String CONTENT = "shared content";
+    private static final String HASH = "5f0b";
+
+    @TempDir
+    Path dir;
+
+    private FileService service;
+    private Path stored;
+    private AtomicInteger refCount;
+    private User owner;
+    private UploadedFile first;
+    private UploadedFile second;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stored = Files.writeString(dir.resolve(HASH), CONTENT, StandardCharsets.UTF_8);
+
+        // Two files point at the same blob; the last release removes it from disk
+        refCount = new AtomicInteger(2);
+        BlobStorageService blobStorageService = mock(BlobStorageService.class);
+        when(blobStorageService.isFileLocation(anyString())).thenReturn(true);
+        doAnswer(invocation -> {
+            if (refCount.decrementAndGet() <= 0) {
+                Files.deleteIfExists(stored);
+            }
+            return null;
+        }).when(blobStorageService).release(HASH);
+
+        StorageLayout storageLayout = mock(StorageLayout.class);
+        when(storageLayout.resolve(anyString())).thenReturn(dir.resolve("missing"));
+
+        owner = new User();
+        owner.setUserId(1L);
+        Workspace workspace = new Workspace();
+        workspace.setWorkspaceId(3L);
+        FileBlob blob = new FileBlob();
+        blob.setContentHash(HASH);
+        first = newFile(10L, owner, workspace, blob);
+        second = newFile(11L, owner, workspace, blob);
+
+        UploadedFileRepository uploadedFileRepository = mock(UploadedFileRepository.class);
+        when(uploadedFileRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(first));
+        when(uploadedFileRepository.findById(11L)).thenReturn(Optional.of(second));
+        when(uploadedFileRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service = new FileService();
+        ReflectionTestUtils.setField(service, "uploadedFileRepository", uploadedFileRepository);
+        ReflectionTestUtils.setField(service, "blobStorageService", blobStorageService);
+        ReflectionTestUtils.setField(service, "storageLayout", storageLayout);
+        ReflectionTestUtils.setField(service, "workspaceService", mock(WorkspaceService.class));
+        ReflectionTestUtils.setField(service, "workspaceStorageService", mock(WorkspaceStorageService.class));
+        ReflectionTestUtils.setField(service, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(service, "fileVersionService", mock(FileVersionService.class));
+    }
+
+    @Test
+    void deletingTwiceReleasesTheSharedBlobOnce() throws Exception {
+        service.deleteFile(10L, owner);
+        service.deleteFile(10L, owner);
+
+        assertFalse(first.isActive());
+        assertEquals(1, refCount.get());
+        Resource resource = service.downloadFile(11L);
+        try (InputStream in = resource.getInputStream()) {
+            assertEquals(CONTENT, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private UploadedFile newFile(Long fileId, User uploader, Workspace workspace, FileBlob blob) {
+        UploadedFile file = new UploadedFile();
+        file.setFileId(fileId);
+        file.setUploadedBy(uploader);
+        file.setWorkspace(workspace);
+        file.setBlob(blob);
+        file.setFilePath(stored.toString());
+        file.setFileSize((long) CONTENT.length());
+        file.setOriginalFilename("notes.txt");
+        file.setActive(true);
+        return file;
+    }
+}
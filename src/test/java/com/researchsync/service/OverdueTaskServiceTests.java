@@ -0,0 +1,61 @@
+package com.researchsync.service;
+
+import com.researchsync.event.TaskEvent;
+import com.researchsync.model.Task;
+import com.researchsync.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OverdueTaskServiceTests {
+
+    private static final Long WORKSPACE = 3L;
+
+    private OverdueTaskService service;
+    private TaskRepository taskRepository;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        service = new OverdueTaskService();
+        ReflectionTestUtils.setField(service, "taskRepository", taskRepository);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "idleTimeout", Duration.ofHours(2));
+    }
+
+    @Test
+    void warmUpKeepsWhatAnEventScheduledDuringTheQuery() {
+        LocalDateTime due = LocalDateTime.now().plusDays(1);
+        Task completed = new Task();
+        completed.setTaskId(5L);
+        completed.setDueDate(due);
+        completed.setStatus(Task.TaskStatus.COMPLETED);
+        when(taskRepository.findAllById(anyCollection())).thenReturn(List.of(completed));
+
+        // Task 5 is completed while its workspace's deadlines are read, so the query still has it open
+        when(taskRepository.findUpcomingDueDates(eq(WORKSPACE), any())).thenAnswer(invocation -> {
+            service.onTaskEvent(new TaskEvent(5L, WORKSPACE, TaskEvent.Type.UPDATED));
+            return List.of(new Object[]{5L, due}, new Object[]{6L, due});
+        });
+
+        service.touch(WORKSPACE);
+
+        Map<?, ?> workspaceByTask = (Map<?, ?>) ReflectionTestUtils.getField(service, "workspaceByTask");
+        assertFalse(workspaceByTask.containsKey(5L));
+        assertEquals(WORKSPACE, workspaceByTask.get(6L));
+        assertFalse(((Map<?, ?>) ReflectionTestUtils.getField(service, "changedWhileLoading")).containsKey(WORKSPACE));
+    }
+}
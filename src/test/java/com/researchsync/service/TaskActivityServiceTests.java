@@ -0,0 +1,135 @@
+package com.researchsync.service;
+
+import com.researchsync.model.Task;
+import com.researchsync.model.TaskActivity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaskActivityServiceTests {
+
+    private TaskActivityService service;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new TaskActivityService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(service);
+    }
+
+    @Test
+    void entriesAreWrittenTogetherBeforeTheTransactionCommits() {
+        service.record(null, entry(1L, Task.TaskStatus.PENDING), null);
+        service.record(entry(2L, Task.TaskStatus.PENDING), entry(2L, Task.TaskStatus.COMPLETED), null);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+
+        commit();
+
+        List<TaskActivity> written = written(1).get(0);
+        assertEquals(2, written.size());
+        assertEquals(TaskActivity.Action.CREATED, written.get(0).getAction());
+        assertEquals("STATUS", written.get(1).getChanges());
+    }
+
+    @Test
+    void rolledBackChangesLeaveNoEntries() {
+        service.record(null, entry(1L, Task.TaskStatus.PENDING), null);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+    }
+
+    @Test
+    void failedWriteFailsTheCommit() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenThrow(new IllegalStateException("connection lost"));
+        service.record(null, entry(1L, Task.TaskStatus.PENDING), null);
+        assertThrows(RuntimeException.class,
+                () -> TransactionSynchronizationUtils.triggerBeforeCommit(false));
+    }
+
+    @Test
+    void timesFollowWriteOrder() {
+        List<TaskActivity> first = List.of(entry(1L, Task.TaskStatus.PENDING), entry(2L, Task.TaskStatus.PENDING));
+        List<TaskActivity> second = List.of(entry(3L, Task.TaskStatus.PENDING));
+        ReflectionTestUtils.setField(service, "lastStamp", LocalDateTime.now().plusMinutes(5));
+
+        service.write(first);
+        service.write(second);
+
+        // A clock behind the last stamp does not put later entries before earlier ones
+        assertEquals(first.get(0).getOccurredAt(), first.get(1).getOccurredAt());
+        assertFalse(second.get(0).getOccurredAt().isBefore(first.get(1).getOccurredAt()));
+        assertTrue(first.get(0).getOccurredAt().isAfter(LocalDateTime.now()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<TaskActivity>> written(int batches) {
+        ArgumentCaptor<Collection<TaskActivity>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(batches)).batchUpdate(anyString(), captor.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        List<List<TaskActivity>> result = new ArrayList<>();
+        for (Collection<TaskActivity> batch : captor.getAllValues()) {
+            result.add(new ArrayList<>(batch));
+        }
+        return result;
+    }
+
+    private void commit() {
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+        assertEquals(null, TransactionSynchronizationManager.getResource(service));
+    }
+
+    private TaskActivity entry(Long taskId, Task.TaskStatus status) {
+        TaskActivity entry = new TaskActivity();
+        entry.setTaskId(taskId);
+        entry.setWorkspaceId(10L);
+        entry.setTitle("Task " + taskId);
+        entry.setStatus(status);
+        entry.setPriority(Task.TaskPriority.MEDIUM);
+        return entry;
+    }
+}
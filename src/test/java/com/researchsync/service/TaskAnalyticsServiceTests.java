@@ -0,0 +1,219 @@
+package com.researchsync.service;
+
+import com.researchsync.dto.DailyTaskStats;
+import com.researchsync.event.TaskBatchEvent;
+import com.researchsync.event.TaskEvent;
+import com.researchsync.model.Task;
+import com.researchsync.model.TaskActivity;
+import com.researchsync.model.TaskDailyRollup;
+import com.researchsync.model.User;
+import com.researchsync.repository.TaskDailyRollupRepository;
+import com.researchsync.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TaskAnalyticsServiceTests {
+
+    private static final Long WORKSPACE = 10L;
+    private static final Long ALICE = 1L;
+    private static final Long BOB = 2L;
+
+    private TaskAnalyticsService service;
+    private final Map<List<Object>, TaskDailyRollup> rollups = new HashMap<>();
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        TaskDailyRollupRepository rollupRepository = mock(TaskDailyRollupRepository.class);
+        doAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            TaskDailyRollup rollup = rollups.computeIfAbsent(List.of(args[0], args[1], args[2], args[3]), key -> {
+                TaskDailyRollup created = new TaskDailyRollup();
+                created.setScope(TaskDailyRollup.Scope.valueOf((String) args[0]));
+                created.setScopeId((Long) args[1]);
+                created.setStatDate((LocalDate) args[2]);
+                created.setPriority(Task.TaskPriority.valueOf((String) args[3]));
+                return created;
+            });
+            rollup.setCreated(rollup.getCreated() + (long) args[4]);
+            rollup.setCompleted(rollup.getCompleted() + (long) args[5]);
+            rollup.setClosed(rollup.getClosed() + (long) args[6]);
+            rollup.setReopened(rollup.getReopened() + (long) args[7]);
+            rollup.setMovedIn(rollup.getMovedIn() + (long) args[8]);
+            rollup.setMovedOut(rollup.getMovedOut() + (long) args[9]);
+            rollup.setOverdue(rollup.getOverdue() + (long) args[10]);
+            rollup.setCycleMinutes(rollup.getCycleMinutes() + (long) args[11]);
+            return 1;
+        }).when(rollupRepository).addCounts(anyString(), anyLong(), any(), anyString(), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong(), anyLong(), anyLong(), anyLong());
+        when(rollupRepository.findRange(any(), any(), any(), any())).thenAnswer(invocation -> rollups.values().stream()
+                .filter(rollup -> rollup.getScope() == invocation.getArgument(0) && rollup.getScopeId().equals(invocation.getArgument(1)))
+                .collect(Collectors.toList()));
+        when(rollupRepository.sumOpenBefore(any(), any(), any())).thenReturn(0L);
+
+        TaskRepository taskRepository = mock(TaskRepository.class);
+        Task task = new Task();
+        task.setTaskId(1L);
+        task.setCreatedDate(LocalDateTime.now().minusHours(2));
+        when(taskRepository.findWithWorkspaceByTaskIdIn(anyCollection())).thenReturn(List.of(task));
+
+        WorkspaceService workspaceService = mock(WorkspaceService.class);
+        when(workspaceService.canUserAccessWorkspace(any(), eq(WORKSPACE))).thenReturn(true);
+
+        service = new TaskAnalyticsService();
+        ReflectionTestUtils.setField(service, "taskDailyRollupRepository", rollupRepository);
+        ReflectionTestUtils.setField(service, "taskRepository", taskRepository);
+        ReflectionTestUtils.setField(service, "workspaceService", workspaceService);
+        ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void reassignedTaskIsOpenOnlyForItsCurrentAssignee() {
+        TaskActivity created = state(Task.TaskStatus.PENDING, ALICE, Task.TaskPriority.HIGH);
+        TaskActivity reassigned = state(Task.TaskStatus.PENDING, BOB, Task.TaskPriority.HIGH);
+        service.onTaskEvent(event(null, created));
+        service.onTaskEvent(event(created, reassigned));
+
+        assertEquals(0, user(ALICE).getOpen());
+        assertEquals(1, user(BOB).getOpen());
+        assertEquals(1, workspace().getOpen());
+
+        service.onTaskEvent(event(reassigned, state(Task.TaskStatus.COMPLETED, BOB, Task.TaskPriority.HIGH)));
+        assertEquals(0, user(ALICE).getOpen());
+        assertEquals(0, user(BOB).getOpen());
+        assertEquals(1, user(BOB).getCompleted());
+        assertEquals(0, workspace().getOpen());
+        assertEquals(120, workspace().getCycleMinutes(), 1);
+    }
+
+    @Test
+    void priorityChangeMovesTheTaskBetweenRows() {
+        TaskActivity created = state(Task.TaskStatus.PENDING, ALICE, Task.TaskPriority.HIGH);
+        service.onTaskBatch(new TaskBatchEvent(List.of(event(null, created),
+                event(created, state(Task.TaskStatus.IN_PROGRESS, ALICE, Task.TaskPriority.LOW)))));
+
+        TaskDailyRollup high = rollups.get(List.of("WORKSPACE", WORKSPACE, today, "HIGH"));
+        TaskDailyRollup low = rollups.get(List.of("WORKSPACE", WORKSPACE, today, "LOW"));
+        assertEquals(0, high.getCreated() - high.getClosed() - high.getMovedOut() + high.getMovedIn());
+        assertEquals(1, low.getCreated() - low.getClosed() - low.getMovedOut() + low.getMovedIn());
+        assertEquals(1, workspace().getOpen());
+        assertEquals(1, user(ALICE).getOpen());
+    }
+
+    @Test
+    void cancellingACompletedTaskIsNotAReopening() {
+        TaskActivity created = state(Task.TaskStatus.PENDING, ALICE, Task.TaskPriority.MEDIUM);
+        TaskActivity completed = state(Task.TaskStatus.COMPLETED, ALICE, Task.TaskPriority.MEDIUM);
+        service.onTaskEvent(event(null, created));
+        service.onTaskEvent(event(created, completed));
+        service.onTaskEvent(event(completed, state(Task.TaskStatus.CANCELLED, ALICE, Task.TaskPriority.MEDIUM)));
+
+        DailyTaskStats day = workspace();
+        assertEquals(0, day.getReopened());
+        assertEquals(1, day.getClosed());
+        assertEquals(0, day.getOpen());
+    }
+
+    @Test
+    void reopeningACompletedTaskCountsOnce() {
+        TaskActivity created = state(Task.TaskStatus.PENDING, ALICE, Task.TaskPriority.MEDIUM);
+        TaskActivity completed = state(Task.TaskStatus.COMPLETED, ALICE, Task.TaskPriority.MEDIUM);
+        service.onTaskEvent(event(null, created));
+        service.onTaskEvent(event(created, completed));
+        service.onTaskEvent(event(completed, state(Task.TaskStatus.IN_PROGRESS, ALICE, Task.TaskPriority.MEDIUM)));
+
+        DailyTaskStats day = workspace();
+        assertEquals(1, day.getReopened());
+        assertEquals(1, day.getOpen());
+        assertEquals(0, service.toWeekly(List.of(day)).get(0).getNetCompleted());
+    }
+
+    @Test
+    void cancelledTaskBroughtBackIsOpenAgainWithoutAReopening() {
+        TaskActivity created = state(Task.TaskStatus.PENDING, ALICE, Task.TaskPriority.MEDIUM);
+        TaskActivity cancelled = state(Task.TaskStatus.CANCELLED, ALICE, Task.TaskPriority.MEDIUM);
+        service.onTaskEvent(event(null, created));
+        service.onTaskEvent(event(created, cancelled));
+        assertEquals(0, workspace().getOpen());
+
+        service.onTaskEvent(event(cancelled, state(Task.TaskStatus.PENDING, ALICE, Task.TaskPriority.MEDIUM)));
+        assertEquals(1, workspace().getOpen());
+        assertEquals(0, workspace().getReopened());
+        assertEquals(0, workspace().getCompleted());
+    }
+
+    @Test
+    void deletingAnOpenTaskClosesIt() {
+        TaskActivity created = state(Task.TaskStatus.PENDING, ALICE, Task.TaskPriority.MEDIUM);
+        TaskActivity cancelled = state(Task.TaskStatus.CANCELLED, ALICE, Task.TaskPriority.MEDIUM);
+        service.onTaskEvent(event(null, created));
+        service.onTaskEvent(new TaskEvent(2L, WORKSPACE, TaskEvent.Type.CREATED, null, created));
+        service.onTaskEvent(new TaskEvent(1L, WORKSPACE, TaskEvent.Type.DELETED, created, null));
+        // Deleting one already closed changes nothing more
+        service.onTaskEvent(new TaskEvent(2L, WORKSPACE, TaskEvent.Type.UPDATED, created, cancelled));
+        service.onTaskEvent(new TaskEvent(2L, WORKSPACE, TaskEvent.Type.DELETED, cancelled, null));
+
+        assertEquals(2, workspace().getClosed());
+        assertEquals(0, workspace().getOpen());
+        assertEquals(0, user(ALICE).getOpen());
+    }
+
+    @Test
+    void unassignedTaskCountsOnlyForTheWorkspaceUntilAssigned() {
+        TaskActivity created = state(Task.TaskStatus.PENDING, null, Task.TaskPriority.MEDIUM);
+        service.onTaskEvent(event(null, created));
+        assertEquals(1, workspace().getOpen());
+        assertEquals(0, user(ALICE).getOpen());
+
+        service.onTaskEvent(event(created, state(Task.TaskStatus.PENDING, ALICE, Task.TaskPriority.MEDIUM)));
+        assertEquals(1, workspace().getOpen());
+        assertEquals(1, user(ALICE).getOpen());
+        assertEquals(0, workspace().getMovedIn());
+    }
+
+    private DailyTaskStats workspace() {
+        List<DailyTaskStats> days = service.getWorkspaceDaily(WORKSPACE, today, today, new User());
+        return days.get(0);
+    }
+
+    private DailyTaskStats user(Long userId) {
+        User user = new User();
+        user.setUserId(userId);
+        return service.getUserDaily(user, today, today).get(0);
+    }
+
+    private static TaskEvent event(TaskActivity before, TaskActivity after) {
+        return new TaskEvent(1L, WORKSPACE, before == null ? TaskEvent.Type.CREATED : TaskEvent.Type.UPDATED, before, after);
+    }
+
+    private static TaskActivity state(Task.TaskStatus status, Long assigneeId, Task.TaskPriority priority) {
+        TaskActivity state = new TaskActivity();
+        state.setTaskId(1L);
+        state.setWorkspaceId(WORKSPACE);
+        state.setTitle("Task 1");
+        state.setStatus(status);
+        state.setPriority(priority);
+        state.setAssigneeId(assigneeId);
+        return state;
+    }
+}
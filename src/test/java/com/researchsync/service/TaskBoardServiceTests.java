@@ -0,0 +1,85 @@
+package com.researchsync.service;
+
+import com.researchsync.dto.TaskBoardDelta;
+import com.researchsync.event.TaskBatchEvent;
+import com.researchsync.event.TaskEvent;
+import com.researchsync.model.Task;
+import com.researchsync.model.Workspace;
+import com.researchsync.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaskBoardServiceTests {
+
+    private TaskBoardService service;
+    private TaskRepository taskRepository;
+    private SimpMessagingTemplate messagingTemplate;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        service = new TaskBoardService();
+        ReflectionTestUtils.setField(service, "taskRepository", taskRepository);
+        ReflectionTestUtils.setField(service, "messagingTemplate", messagingTemplate);
+        ReflectionTestUtils.setField(service, "replaySize", 200);
+    }
+
+    @Test
+    void batchIsReadInOneQueryAndSentAsOneDeltaPerTask() {
+        when(taskRepository.findWithWorkspaceByTaskIdIn(anyCollection()))
+                .thenReturn(List.of(task(1L, 10L), task(2L, 10L)));
+
+        service.onTaskBatch(new TaskBatchEvent(List.of(
+                new TaskEvent(1L, 10L, TaskEvent.Type.CREATED),
+                new TaskEvent(2L, 10L, TaskEvent.Type.UPDATED),
+                new TaskEvent(3L, 10L, TaskEvent.Type.DELETED))));
+
+        verify(taskRepository, times(1)).findWithWorkspaceByTaskIdIn(anyCollection());
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(3)).convertAndSend(eq(TaskBoardService.destination(10L)), sent.capture());
+
+        List<Object> deltas = sent.getAllValues();
+        for (int i = 0; i < 3; i++) {
+            TaskBoardDelta delta = (TaskBoardDelta) deltas.get(i);
+            assertEquals(i + 1, delta.getSeq());
+            assertEquals((long) (i + 1), delta.getTaskId());
+        }
+        assertEquals(TaskBoardDelta.Type.CREATED, ((TaskBoardDelta) deltas.get(0)).getType());
+        assertEquals(TaskBoardDelta.Type.DELETED, ((TaskBoardDelta) deltas.get(2)).getType());
+        assertEquals(3, service.currentSequence(10L));
+    }
+
+    @Test
+    void deletionsAloneNeedNoQuery() {
+        service.onTaskBatch(new TaskBatchEvent(List.of(new TaskEvent(3L, 10L, TaskEvent.Type.DELETED))));
+        verify(taskRepository, times(0)).findWithWorkspaceByTaskIdIn(anyCollection());
+        verify(messagingTemplate).convertAndSend(eq(TaskBoardService.destination(10L)), any(Object.class));
+    }
+
+    private Task task(Long taskId, Long workspaceId) {
+        Workspace workspace = new Workspace();
+        workspace.setWorkspaceId(workspaceId);
+        Task task = new Task();
+        task.setTaskId(taskId);
+        task.setWorkspace(workspace);
+        task.setTitle("Task " + taskId);
+        task.setStatus(Task.TaskStatus.PENDING);
+        task.setPriority(Task.TaskPriority.MEDIUM);
+        return task;
+    }
+}
@@ -0,0 +1,215 @@
+package com.researchsync.service;
+
+import com.researchsync.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskGraphTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Test
+    void edgeClosingACycleIsRejected() {
+        TaskGraph graph = graph(1, 2, 3);
+        assertTrue(graph.addEdge(1L, 2L));
+        assertTrue(graph.addEdge(2L, 3L));
+
+        assertFalse(graph.addEdge(3L, 1L));
+        assertFalse(graph.addEdge(2L, 1L));
+        assertFalse(graph.addEdge(1L, 1L));
+        // Nothing of the rejected edges was kept
+        assertTrue(graph.get(1L).blockers.isEmpty());
+        assertEquals(List.of(1L), ids(graph.openBlockersOf(2L)));
+    }
+
+    @Test
+    void edgeAgainstTheCurrentOrderMovesTasks() {
+        TaskGraph graph = graph(1, 2, 3, 4);
+        assertTrue(graph.addEdge(3L, 4L));
+        // 4 comes after 1 and 2, so making it their blocker needs a reorder
+        assertTrue(graph.addEdge(4L, 1L));
+        assertTrue(graph.addEdge(1L, 2L));
+        assertOrdered(graph, List.of(3L, 4L, 1L, 2L));
+
+        assertEquals(List.of(3L, 4L, 1L, 2L), ids(graph.criticalPath()));
+        assertEquals(4, graph.get(2L).depth);
+        assertFalse(graph.addEdge(2L, 3L));
+    }
+
+    @Test
+    void finishedBlockersDropOutOfTheChain() {
+        TaskGraph graph = graph(1, 2, 3);
+        graph.addEdge(1L, 2L);
+        graph.addEdge(2L, 3L);
+        graph.putTask(3L, "Task 3", Task.TaskStatus.PENDING, BASE.plusDays(1));
+        graph.putTask(1L, "Task 1", Task.TaskStatus.PENDING, BASE.plusDays(5));
+        assertTrue(graph.get(3L).isAtRisk());
+        assertEquals(BASE.plusDays(5), graph.get(3L).projectedFinish);
+
+        graph.putTask(1L, "Task 1", Task.TaskStatus.COMPLETED, BASE.plusDays(5));
+        assertEquals(2, graph.get(3L).depth);
+        assertFalse(graph.get(3L).isAtRisk());
+        assertEquals(List.of(2L), ids(graph.openBlockersOf(3L)));
+
+        graph.removeTask(2L);
+        assertEquals(1, graph.get(3L).depth);
+        assertEquals(List.of(3L), ids(graph.criticalPathTo(3L)));
+    }
+
+    @Test
+    void loadOrdersAnExistingGraph() {
+        List<TaskGraph.Node> nodes = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            nodes.add(node(id, Task.TaskStatus.PENDING, null));
+        }
+        TaskGraph graph = new TaskGraph();
+        graph.load(nodes, List.of(new Long[]{5L, 4L}, new Long[]{4L, 3L}, new Long[]{3L, 1L}, new Long[]{2L, 1L}));
+        assertOrdered(graph, List.of(5L, 4L, 3L, 1L));
+        assertEquals(4, graph.get(1L).depth);
+        assertEquals(List.of(5L, 4L, 3L, 1L), ids(graph.criticalPath()));
+    }
+
+    /**
+     * Random edges, status changes and removals, checked after every step against a
+     * from-scratch computation: cycles refused exactly when one would form, topological order
+     * kept, and every depth and projected finish as a full recompute gives them.
+     */
+    @Test
+    void randomizedChangesMatchAFullRecompute() {
+        Random random = new Random(11);
+        TaskGraph graph = new TaskGraph();
+        List<Long> ids = new ArrayList<>();
+        long nextId = 1;
+        for (; nextId <= 60; nextId++) {
+            graph.putTask(nextId, "Task " + nextId, Task.TaskStatus.PENDING, due(random));
+            ids.add(nextId);
+        }
+
+        for (int step = 0; step < 3000; step++) {
+            int action = random.nextInt(20);
+            Long a = ids.get(random.nextInt(ids.size()));
+            Long b = ids.get(random.nextInt(ids.size()));
+            if (action < 12) {
+                boolean wouldCycle = a.equals(b) || reaches(graph, b, a);
+                assertEquals(!wouldCycle, graph.addEdge(a, b), "edge " + a + " -> " + b);
+            } else if (action < 15) {
+                graph.removeEdge(a, b);
+            } else if (action < 18) {
+                Task.TaskStatus[] statuses = Task.TaskStatus.values();
+                graph.putTask(a, "Task " + a, statuses[random.nextInt(statuses.length)], due(random));
+            } else if (action < 19 && ids.size() > 10) {
+                graph.removeTask(a);
+                ids.remove(a);
+            } else {
+                graph.putTask(nextId, "Task " + nextId, Task.TaskStatus.PENDING, due(random));
+                ids.add(nextId++);
+            }
+            check(graph, ids);
+        }
+    }
+
+    private void check(TaskGraph graph, List<Long> ids) {
+        Set<Integer> orders = new HashSet<>();
+        Map<Long, Integer> depth = new HashMap<>();
+        Map<Long, LocalDateTime> projected = new HashMap<>();
+        for (Long id : ids) {
+            TaskGraph.Node node = graph.get(id);
+            assertTrue(orders.add(node.order), "two tasks share position " + node.order);
+            for (TaskGraph.Node blocked : node.blocking) {
+                assertTrue(node.order < blocked.order, node.taskId + " must come before " + blocked.taskId);
+            }
+            expected(node, depth, projected);
+            assertEquals(depth.get(id), node.depth, "depth of " + id);
+            assertEquals(projected.get(id), node.projectedFinish, "projected finish of " + id);
+        }
+    }
+
+    private void expected(TaskGraph.Node node, Map<Long, Integer> depth, Map<Long, LocalDateTime> projected) {
+        if (depth.containsKey(node.taskId)) {
+            return;
+        }
+        if (!node.isOpen()) {
+            depth.put(node.taskId, 0);
+            projected.put(node.taskId, null);
+            return;
+        }
+        int longest = 0;
+        LocalDateTime latest = node.dueDate;
+        for (TaskGraph.Node blocker : node.blockers) {
+            if (!blocker.isOpen()) {
+                continue;
+            }
+            expected(blocker, depth, projected);
+            longest = Math.max(longest, depth.get(blocker.taskId));
+            LocalDateTime finish = projected.get(blocker.taskId);
+            if (finish != null && (latest == null || finish.isAfter(latest))) {
+                latest = finish;
+            }
+        }
+        depth.put(node.taskId, longest + 1);
+        projected.put(node.taskId, latest);
+    }
+
+    private boolean reaches(TaskGraph graph, Long from, Long to) {
+        Set<TaskGraph.Node> seen = new HashSet<>();
+        Deque<TaskGraph.Node> pending = new ArrayDeque<>(List.of(graph.get(from)));
+        while (!pending.isEmpty()) {
+            TaskGraph.Node node = pending.poll();
+            if (node.taskId.equals(to)) {
+                return true;
+            }
+            for (TaskGraph.Node next : node.blocking) {
+                if (seen.add(next)) {
+                    pending.add(next);
+                }
+            }
+        }
+        return false;
+    }
+
+    private static LocalDateTime due(Random random) {
+        return random.nextInt(4) == 0 ? null : BASE.plusHours(random.nextInt(24 * 90));
+    }
+
+    private static void assertOrdered(TaskGraph graph, List<Long> expected) {
+        for (int i = 1; i < expected.size(); i++) {
+            assertTrue(graph.get(expected.get(i - 1)).order < graph.get(expected.get(i)).order,
+                    expected.get(i - 1) + " should come before " + expected.get(i));
+        }
+    }
+
+    private static TaskGraph graph(long... ids) {
+        TaskGraph graph = new TaskGraph();
+        for (long id : ids) {
+            graph.putTask(id, "Task " + id, Task.TaskStatus.PENDING, null);
+        }
+        return graph;
+    }
+
+    private static TaskGraph.Node node(Long id, Task.TaskStatus status, LocalDateTime dueDate) {
+        TaskGraph.Node node = new TaskGraph.Node(id);
+        node.title = "Task " + id;
+        node.status = status;
+        node.dueDate = dueDate;
+        return node;
+    }
+
+    private static List<Long> ids(List<TaskGraph.Node> nodes) {
+        return nodes.stream().map(node -> node.taskId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,132 @@
+package com.researchsync.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTests {
+
+    private static final long TICK = 1000;
+
+    @Test
+    void pastDeadlineIsNotHeld() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 10 * TICK);
+        assertFalse(wheel.schedule(1L, 10 * TICK));
+        assertFalse(wheel.schedule(1L, 9 * TICK + 500));
+        assertEquals(List.of(), wheel.advance(20 * TICK));
+    }
+
+    @Test
+    void deadlineFiresInItsOwnTick() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 0);
+        assertTrue(wheel.schedule(1L, 5 * TICK + 300));
+        assertEquals(List.of(), wheel.advance(5 * TICK - 1));
+        assertEquals(List.of(1L), wheel.advance(5 * TICK));
+        assertEquals(List.of(), wheel.advance(100 * TICK));
+    }
+
+    @Test
+    void cancelledAndRescheduledKeysFireOnlyAtTheirLatestDeadline() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 0);
+        wheel.schedule(1L, 100 * TICK);
+        wheel.schedule(2L, 100 * TICK);
+        wheel.schedule(2L, 5000 * TICK);
+        wheel.cancel(1L);
+        assertEquals(List.of(), wheel.advance(4999 * TICK));
+        assertEquals(List.of(2L), wheel.advance(5000 * TICK));
+    }
+
+    @Test
+    void expiredKeysComeEarliestFirst() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 0);
+        wheel.schedule(3L, 300_000 * TICK);
+        wheel.schedule(1L, 70 * TICK);
+        wheel.schedule(2L, 4_100 * TICK);
+        assertEquals(List.of(1L, 2L, 3L), wheel.advance(400_000 * TICK));
+    }
+
+    /**
+     * Many deadlines across every level, with cancels and reschedules as time moves on in
+     * uneven steps; each key must fire exactly once, in the step that reaches its deadline.
+     */
+    @Test
+    void randomizedDeadlinesFireOnTime() {
+        Random random = new Random(7);
+        long start = 1_700_000_000_000L;
+        long range = 50L * 24 * 3600 * TICK;
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, start);
+        Map<Long, Long> pending = new HashMap<>();
+
+        long now = start;
+        long nextKey = 0;
+        for (int i = 0; i < 20_000; i++) {
+            long deadline = now + 1 + (long) (random.nextDouble() * range);
+            assertTrue(wheel.schedule(nextKey, deadline));
+            pending.put(nextKey++, deadline / TICK);
+        }
+
+        List<Long> keys = new ArrayList<>(pending.keySet());
+        while (now < start + range + TICK) {
+            long previousTick = now / TICK;
+            now += 1 + (long) (random.nextDouble() * 6 * 3600 * TICK);
+            long currentTick = now / TICK;
+
+            long lastTick = Long.MIN_VALUE;
+            for (Long key : wheel.advance(now)) {
+                Long deadlineTick = pending.remove(key);
+                assertTrue(deadlineTick != null, "key " + key + " fired twice or after being cancelled");
+                assertTrue(deadlineTick > previousTick && deadlineTick <= currentTick,
+                        "key " + key + " due at tick " + deadlineTick + " fired in (" + previousTick + ", " + currentTick + "]");
+                assertTrue(deadlineTick >= lastTick, "out of order");
+                lastTick = deadlineTick;
+            }
+            for (Long key : pending.keySet()) {
+                assertTrue(pending.get(key) > currentTick, "key " + key + " is overdue but did not fire");
+            }
+
+            // Some pending keys are cancelled, some moved, and a few new ones added
+            for (int i = 0; i < 50 && !keys.isEmpty(); i++) {
+                Long key = keys.get(random.nextInt(keys.size()));
+                if (!pending.containsKey(key)) {
+                    continue;
+                }
+                if (random.nextBoolean()) {
+                    wheel.cancel(key);
+                    pending.remove(key);
+                } else {
+                    long deadline = now + 1 + (long) (random.nextDouble() * (start + range - now));
+                    if (wheel.schedule(key, deadline)) {
+                        pending.put(key, deadline / TICK);
+                    } else {
+                        pending.remove(key);
+                    }
+                }
+            }
+            for (int i = 0; i < 20; i++) {
+                long deadline = now + 1 + (long) (random.nextDouble() * range);
+                if (wheel.schedule(nextKey, deadline)) {
+                    pending.put(nextKey, deadline / TICK);
+                    keys.add(nextKey);
+                }
+                nextKey++;
+            }
+            if (now >= start + range) {
+                break;
+            }
+        }
+
+        // Whatever the last steps added fires once time runs past it
+        List<Long> rest = wheel.advance(now + 2 * range);
+        assertEquals(pending.keySet(), new HashSet<>(rest));
+        assertEquals(pending.size(), rest.size());
+    }
+}
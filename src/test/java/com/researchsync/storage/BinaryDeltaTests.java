@@ -0,0 +1,154 @@
+package com.researchsync.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryDeltaTests {
+
+    @TempDir
+    Path dir;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void identicalContentIsOneCopy() throws Exception {
+        byte[] base = randomBytes(200_000);
+        byte[] delta = encode(base, 0, base);
+        assertArrayEquals(base, apply(delta, base, 0));
+        // Magic, block size, the trailing partial block as a literal, one merged copy and END
+        int tail = base.length % BinaryDelta.blockSizeFor(base.length);
+        assertTrue(delta.length < 64 + tail, "delta of " + delta.length + " bytes");
+    }
+
+    @Test
+    void editsCostAboutTheirOwnSize() throws Exception {
+        byte[] base = randomBytes(500_000);
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        target.write(base, 0, 100_000);
+        target.write(randomBytes(300));               // insertion
+        target.write(base, 100_000, 150_000);
+        target.write(base, 260_000, 140_000);         // 10k deleted
+        byte[] changed = base.clone();
+        changed[450_000] ^= 0x55;                     // one flipped byte
+        target.write(changed, 400_000, 100_000);
+        target.write(randomBytes(1_000));             // appended
+
+        byte[] delta = encode(base, 0, target.toByteArray());
+        assertArrayEquals(target.toByteArray(), apply(delta, base, 0));
+        assertTrue(delta.length < 20_000, "delta of " + delta.length + " bytes");
+    }
+
+    @Test
+    void randomEditsRoundTrip() throws Exception {
+        for (int trial = 0; trial < 25; trial++) {
+            byte[] base = randomBytes(random.nextInt(120_000));
+            byte[] target = mutate(base);
+            byte[] delta = encode(base, 0, target);
+            assertArrayEquals(target, apply(delta, base, 0), "trial " + trial);
+        }
+    }
+
+    @Test
+    void targetLargerThanTheScanBufferRoundTrips() throws Exception {
+        // Matches have to survive the scan buffer being refilled mid-window
+        byte[] base = randomBytes(3 * 1024 * 1024 + 777);
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        target.write(randomBytes(1_048_570));
+        target.write(base, 0, base.length);
+        byte[] delta = encode(base, 0, target.toByteArray());
+        assertArrayEquals(target.toByteArray(), apply(delta, base, 0));
+        assertTrue(delta.length < 1_100_000, "delta of " + delta.length + " bytes");
+    }
+
+    @Test
+    void baseMayStartPartWayIntoItsFile() throws Exception {
+        byte[] base = randomBytes(80_000);
+        byte[] target = mutate(base);
+        byte[] delta = encode(base, 1234, target);
+        assertArrayEquals(target, apply(delta, base, 1234));
+    }
+
+    @Test
+    void emptyBaseOrTargetRoundTrips() throws Exception {
+        byte[] content = randomBytes(5_000);
+        assertArrayEquals(content, apply(encode(new byte[0], 0, content), new byte[0], 0));
+        assertArrayEquals(new byte[0], apply(encode(content, 0, new byte[0]), content, 0));
+    }
+
+    @Test
+    void foreignInputIsRejected() {
+        assertThrows(IOException.class, () -> apply("not a delta".getBytes(), new byte[0], 0));
+    }
+
+    private byte[] mutate(byte[] base) throws IOException {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < base.length) {
+            int run = Math.min(base.length - position, random.nextInt(20_000) + 1);
+            switch (random.nextInt(4)) {
+                case 0:
+                    target.write(randomBytes(random.nextInt(500)));
+                    target.write(base, position, run);
+                    break;
+                case 1:
+                    // Dropped
+                    break;
+                case 2:
+                    byte[] changed = Arrays.copyOfRange(base, position, position + run);
+                    changed[random.nextInt(run)] ^= 0x01;
+                    target.write(changed);
+                    break;
+                default:
+                    target.write(base, position, run);
+            }
+            position += run;
+        }
+        return target.toByteArray();
+    }
+
+    private byte[] encode(byte[] base, int offset, byte[] target) throws IOException {
+        ByteArrayOutputStream delta = new ByteArrayOutputStream();
+        try (FileChannel channel = baseChannel(base, offset)) {
+            BinaryDelta.encode(channel, offset, base.length, new ByteArrayInputStream(target), delta);
+        }
+        return delta.toByteArray();
+    }
+
+    private byte[] apply(byte[] delta, byte[] base, int offset) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (FileChannel channel = baseChannel(base, offset)) {
+            long written = BinaryDelta.apply(new ByteArrayInputStream(delta), channel, offset, out);
+            assertEquals(out.size(), written);
+        }
+        return out.toByteArray();
+    }
+
+    private FileChannel baseChannel(byte[] base, int offset) throws IOException {
+        Path file = Files.createTempFile(dir, "base-", ".bin");
+        byte[] content = new byte[offset + base.length];
+        System.arraycopy(base, 0, content, offset, base.length);
+        Files.write(file, content);
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
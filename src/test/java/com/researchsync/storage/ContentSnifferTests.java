@@ -0,0 +1,81 @@
+package com.researchsync.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContentSnifferTests {
+
+    private final ContentSniffer sniffer = new ContentSniffer();
+
+    @Test
+    void signaturesWinOverTheFileName() {
+        assertEquals("application/pdf", sniff(ascii("%PDF-1.7\n"), "report.docx"));
+        assertEquals("image/png", sniff(bytes(0x89, 'P', 'N', 'G', 0x0d, 0x0a, 0x1a, 0x0a, 0, 0), "photo.jpg"));
+        assertEquals("application/x-msdownload", sniff(ascii("MZ\u0090\u0000"), "notes.txt"));
+        assertEquals("application/x-hdf5", sniff(bytes(0x89, 'H', 'D', 'F', 0x0d, 0x0a, 0x1a, 0x0a), "run.h5"));
+    }
+
+    @Test
+    void containersAreNarrowedByExtension() {
+        byte[] zip = bytes('P', 'K', 0x03, 0x04, 0x14, 0x00);
+        assertEquals("application/vnd.openxmlformats-officedocument.wordprocessingml.document", sniff(zip, "Paper.DOCX"));
+        assertEquals("application/zip", sniff(zip, "paper.pdf"));
+        assertEquals("application/zip", sniff(zip, null));
+
+        byte[] riff = ascii("RIFF\u0000\u0000\u0000\u0000WAVEfmt ");
+        assertEquals("audio/wav", sniff(riff, "clip.webp"));
+
+        byte[] ole = bytes(0xd0, 0xcf, 0x11, 0xe0, 0xa1, 0xb1, 0x1a, 0xe1);
+        assertEquals("application/vnd.ms-excel", sniff(ole, "budget.xls"));
+        assertEquals("application/msword", sniff(ole, "budget"));
+    }
+
+    @Test
+    void textIsTypedByExtension() {
+        byte[] csv = "id,value\n1,2.5\n".getBytes(StandardCharsets.UTF_8);
+        assertEquals("text/csv", sniff(csv, "results.csv"));
+        assertEquals("text/plain", sniff(csv, "results.exe"));
+        assertEquals("text/x-shellscript", sniff(ascii("#!/bin/sh\necho hi\n"), "run.txt"));
+    }
+
+    @Test
+    void multiByteCharacterCutAtTheEndIsStillText() {
+        byte[] text = "Größe: 12 µm".getBytes(StandardCharsets.UTF_8);
+        // The sample ends between the two bytes of the final character
+        assertEquals("text/plain", sniffer.sniff(text, text.length - 1, "notes"));
+    }
+
+    @Test
+    void binaryAndEmptyContentIsOctetStream() {
+        assertEquals(ContentSniffer.OCTET_STREAM, sniff(bytes('a', 'b', 0x00, 'c'), "data.csv"));
+        assertEquals(ContentSniffer.OCTET_STREAM, sniff(bytes(0xc3, 0x28, 'x'), "data.csv"));
+        assertEquals(ContentSniffer.OCTET_STREAM, sniff(new byte[0], "empty.txt"));
+    }
+
+    @Test
+    void onlyTheFirstLengthBytesAreConsidered() {
+        byte[] header = Arrays.copyOf(ascii("%PDF-1.4"), ContentSniffer.HEADER_SIZE);
+        assertEquals("text/plain", sniffer.sniff(header, 3, "doc.pdf"));
+        assertEquals("application/pdf", sniffer.sniff(header, 8, "doc.pdf"));
+    }
+
+    private String sniff(byte[] content, String filename) {
+        return sniffer.sniff(content, content.length, filename);
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
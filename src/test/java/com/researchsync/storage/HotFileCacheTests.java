@@ -0,0 +1,115 @@
+package com.researchsync.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotFileCacheTests {
+
+    @TempDir
+    Path dir;
+
+    private HotFileCache cache;
+    private Path stored;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cache = new HotFileCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxSize", DataSize.ofBytes(100));
+        ReflectionTestUtils.setField(cache, "maxEntrySize", DataSize.ofBytes(60));
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        cache.init();
+
+        byte[] content = new byte[100];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        stored = Files.write(dir.resolve("stored"), content);
+    }
+
+    @Test
+    void missedBlobIsCachedWhileThereIsRoom() throws Exception {
+        assertNull(cache.get("a", 1L));
+        assertTrue(cache.shouldLoad("a", 40));
+        ByteBuffer loaded = cache.load("a", 1L, region(40));
+        assertEquals(40, loaded.remaining());
+
+        ByteBuffer hit = cache.get("a", 1L);
+        assertNotNull(hit);
+        assertEquals(39, hit.get(39));
+    }
+
+    @Test
+    void oversizedBlobIsNeverLoaded() {
+        assertFalse(cache.shouldLoad("big", 61));
+    }
+
+    @Test
+    void oneOffRequestCannotFlushPopularEntries() throws Exception {
+        request("a", 6);
+        cache.load("a", 1L, region(50));
+        request("b", 6);
+        cache.load("b", 2L, region(50));
+
+        assertNull(cache.get("c", 3L));
+        assertFalse(cache.shouldLoad("c", 50));
+        // The bytes still come back to serve from, they just are not kept
+        assertEquals(50, cache.load("c", 3L, region(50)).remaining());
+        assertNull(cache.get("c", 3L));
+        assertNotNull(cache.get("a", 1L));
+        assertNotNull(cache.get("b", 2L));
+    }
+
+    @Test
+    void frequentlyRequestedBlobEvictsTheLeastRecentlyUsed() throws Exception {
+        request("a", 1);
+        cache.load("a", 1L, region(50));
+        request("b", 1);
+        cache.load("b", 2L, region(50));
+
+        request("c", 10);
+        assertTrue(cache.shouldLoad("c", 50));
+        cache.load("c", 3L, region(50));
+
+        assertNotNull(cache.get("c", 3L));
+        assertNotNull(cache.get("b", 2L));
+        assertNull(cache.get("a", 1L));
+    }
+
+    @Test
+    void evictingOldContentKeepsARevisedFilesMapping() throws Exception {
+        request("old", 1);
+        cache.load("old", 7L, region(30));
+        // File 7 is revised and now served from other content
+        request("new", 1);
+        cache.load("new", 7L, region(30));
+
+        cache.invalidate("old");
+        cache.invalidateFile(7L);
+        assertNull(cache.get("new", 7L));
+    }
+
+    private void request(String hash, int times) {
+        for (int i = 0; i < times; i++) {
+            cache.get(hash, null);
+        }
+    }
+
+    private StoredRegion region(long length) {
+        return new StoredRegion(stored, 0, length);
+    }
+}
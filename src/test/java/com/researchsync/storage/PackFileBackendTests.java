@@ -0,0 +1,87 @@
+package com.researchsync.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackFileBackendTests {
+
+    private static final String HASH = "ab".repeat(32);
+
+    @TempDir
+    Path dir;
+
+    private PackFileBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        backend = new PackFileBackend();
+        ReflectionTestUtils.setField(backend, "enabled", true);
+        ReflectionTestUtils.setField(backend, "packDir", dir.toString());
+        ReflectionTestUtils.setField(backend, "maxBlobSize", DataSize.ofKilobytes(64));
+        // Small enough that the second entry starts a new segment
+        ReflectionTestUtils.setField(backend, "segmentSize", DataSize.ofBytes(100));
+    }
+
+    @Test
+    void openStreamDefersSegmentDeletion() throws Exception {
+        byte[] content = "pinned while read".getBytes(StandardCharsets.UTF_8);
+        String location = backend.prepare(HASH, null, staged(content));
+        backend.prepare(HASH, null, staged(content));
+        Path segment = dir.resolve("segment-00000001.pack");
+
+        InputStream in = backend.open(location);
+        backend.deleteSegment(1);
+        assertTrue(Files.exists(segment));
+        assertArrayEquals(content, in.readAllBytes());
+
+        in.close();
+        assertFalse(Files.exists(segment));
+        assertFalse(backend.contains(location));
+    }
+
+    @Test
+    void locatedRegionDefersSegmentDeletion() throws Exception {
+        String location = backend.prepare(HASH, null, staged(new byte[10]));
+        backend.prepare(HASH, null, staged(new byte[60]));
+        Path segment = dir.resolve("segment-00000001.pack");
+
+        try (StoredRegion region = backend.locate(location)) {
+            assertNotNull(region);
+            assertTrue(region.isPinned());
+            backend.deleteSegment(1);
+            assertTrue(Files.exists(segment));
+        }
+        assertFalse(Files.exists(segment));
+        assertNull(backend.locate(location));
+    }
+
+    @Test
+    void unreadSegmentIsDeletedAtOnce() throws Exception {
+        String location = backend.prepare(HASH, null, staged(new byte[10]));
+        try (InputStream in = backend.open(location)) {
+            in.readAllBytes();
+        }
+        backend.prepare(HASH, null, staged(new byte[60]));
+
+        backend.deleteSegment(1);
+        assertFalse(Files.exists(dir.resolve("segment-00000001.pack")));
+    }
+
+    private Path staged(byte[] content) throws Exception {
+        return Files.write(Files.createTempFile(dir, "staged-", ".tmp"), content);
+    }
+}